@@ -0,0 +1,300 @@
+import java.util.Arrays;
+
+/**
+ * Sorting machine of {@code double} entries, with the lifecycle of
+ * {@code SortingMachine}: entries are added in insertion mode, then removed
+ * in order in extraction mode. The entries are kept in a {@code double[]}
+ * and compared as by {@code Double.compare}, in ascending or descending
+ * order, so nothing is boxed and no {@code Comparator} is called; in
+ * ascending order -0.0 comes before 0.0, and NaN after every other value.
+ * Adding appends to the array, which doubles when full; changing to
+ * extraction mode builds a heap in the same array, bottom-up; removing moves
+ * a hole down from the root. Once the array is large enough, nothing is
+ * allocated.
+ *
+ * @mathmodel <pre>
+ * type DoubleSortingMachine is modeled by (
+ *   insertion_mode: boolean,
+ *   ascending: boolean,
+ *   contents: finite multiset of real
+ * )
+ * </pre>
+ * @initially <pre>
+ * (boolean ascending):
+ *  ensures
+ *   this = (true, ascending, {})
+ * </pre>
+ * @convention <pre>
+ * 0 <= $this.heapSize <= |$this.heap|  and
+ * if not $this.insertionMode then
+ *   [$this.heap[0, $this.heapSize) is a heap: no entry comes before its
+ *    parent in ascending order if $this.ascending, else descending order]
+ * </pre>
+ * @correspondence <pre>
+ * this = ($this.insertionMode, $this.ascending,
+ *   multiset_entries($this.heap[0, $this.heapSize)))
+ * </pre>
+ *
+ * @author Cody Yang and Bryce Putman
+ *
+ */
+public final class DoubleSortingMachine {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Capacity of the array when no capacity is given.
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * Whether entries are removed smallest first.
+     */
+    private final boolean ascending;
+
+    /**
+     * Insertion mode.
+     */
+    private boolean insertionMode;
+
+    /**
+     * Entries, in the order added in insertion mode and as a heap in
+     * extraction mode.
+     */
+    private double[] heap;
+
+    /**
+     * Number of entries.
+     */
+    private int heapSize;
+
+    /**
+     * Reports whether {@code x} comes strictly before {@code y} in the order
+     * of this machine.
+     *
+     * @param x
+     *            one entry
+     * @param y
+     *            the other entry
+     * @return true iff x comes before y
+     */
+    private boolean comesBefore(double x, double y) {
+        int comparison = Double.compare(x, y);
+        return this.ascending ? comparison < 0 : comparison > 0;
+    }
+
+    /**
+     * Sifts the root of the subtree of {@code this.heap} rooted at
+     * {@code top}, whose subtrees are heaps, down to make the subtree through
+     * entry {@code last} a heap. The root is held aside while the child
+     * coming first is moved up into the hole it leaves.
+     *
+     * @param top
+     *            the index of the root of the subtree
+     * @param last
+     *            the index of the last entry in the heap
+     * @updates this.heap
+     * @requires 0 <= top and last < |this.heap| and [both subtrees of top
+     *           are heaps through last]
+     * @ensures [the subtree rooted at top is a heap through last, with the
+     *          same entries]
+     */
+    private void siftDown(int top, int last) {
+        double root = this.heap[top];
+        int hole = top;
+        int child = 2 * hole + 1;
+        while (child <= last) {
+            // pick the right child instead if it is in heap and comes first
+            if (child < last && this.comesBefore(this.heap[child + 1],
+                    this.heap[child])) {
+                child++;
+            }
+            // stop once the root comes no later than the child
+            if (!this.comesBefore(this.heap[child], root)) {
+                break;
+            }
+            this.heap[hole] = this.heap[child];
+            hole = child;
+            child = 2 * hole + 1;
+        }
+        this.heap[hole] = root;
+    }
+
+    /**
+     * Checks that the convention holds for the current representation.
+     *
+     * @return true if the convention holds (or if assertion checking is off);
+     *         otherwise reports a violated assertion
+     */
+    private boolean conventionHolds() {
+        assert 0 <= this.heapSize
+                && this.heapSize <= this.heap.length : ""
+                        + "Violation of: 0 <= $this.heapSize <= |$this.heap|";
+        if (!this.insertionMode) {
+            for (int i = 1; i < this.heapSize; i++) {
+                assert !this.comesBefore(this.heap[i],
+                        this.heap[(i - 1) / 2]) : ""
+                                + "Violation of: $this.heap[0, $this.heapSize)"
+                                + " is a heap";
+            }
+        }
+        return true;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * Constructor from order.
+     *
+     * @param ascending
+     *            whether entries are removed smallest first
+     */
+    public DoubleSortingMachine(boolean ascending) {
+        this(ascending, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor from order and the number of entries expected, for which
+     * room is made up front.
+     *
+     * @param ascending
+     *            whether entries are removed smallest first
+     * @param initialCapacity
+     *            the number of entries expected
+     * @requires initialCapacity >= 0
+     */
+    public DoubleSortingMachine(boolean ascending, int initialCapacity) {
+        assert initialCapacity >= 0 : "Violation of: initialCapacity >= 0";
+
+        this.ascending = ascending;
+        this.insertionMode = true;
+        this.heap = new double[initialCapacity];
+        this.heapSize = 0;
+        assert this.conventionHolds();
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    /**
+     * Adds {@code x} to the contents of {@code this}.
+     *
+     * @param x
+     *            the element to be added
+     * @updates this.contents
+     * @requires this.insertion_mode
+     * @ensures this.contents = #this.contents union {x}
+     */
+    public void add(double x) {
+        assert this.insertionMode : "Violation of: this.insertion_mode";
+
+        // double the array when full
+        if (this.heapSize == this.heap.length) {
+            this.heap = Arrays.copyOf(this.heap,
+                    Math.max(DEFAULT_CAPACITY, 2 * this.heap.length));
+        }
+        this.heap[this.heapSize] = x;
+        this.heapSize++;
+
+        assert this.conventionHolds();
+    }
+
+    /**
+     * Changes the mode of {@code this} from insertion to extraction, building
+     * the heap bottom-up in O(|this.contents|) time.
+     *
+     * @updates this.insertion_mode
+     * @requires this.insertion_mode
+     * @ensures not this.insertion_mode
+     */
+    public void changeToExtractionMode() {
+        assert this.insertionMode : "Violation of: this.insertion_mode";
+
+        // sift down each entry with children, last one first
+        for (int top = this.heapSize / 2 - 1; top >= 0; top--) {
+            this.siftDown(top, this.heapSize - 1);
+        }
+        this.insertionMode = false;
+
+        assert this.conventionHolds();
+    }
+
+    /**
+     * Removes and returns some "first" ("smallest" if ascending, else
+     * "largest") entry from the contents of {@code this}.
+     *
+     * @return the entry removed
+     * @updates this.contents
+     * @requires not this.insertion_mode and this.contents /= {}
+     * @ensures <pre>
+     * removeFirst is in #this.contents  and
+     * this.contents = #this.contents \ {removeFirst}  and
+     * for all x: real where (x is in this.contents)
+     *   (removeFirst comes no later than x in the order of this)
+     * </pre>
+     */
+    public double removeFirst() {
+        assert !this.insertionMode : "Violation of: not this.insertion_mode";
+        assert this.heapSize > 0 : "Violation of: this.contents /= {}";
+
+        // move last entry to the root and sift it down
+        double first = this.heap[0];
+        this.heapSize--;
+        this.heap[0] = this.heap[this.heapSize];
+        this.siftDown(0, this.heapSize - 1);
+
+        assert this.conventionHolds();
+
+        return first;
+    }
+
+    /**
+     * Reports whether {@code this} is in insertion mode.
+     *
+     * @return true iff this is in insertion mode
+     * @ensures isInInsertionMode = this.insertion_mode
+     */
+    public boolean isInInsertionMode() {
+        return this.insertionMode;
+    }
+
+    /**
+     * Reports whether entries are removed smallest first.
+     *
+     * @return true iff this is in ascending order
+     * @ensures isAscending = this.ascending
+     */
+    public boolean isAscending() {
+        return this.ascending;
+    }
+
+    /**
+     * Reports the number of entries in {@code this}.
+     *
+     * @return the (multiset) size of this.contents
+     * @ensures size = |this.contents|
+     */
+    public int size() {
+        return this.heapSize;
+    }
+
+    /**
+     * Resets {@code this} to insertion mode with no entries, keeping its
+     * array for reuse.
+     *
+     * @clears this
+     * @ensures this = (true, #this.ascending, {})
+     */
+    public void clear() {
+        this.insertionMode = true;
+        this.heapSize = 0;
+
+        assert this.conventionHolds();
+    }
+
+}
@@ -1,15 +1,49 @@
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
-import components.queue.Queue;
-import components.queue.Queue1L;
 import components.sortingmachine.SortingMachine;
 import components.sortingmachine.SortingMachineSecondary;
 
 /**
- * {@code SortingMachine} represented as a {@code Queue} and an array (using an
- * embedding of heap sort), with implementations of primary methods.
+ * {@code SortingMachine} represented as an array (using an embedding of heap
+ * sort), with implementations of primary methods.
+ *
+ * <p>
+ * While inserting, entries are appended to the array, which doubles when
+ * full, and changing to extraction mode turns the array into a heap where it
+ * lies, so nothing is allocated per entry and no entry is copied out of a
+ * staging structure. When the number of entries to come is known,
+ * {@code ensureCapacity} makes room for them up front.
+ * </p>
+ *
+ * <p>
+ * An unbounded machine with many entries is usually drained in full, which
+ * a heap does one entry at a time on one thread. So when such a machine
+ * changes to extraction mode, it sorts its entries instead, with a parallel
+ * merge sort on the common fork/join pool, last first; removing then takes
+ * the entry at the end of the array, in O(1) time.
+ * </p>
+ *
+ * <p>
+ * A machine constructed with a capacity is bounded: it keeps only the
+ * {@code capacity} entries that come first in its order, such as the K most
+ * frequent words for a comparator putting higher counts first. While
+ * inserting, the kept entries are held in a heap under the reverse order, so
+ * the root is the entry to evict when a better one is added; adding takes
+ * O(log capacity) time and the machine O(capacity) space however many entries
+ * are added.
+ * </p>
+ *
+ * <p>
+ * A machine constructed with an arity keeps its heap as a complete tree in
+ * which each entry has that many children, rather than two. A wider heap is
+ * shallower, so removing an entry moves it through fewer levels, each of
+ * which compares the children lying next to each other in the array; with
+ * arity 4 or 8 a long run of {@code removeFirst} calls touches fewer
+ * scattered parts of the array, at the cost of more comparisons per level.
+ * </p>
  *
  * @param <T>
  *            type of {@code SortingMachine} entries
@@ -25,39 +59,50 @@ import components.sortingmachine.SortingMachineSecondary;
  *   a: string of T,
  *   start: integer,
  *   stop: integer,
+ *   d: integer,
  *   r: binary relation on T
  *  ) : boolean is
- *  [the subtree of a (when a is interpreted as a complete binary tree) rooted
+ *  [the subtree of a (when a is interpreted as a complete d-ary tree, the
+ *   children of index i being indices d * i + 1 through d * i + d) rooted
  *   at index start and only through entry stop of a satisfies the heap
  *   ordering property according to the relation r]
  *
  * SUBTREE_ARRAY_ENTRIES (
  *   a: string of T,
  *   start: integer,
- *   stop: integer
+ *   stop: integer,
+ *   d: integer
  *  ) : finite multiset of T is
  *  [the multiset of entries in a that belong to the subtree of a
- *   (when a is interpreted as a complete binary tree) rooted at
+ *   (when a is interpreted as a complete d-ary tree) rooted at
  *   index start and only through entry stop]
  * </pre>
  * @convention <pre>
  * IS_TOTAL_PREORDER([relation computed by $this.machineOrder.compare method]  and
+ * $this.evictionOrder = [reverse of $this.machineOrder]  and
+ * ($this.capacity = UNBOUNDED  or  $this.capacity > 0)  and
+ * $this.arity >= 2  and
+ * 0 <= $this.heapSize <= |$this.heap|  and
+ * for all i: integer
+ *     where (0 <= i  and  i < $this.heapSize)
+ *   ([entry at position i in $this.heap is not null])  and
  * if $this.insertionMode then
- *   $this.heapSize = 0
+ *   not $this.sorted  and
+ *   if $this.capacity /= UNBOUNDED then
+ *     |$this.heap| = $this.capacity  and
+ *     SUBTREE_IS_HEAP($this.heap, 0, $this.heapSize - 1, $this.arity,
+ *       [relation computed by $this.evictionOrder.compare method])
+ * else if $this.sorted then
+ *   $this.capacity = UNBOUNDED  and
+ *   [$this.heap[0, $this.heapSize) is sorted by the relation computed by
+ *    $this.evictionOrder.compare method, its last entry coming first]
  * else
- *   $this.entries = <>  and
- *   for all i: integer
- *       where (0 <= i  and  i < |$this.heap|)
- *     ([entry at position i in $this.heap is not null])  and
- *   SUBTREE_IS_HEAP($this.heap, 0, $this.heapSize - 1,
- *     [relation computed by $this.machineOrder.compare method])  and
- *   0 <= $this.heapSize <= |$this.heap|
+ *   SUBTREE_IS_HEAP($this.heap, 0, $this.heapSize - 1, $this.arity,
+ *     [relation computed by $this.machineOrder.compare method])
  * </pre>
  * @correspondence <pre>
- * if $this.insertionMode then
- *   this = (true, $this.machineOrder, multiset_entries($this.entries))
- * else
- *   this = (false, $this.machineOrder, multiset_entries($this.heap[0, $this.heapSize)))
+ * this = ($this.insertionMode, $this.machineOrder,
+ *   multiset_entries($this.heap[0, $this.heapSize)))
  * </pre>
  *
  * @author Cody Yang and Bryce Putman
@@ -69,23 +114,63 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
      * Private members --------------------------------------------------------
      */
 
+    /**
+     * Capacity of a machine which keeps every entry added.
+     */
+    public static final int UNBOUNDED = 0;
+
+    /**
+     * Arity of the heap when no arity is given: a binary heap.
+     */
+    private static final int BINARY = 2;
+
+    /**
+     * Length of the array of an unbounded machine once it first grows.
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * Fewest entries of an unbounded machine sorted, rather than heapified,
+     * when changing to extraction mode; {@code Arrays.parallelSort} sorts
+     * fewer than this on one thread anyway.
+     */
+    private static final int PARALLEL_SORT_THRESHOLD = 1 << 13;
+
     /**
      * Order.
      */
     private Comparator<T> machineOrder;
 
+    /**
+     * Reverse of the order, under which the root of the insertion heap of a
+     * bounded machine is the kept entry to evict first.
+     */
+    private Comparator<T> evictionOrder;
+
+    /**
+     * Most entries kept, or UNBOUNDED.
+     */
+    private int capacity;
+
+    /**
+     * Number of children of each entry of the heap.
+     */
+    private int arity;
+
     /**
      * Insertion mode.
      */
     private boolean insertionMode;
 
     /**
-     * Entries.
+     * Whether the entries are sorted, last first, rather than a heap, in
+     * extraction mode.
      */
-    private Queue<T> entries;
+    private boolean sorted;
 
     /**
-     * Heap.
+     * Entries, in the order added while an unbounded machine is inserting and
+     * as a heap otherwise.
      */
     private T[] heap;
 
@@ -127,195 +212,206 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
     }
 
     /**
-     * Given an array that represents a complete binary tree and an index
-     * referring to the root of a subtree that would be a heap except for its
-     * root, sifts the root down to turn that whole subtree into a heap.
+     * Given an array that represents a complete tree of the given arity and an
+     * index referring to the root of a subtree that would be a heap except for
+     * its root, sifts the root down to turn that whole subtree into a heap.
+     * The root is held aside while the first of the children of the hole it
+     * leaves is moved up, level by level, so each level costs one move rather
+     * than an exchange, and the root is stored once where the hole stops.
      *
      * @param <T>
      *            type of array entries
      * @param array
-     *            the complete binary tree
+     *            the complete tree
      * @param top
      *            the index of the root of the "subtree"
      * @param last
      *            the index of the last entry in the heap
+     * @param arity
+     *            the number of children of each entry of the tree
      * @param order
      *            total preorder for sorting
      * @updates array
      * @requires <pre>
-     * 0 <= top  and  last < |array|  and
+     * 0 <= top  and  last < |array|  and  arity >= 2  and
      * for all i: integer
-     *     where (0 <= i  and  i < |array|)
+     *     where (0 <= i  and  i <= last)
      *   ([entry at position i in array is not null])  and
-     * [subtree rooted at {@code top} is a complete binary tree]  and
-     * SUBTREE_IS_HEAP(array, 2 * top + 1, last,
-     *     [relation computed by order.compare method])  and
-     * SUBTREE_IS_HEAP(array, 2 * top + 2, last,
-     *     [relation computed by order.compare method])  and
+     * [subtree rooted at {@code top} is a complete tree of the arity]  and
+     * for all c: integer
+     *     where (arity * top + 1 <= c  and  c <= arity * top + arity)
+     *   (SUBTREE_IS_HEAP(array, c, last, arity,
+     *     [relation computed by order.compare method]))  and
      * IS_TOTAL_PREORDER([relation computed by order.compare method])
      * </pre>
      * @ensures <pre>
-     * SUBTREE_IS_HEAP(array, top, last,
+     * SUBTREE_IS_HEAP(array, top, last, arity,
      *     [relation computed by order.compare method])  and
      * perms(array, #array)  and
-     * SUBTREE_ARRAY_ENTRIES(array, top, last) =
-     *  SUBTREE_ARRAY_ENTRIES(#array, top, last)  and
+     * SUBTREE_ARRAY_ENTRIES(array, top, last, arity) =
+     *  SUBTREE_ARRAY_ENTRIES(#array, top, last, arity)  and
      * [the other entries in array are the same as in #array]
      * </pre>
      */
-    private static <T> void siftDown(T[] array, int top, int last,
+    private static <T> void siftDown(T[] array, int top, int last, int arity,
             Comparator<T> order) {
         assert array != null : "Violation of: array is not null";
         assert order != null : "Violation of: order is not null";
         assert 0 <= top : "Violation of: 0 <= top";
         assert last < array.length : "Violation of: last < |array|";
-        for (int i = 0; i < array.length; i++) {
-            assert array[i] != null : ""
-                    + "Violation of: all entries in array are not null";
+        assert arity >= 2 : "Violation of: arity >= 2";
+        for (int c = arity * top + 1; c <= arity * top + arity; c++) {
+            assert isHeap(array, c, last, arity, order) : ""
+                    + "Violation of: SUBTREE_IS_HEAP(array, c, last, arity,"
+                    + " [relation computed by order.compare method])"
+                    + " for each child c of top";
         }
-        assert isHeap(array, 2 * top + 1, last, order) : ""
-                + "Violation of: SUBTREE_IS_HEAP(array, 2 * top + 1, last,"
-                + " [relation computed by order.compare method])";
-        assert isHeap(array, 2 * top + 2, last, order) : ""
-                + "Violation of: SUBTREE_IS_HEAP(array, 2 * top + 2, last,"
-                + " [relation computed by order.compare method])";
         /*
-         * Impractical to check last requires clause; no need to check the other
-         * requires clause, because it must be true when using the array
-         * representation for a complete binary tree.
+         * Impractical to check last requires clause; the entries through last
+         * are checked to be not null by isHeap above, rather than in a loop on
+         * every call. No need to check the other requires clause, because it
+         * must be true when using the array representation for a complete
+         * tree.
          */
 
-        // get indices of left and right children
-        int leftChild = top * 2 + 1;
-        int rightChild = top * 2 + 2;
-
-        // set smallerChild to left as default to swap and sift down subtree
-        int smallerChild = leftChild;
-
-        // check if left child is in heap
-        if (leftChild <= last) {
-            // check if right child is in heap
-            if (rightChild <= last) {
-                // check if right child is less than left child
-                if (order.compare(array[rightChild], array[leftChild]) < 0) {
-                    // set smallerChild to right, as it is smaller
-                    smallerChild = rightChild;
+        // hold the root aside, leaving a hole at top
+        T root = array[top];
+        int hole = top;
+
+        // index of the first child of the hole, while it is in heap
+        int child = arity * hole + 1;
+        while (child <= last) {
+            // pick the smallest of the children in heap, which lie together
+            int smallest = child;
+            int stop = Math.min(child + arity - 1, last);
+            for (int c = child + 1; c <= stop; c++) {
+                if (order.compare(array[c], array[smallest]) < 0) {
+                    smallest = c;
                 }
             }
-            // check if smaller child is less than top
-            if (order.compare(array[smallerChild], array[top]) < 0) {
-                // swap child and sift down subtree which is least
-                exchangeEntries(array, smallerChild, top);
-                siftDown(array, smallerChild, last, order);
+            // stop once the root belongs above the smallest child
+            if (order.compare(array[smallest], root) >= 0) {
+                break;
             }
+            // move smallest child up into the hole
+            array[hole] = array[smallest];
+            hole = smallest;
+            child = arity * hole + 1;
         }
+
+        // fill the hole with the root
+        array[hole] = root;
     }
 
     /**
-     * Heapifies the subtree of the given array rooted at the given {@code top}.
+     * Given an array that represents a complete tree of the given arity which
+     * is a heap through entry {@code bottom - 1}, sifts the entry at
+     * {@code bottom} up to turn the tree through entry {@code bottom} into a
+     * heap.
      *
      * @param <T>
      *            type of array entries
      * @param array
-     *            the complete binary tree
-     * @param top
-     *            the index of the root of the "subtree" to heapify
+     *            the complete tree
+     * @param bottom
+     *            the index of the entry to sift up, the last in the heap
+     * @param arity
+     *            the number of children of each entry of the tree
      * @param order
-     *            the total preorder for sorting
+     *            total preorder for sorting
      * @updates array
      * @requires <pre>
-     * 0 <= top  and
+     * 0 <= bottom < |array|  and  arity >= 2  and
      * for all i: integer
-     *     where (0 <= i  and  i < |array|)
+     *     where (0 <= i  and  i <= bottom)
      *   ([entry at position i in array is not null])  and
-     * [subtree rooted at {@code top} is a complete binary tree]  and
+     * SUBTREE_IS_HEAP(array, 0, bottom - 1, arity,
+     *     [relation computed by order.compare method])  and
      * IS_TOTAL_PREORDER([relation computed by order.compare method])
      * </pre>
      * @ensures <pre>
-     * SUBTREE_IS_HEAP(array, top, |array| - 1,
+     * SUBTREE_IS_HEAP(array, 0, bottom, arity,
      *     [relation computed by order.compare method])  and
-     * perms(array, #array)
+     * perms(array, #array)  and
+     * [the entries after bottom are the same as in #array]
      * </pre>
      */
-    private static <T> void heapify(T[] array, int top, Comparator<T> order) {
+    private static <T> void siftUp(T[] array, int bottom, int arity,
+            Comparator<T> order) {
         assert array != null : "Violation of: array is not null";
         assert order != null : "Violation of: order is not null";
-        assert 0 <= top : "Violation of: 0 <= top";
-        for (int i = 0; i < array.length; i++) {
-            assert array[i] != null : ""
-                    + "Violation of: all entries in array are not null";
-        }
-        /*
-         * Impractical to check last requires clause; no need to check the other
-         * requires clause, because it must be true when using the array
-         * representation for a complete binary tree.
-         */
-
-        // store indices of left and right children
-        int leftChild = top * 2 + 1;
-        int rightChild = top * 2 + 2;
-
-        // heapify left subtree and sift down if left child is in tree
-        if (leftChild < array.length) {
-            heapify(array, leftChild, order);
+        assert 0 <= bottom : "Violation of: 0 <= bottom";
+        assert bottom < array.length : "Violation of: bottom < |array|";
+        assert arity >= 2 : "Violation of: arity >= 2";
+        assert isHeap(array, 0, bottom - 1, arity, order) : ""
+                + "Violation of: SUBTREE_IS_HEAP(array, 0, bottom - 1, arity,"
+                + " [relation computed by order.compare method])";
 
-            // heapify right subtree if right child is in tree
-            if (rightChild < array.length) {
-                heapify(array, rightChild, order);
-            }
-            // move root to correct spot
-            siftDown(array, top, array.length - 1, order);
+        // move parents down into the hole while the entry belongs above them
+        T entry = array[bottom];
+        int hole = bottom;
+        while (hole > 0
+                && order.compare(entry, array[(hole - 1) / arity]) < 0) {
+            array[hole] = array[(hole - 1) / arity];
+            hole = (hole - 1) / arity;
         }
+
+        // fill the hole with the entry
+        array[hole] = entry;
     }
 
     /**
-     * Constructs and returns an array representing a heap with the entries from
-     * the given {@code Queue}.
+     * Heapifies the first {@code size} entries of the given array, bottom-up
+     * (Floyd's method): every subtree rooted at an entry with children is
+     * sifted down, from the last such entry back to the root, so all subtrees
+     * of an entry are heaps by the time it is sifted down. This takes
+     * O(size) time and no recursion.
      *
      * @param <T>
-     *            type of {@code Queue} and array entries
-     * @param q
-     *            the {@code Queue} with the entries for the heap
+     *            type of array entries
+     * @param array
+     *            the complete tree
+     * @param size
+     *            the number of entries to heapify
+     * @param arity
+     *            the number of children of each entry of the tree
      * @param order
      *            the total preorder for sorting
-     * @return the array representation of a heap
-     * @clears q
-     * @requires IS_TOTAL_PREORDER([relation computed by order.compare method])
-     * @ensures <pre>
-     * SUBTREE_IS_HEAP(buildHeap, 0, |buildHeap| - 1)  and
-     * perms(buildHeap, #q)  and
+     * @updates array
+     * @requires <pre>
+     * 0 <= size <= |array|  and  arity >= 2  and
      * for all i: integer
-     *     where (0 <= i  and  i < |buildHeap|)
-     *   ([entry at position i in buildHeap is not null])  and
+     *     where (0 <= i  and  i < size)
+     *   ([entry at position i in array is not null])  and
+     * IS_TOTAL_PREORDER([relation computed by order.compare method])
+     * </pre>
+     * @ensures <pre>
+     * SUBTREE_IS_HEAP(array, 0, size - 1, arity,
+     *     [relation computed by order.compare method])  and
+     * perms(array[0, size), #array[0, size))  and
+     * [the entries after size - 1 are the same as in #array]
      * </pre>
      */
-    @SuppressWarnings("unchecked")
-    private static <T> T[] buildHeap(Queue<T> q, Comparator<T> order) {
-        assert q != null : "Violation of: q is not null";
+    private static <T> void heapify(T[] array, int size, int arity,
+            Comparator<T> order) {
+        assert array != null : "Violation of: array is not null";
         assert order != null : "Violation of: order is not null";
+        assert 0 <= size : "Violation of: 0 <= size";
+        assert size <= array.length : "Violation of: size <= |array|";
+        assert arity >= 2 : "Violation of: arity >= 2";
+        for (int i = 0; i < size; i++) {
+            assert array[i] != null : ""
+                    + "Violation of: entries before size are not null";
+        }
         /*
-         * Impractical to check the requires clause.
-         */
-        /*
-         * With "new T[...]" in place of "new Object[...]" it does not compile;
-         * as shown, it results in a warning about an unchecked cast, though it
-         * cannot fail.
+         * Impractical to check last requires clause.
          */
-        T[] heap = (T[]) (new Object[q.length()]);
-
-        // starting index of heap
-        int i = 0;
 
-        // fill heap with elements in queue
-        while (q.length() > 0) {
-            heap[i] = q.dequeue();
-            i++;
+        // sift down each entry with children, last one first (fewer than
+        // two entries have none, though (size - 2) / arity rounds to 0)
+        for (int top = (size - 2) / arity; size > 1 && top >= 0; top--) {
+            siftDown(array, top, size - 1, arity, order);
         }
-
-        // heapify the filled array
-        heapify(heap, 0, order);
-
-        return heap;
     }
 
     /**
@@ -325,50 +421,56 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
      * @param <T>
      *            type of array entries
      * @param array
-     *            the complete binary tree
+     *            the complete tree
      * @param top
      *            the index of the root of the "subtree"
      * @param last
      *            the index of the last entry in the heap
+     * @param arity
+     *            the number of children of each entry of the tree
      * @param order
      *            total preorder for sorting
      * @return true if the subtree of the given {@code array} rooted at the
      *         given {@code top} is a heap; false otherwise
      * @requires <pre>
-     * 0 <= top  and  last < |array|  and
+     * 0 <= top  and  last < |array|  and  arity >= 2  and
      * for all i: integer
-     *     where (0 <= i  and  i < |array|)
+     *     where (0 <= i  and  i <= last)
      *   ([entry at position i in array is not null])  and
-     * [subtree rooted at {@code top} is a complete binary tree]
+     * [subtree rooted at {@code top} is a complete tree of the arity]
      * </pre>
      * @ensures <pre>
-     * isHeap = SUBTREE_IS_HEAP(array, top, last,
+     * isHeap = SUBTREE_IS_HEAP(array, top, last, arity,
      *     [relation computed by order.compare method])
      * </pre>
      */
     private static <T> boolean isHeap(T[] array, int top, int last,
-            Comparator<T> order) {
+            int arity, Comparator<T> order) {
         assert array != null : "Violation of: array is not null";
         assert 0 <= top : "Violation of: 0 <= top";
         assert last < array.length : "Violation of: last < |array|";
-        for (int i = 0; i < array.length; i++) {
-            assert array[i] != null : ""
-                    + "Violation of: all entries in array are not null";
-        }
+        assert arity >= 2 : "Violation of: arity >= 2";
         /*
          * No need to check the other requires clause, because it must be true
-         * when using the Array representation for a complete binary tree.
+         * when using the Array representation for a complete tree.
          */
-        int left = 2 * top + 1;
+
+        // check each level of the subtree in turn, from the top down
         boolean isHeap = true;
-        if (left <= last) {
-            isHeap = (order.compare(array[top], array[left]) <= 0)
-                    && isHeap(array, left, last, order);
-            int right = left + 1;
-            if (isHeap && (right <= last)) {
-                isHeap = (order.compare(array[top], array[right]) <= 0)
-                        && isHeap(array, right, last, order);
+        long first = top;
+        long end = top;
+        while (isHeap && first <= last) {
+            for (int i = (int) first; isHeap && i <= Math.min(end, last); i++) {
+                assert array[i] != null : ""
+                        + "Violation of: entries through last are not null";
+                long stop = Math.min((long) arity * i + arity, last);
+                for (long c = (long) arity * i + 1; isHeap && c <= stop; c++) {
+                    isHeap = order.compare(array[i], array[(int) c]) <= 0;
+                }
             }
+            // move to the entries of the next level of the subtree
+            first = arity * first + 1;
+            end = arity * end + arity;
         }
         return isHeap;
     }
@@ -380,41 +482,76 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
      * @return true if the convention holds (or if assertion checking is off);
      *         otherwise reports a violated assertion
      * @convention <pre>
+     * ($this.capacity = UNBOUNDED  or  $this.capacity > 0)  and
+     * $this.arity >= 2  and
+     * 0 <= $this.heapSize <= |$this.heap|  and
+     * for all i: integer
+     *     where (0 <= i  and  i < $this.heapSize)
+     *   ([entry at position i in $this.heap is not null])  and
      * if $this.insertionMode then
-     *   $this.heapSize = 0
+     *   not $this.sorted  and
+     *   if $this.capacity /= UNBOUNDED then
+     *     |$this.heap| = $this.capacity  and
+     *     SUBTREE_IS_HEAP($this.heap, 0, $this.heapSize - 1, $this.arity,
+     *       [relation computed by $this.evictionOrder.compare method])
+     * else if $this.sorted then
+     *   $this.capacity = UNBOUNDED  and
+     *   [$this.heap[0, $this.heapSize) is sorted by the relation computed by
+     *    $this.evictionOrder.compare method, its last entry coming first]
      * else
-     *   $this.entries = <>  and
-     *   for all i: integer
-     *       where (0 <= i  and  i < |$this.heap|)
-     *     ([entry at position i in $this.heap is not null])  and
-     *   SUBTREE_IS_HEAP($this.heap, 0, $this.heapSize - 1,
-     *     [relation computed by $this.machineOrder.compare method])  and
-     *   0 <= $this.heapSize <= |$this.heap|
+     *   SUBTREE_IS_HEAP($this.heap, 0, $this.heapSize - 1, $this.arity,
+     *     [relation computed by $this.machineOrder.compare method])
      * </pre>
      */
     private boolean conventionHolds() {
+        assert this.capacity == UNBOUNDED || this.capacity > 0 : ""
+                + "Violation of: $this.capacity = UNBOUNDED or"
+                + " $this.capacity > 0";
+        assert this.arity >= 2 : "Violation of: $this.arity >= 2";
+        assert 0 <= this.heapSize
+                && this.heapSize <= this.heap.length : ""
+                        + "Violation of: 0 <= $this.heapSize <= |$this.heap|";
+        for (int i = 0; i < this.heapSize; i++) {
+            assert this.heap[i] != null : ""
+                    + "Violation of: entries in $this.heap before"
+                    + " $this.heapSize are not null";
+        }
         if (this.insertionMode) {
-            assert this.heapSize == 0 : ""
-                    + "Violation of: if $this.insertionMode then $this.heapSize = 0";
-        } else {
-            assert this.entries.length() == 0 : ""
-                    + "Violation of: if not $this.insertionMode then $this.entries = <>";
-            assert 0 <= this.heapSize : ""
-                    + "Violation of: if not $this.insertionMode then 0 <= $this.heapSize";
-            assert this.heapSize <= this.heap.length : ""
-                    + "Violation of: if not $this.insertionMode then"
-                    + " $this.heapSize <= |$this.heap|";
-            for (int i = 0; i < this.heap.length; i++) {
-                assert this.heap[i] != null : ""
-                        + "Violation of: if not $this.insertionMode then"
-                        + " all entries in $this.heap are not null";
+            assert !this.sorted : ""
+                    + "Violation of: if $this.insertionMode then"
+                    + " not $this.sorted";
+        }
+        if (this.insertionMode && this.capacity != UNBOUNDED) {
+            assert this.heap.length == this.capacity : ""
+                    + "Violation of: if bounded $this.insertionMode then"
+                    + " |$this.heap| = $this.capacity";
+            assert isHeap(this.heap, 0, this.heapSize - 1, this.arity,
+                    this.evictionOrder) : ""
+                            + "Violation of: if bounded"
+                            + " $this.insertionMode then"
+                            + " SUBTREE_IS_HEAP($this.heap, 0,"
+                            + " $this.heapSize - 1, $this.arity,"
+                            + " [relation computed by"
+                            + " $this.evictionOrder.compare method])";
+        } else if (!this.insertionMode && this.sorted) {
+            assert this.capacity == UNBOUNDED : ""
+                    + "Violation of: if $this.sorted then"
+                    + " $this.capacity = UNBOUNDED";
+            for (int i = 1; i < this.heapSize; i++) {
+                assert this.evictionOrder.compare(this.heap[i - 1],
+                        this.heap[i]) <= 0 : ""
+                                + "Violation of: if $this.sorted then"
+                                + " $this.heap[0, $this.heapSize) is sorted"
+                                + " by $this.evictionOrder";
             }
-            assert isHeap(this.heap, 0, this.heapSize - 1,
+        } else if (!this.insertionMode) {
+            assert isHeap(this.heap, 0, this.heapSize - 1, this.arity,
                     this.machineOrder) : ""
                             + "Violation of: if not $this.insertionMode then"
-                            + " SUBTREE_IS_HEAP($this.heap, 0, $this.heapSize - 1,"
-                            + " [relation computed by $this.machineOrder.compare"
-                            + " method])";
+                            + " SUBTREE_IS_HEAP($this.heap, 0,"
+                            + " $this.heapSize - 1, $this.arity,"
+                            + " [relation computed by"
+                            + " $this.machineOrder.compare method])";
         }
         return true;
     }
@@ -424,20 +561,42 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
      *
      * @param order
      *            total preorder for sorting
-     * @requires IS_TOTAL_PREORDER([relation computed by order.compare method]
+     * @param capacity
+     *            most entries kept, or UNBOUNDED
+     * @param arity
+     *            number of children of each entry of the heap
+     * @requires <pre>
+     * IS_TOTAL_PREORDER([relation computed by order.compare method]  and
+     * (capacity = UNBOUNDED  or  capacity > 0)  and
+     * arity >= 2
+     * </pre>
      * @ensures <pre>
      * $this.insertionMode = true  and
+     * $this.sorted = false  and
      * $this.machineOrder = order  and
-     * $this.entries = <>  and
-     * $this.heapSize = 0
+     * $this.evictionOrder = [reverse of order]  and
+     * $this.capacity = capacity  and
+     * $this.arity = arity  and
+     * $this.heapSize = 0  and
+     * if capacity /= UNBOUNDED then |$this.heap| = capacity
      * </pre>
      */
-    private void createNewRep(Comparator<T> order) {
+    @SuppressWarnings("unchecked")
+    private void createNewRep(Comparator<T> order, int capacity, int arity) {
 
         this.insertionMode = true;
+        this.sorted = false;
         this.machineOrder = order;
-        this.entries = new Queue1L<T>();
+        this.evictionOrder = order.reversed();
+        this.capacity = capacity;
+        this.arity = arity;
         this.heapSize = 0;
+
+        /*
+         * a bounded machine inserts straight into its heap, of fixed length;
+         * an unbounded one starts with an empty array, grown as entries come
+         */
+        this.heap = (T[]) (new Object[capacity]);
     }
 
     /*
@@ -451,7 +610,52 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
      *            total preorder for sorting
      */
     public SortingMachine5a(Comparator<T> order) {
-        this.createNewRep(order);
+        this.createNewRep(order, UNBOUNDED, BINARY);
+        assert this.conventionHolds();
+    }
+
+    /**
+     * Constructor from order and capacity, of a bounded machine which keeps
+     * only the {@code capacity} entries added that come first in
+     * {@code order}: when full, adding an entry evicts the last entry kept if
+     * the new one comes before it, and is otherwise ignored.
+     *
+     * @param order
+     *            total preorder for sorting
+     * @param capacity
+     *            most entries kept
+     * @requires capacity > 0
+     */
+    public SortingMachine5a(Comparator<T> order, int capacity) {
+        assert capacity > 0 : "Violation of: capacity > 0";
+
+        this.createNewRep(order, capacity, BINARY);
+        assert this.conventionHolds();
+    }
+
+    /**
+     * Constructor from order, capacity and arity, of a machine whose heap is
+     * a complete tree in which each entry has {@code arity} children. Each
+     * level a removed entry's replacement moves down compares {@code arity}
+     * children lying next to each other in the array, and there are about
+     * log(n) / log(arity) levels, so a wider heap trades comparisons for
+     * fewer, more local, accesses to a large array; arity 4 or 8 puts the
+     * children of an entry in one or two cache lines.
+     *
+     * @param order
+     *            total preorder for sorting
+     * @param capacity
+     *            most entries kept, or UNBOUNDED to keep every entry added
+     * @param arity
+     *            number of children of each entry of the heap
+     * @requires (capacity = UNBOUNDED or capacity > 0) and arity >= 2
+     */
+    public SortingMachine5a(Comparator<T> order, int capacity, int arity) {
+        assert capacity == UNBOUNDED || capacity > 0 : ""
+                + "Violation of: capacity = UNBOUNDED or capacity > 0";
+        assert arity >= 2 : "Violation of: arity >= 2";
+
+        this.createNewRep(order, capacity, arity);
         assert this.conventionHolds();
     }
 
@@ -463,8 +667,10 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
     @Override
     public final SortingMachine<T> newInstance() {
         try {
-            return this.getClass().getConstructor(Comparator.class)
-                    .newInstance(this.machineOrder);
+            return this.getClass()
+                    .getConstructor(Comparator.class, int.class, int.class)
+                    .newInstance(this.machineOrder, this.capacity,
+                            this.arity);
         } catch (ReflectiveOperationException e) {
             throw new AssertionError(
                     "Cannot construct object of type " + this.getClass());
@@ -473,7 +679,7 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
 
     @Override
     public final void clear() {
-        this.createNewRep(this.machineOrder);
+        this.createNewRep(this.machineOrder, this.capacity, this.arity);
         assert this.conventionHolds();
     }
 
@@ -491,11 +697,15 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
          */
         SortingMachine5a<T> localSource = (SortingMachine5a<T>) source;
         this.insertionMode = localSource.insertionMode;
+        this.sorted = localSource.sorted;
         this.machineOrder = localSource.machineOrder;
-        this.entries = localSource.entries;
+        this.evictionOrder = localSource.evictionOrder;
+        this.capacity = localSource.capacity;
+        this.arity = localSource.arity;
         this.heap = localSource.heap;
         this.heapSize = localSource.heapSize;
-        localSource.createNewRep(localSource.machineOrder);
+        localSource.createNewRep(localSource.machineOrder,
+                localSource.capacity, localSource.arity);
         assert this.conventionHolds();
         assert localSource.conventionHolds();
     }
@@ -509,8 +719,26 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
         assert x != null : "Violation of: x is not null";
         assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
 
-        // add element to queue
-        this.entries.enqueue(x);
+        if (this.capacity == UNBOUNDED) {
+            // double the array when full, then append element
+            if (this.heapSize == this.heap.length) {
+                this.heap = Arrays.copyOf(this.heap,
+                        Math.max(DEFAULT_CAPACITY, 2 * this.heap.length));
+            }
+            this.heap[this.heapSize] = x;
+            this.heapSize++;
+        } else if (this.heapSize < this.capacity) {
+            // room left, so add element at bottom of heap and sift it up
+            this.heap[this.heapSize] = x;
+            siftUp(this.heap, this.heapSize, this.arity,
+                    this.evictionOrder);
+            this.heapSize++;
+        } else if (this.machineOrder.compare(x, this.heap[0]) < 0) {
+            // element comes before the last kept entry, so evict that entry
+            this.heap[0] = x;
+            siftDown(this.heap, 0, this.heapSize - 1, this.arity,
+                    this.evictionOrder);
+        }
 
         assert this.conventionHolds();
     }
@@ -519,11 +747,19 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
     public final void changeToExtractionMode() {
         assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
 
-        // store heap size as length of queue
-        this.heapSize = this.entries.length();
-
-        // build heap using queue and order
-        this.heap = buildHeap(this.entries, this.machineOrder);
+        if (this.capacity == UNBOUNDED
+                && this.heapSize >= PARALLEL_SORT_THRESHOLD) {
+            // sort the many entries last first, in parallel
+            Arrays.parallelSort(this.heap, 0, this.heapSize,
+                    this.evictionOrder);
+            this.sorted = true;
+        } else {
+            /*
+             * turn the entries, as added if unbounded or as a heap by eviction
+             * order if bounded, into a heap by order where they lie
+             */
+            heapify(this.heap, this.heapSize, this.arity, this.machineOrder);
+        }
 
         // set to extraction mode
         this.insertionMode = false;
@@ -537,17 +773,28 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
                 .isInInsertionMode() : "Violation of: not this.insertion_mode";
         assert this.size() > 0 : "Violation of: this.contents /= {}";
 
-        // get first value
-        T first = this.heap[0];
+        T first;
+        if (this.sorted) {
+            // take the last value, which comes first
+            this.heapSize--;
+            first = this.heap[this.heapSize];
+
+            // drop the reference, so a drained entry can be collected
+            this.heap[this.heapSize] = null;
+        } else {
+            // get first value
+            first = this.heap[0];
 
-        // swap first and last value
-        exchangeEntries(this.heap, 0, this.heapSize - 1);
+            // swap first and last value
+            exchangeEntries(this.heap, 0, this.heapSize - 1);
 
-        // decrease size (making last element garbage)
-        this.heapSize--;
+            // decrease size (making last element garbage)
+            this.heapSize--;
 
-        // sift down, as children of root are both heaps
-        siftDown(this.heap, 0, this.heapSize - 1, this.machineOrder);
+            // sift down, as subtrees of children of root are all heaps
+            siftDown(this.heap, 0, this.heapSize - 1, this.arity,
+                    this.machineOrder);
+        }
 
         assert this.conventionHolds();
 
@@ -570,20 +817,32 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
 
     @Override
     public final int size() {
-        int size;
+        assert this.conventionHolds();
 
-        /*
-         * if in insertion mode, set size to queue length, otherwise, set size
-         * to size of heap
-         */
-        if (this.insertionMode) {
-            size = this.entries.length();
-        } else {
-            size = this.heapSize;
+        return this.heapSize;
+    }
+
+    /**
+     * Makes room in {@code this} for {@code expected} entries in all, so that
+     * adding up to that many does not grow its representation. A hint, with
+     * no effect on the value of {@code this}; only an unbounded machine in
+     * insertion mode grows, since a bounded one has room for its capacity
+     * from the start.
+     *
+     * @param expected
+     *            the number of entries expected
+     * @requires expected >= 0
+     * @ensures this = #this
+     */
+    public final void ensureCapacity(int expected) {
+        assert expected >= 0 : "Violation of: expected >= 0";
+
+        if (this.insertionMode && this.capacity == UNBOUNDED
+                && expected > this.heap.length) {
+            this.heap = Arrays.copyOf(this.heap, expected);
         }
-        assert this.conventionHolds();
 
-        return size;
+        assert this.conventionHolds();
     }
 
     @Override
@@ -598,12 +857,7 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
     private final class SortingMachine5aIterator implements Iterator<T> {
 
         /**
-         * Representation iterator when in insertion mode.
-         */
-        private Iterator<T> queueIterator;
-
-        /**
-         * Representation iterator count when in extraction mode.
+         * Representation iterator count when iterating over the heap.
          */
         private int arrayCurrentIndex;
 
@@ -611,22 +865,14 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
          * No-argument constructor.
          */
         private SortingMachine5aIterator() {
-            if (SortingMachine5a.this.insertionMode) {
-                this.queueIterator = SortingMachine5a.this.entries.iterator();
-            } else {
-                this.arrayCurrentIndex = 0;
-            }
+            this.arrayCurrentIndex = 0;
             assert SortingMachine5a.this.conventionHolds();
         }
 
         @Override
         public boolean hasNext() {
-            boolean hasNext;
-            if (SortingMachine5a.this.insertionMode) {
-                hasNext = this.queueIterator.hasNext();
-            } else {
-                hasNext = this.arrayCurrentIndex < SortingMachine5a.this.heapSize;
-            }
+            boolean hasNext = this.arrayCurrentIndex
+                    < SortingMachine5a.this.heapSize;
             assert SortingMachine5a.this.conventionHolds();
             return hasNext;
         }
@@ -642,13 +888,8 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
                  */
                 throw new NoSuchElementException();
             }
-            T next;
-            if (SortingMachine5a.this.insertionMode) {
-                next = this.queueIterator.next();
-            } else {
-                next = SortingMachine5a.this.heap[this.arrayCurrentIndex];
-                this.arrayCurrentIndex++;
-            }
+            T next = SortingMachine5a.this.heap[this.arrayCurrentIndex];
+            this.arrayCurrentIndex++;
             assert SortingMachine5a.this.conventionHolds();
             return next;
         }
@@ -0,0 +1,138 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code DoubleSortingMachine}.
+ *
+ * @author Bryce Putman and Cody Yang
+ *
+ */
+public final class DoubleSortingMachineTest {
+
+    /**
+     * Creates and returns a {@code DoubleSortingMachine} with the given
+     * order, entries and mode.
+     *
+     * @param ascending
+     *            whether entries are removed smallest first
+     * @param insertionMode
+     *            flag indicating the machine mode
+     * @param args
+     *            the entries for the machine
+     * @return the constructed machine
+     */
+    private static DoubleSortingMachine create(boolean ascending,
+            boolean insertionMode, double... args) {
+        DoubleSortingMachine sm = new DoubleSortingMachine(ascending);
+        for (int i = 0; i < args.length; i++) {
+            sm.add(args[i]);
+        }
+        if (!insertionMode) {
+            sm.changeToExtractionMode();
+        }
+        return sm;
+    }
+
+    /**
+     * Removes every entry of {@code sm} and checks they come out as
+     * {@code expected}, comparing as {@code Double.compare} does.
+     *
+     * @param sm
+     *            the machine, in extraction mode
+     * @param expected
+     *            the entries in the order expected
+     */
+    private static void assertRemovesInOrder(DoubleSortingMachine sm,
+            double... expected) {
+        assertEquals(expected.length, sm.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(Double.valueOf(expected[i]),
+                    Double.valueOf(sm.removeFirst()));
+        }
+        assertEquals(0, sm.size());
+    }
+
+    /*
+     * Boundary Case: Testing the constructor.
+     */
+    @Test
+    public final void testConstructor() {
+        DoubleSortingMachine m = new DoubleSortingMachine(true);
+
+        assertEquals(true, m.isInInsertionMode());
+        assertEquals(true, m.isAscending());
+        assertEquals(0, m.size());
+    }
+
+    /*
+     * Routine Case: Testing removing scores in descending order.
+     */
+    @Test
+    public final void testRemoveFirstDescending() {
+        DoubleSortingMachine m = create(false, false, 0.25, 3.5, -1.0, 0.75);
+
+        assertRemovesInOrder(m, 3.5, 0.75, 0.25, -1.0);
+    }
+
+    /*
+     * Routine Case: Testing removing entries in ascending order.
+     */
+    @Test
+    public final void testRemoveFirstAscending() {
+        DoubleSortingMachine m = create(true, false, 0.25, 3.5, -1.0, 0.75);
+
+        assertRemovesInOrder(m, -1.0, 0.25, 0.75, 3.5);
+    }
+
+    /*
+     * Challenging Case: Testing the order of signed zeros, infinities and NaN,
+     * which is that of {@code Double.compare}.
+     */
+    @Test
+    public final void testRemoveFirstSpecialValues() {
+        DoubleSortingMachine m = create(true, false, Double.NaN, 0.0,
+                Double.POSITIVE_INFINITY, -0.0, Double.NEGATIVE_INFINITY);
+
+        assertRemovesInOrder(m, Double.NEGATIVE_INFINITY, -0.0, 0.0,
+                Double.POSITIVE_INFINITY, Double.NaN);
+    }
+
+    /*
+     * Challenging Case: Testing a sorting machine growing well past its
+     * initial capacity, with duplicates.
+     */
+    @Test
+    public final void testAddPastInitialCapacity() {
+        final int entries = 1000;
+        DoubleSortingMachine m = new DoubleSortingMachine(true, 1);
+        for (int i = 0; i < entries; i++) {
+            // every half value twice, in a scrambled order
+            m.add((i * 7 % entries) / 2 * 0.5);
+        }
+
+        m.changeToExtractionMode();
+
+        for (int i = 0; i < entries; i++) {
+            assertEquals(Double.valueOf(i / 2 * 0.5),
+                    Double.valueOf(m.removeFirst()));
+        }
+        assertEquals(0, m.size());
+    }
+
+    /*
+     * Routine Case: Testing clearing a sorting machine in extraction mode.
+     */
+    @Test
+    public final void testClear() {
+        DoubleSortingMachine m = create(false, false, 4.0, 2.0);
+
+        m.clear();
+        m.add(1.5);
+        m.add(9.5);
+        m.changeToExtractionMode();
+
+        assertRemovesInOrder(m, 9.5, 1.5);
+    }
+
+}
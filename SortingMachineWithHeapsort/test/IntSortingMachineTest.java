@@ -0,0 +1,162 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code IntSortingMachine}.
+ *
+ * @author Bryce Putman and Cody Yang
+ *
+ */
+public final class IntSortingMachineTest {
+
+    /**
+     * Creates and returns an {@code IntSortingMachine} with the given order,
+     * entries and mode.
+     *
+     * @param ascending
+     *            whether entries are removed smallest first
+     * @param insertionMode
+     *            flag indicating the machine mode
+     * @param args
+     *            the entries for the machine
+     * @return the constructed machine
+     */
+    private static IntSortingMachine create(boolean ascending,
+            boolean insertionMode, int... args) {
+        IntSortingMachine sm = new IntSortingMachine(ascending);
+        for (int i = 0; i < args.length; i++) {
+            sm.add(args[i]);
+        }
+        if (!insertionMode) {
+            sm.changeToExtractionMode();
+        }
+        return sm;
+    }
+
+    /**
+     * Removes every entry of {@code sm} and checks they come out as
+     * {@code expected}.
+     *
+     * @param sm
+     *            the machine, in extraction mode
+     * @param expected
+     *            the entries in the order expected
+     */
+    private static void assertRemovesInOrder(IntSortingMachine sm,
+            int... expected) {
+        assertEquals(expected.length, sm.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], sm.removeFirst());
+        }
+        assertEquals(0, sm.size());
+    }
+
+    /*
+     * Boundary Case: Testing the constructor.
+     */
+    @Test
+    public final void testConstructor() {
+        IntSortingMachine m = new IntSortingMachine(true);
+
+        assertEquals(true, m.isInInsertionMode());
+        assertEquals(true, m.isAscending());
+        assertEquals(0, m.size());
+    }
+
+    /*
+     * Routine Case: Testing adding to a sorting machine.
+     */
+    @Test
+    public final void testAdd() {
+        IntSortingMachine m = create(true, true, 3, 1);
+
+        m.add(2);
+
+        assertEquals(true, m.isInInsertionMode());
+        assertEquals(3, m.size());
+    }
+
+    /*
+     * Boundary Case: Testing changing an empty sorting machine to extraction
+     * mode.
+     */
+    @Test
+    public final void testChangeToExtractionModeEmpty() {
+        IntSortingMachine m = create(true, true);
+
+        m.changeToExtractionMode();
+
+        assertEquals(false, m.isInInsertionMode());
+        assertEquals(0, m.size());
+    }
+
+    /*
+     * Routine Case: Testing removing entries in ascending order.
+     */
+    @Test
+    public final void testRemoveFirstAscending() {
+        IntSortingMachine m = create(true, false, 5, -3, 8, 0, 2);
+
+        assertRemovesInOrder(m, -3, 0, 2, 5, 8);
+    }
+
+    /*
+     * Routine Case: Testing removing entries in descending order.
+     */
+    @Test
+    public final void testRemoveFirstDescending() {
+        IntSortingMachine m = create(false, false, 5, -3, 8, 0, 2);
+
+        assertRemovesInOrder(m, 8, 5, 2, 0, -3);
+    }
+
+    /*
+     * Challenging Case: Testing removing duplicates and the extreme values.
+     */
+    @Test
+    public final void testRemoveFirstDuplicatesAndExtremes() {
+        IntSortingMachine m = create(true, false, 7, Integer.MAX_VALUE, 7,
+                Integer.MIN_VALUE, 7);
+
+        assertRemovesInOrder(m, Integer.MIN_VALUE, 7, 7, 7,
+                Integer.MAX_VALUE);
+    }
+
+    /*
+     * Challenging Case: Testing a sorting machine growing well past its
+     * initial capacity.
+     */
+    @Test
+    public final void testAddPastInitialCapacity() {
+        final int entries = 1000;
+        IntSortingMachine m = new IntSortingMachine(false, 1);
+        for (int i = 0; i < entries; i++) {
+            // every value once, in a scrambled order
+            m.add(i * 7 % entries);
+        }
+
+        m.changeToExtractionMode();
+
+        for (int i = entries - 1; i >= 0; i--) {
+            assertEquals(i, m.removeFirst());
+        }
+        assertEquals(0, m.size());
+    }
+
+    /*
+     * Routine Case: Testing clearing a sorting machine in extraction mode.
+     */
+    @Test
+    public final void testClear() {
+        IntSortingMachine m = create(true, false, 4, 2);
+
+        m.clear();
+        m.add(9);
+        m.add(1);
+        m.changeToExtractionMode();
+
+        assertRemovesInOrder(m, 1, 9);
+    }
+
+}
@@ -0,0 +1,138 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code LongSortingMachine}.
+ *
+ * @author Bryce Putman and Cody Yang
+ *
+ */
+public final class LongSortingMachineTest {
+
+    /**
+     * Creates and returns a {@code LongSortingMachine} with the given order,
+     * entries and mode.
+     *
+     * @param ascending
+     *            whether entries are removed smallest first
+     * @param insertionMode
+     *            flag indicating the machine mode
+     * @param args
+     *            the entries for the machine
+     * @return the constructed machine
+     */
+    private static LongSortingMachine create(boolean ascending,
+            boolean insertionMode, long... args) {
+        LongSortingMachine sm = new LongSortingMachine(ascending);
+        for (int i = 0; i < args.length; i++) {
+            sm.add(args[i]);
+        }
+        if (!insertionMode) {
+            sm.changeToExtractionMode();
+        }
+        return sm;
+    }
+
+    /**
+     * Removes every entry of {@code sm} and checks they come out as
+     * {@code expected}.
+     *
+     * @param sm
+     *            the machine, in extraction mode
+     * @param expected
+     *            the entries in the order expected
+     */
+    private static void assertRemovesInOrder(LongSortingMachine sm,
+            long... expected) {
+        assertEquals(expected.length, sm.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], sm.removeFirst());
+        }
+        assertEquals(0, sm.size());
+    }
+
+    /*
+     * Boundary Case: Testing the constructor.
+     */
+    @Test
+    public final void testConstructor() {
+        LongSortingMachine m = new LongSortingMachine(false);
+
+        assertEquals(true, m.isInInsertionMode());
+        assertEquals(false, m.isAscending());
+        assertEquals(0, m.size());
+    }
+
+    /*
+     * Routine Case: Testing removing timestamps in ascending order.
+     */
+    @Test
+    public final void testRemoveFirstAscending() {
+        LongSortingMachine m = create(true, false, 1_700_000_000_500L,
+                1_700_000_000_000L, 1_700_000_000_250L);
+
+        assertRemovesInOrder(m, 1_700_000_000_000L, 1_700_000_000_250L,
+                1_700_000_000_500L);
+    }
+
+    /*
+     * Routine Case: Testing removing entries in descending order.
+     */
+    @Test
+    public final void testRemoveFirstDescending() {
+        LongSortingMachine m = create(false, false, 5, -3, 8, 0, 2);
+
+        assertRemovesInOrder(m, 8, 5, 2, 0, -3);
+    }
+
+    /*
+     * Challenging Case: Testing removing duplicates and the extreme values,
+     * beyond the range of {@code int}.
+     */
+    @Test
+    public final void testRemoveFirstDuplicatesAndExtremes() {
+        LongSortingMachine m = create(false, false, 1L << 40, Long.MIN_VALUE,
+                1L << 40, Long.MAX_VALUE);
+
+        assertRemovesInOrder(m, Long.MAX_VALUE, 1L << 40, 1L << 40,
+                Long.MIN_VALUE);
+    }
+
+    /*
+     * Challenging Case: Testing a sorting machine growing well past its
+     * initial capacity.
+     */
+    @Test
+    public final void testAddPastInitialCapacity() {
+        final int entries = 1000;
+        LongSortingMachine m = new LongSortingMachine(true, 0);
+        for (int i = 0; i < entries; i++) {
+            // every value once, in a scrambled order
+            m.add(i * 7 % entries);
+        }
+
+        m.changeToExtractionMode();
+
+        for (int i = 0; i < entries; i++) {
+            assertEquals(i, m.removeFirst());
+        }
+        assertEquals(0, m.size());
+    }
+
+    /*
+     * Routine Case: Testing clearing a sorting machine in extraction mode.
+     */
+    @Test
+    public final void testClear() {
+        LongSortingMachine m = create(true, false, 4, 2);
+
+        m.clear();
+        m.add(9);
+        m.add(1);
+        m.changeToExtractionMode();
+
+        assertRemovesInOrder(m, 1, 9);
+    }
+
+}
@@ -1,10 +1,15 @@
+import static org.junit.Assert.assertEquals;
+
 import java.util.Comparator;
 
+import org.junit.Test;
+
 import components.sortingmachine.SortingMachine;
 import components.sortingmachine.SortingMachine1L;
 
 /**
- * Customized JUnit test fixture for {@code SortingMachine5a}.
+ * Customized JUnit test fixture for {@code SortingMachine5a}, including its
+ * bounded mode.
  */
 public final class SortingMachine5aTest extends SortingMachineTest {
 
@@ -18,4 +23,482 @@ public final class SortingMachine5aTest extends SortingMachineTest {
         return new SortingMachine1L<String>(order);
     }
 
+    /**
+     * Comparator instance to be used in the bounded, many-entry, arity and
+     * sorted test cases. Compares {@code String}s in lexicographic order,
+     * ignoring case.
+     */
+    private static final Comparator<String> ORDER_IGNORING_CASE =
+            String::compareToIgnoreCase;
+
+    /**
+     * Number of entries added in the many-entry test cases, enough for a heap
+     * many levels deep.
+     */
+    private static final int MANY_ENTRIES = 2000;
+
+    /**
+     * Step through the many-entry values, coprime to their number so that
+     * every value is reached in a scrambled order.
+     */
+    private static final int SCRAMBLE_STEP = 7919;
+
+    /**
+     * Number of entries added in the sorted test cases, enough for an
+     * unbounded machine to sort its entries rather than heapify them.
+     */
+    private static final int SORTED_ENTRIES = 10000;
+
+    /**
+     * Creates and returns a bounded {@code SortingMachine5a<String>} with the
+     * given capacity, entries and mode.
+     *
+     * @param capacity
+     *            the most entries kept
+     * @param insertionMode
+     *            flag indicating the machine mode
+     * @param args
+     *            the entries added to the {@code SortingMachine}
+     * @return the constructed {@code SortingMachine}
+     * @requires capacity > 0
+     */
+    private static SortingMachine<String> createBounded(int capacity,
+            boolean insertionMode, String... args) {
+        SortingMachine<String> sm = new SortingMachine5a<String>(
+                ORDER_IGNORING_CASE, capacity);
+        for (int i = 0; i < args.length; i++) {
+            sm.add(args[i]);
+        }
+        if (!insertionMode) {
+            sm.changeToExtractionMode();
+        }
+        return sm;
+    }
+
+    /**
+     * Creates and returns a {@code SortingMachine<String>} of the reference
+     * implementation type with the given entries and mode.
+     *
+     * @param insertionMode
+     *            flag indicating the machine mode
+     * @param args
+     *            the entries for the {@code SortingMachine}
+     * @return the constructed {@code SortingMachine}
+     */
+    private static SortingMachine<String> createRef(boolean insertionMode,
+            String... args) {
+        SortingMachine<String> sm = new SortingMachine1L<String>(
+                ORDER_IGNORING_CASE);
+        for (int i = 0; i < args.length; i++) {
+            sm.add(args[i]);
+        }
+        if (!insertionMode) {
+            sm.changeToExtractionMode();
+        }
+        return sm;
+    }
+
+    /*
+     * Boundary Case: Testing adding to a bounded sorting machine below its
+     * capacity, which keeps every entry.
+     */
+    @Test
+    public final void testBoundedAddBelowCapacity() {
+        SortingMachine<String> m = createBounded(5, true, "green", "blue");
+        SortingMachine<String> mExpected = createRef(true, "green", "blue",
+                "red");
+
+        m.add("red");
+
+        assertEquals(mExpected, m);
+    }
+
+    /*
+     * Routine Case: Testing adding to a full bounded sorting machine an entry
+     * which comes before the last kept entry, which is evicted.
+     */
+    @Test
+    public final void testBoundedAddEvictsLast() {
+        SortingMachine<String> m = createBounded(3, true, "green", "red",
+                "yellow");
+        SortingMachine<String> mExpected = createRef(true, "green", "red",
+                "blue");
+
+        m.add("blue");
+
+        assertEquals(mExpected, m);
+    }
+
+    /*
+     * Boundary Case: Testing adding to a full bounded sorting machine an
+     * entry which comes after every kept entry, which is ignored.
+     */
+    @Test
+    public final void testBoundedAddIgnoresLater() {
+        SortingMachine<String> m = createBounded(2, true, "blue", "green");
+        SortingMachine<String> mExpected = createRef(true, "blue", "green");
+
+        m.add("yellow");
+
+        assertEquals(mExpected, m);
+    }
+
+    /*
+     * Routine Case: Testing that a bounded sorting machine keeps the first
+     * entries in order of many added in no order, including duplicates.
+     */
+    @Test
+    public final void testBoundedKeepsFirstEntries() {
+        SortingMachine<String> m = createBounded(4, true, "red", "green",
+                "blue", "yellow", "purple", "black", "white", "blue", "orange",
+                "magenta");
+        SortingMachine<String> mExpected = createRef(true, "black", "blue",
+                "blue", "green");
+
+        assertEquals(mExpected, m);
+    }
+
+    /*
+     * Routine Case: Testing changing a bounded sorting machine to extraction
+     * mode.
+     */
+    @Test
+    public final void testBoundedChangeToExtractionMode() {
+        SortingMachine<String> m = createBounded(3, true, "yellow", "green",
+                "red", "blue", "purple");
+        SortingMachine<String> mExpected = createRef(false, "green", "blue",
+                "purple");
+
+        m.changeToExtractionMode();
+
+        assertEquals(mExpected, m);
+    }
+
+    /*
+     * Routine Case: Testing removing every kept entry from a bounded sorting
+     * machine, in order.
+     */
+    @Test
+    public final void testBoundedRemoveFirstInOrder() {
+        SortingMachine<String> m = createBounded(3, false, "yellow", "green",
+                "red", "blue", "purple");
+
+        assertEquals("blue", m.removeFirst());
+        assertEquals("green", m.removeFirst());
+        assertEquals("purple", m.removeFirst());
+        assertEquals(0, m.size());
+    }
+
+    /*
+     * Boundary Case: Testing the size of a full bounded sorting machine.
+     */
+    @Test
+    public final void testBoundedSize() {
+        SortingMachine<String> m = createBounded(2, true, "yellow", "green",
+                "red");
+
+        assertEquals(2, m.size());
+    }
+
+    /*
+     * Routine Case: Testing that a new instance of a bounded sorting machine
+     * has the same capacity.
+     */
+    @Test
+    public final void testBoundedNewInstance() {
+        SortingMachine<String> m = createBounded(2, true);
+        SortingMachine<String> mExpected = createRef(true, "blue", "green");
+
+        SortingMachine<String> n = m.newInstance();
+        n.add("red");
+        n.add("green");
+        n.add("blue");
+
+        assertEquals(mExpected, n);
+    }
+
+    /*
+     * Routine Case: Testing that clearing a bounded sorting machine keeps its
+     * capacity.
+     */
+    @Test
+    public final void testBoundedClear() {
+        SortingMachine<String> m = createBounded(1, false, "red", "blue");
+        SortingMachine<String> mExpected = createRef(true, "green");
+
+        m.clear();
+        m.add("red");
+        m.add("green");
+
+        assertEquals(mExpected, m);
+    }
+
+    /*
+     * Routine Case: Testing transferring a bounded sorting machine, along
+     * with its capacity.
+     */
+    @Test
+    public final void testBoundedTransferFrom() {
+        SortingMachine<String> m = createBounded(5, true);
+        SortingMachine<String> source = createBounded(2, true, "red",
+                "green");
+        SortingMachine<String> mExpected = createRef(true, "blue", "green");
+
+        m.transferFrom(source);
+        m.add("blue");
+
+        assertEquals(mExpected, m);
+        assertEquals(0, source.size());
+    }
+
+    /**
+     * Returns the {@code i}th entry of the many-entry test cases. The entries
+     * come in a scrambled order, and each value comes twice.
+     *
+     * @param i
+     *            the index of the entry
+     * @return the entry
+     */
+    private static String manyEntry(int i) {
+        return Integer.toString(i * SCRAMBLE_STEP % (MANY_ENTRIES / 2));
+    }
+
+    /*
+     * Challenging Case: Testing changing to extraction mode and removing every
+     * entry of a sorting machine with many entries, including duplicates.
+     */
+    @Test
+    public final void testChangeToExtractionModeManyEntries() {
+        SortingMachine<String> m = new SortingMachine5a<String>(
+                ORDER_IGNORING_CASE);
+        SortingMachine<String> mExpected = createRef(true);
+        for (int i = 0; i < MANY_ENTRIES; i++) {
+            m.add(manyEntry(i));
+            mExpected.add(manyEntry(i));
+        }
+
+        m.changeToExtractionMode();
+        mExpected.changeToExtractionMode();
+
+        assertEquals(mExpected, m);
+        while (mExpected.size() > 0) {
+            assertEquals(mExpected.removeFirst(), m.removeFirst());
+        }
+        assertEquals(mExpected, m);
+    }
+
+    /*
+     * Challenging Case: Testing a bounded sorting machine keeping the first
+     * of many entries, including duplicates.
+     */
+    @Test
+    public final void testBoundedManyEntries() {
+        final int capacity = 100;
+        SortingMachine<String> m = createBounded(capacity, true);
+        SortingMachine<String> all = createRef(true);
+        for (int i = 0; i < MANY_ENTRIES; i++) {
+            m.add(manyEntry(i));
+            all.add(manyEntry(i));
+        }
+        all.changeToExtractionMode();
+        SortingMachine<String> mExpected = createRef(true);
+        for (int i = 0; i < capacity; i++) {
+            mExpected.add(all.removeFirst());
+        }
+
+        m.changeToExtractionMode();
+        mExpected.changeToExtractionMode();
+
+        assertEquals(mExpected, m);
+        while (mExpected.size() > 0) {
+            assertEquals(mExpected.removeFirst(), m.removeFirst());
+        }
+    }
+
+    /*
+     * Challenging Case: Testing changing a sorting machine with a 4-ary heap
+     * and many entries to extraction mode and removing them all.
+     */
+    @Test
+    public final void testArityFourManyEntries() {
+        final int arity = 4;
+        SortingMachine<String> m = new SortingMachine5a<String>(
+                ORDER_IGNORING_CASE, SortingMachine5a.UNBOUNDED, arity);
+        SortingMachine<String> mExpected = createRef(true);
+        for (int i = 0; i < MANY_ENTRIES; i++) {
+            m.add(manyEntry(i));
+            mExpected.add(manyEntry(i));
+        }
+
+        m.changeToExtractionMode();
+        mExpected.changeToExtractionMode();
+
+        assertEquals(mExpected, m);
+        while (mExpected.size() > 0) {
+            assertEquals(mExpected.removeFirst(), m.removeFirst());
+        }
+        assertEquals(mExpected, m);
+    }
+
+    /*
+     * Boundary Case: Testing changing empty unbounded sorting machines with
+     * 3-ary, 4-ary and 8-ary heaps to extraction mode.
+     */
+    @Test
+    public final void testChangeToExtractionModeEmptyArities() {
+        final int[] arities = { 3, 4, 8 };
+        for (int arity : arities) {
+            SortingMachine<String> m = new SortingMachine5a<String>(
+                    ORDER_IGNORING_CASE, SortingMachine5a.UNBOUNDED, arity);
+            SortingMachine<String> mExpected = createRef(false);
+
+            m.changeToExtractionMode();
+
+            assertEquals(mExpected, m);
+        }
+    }
+
+    /*
+     * Challenging Case: Testing a bounded sorting machine with an 8-ary heap
+     * keeping the first of many entries, including duplicates.
+     */
+    @Test
+    public final void testBoundedArityEightManyEntries() {
+        final int capacity = 100;
+        final int arity = 8;
+        SortingMachine<String> m = new SortingMachine5a<String>(
+                ORDER_IGNORING_CASE, capacity, arity);
+        SortingMachine<String> all = createRef(true);
+        for (int i = 0; i < MANY_ENTRIES; i++) {
+            m.add(manyEntry(i));
+            all.add(manyEntry(i));
+        }
+        all.changeToExtractionMode();
+        SortingMachine<String> mExpected = createRef(true);
+        for (int i = 0; i < capacity; i++) {
+            mExpected.add(all.removeFirst());
+        }
+
+        m.changeToExtractionMode();
+        mExpected.changeToExtractionMode();
+
+        assertEquals(mExpected, m);
+        while (mExpected.size() > 0) {
+            assertEquals(mExpected.removeFirst(), m.removeFirst());
+        }
+    }
+
+    /*
+     * Routine Case: Testing newInstance and transferFrom of a sorting machine
+     * with an 8-ary heap.
+     */
+    @Test
+    public final void testArityNewInstanceTransferFrom() {
+        final int arity = 8;
+        SortingMachine<String> m = new SortingMachine5a<String>(
+                ORDER_IGNORING_CASE, SortingMachine5a.UNBOUNDED, arity);
+        SortingMachine<String> n = m.newInstance();
+        SortingMachine<String> mExpected = createRef(true);
+        for (int i = 0; i < MANY_ENTRIES; i++) {
+            n.add(manyEntry(i));
+            mExpected.add(manyEntry(i));
+        }
+
+        m.transferFrom(n);
+        m.changeToExtractionMode();
+        mExpected.changeToExtractionMode();
+
+        assertEquals(0, n.size());
+        assertEquals(mExpected, m);
+        while (mExpected.size() > 0) {
+            assertEquals(mExpected.removeFirst(), m.removeFirst());
+        }
+    }
+
+    /*
+     * Routine Case: Testing making room for many entries up front, then
+     * adding them and removing them all.
+     */
+    @Test
+    public final void testEnsureCapacityManyEntries() {
+        SortingMachine5a<String> m = new SortingMachine5a<String>(
+                ORDER_IGNORING_CASE);
+        SortingMachine<String> mExpected = createRef(true);
+
+        m.ensureCapacity(MANY_ENTRIES);
+        for (int i = 0; i < MANY_ENTRIES; i++) {
+            m.add(manyEntry(i));
+            mExpected.add(manyEntry(i));
+        }
+
+        assertEquals(mExpected, m);
+        m.changeToExtractionMode();
+        mExpected.changeToExtractionMode();
+        assertEquals(mExpected, m);
+        while (mExpected.size() > 0) {
+            assertEquals(mExpected.removeFirst(), m.removeFirst());
+        }
+    }
+
+    /*
+     * Challenging Case: Testing changing to extraction mode and removing every
+     * entry of a sorting machine with enough entries to sort them, including
+     * duplicates.
+     */
+    @Test
+    public final void testChangeToExtractionModeSortedEntries() {
+        SortingMachine<String> m = new SortingMachine5a<String>(
+                ORDER_IGNORING_CASE);
+        SortingMachine<String> mExpected = createRef(true);
+        for (int i = 0; i < SORTED_ENTRIES; i++) {
+            m.add(manyEntry(i));
+            mExpected.add(manyEntry(i));
+        }
+
+        m.changeToExtractionMode();
+        mExpected.changeToExtractionMode();
+
+        assertEquals(mExpected, m);
+        while (mExpected.size() > 0) {
+            assertEquals(mExpected.removeFirst(), m.removeFirst());
+        }
+        assertEquals(mExpected, m);
+    }
+
+    /*
+     * Routine Case: Testing transferring from a sorting machine part way
+     * through removing its sorted entries, then clearing it and using it with
+     * few entries.
+     */
+    @Test
+    public final void testSortedTransferFromClear() {
+        SortingMachine<String> m = new SortingMachine5a<String>(
+                ORDER_IGNORING_CASE);
+        SortingMachine<String> source = new SortingMachine5a<String>(
+                ORDER_IGNORING_CASE);
+        SortingMachine<String> mExpected = createRef(true);
+        for (int i = 0; i < SORTED_ENTRIES; i++) {
+            source.add(manyEntry(i));
+            mExpected.add(manyEntry(i));
+        }
+        source.changeToExtractionMode();
+        mExpected.changeToExtractionMode();
+        for (int i = 0; i < SORTED_ENTRIES / 2; i++) {
+            assertEquals(mExpected.removeFirst(), source.removeFirst());
+        }
+
+        m.transferFrom(source);
+
+        assertEquals(0, source.size());
+        while (mExpected.size() > 0) {
+            assertEquals(mExpected.removeFirst(), m.removeFirst());
+        }
+        m.clear();
+        m.add("b");
+        m.add("a");
+        m.changeToExtractionMode();
+        assertEquals("a", m.removeFirst());
+        assertEquals("b", m.removeFirst());
+    }
+
 }
@@ -4,14 +4,11 @@ import components.map.Map;
 import components.map.Map1L;
 import components.queue.Queue;
 import components.queue.Queue1L;
-import components.set.Set;
-import components.set.Set1L;
 import components.simplereader.SimpleReader;
 import components.simplereader.SimpleReader1L;
 import components.simplewriter.SimpleWriter;
 import components.simplewriter.SimpleWriter1L;
 import components.sortingmachine.SortingMachine;
-import components.sortingmachine.SortingMachine1L;
 
 /**
  * Creates a tag cloud of the number of tags requested, with ascending order
@@ -73,7 +70,7 @@ public final class TagCloudGenerator {
      * @param position
      *            the starting index
      * @param separators
-     *            the {@code Set} of separator characters
+     *            the {@code SeparatorClass} of separator characters
      * @return the first word or separator string found in {@code text} starting
      *         at index {@code position}
      * @requires 0 <= position < |text|
@@ -95,21 +92,18 @@ public final class TagCloudGenerator {
      */
 
     private static String nextWordOrSeparator(String text, int position,
-            Set<Character> separators) {
-        String nextWordOrSeparator = "";
-
+            SeparatorClass separators) {
         boolean firstCharIsSeparator = separators
                 .contains(text.charAt(position));
 
-        int newPosition = position;
+        int newPosition = position + 1;
 
         while (newPosition < text.length() && separators
                 .contains(text.charAt(newPosition)) == firstCharIsSeparator) {
-            nextWordOrSeparator += text.charAt(newPosition);
             newPosition++;
         }
 
-        return nextWordOrSeparator;
+        return text.substring(position, newPosition);
     }
 
     /**
@@ -121,13 +115,13 @@ public final class TagCloudGenerator {
      * @param in
      *            the input stream, used to read in the words
      * @param separators
-     *            a set containing separator characters
+     *            the class of separator characters
      * @return wordToCount
      * @ensures wordToCount = the words contained within in, mapped to the
      *          number of appearances of the word with in
      */
     private static Map<String, Integer> createWordToCountMap(SimpleReader in,
-            Set<Character> separators) {
+            SeparatorClass separators) {
         Map<String, Integer> wordToCount = new Map1L<>();
 
         String text = "";
@@ -156,7 +150,10 @@ public final class TagCloudGenerator {
     /**
      * Creates a tag cloud of the number of tags requested, with ascending order
      * from the map given. The words are sorted in alphabetical order. Larger
-     * words have higher count values than smaller words.
+     * words have higher count values than smaller words. The most frequent
+     * words are selected by a bounded {@code SortingMachine5a}, which keeps
+     * only {@code numWordsToOutput} pairs as the map is added, so selecting
+     * takes O(n log numWordsToOutput) time and O(numWordsToOutput) space.
      *
      * @param in
      *            the input stream, used to read in the words
@@ -165,19 +162,21 @@ public final class TagCloudGenerator {
      * @param numWordsToOutput
      *            the number of words to output to tag cloud
      * @param separators
-     *            a set containing separator characters
+     *            the class of separator characters
      * @ensures the output file is populated with HTML which creates the
      *          described tag cloud.
      */
 
     public static void createTagCloud(SimpleReader in, SimpleWriter out,
-            Set<Character> separators, int numWordsToOutput) {
+            SeparatorClass separators, int numWordsToOutput) {
         // create map of words to their respective counts
         Map<String, Integer> wordToCount = createWordToCountMap(in, separators);
         IntegerGT ascendingOrder = new IntegerGT();
 
-        SortingMachine<Map.Pair<String, Integer>> sortedWordsToCounts = new SortingMachine1L<Map.Pair<String, Integer>>(
-                ascendingOrder);
+        // keep only the most frequent pairs, at least one as required
+        SortingMachine<Map.Pair<String, Integer>> sortedWordsToCounts;
+        sortedWordsToCounts = new SortingMachine5a<>(ascendingOrder,
+                Math.max(1, numWordsToOutput));
 
         int totalWordCount = 0;
         for (Map.Pair<String, Integer> pair : wordToCount) {
@@ -189,14 +188,14 @@ public final class TagCloudGenerator {
         Queue<Map.Pair<String, Integer>> wordsSortedAlphabetically = new Queue1L<>();
         int minCount = 0;
         int maxCount = 0;
-        for (int i = 0; i < numWordsToOutput; i++) {
+        for (int i = 0; i < numWordsToOutput
+                && sortedWordsToCounts.size() > 0; i++) {
             Map.Pair<String, Integer> firstWord = sortedWordsToCounts
                     .removeFirst();
             if (i == 0) {
                 maxCount = firstWord.value();
-            } else if (i == numWordsToOutput) {
-                minCount = firstWord.value();
             }
+            minCount = firstWord.value();
 
             wordsSortedAlphabetically.enqueue(firstWord);
         }
@@ -335,12 +334,9 @@ public final class TagCloudGenerator {
 //        int numWords = in.nextInteger();
         int numWords = 100;
 
-        final Set<Character> separatorSet = new Set1L<>();
         String separators = "!\"#$%&'()*+,-./:;<=>?@[\\]^_`{|}~\r\n ";
-        for (int i = 0; i < separators.length(); i++) {
-            separatorSet.add(separators.charAt(i));
-        }
-        createTagCloud(inFile, outFile, separatorSet, numWords);
+        final SeparatorClass separatorClass = new SeparatorClass(separators);
+        createTagCloud(inFile, outFile, separatorClass, numWords);
         in.close();
         out.close();
         inFile.close();
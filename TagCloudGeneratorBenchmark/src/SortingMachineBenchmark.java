@@ -0,0 +1,239 @@
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmarks of draining a {@code SortingMachine5a}: changing it to
+ * extraction mode and removing every entry, for each arity of its heap and
+ * size, and for an unbounded machine, which sorts many entries in parallel
+ * rather than heapify them. The entries are distinct {@code Integer} objects
+ * in a random order, so each comparison reads entries scattered over the
+ * heap, as the pairs of the tag cloud generator are. Run {@code main}, which
+ * takes the usual JMH command line options, e.g. {@code -p size=100000} for
+ * a quick run.
+ *
+ * <p>
+ * Each benchmark has its own state, whose machine is filled before each
+ * invocation, which is not timed. The heap is measured with a machine
+ * bounded by a capacity of the size, which keeps every entry and always
+ * drains its heap; the unbounded machine does not depend on the arity, so
+ * its state has none. At the smallest size an invocation takes well under a
+ * millisecond, so its times include some of the harness's own overhead.
+ *
+ * @author Bryce Putman and Cody Yang
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx8g" })
+public class SortingMachineBenchmark {
+
+    /**
+     * Seed of the random entries, fixed so every run drains the same heap.
+     */
+    private static final long SEED = 2231;
+
+    /**
+     * Order of the entries.
+     */
+    private static final Comparator<Integer> ORDER = Integer::compare;
+
+    /**
+     * Generates the entries.
+     *
+     * @param size
+     *            the number of entries
+     * @return the entries, in the order to add them
+     */
+    private static Integer[] entries(int size) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        Integer[] entries = new Integer[size];
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] = Integer.valueOf(random.nextInt());
+        }
+        return entries;
+    }
+
+    /**
+     * State of {@code drainHeap}: a bounded machine, drained from its heap.
+     */
+    @State(Scope.Benchmark)
+    public static class HeapState {
+
+        /**
+         * Number of children of each entry of the heap.
+         */
+        @Param({ "2", "4", "8" })
+        public int arity;
+
+        /**
+         * Number of entries.
+         */
+        @Param({ "1000", "100000", "10000000", "100000000" })
+        public int size;
+
+        /**
+         * The entries, in the order added.
+         */
+        private Integer[] entries;
+
+        /**
+         * Machine in insertion mode with every entry added.
+         */
+        private SortingMachine5a<Integer> machine;
+
+        /**
+         * Generates the entries.
+         */
+        @Setup(Level.Trial)
+        public void setUp() {
+            this.entries = entries(this.size);
+        }
+
+        /**
+         * Fills a new machine with the entries.
+         */
+        @Setup(Level.Invocation)
+        public void fill() {
+            // let the last machine be collected before making the next
+            this.machine = null;
+            this.machine = new SortingMachine5a<Integer>(ORDER, this.size,
+                    this.arity);
+            for (Integer entry : this.entries) {
+                this.machine.add(entry);
+            }
+        }
+    }
+
+    /**
+     * State of {@code drainUnbounded}: an unbounded machine, which sorts its
+     * entries in parallel at every size but the smallest.
+     */
+    @State(Scope.Benchmark)
+    public static class UnboundedState {
+
+        /**
+         * Number of entries.
+         */
+        @Param({ "1000", "100000", "10000000", "100000000" })
+        public int size;
+
+        /**
+         * The entries, in the order added.
+         */
+        private Integer[] entries;
+
+        /**
+         * Machine in insertion mode with every entry added.
+         */
+        private SortingMachine5a<Integer> machine;
+
+        /**
+         * Generates the entries.
+         */
+        @Setup(Level.Trial)
+        public void setUp() {
+            this.entries = entries(this.size);
+        }
+
+        /**
+         * Fills a new machine with the entries.
+         */
+        @Setup(Level.Invocation)
+        public void fill() {
+            // let the last machine be collected before making the next
+            this.machine = null;
+            this.machine = new SortingMachine5a<Integer>(ORDER,
+                    SortingMachine5a.UNBOUNDED);
+            this.machine.ensureCapacity(this.size);
+            for (Integer entry : this.entries) {
+                this.machine.add(entry);
+            }
+        }
+    }
+
+    /**
+     * Changes {@code machine} to extraction mode and removes every entry, in
+     * order.
+     *
+     * @param machine
+     *            the machine, in insertion mode
+     * @param blackhole
+     *            sink for the entries removed
+     */
+    private static void drain(SortingMachine5a<Integer> machine,
+            Blackhole blackhole) {
+        machine.changeToExtractionMode();
+        while (machine.size() > 0) {
+            blackhole.consume(machine.removeFirst());
+        }
+    }
+
+    /**
+     * Drains the bounded machine, from its heap.
+     *
+     * @param state
+     *            the filled machine
+     * @param blackhole
+     *            sink for the entries removed
+     */
+    @Benchmark
+    public void drainHeap(HeapState state, Blackhole blackhole) {
+        drain(state.machine, blackhole);
+    }
+
+    /**
+     * Drains the unbounded machine.
+     *
+     * @param state
+     *            the filled machine
+     * @param blackhole
+     *            sink for the entries removed
+     */
+    @Benchmark
+    public void drainUnbounded(UnboundedState state, Blackhole blackhole) {
+        drain(state.machine, blackhole);
+    }
+
+    /**
+     * Main method. Runs the benchmarks of this class.
+     *
+     * @param args
+     *            the JMH command line options
+     * @throws RunnerException
+     *             if the benchmarks fail to run
+     * @throws CommandLineOptionException
+     *             if the options are not valid
+     */
+    public static void main(String[] args)
+            throws RunnerException, CommandLineOptionException {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(SortingMachineBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+
+}
@@ -0,0 +1,209 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Synthetic text for benchmarking the tag cloud generator, derived from a
+ * seed text. The vocabulary is the words of the seed text in descending order
+ * of frequency, cut short or extended with numbered variants to the size
+ * requested, and words are drawn from it with a Zipf distribution, so the
+ * synthetic text has the long tail of natural text. Generated corpora are
+ * cached in the temporary directory, since the largest take a while to write.
+ *
+ * @author Bryce Putman and Cody Yang
+ *
+ */
+public final class SyntheticCorpus {
+
+    /**
+     * No argument constructor--private to prevent instantiation.
+     */
+    private SyntheticCorpus() {
+    }
+
+    /**
+     * Seed for the random numbers, so that every run benchmarks the same
+     * text.
+     */
+    private static final long RANDOM_SEED = 2231;
+
+    /**
+     * Average number of words in a sentence.
+     */
+    private static final int SENTENCE_LENGTH = 12;
+
+    /**
+     * Separators of the seed text.
+     */
+    private static final SeparatorClass SEPARATORS = new SeparatorClass(
+            "!\"#$%&'()*+,-./:;<=>?@[\\]^_`{|}~\r\n ");
+
+    /**
+     * Parses a size such as {@code 1MB} or {@code 1GB} into a number of
+     * bytes.
+     *
+     * @param size
+     *            the size, a number optionally followed by KB, MB or GB
+     * @return the number of bytes
+     * @throws NumberFormatException
+     *             if {@code size} is not a size
+     */
+    public static long parseSize(String size) {
+        final int kilo = 1024;
+        long unit = 1;
+        String number = size.trim().toUpperCase();
+        if (number.endsWith("KB")) {
+            unit = kilo;
+        } else if (number.endsWith("MB")) {
+            unit = kilo * kilo;
+        } else if (number.endsWith("GB")) {
+            unit = (long) kilo * kilo * kilo;
+        }
+        if (unit > 1) {
+            number = number.substring(0, number.length() - 2);
+        }
+        return Long.parseLong(number.trim()) * unit;
+    }
+
+    /**
+     * Returns a corpus of about {@code size} bytes with a vocabulary of
+     * {@code vocabularySize} words derived from {@code seedText}, generating
+     * it unless a cached copy exists.
+     *
+     * @param seedText
+     *            the path of the text the vocabulary is taken from
+     * @param size
+     *            the number of bytes of the corpus
+     * @param vocabularySize
+     *            the number of distinct words of the corpus
+     * @return the path of the corpus
+     * @throws IOException
+     *             if the seed text cannot be read or the corpus written
+     * @requires size > 0 and vocabularySize > 0
+     */
+    public static Path corpus(Path seedText, long size, int vocabularySize)
+            throws IOException {
+        assert size > 0 : "Violation of: size > 0";
+        assert vocabularySize > 0 : "Violation of: vocabularySize > 0";
+
+        Path corpus = Paths.get(System.getProperty("java.io.tmpdir"),
+                "tagcloud-" + size + "-" + vocabularySize + ".txt");
+        if (!Files.exists(corpus)) {
+            // write to a temporary file so an interrupted run leaves no corpus
+            Path tempFile = corpus
+                    .resolveSibling(corpus.getFileName() + ".tmp");
+            write(tempFile, vocabulary(seedText, vocabularySize), size);
+            Files.move(tempFile, corpus, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        }
+        return corpus;
+    }
+
+    /**
+     * Returns the words of {@code seedText} in descending order of frequency,
+     * cut short or extended with numbered variants of those words to
+     * {@code vocabularySize} words.
+     *
+     * @param seedText
+     *            the path of the text the vocabulary is taken from
+     * @param vocabularySize
+     *            the number of words of the vocabulary
+     * @return the vocabulary, most frequent word first
+     * @throws IOException
+     *             if the seed text cannot be read or has no words
+     */
+    private static List<String> vocabulary(Path seedText, int vocabularySize)
+            throws IOException {
+        WordCountTable wordToCount;
+        try (BufferedReader in = Files.newBufferedReader(seedText,
+                StandardCharsets.UTF_8)) {
+            wordToCount = WordCounting.createWordToCountMap(in,
+                    SEPARATORS, WordNormalizer.NONE, WordCountTable::new,
+                    new TagCloudMetrics());
+        }
+        if (wordToCount.size() == 0) {
+            throw new IOException("No words in " + seedText);
+        }
+        List<String> seedWords = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : TagCloudGenerator
+                .mostFrequentWords(wordToCount, wordToCount.size())) {
+            seedWords.add(entry.getKey());
+        }
+
+        // extend with numbered variants, which are as long as real words
+        List<String> vocabulary = new ArrayList<>(vocabularySize);
+        for (int i = 0; i < vocabularySize; i++) {
+            String word = seedWords.get(i % seedWords.size());
+            int variant = i / seedWords.size();
+            if (variant > 0) {
+                word = word + variant;
+            }
+            vocabulary.add(word);
+        }
+        return vocabulary;
+    }
+
+    /**
+     * Writes about {@code size} bytes of sentences of words drawn from
+     * {@code vocabulary} with a Zipf distribution to {@code corpus}.
+     *
+     * @param corpus
+     *            the path of the corpus
+     * @param vocabulary
+     *            the words, most frequent first
+     * @param size
+     *            the number of bytes to write
+     * @throws IOException
+     *             if the corpus cannot be written
+     */
+    private static void write(Path corpus, List<String> vocabulary, long size)
+            throws IOException {
+        // cumulative weights, word i having weight 1 / (i + 1)
+        double[] cumulative = new double[vocabulary.size()];
+        double total = 0;
+        for (int i = 0; i < cumulative.length; i++) {
+            total += 1.0 / (i + 1);
+            cumulative[i] = total;
+        }
+
+        Random random = new Random(RANDOM_SEED);
+        try (Writer out = Files.newBufferedWriter(corpus,
+                StandardCharsets.UTF_8)) {
+            long written = 0;
+            int wordsInSentence = 0;
+            while (written < size) {
+                // draw the word whose cumulative weight first exceeds a sample
+                int index = Arrays.binarySearch(cumulative,
+                        random.nextDouble() * total);
+                if (index < 0) {
+                    index = -index - 1;
+                }
+                String word = vocabulary
+                        .get(Math.min(index, cumulative.length - 1));
+                out.write(word);
+                written += word.getBytes(StandardCharsets.UTF_8).length;
+
+                // end the sentence now and then
+                wordsInSentence++;
+                String separator = " ";
+                if (random.nextInt(SENTENCE_LENGTH) == 0) {
+                    separator = wordsInSentence % 2 == 0 ? ".\n" : ", ";
+                    wordsInSentence = 0;
+                }
+                out.write(separator);
+                written += separator.length();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,325 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmarks of the phases of {@code TagCloudGenerator}: tokenizing,
+ * counting, selecting and sorting the most frequent words, and rendering the
+ * HTML page or a full table. Each benchmark runs over a
+ * {@code SyntheticCorpus} of every combination of corpus size and vocabulary
+ * size. Run {@code main}, which takes the usual JMH command line options,
+ * e.g. {@code -p corpusSize=1MB -p vocabularySize=1000} for a quick run; the
+ * seed text is {@code data/input1.txt} of the generator project unless the
+ * system property {@code tagcloud.seed} names another file.
+ *
+ * @author Bryce Putman and Cody Yang
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx4g", "--add-modules",
+        "jdk.incubator.vector" })
+public class TagCloudBenchmark {
+
+    /**
+     * Number of characters read from the corpus at a time.
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Approximate number of bytes of the corpus.
+     */
+    @Param({ "1MB", "100MB", "1GB" })
+    public String corpusSize;
+
+    /**
+     * Number of distinct words of the corpus.
+     */
+    @Param({ "1000", "100000" })
+    public int vocabularySize;
+
+    /**
+     * Number of words in the tag cloud.
+     */
+    @Param({ "100" })
+    public int numWords;
+
+    /**
+     * The corpus.
+     */
+    private Path corpus;
+
+    /**
+     * The separator characters.
+     */
+    private SeparatorClass separators;
+
+    /**
+     * Words of the corpus and their counts, input to selecting.
+     */
+    private WordCountTable wordToCount;
+
+    /**
+     * Selected words in alphabetical order, input to rendering.
+     */
+    private List<Map.Entry<String, Integer>> alphaSortedList;
+
+    /**
+     * Smallest count of the selected words.
+     */
+    private int minCount;
+
+    /**
+     * Largest count of the selected words.
+     */
+    private int maxCount;
+
+    /**
+     * Generates the corpus, if not cached, and the inputs of the later
+     * phases.
+     *
+     * @throws IOException
+     *             if the corpus cannot be generated or read
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Path seedText = Paths.get(System.getProperty("tagcloud.seed",
+                "../TagCloudGeneratorJava/data/input1.txt"));
+        this.corpus = SyntheticCorpus.corpus(seedText,
+                SyntheticCorpus.parseSize(this.corpusSize),
+                this.vocabularySize);
+        this.separators = new SeparatorClass(
+                "!\"#$%&'()*+,-./:;<=>?@[\\]^_`{|}~\r\n ");
+        this.wordToCount = WordCounting.createWordToCountMap(this.corpus,
+                this.separators, WordNormalizer.NONE,
+                Runtime.getRuntime().availableProcessors(),
+                WordCountTable::new, new TagCloudMetrics());
+        this.alphaSortedList = this.select();
+        if (this.alphaSortedList.size() > 0) {
+            this.minCount = Integer.MAX_VALUE;
+            for (Map.Entry<String, Integer> entry : this.alphaSortedList) {
+                this.minCount = Math.min(this.minCount, entry.getValue());
+                this.maxCount = Math.max(this.maxCount, entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Opens the corpus for reading as UTF-8.
+     *
+     * @return a reader of the corpus
+     * @throws IOException
+     *             if the corpus cannot be opened
+     */
+    private BufferedReader openCorpus() throws IOException {
+        return Files.newBufferedReader(this.corpus, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Splits the corpus into words and separator strings with
+     * {@code nextWordOrSeparator}, without counting them. Includes reading
+     * and decoding the corpus, the baseline of {@code count}.
+     *
+     * @param blackhole
+     *            sink for the tokens found
+     * @throws IOException
+     *             if the corpus cannot be read
+     */
+    @Benchmark
+    public void tokenize(Blackhole blackhole) throws IOException {
+        char[] buffer = new char[BUFFER_SIZE];
+        try (BufferedReader in = this.openCorpus()) {
+            int charsRead = in.read(buffer, 0, buffer.length);
+            while (charsRead != -1) {
+                int position = 0;
+                while (position < charsRead) {
+                    position = WordCounting.nextWordOrSeparator(buffer,
+                            position, charsRead, this.separators);
+                    blackhole.consume(position);
+                }
+                charsRead = in.read(buffer, 0, buffer.length);
+            }
+        }
+    }
+
+    /**
+     * Splits the corpus into words and separator strings like
+     * {@code tokenize}, but classifying each chunk with the Vector API first
+     * and finding the ends from the classification. One scanner classifies
+     * every chunk into the same buffer, as {@code countChunk}'s callers do.
+     *
+     * @param blackhole
+     *            sink for the tokens found
+     * @throws IOException
+     *             if the corpus cannot be read
+     */
+    @Benchmark
+    public void tokenizeVector(Blackhole blackhole) throws IOException {
+        char[] buffer = new char[BUFFER_SIZE];
+        VectorSeparatorScanner scanner = new VectorSeparatorScanner(
+                this.separators);
+        try (BufferedReader in = this.openCorpus()) {
+            int charsRead = in.read(buffer, 0, buffer.length);
+            while (charsRead != -1) {
+                long[] separatorBits = scanner.classify(buffer, charsRead);
+                int position = 0;
+                while (position < charsRead) {
+                    position = WordCounting.nextWordOrSeparator(
+                            separatorBits, position, charsRead);
+                    blackhole.consume(position);
+                }
+                charsRead = in.read(buffer, 0, buffer.length);
+            }
+        }
+    }
+
+    /**
+     * Counts the words of the corpus read as a stream.
+     *
+     * @return the table of words to their counts
+     * @throws IOException
+     *             if the corpus cannot be read
+     */
+    @Benchmark
+    public WordCountTable count() throws IOException {
+        try (BufferedReader in = this.openCorpus()) {
+            return WordCounting.createWordToCountMap(in, this.separators,
+                    WordNormalizer.NONE, WordCountTable::new,
+                    new TagCloudMetrics());
+        }
+    }
+
+    /**
+     * Counts the words of the memory-mapped corpus on one thread, splitting
+     * the bytes into words without decoding them; compare with {@code count}.
+     *
+     * @return the table of words to their counts
+     * @throws IOException
+     *             if the corpus cannot be read
+     */
+    @Benchmark
+    public WordCountTable countBytes() throws IOException {
+        return WordCounting.createWordToCountMap(this.corpus,
+                this.separators, WordNormalizer.NONE, 1, WordCountTable::new,
+                new TagCloudMetrics());
+    }
+
+    /**
+     * Counts the words of the memory-mapped corpus on every processor.
+     *
+     * @return the table of words to their counts
+     * @throws IOException
+     *             if the corpus cannot be read
+     */
+    @Benchmark
+    public WordCountTable countParallel() throws IOException {
+        return WordCounting.createWordToCountMap(this.corpus,
+                this.separators, WordNormalizer.NONE,
+                Runtime.getRuntime().availableProcessors(),
+                WordCountTable::new, new TagCloudMetrics());
+    }
+
+    /**
+     * Counts the words of the memory-mapped corpus on every processor into
+     * tables kept off the heap.
+     *
+     * @return the table of words to their counts
+     * @throws IOException
+     *             if the corpus cannot be read
+     */
+    @Benchmark
+    public OffHeapWordCounter countParallelOffHeap() throws IOException {
+        return WordCounting.createWordToCountMap(this.corpus,
+                this.separators, WordNormalizer.NONE,
+                Runtime.getRuntime().availableProcessors(),
+                OffHeapWordCounter::new, new TagCloudMetrics());
+    }
+
+    /**
+     * Selects the most frequent words of the corpus and sorts them
+     * alphabetically, as {@code createTagCloud} does after counting.
+     *
+     * @return the selected words in alphabetical order
+     */
+    @Benchmark
+    public List<Map.Entry<String, Integer>> select() {
+        List<Map.Entry<String, Integer>> wordsToCounts = TagCloudGenerator
+                .mostFrequentWords(this.wordToCount, this.numWords);
+        TagCloudGenerator.sortAlphabetically(wordsToCounts);
+        return wordsToCounts;
+    }
+
+    /**
+     * Renders the HTML page of the selected words, discarding it.
+     */
+    @Benchmark
+    public void render() {
+        TagCloudRenderer out = new HtmlTagCloudWriter(Writer.nullWriter());
+        TagCloudGenerator.outputTable(this.corpus.toString(), out,
+                this.alphaSortedList, this.minCount, this.maxCount,
+                this.numWords, 0);
+    }
+
+    /**
+     * Renders the full table of every counted word as CSV, discarding it:
+     * collecting, sorting and writing the words.
+     */
+    @Benchmark
+    public void renderFullTable() {
+        TagCloudRenderer out = TagCloudFormat.CSV
+                .renderer(OutputStream.nullOutputStream());
+        TagCloudGenerator.outputTagCloud(this.wordToCount,
+                this.corpus.toString(), out, Integer.MAX_VALUE,
+                new TagCloudMetrics());
+    }
+
+    /**
+     * Main method. Runs the benchmarks of this class.
+     *
+     * @param args
+     *            the JMH command line options
+     * @throws RunnerException
+     *             if the benchmarks fail to run
+     * @throws CommandLineOptionException
+     *             if the options are not valid
+     */
+    public static void main(String[] args)
+            throws RunnerException, CommandLineOptionException {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(TagCloudBenchmark.class.getSimpleName()).build();
+        new Runner(options).run();
+    }
+
+}
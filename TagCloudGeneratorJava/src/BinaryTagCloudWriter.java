@@ -0,0 +1,72 @@
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes the words of a tag cloud as a binary table, sorted as given, in
+ * fixed-width big-endian fields that any language can read back without
+ * parsing text. The table is:
+ *
+ * <pre>
+ * int  MAGIC ("TCTB")
+ * int  error bound of the counts, 0 if exact
+ * then, for each word until the end of the file:
+ *   int  number of bytes of the word
+ *   the word, in UTF-8
+ *   int  count
+ * </pre>
+ *
+ * @author Bryce Putman and Cody Yang
+ *
+ */
+public final class BinaryTagCloudWriter implements TagCloudRenderer {
+
+    /**
+     * First four bytes of every binary table.
+     */
+    public static final int MAGIC = 0x54435442;
+
+    /**
+     * The output.
+     */
+    private final DataOutputStream out;
+
+    /**
+     * Constructor from output.
+     *
+     * @param out
+     *            the stream to write the table to, which should be buffered
+     */
+    public BinaryTagCloudWriter(OutputStream out) {
+        assert out != null : "Violation of: out is not null";
+
+        this.out = new DataOutputStream(out);
+    }
+
+    @Override
+    public void writeHeader(String title, int numWordsToOutput, int minCount,
+            int maxCount, int errorBound) throws IOException {
+        this.out.writeInt(MAGIC);
+        this.out.writeInt(errorBound);
+    }
+
+    @Override
+    public void writeWord(String word, int count) throws IOException {
+        byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
+        this.out.writeInt(bytes.length);
+        this.out.write(bytes);
+        this.out.writeInt(count);
+    }
+
+    @Override
+    public void writeFooter() throws IOException {
+        this.out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.out.close();
+    }
+
+}
@@ -0,0 +1,100 @@
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes the words of a tag cloud as CSV (RFC 4180): a header row, then one
+ * row per word of the word and its count. If the counts are approximate, a
+ * third column gives the error bound of each count. A field is quoted only
+ * if it contains a comma, quote or line break, which no word split by the
+ * default separators does.
+ *
+ * @author Bryce Putman and Cody Yang
+ *
+ */
+public final class CsvTagCloudWriter implements TagCloudRenderer {
+
+    /**
+     * Line break ending every row.
+     */
+    private static final String LINE_BREAK = "\r\n";
+
+    /**
+     * The output.
+     */
+    private final Writer out;
+
+    /**
+     * The error bound of the counts, written with each row unless 0.
+     */
+    private int errorBound = 0;
+
+    /**
+     * Constructor from output.
+     *
+     * @param out
+     *            the writer to write the table to
+     */
+    public CsvTagCloudWriter(Writer out) {
+        assert out != null : "Violation of: out is not null";
+
+        this.out = out;
+    }
+
+    /**
+     * Writes {@code field}, quoted and with quotes doubled if it contains a
+     * comma, quote or line break.
+     *
+     * @param field
+     *            the field
+     * @throws IOException
+     *             if the output cannot be written
+     */
+    private void writeField(String field) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < field.length() && !quote; i++) {
+            char c = field.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (quote) {
+            this.out.write('"');
+            this.out.write(field.replace("\"", "\"\""));
+            this.out.write('"');
+        } else {
+            this.out.write(field);
+        }
+    }
+
+    @Override
+    public void writeHeader(String title, int numWordsToOutput, int minCount,
+            int maxCount, int errorBound) throws IOException {
+        this.errorBound = errorBound;
+        this.out.write("word,count");
+        if (errorBound > 0) {
+            this.out.write(",error");
+        }
+        this.out.write(LINE_BREAK);
+    }
+
+    @Override
+    public void writeWord(String word, int count) throws IOException {
+        this.writeField(word);
+        this.out.write(',');
+        this.out.write(Integer.toString(count));
+        if (this.errorBound > 0) {
+            this.out.write(',');
+            this.out.write(Integer.toString(this.errorBound));
+        }
+        this.out.write(LINE_BREAK);
+    }
+
+    @Override
+    public void writeFooter() throws IOException {
+        this.out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.out.close();
+    }
+
+}
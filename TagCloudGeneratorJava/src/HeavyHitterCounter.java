@@ -0,0 +1,682 @@
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Approximate word counter using memory fixed by its parameters, however many
+ * distinct words are counted. A Space-Saving summary keeps a fixed number of
+ * monitored words; when a word which is not monitored arrives and the summary
+ * is full, it replaces the word with the smallest count. The count it takes
+ * over is an upper bound of its true count, as is the estimate of a
+ * Count-Min Sketch of every word counted, so the smaller of the two is
+ * reported; the summary keeps its own counts, since its smallest count must
+ * stay an upper bound of the count of every word it has evicted.
+ * Every reported count is at least the true count of its word, and a word
+ * whose true count exceeds (number of words counted) / capacity is always
+ * reported.
+ *
+ * @author Bryce Putman and Cody Yang
+ *
+ */
+public final class HeavyHitterCounter implements WordCounter {
+
+    /**
+     * Largest number of words monitored.
+     */
+    public static final int MAX_CAPACITY = 1 << 28;
+
+    /**
+     * Seed of the 64-bit word hash (the FNV-1a offset basis).
+     */
+    private static final long HASH_SEED = 0xcbf29ce484222325L;
+
+    /**
+     * Multiplier of the 64-bit word hash (the FNV-1a prime).
+     */
+    private static final long HASH_PRIME = 0x100000001b3L;
+
+    /**
+     * Initial length of the buffer ASCII words are widened into.
+     */
+    private static final int INITIAL_WORD_LENGTH = 64;
+
+    /**
+     * Number of words the summary monitors.
+     */
+    private final int capacity;
+
+    /**
+     * Count-Min Sketch, one row of counters per hash function.
+     */
+    private final int[][] sketch;
+
+    /**
+     * Monitored words, by slot.
+     */
+    private final String[] words;
+
+    /**
+     * 64-bit hash codes of the monitored words, by slot.
+     */
+    private final long[] hashes;
+
+    /**
+     * Counts of the monitored words, by slot.
+     */
+    private final int[] counts;
+
+    /**
+     * Most by which the count of each monitored word may exceed its true
+     * count, by slot.
+     */
+    private final int[] errors;
+
+    /**
+     * Min-heap of the slots in use, ordered by count.
+     */
+    private final int[] heap;
+
+    /**
+     * Index in {@code heap} of each slot.
+     */
+    private final int[] heapIndex;
+
+    /**
+     * Open addressing index from word to slot: slot + 1, or 0 if empty.
+     */
+    private final int[] index;
+
+    /**
+     * Number of slots in use.
+     */
+    private int size;
+
+    /**
+     * Buffer the characters of an ASCII word are widened into.
+     */
+    private char[] widened = new char[INITIAL_WORD_LENGTH];
+
+    /**
+     * Constructor from the number of words monitored and the accuracy of the
+     * sketch. The sketch overestimates a count by at most {@code epsilon}
+     * times the number of words counted, with probability at least 1 -
+     * {@code delta}.
+     *
+     * @param capacity
+     *            the number of words monitored
+     * @param epsilon
+     *            the relative error of the sketch
+     * @param delta
+     *            the probability the sketch error is exceeded
+     * @requires <pre>
+     * 0 < capacity <= MAX_CAPACITY  and  0 < epsilon < 1  and  0 < delta < 1
+     * </pre>
+     */
+    public HeavyHitterCounter(int capacity, double epsilon, double delta) {
+        assert 0 < capacity
+                && capacity <= MAX_CAPACITY : "Violation of: "
+                        + "0 < capacity <= MAX_CAPACITY";
+        assert 0 < epsilon && epsilon < 1 : "Violation of: 0 < epsilon < 1";
+        assert 0 < delta && delta < 1 : "Violation of: 0 < delta < 1";
+
+        this.capacity = capacity;
+        int width = (int) Math.ceil(Math.E / epsilon);
+        int depth = (int) Math.ceil(Math.log(1 / delta));
+        this.sketch = new int[Math.max(1, depth)][width];
+        this.words = new String[capacity];
+        this.hashes = new long[capacity];
+        this.counts = new int[capacity];
+        this.errors = new int[capacity];
+        this.heap = new int[capacity];
+        this.heapIndex = new int[capacity];
+        this.index = new int[Integer.highestOneBit(capacity) * 4];
+        this.size = 0;
+    }
+
+    /**
+     * Mixes the bits of {@code hash} (the finalizer of MurmurHash3).
+     *
+     * @param hash
+     *            the hash to mix
+     * @return the mixed hash
+     */
+    private static long mix(long hash) {
+        long h = hash;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Returns a 64-bit hash of {@code word[start, end)}.
+     *
+     * @param word
+     *            the characters of the word
+     * @param start
+     *            index of the first character of the word
+     * @param end
+     *            index one past the last character of the word
+     * @return the hash of the word
+     */
+    private static long hash(char[] word, int start, int end) {
+        long hash = HASH_SEED;
+        for (int i = start; i < end; i++) {
+            hash = (hash ^ word[i]) * HASH_PRIME;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * Returns the column of the sketch for {@code hash} in row {@code row},
+     * deriving one hash function per row from two halves of the hash.
+     *
+     * @param hash
+     *            the 64-bit hash of a word
+     * @param row
+     *            the row of the sketch
+     * @return the column in the row
+     */
+    private int column(long hash, int row) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        return ((h1 + row * h2) & Integer.MAX_VALUE) % this.sketch[row].length;
+    }
+
+    /**
+     * Adds {@code count} to the sketch counters of the word with 64-bit hash
+     * {@code hash} and returns the new estimate of its count.
+     *
+     * @param hash
+     *            the 64-bit hash of the word
+     * @param count
+     *            the amount to add
+     * @return the estimate of the count of the word
+     */
+    private int addToSketch(long hash, int count) {
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < this.sketch.length; row++) {
+            int column = this.column(hash, row);
+            int sum = this.sketch[row][column] + count;
+            if (sum < 0) {
+                // saturate rather than overflow
+                sum = Integer.MAX_VALUE;
+            }
+            this.sketch[row][column] = sum;
+            estimate = Math.min(estimate, sum);
+        }
+        return estimate;
+    }
+
+    /**
+     * Returns the sketch estimate of the count of the word with 64-bit hash
+     * {@code hash}.
+     *
+     * @param hash
+     *            the 64-bit hash of the word
+     * @return the estimate of the count of the word
+     */
+    private int estimate(long hash) {
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < this.sketch.length; row++) {
+            estimate = Math.min(estimate,
+                    this.sketch[row][this.column(hash, row)]);
+        }
+        return estimate;
+    }
+
+    /**
+     * Returns the position in {@code index} where the probe sequence of
+     * {@code hash} starts.
+     *
+     * @param hash
+     *            the 32-bit hash of a word
+     * @return the first position to probe
+     */
+    private int home(int hash) {
+        return (hash ^ (hash >>> 16)) & (this.index.length - 1);
+    }
+
+    /**
+     * Returns the slot of the word {@code word[start, end)}, or -1 if it is
+     * not monitored.
+     *
+     * @param word
+     *            the characters of the word
+     * @param start
+     *            index of the first character of the word
+     * @param end
+     *            index one past the last character of the word
+     * @param hash
+     *            the 32-bit hash of the word
+     * @return the slot of the word
+     */
+    private int find(char[] word, int start, int end, int hash) {
+        int mask = this.index.length - 1;
+        for (int i = this.home(hash); this.index[i] != 0; i = (i + 1) & mask) {
+            int slot = this.index[i] - 1;
+            if (shortHash(this.hashes[slot]) == hash
+                    && this.words[slot].length() == end - start) {
+                String key = this.words[slot];
+                int j = 0;
+                while (j < key.length() && key.charAt(j) == word[start + j]) {
+                    j++;
+                }
+                if (j == key.length()) {
+                    return slot;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Adds {@code slot}, whose word and hash are set, to the index.
+     *
+     * @param slot
+     *            the slot to add
+     */
+    private void addToIndex(int slot) {
+        int mask = this.index.length - 1;
+        int i = this.home(shortHash(this.hashes[slot]));
+        while (this.index[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        this.index[i] = slot + 1;
+    }
+
+    /**
+     * Removes {@code slot} from the index, shifting back the entries after it
+     * in its cluster so that no probe sequence is broken.
+     *
+     * @param slot
+     *            the slot to remove
+     */
+    private void removeFromIndex(int slot) {
+        int mask = this.index.length - 1;
+        int hole = this.home(shortHash(this.hashes[slot]));
+        while (this.index[hole] != slot + 1) {
+            hole = (hole + 1) & mask;
+        }
+        int i = hole;
+        while (true) {
+            i = (i + 1) & mask;
+            if (this.index[i] == 0) {
+                break;
+            }
+            int home = this.home(
+                    shortHash(this.hashes[this.index[i] - 1]));
+            // move the entry into the hole unless its home is after the hole
+            boolean homeInRange;
+            if (hole <= i) {
+                homeInRange = hole < home && home <= i;
+            } else {
+                homeInRange = hole < home || home <= i;
+            }
+            if (!homeInRange) {
+                this.index[hole] = this.index[i];
+                hole = i;
+            }
+        }
+        this.index[hole] = 0;
+    }
+
+    /**
+     * Swaps heap entries {@code i} and {@code j}.
+     *
+     * @param i
+     *            one heap index
+     * @param j
+     *            the other heap index
+     */
+    private void swap(int i, int j) {
+        int slot = this.heap[i];
+        this.heap[i] = this.heap[j];
+        this.heap[j] = slot;
+        this.heapIndex[this.heap[i]] = i;
+        this.heapIndex[this.heap[j]] = j;
+    }
+
+    /**
+     * Moves heap entry {@code i} up until its parent's count is not greater.
+     *
+     * @param i
+     *            the heap index
+     */
+    private void siftUp(int i) {
+        int child = i;
+        while (child > 0) {
+            int parent = (child - 1) / 2;
+            if (this.counts[this.heap[parent]]
+                    <= this.counts[this.heap[child]]) {
+                break;
+            }
+            this.swap(parent, child);
+            child = parent;
+        }
+    }
+
+    /**
+     * Moves heap entry {@code i} down until neither child's count is smaller.
+     *
+     * @param i
+     *            the heap index
+     */
+    private void siftDown(int i) {
+        int parent = i;
+        while (2 * parent + 1 < this.size) {
+            int child = 2 * parent + 1;
+            if (child + 1 < this.size && this.counts[this.heap[child
+                    + 1]] < this.counts[this.heap[child]]) {
+                child++;
+            }
+            if (this.counts[this.heap[parent]]
+                    <= this.counts[this.heap[child]]) {
+                break;
+            }
+            this.swap(parent, child);
+            parent = child;
+        }
+    }
+
+    /**
+     * Adds {@code count} to the count of the word {@code word[start, end)}.
+     *
+     * @param word
+     *            the characters of the word
+     * @param start
+     *            index of the first character of the word
+     * @param end
+     *            index one past the last character of the word
+     * @param key
+     *            the word as a string, or null to create it if needed
+     * @param count
+     *            the amount to add
+     */
+    private void add(char[] word, int start, int end, String key, int count) {
+        long hash = hash(word, start, end);
+        this.addToSketch(hash, count);
+        int slot = this.find(word, start, end, shortHash(hash));
+        if (slot >= 0) {
+            // monitored word: its count is exact up to its error
+            this.counts[slot] = (int) Math.min(Integer.MAX_VALUE,
+                    (long) this.counts[slot] + count);
+            this.siftDown(this.heapIndex[slot]);
+            return;
+        }
+
+        int newCount = count;
+        if (this.size < this.capacity) {
+            // room left, so nothing has been evicted and the count is exact
+            slot = this.size;
+            this.heap[this.size] = slot;
+            this.heapIndex[slot] = this.size;
+            this.size++;
+        } else {
+            // replace the word with the smallest count, taking over its count
+            slot = this.heap[0];
+            this.removeFromIndex(slot);
+            newCount = (int) Math.min(Integer.MAX_VALUE,
+                    (long) this.counts[slot] + count);
+        }
+        if (key == null) {
+            this.words[slot] = new String(word, start, end - start);
+        } else {
+            this.words[slot] = key;
+        }
+        this.hashes[slot] = hash;
+        this.counts[slot] = newCount;
+        this.errors[slot] = newCount - count;
+        this.addToIndex(slot);
+        this.siftUp(this.heapIndex[slot]);
+        this.siftDown(this.heapIndex[slot]);
+    }
+
+    @Override
+    public void increment(char[] word, int start, int end) {
+        assert word != null : "Violation of: word is not null";
+        assert 0 <= start && start < end && end <= word.length : ""
+                + "Violation of: 0 <= start < end <= |word|";
+
+        this.add(word, start, end, null, 1);
+    }
+
+    @Override
+    public void increment(CharSequence word, int start, int end) {
+        assert word != null : "Violation of: word is not null";
+        assert 0 <= start && start < end && end <= word.length() : ""
+                + "Violation of: 0 <= start < end <= |word|";
+
+        String key = word.subSequence(start, end).toString();
+        this.add(key.toCharArray(), 0, key.length(), key, 1);
+    }
+
+    /**
+     * Adds one to the count of the word whose UTF-8 bytes are
+     * {@code utf8[start, end)}. The bytes of an ASCII word are widened into
+     * characters without decoding; any other word is decoded first.
+     *
+     * @param utf8
+     *            the bytes of the text
+     * @param start
+     *            index of the first byte of the word
+     * @param end
+     *            index one past the last byte of the word
+     * @updates this
+     * @requires 0 <= start < end <= utf8.limit
+     * @ensures this = #this with the count of [utf8[start, end) decoded]
+     *          incremented
+     */
+    @Override
+    public void increment(ByteBuffer utf8, int start, int end) {
+        assert utf8 != null : "Violation of: utf8 is not null";
+        assert 0 <= start && start < end && end <= utf8.limit() : ""
+                + "Violation of: 0 <= start < end <= utf8.limit";
+
+        int length = end - start;
+        if (this.widened.length < length) {
+            this.widened = new char[Math.max(length, 2 * this.widened.length)];
+        }
+        for (int i = 0; i < length; i++) {
+            byte b = utf8.get(start + i);
+            if (b < 0) {
+                WordCounter.super.increment(utf8, start, end);
+                return;
+            }
+            this.widened[i] = (char) b;
+        }
+        this.add(this.widened, 0, length, null, 1);
+    }
+
+    /**
+     * Adds {@code count} to the count of {@code word}.
+     *
+     * @param word
+     *            the word
+     * @param count
+     *            the amount to add to the count of the word
+     * @updates this
+     * @requires count > 0
+     * @ensures this = #this with count added to the count of word
+     */
+    public void add(String word, int count) {
+        assert word != null : "Violation of: word is not null";
+        assert count > 0 : "Violation of: count > 0";
+
+        this.add(word.toCharArray(), 0, word.length(), word, count);
+    }
+
+    /**
+     * Adds the counts of every word of {@code source} to this counter. If
+     * {@code source} is a {@code HeavyHitterCounter} with the same
+     * parameters, the two summaries and sketches are merged, and a word
+     * monitored by only one of them is taken to have the smallest count of
+     * the other; the merged summary keeps the words with the largest counts.
+     *
+     * @param source
+     *            the counter whose counts are added
+     * @updates this
+     * @requires source is not this
+     * @ensures this = [#this with the counts of source added by word]
+     */
+    @Override
+    public void addAll(WordCounter source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+
+        if (!(source instanceof HeavyHitterCounter)
+                || !this.hasSameShape((HeavyHitterCounter) source)) {
+            source.forEach(this::add);
+            return;
+        }
+        HeavyHitterCounter other = (HeavyHitterCounter) source;
+
+        // add the sketches counter by counter
+        for (int row = 0; row < this.sketch.length; row++) {
+            for (int column = 0; column < this.sketch[row].length; column++) {
+                this.sketch[row][column] = (int) Math.min(Integer.MAX_VALUE,
+                        (long) this.sketch[row][column]
+                                + other.sketch[row][column]);
+            }
+        }
+
+        // sum the counts and errors of the words monitored by either summary
+        int thisMissing = this.missingCount();
+        int otherMissing = other.missingCount();
+        Map<String, long[]> merged = new HashMap<>();
+        for (int slot = 0; slot < this.size; slot++) {
+            merged.put(this.words[slot], new long[] {
+                    (long) this.counts[slot] + otherMissing,
+                    (long) this.errors[slot] + otherMissing });
+        }
+        for (int slot = 0; slot < other.size; slot++) {
+            long[] countAndError = merged.get(other.words[slot]);
+            if (countAndError == null) {
+                merged.put(other.words[slot], new long[] {
+                        (long) other.counts[slot] + thisMissing,
+                        (long) other.errors[slot] + thisMissing });
+            } else {
+                countAndError[0] += other.counts[slot] - otherMissing;
+                countAndError[1] += other.errors[slot] - otherMissing;
+            }
+        }
+
+        // keep the words with the largest counts
+        List<Map.Entry<String, long[]>> entries = new ArrayList<>(
+                merged.entrySet());
+        entries.sort((e1, e2) -> Long.compare(e2.getValue()[0],
+                e1.getValue()[0]));
+        Arrays.fill(this.index, 0);
+        this.size = 0;
+        for (int i = 0; i < entries.size() && i < this.capacity; i++) {
+            String word = entries.get(i).getKey();
+            char[] chars = word.toCharArray();
+            long hash = hash(chars, 0, chars.length);
+            long count = entries.get(i).getValue()[0];
+            long error = entries.get(i).getValue()[1];
+            int slot = this.size;
+            this.words[slot] = word;
+            this.hashes[slot] = hash;
+            this.counts[slot] = (int) Math.min(Integer.MAX_VALUE, count);
+            this.errors[slot] = (int) Math.min(count, error);
+            this.heap[slot] = slot;
+            this.heapIndex[slot] = slot;
+            this.size++;
+            this.addToIndex(slot);
+        }
+        for (int i = this.size / 2 - 1; i >= 0; i--) {
+            this.siftDown(i);
+        }
+    }
+
+    /**
+     * Reports whether {@code other} has the same capacity and sketch
+     * dimensions as this counter, so the two can be merged.
+     *
+     * @param other
+     *            the other counter
+     * @return true iff the counters have the same parameters
+     */
+    private boolean hasSameShape(HeavyHitterCounter other) {
+        return this.capacity == other.capacity
+                && this.sketch.length == other.sketch.length
+                && this.sketch[0].length == other.sketch[0].length;
+    }
+
+    /**
+     * Returns the most a word which is not monitored may have been counted:
+     * the smallest count if the summary is full, otherwise 0.
+     *
+     * @return the upper bound of the count of an unmonitored word
+     */
+    private int missingCount() {
+        int missing = 0;
+        if (this.size == this.capacity) {
+            missing = this.counts[this.heap[0]];
+        }
+        return missing;
+    }
+
+    /**
+     * Returns the count reported for the word in {@code slot}: the smaller of
+     * its Space-Saving count and its sketch estimate, both upper bounds of its
+     * true count.
+     *
+     * @param slot
+     *            the slot of the word
+     * @return the reported count of the word
+     */
+    private int reportedCount(int slot) {
+        return Math.min(this.counts[slot], this.estimate(this.hashes[slot]));
+    }
+
+    /**
+     * Returns the 32-bit hash of the index from a 64-bit word hash.
+     *
+     * @param hash
+     *            the 64-bit hash
+     * @return the 32-bit hash
+     */
+    private static int shortHash(long hash) {
+        return (int) (hash >>> 32);
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public void forEach(ObjIntConsumer<String> action) {
+        assert action != null : "Violation of: action is not null";
+
+        for (int slot = 0; slot < this.size; slot++) {
+            action.accept(this.words[slot], this.reportedCount(slot));
+        }
+    }
+
+    @Override
+    public int errorBound() {
+        int bound = 0;
+        for (int slot = 0; slot < this.size; slot++) {
+            // the sketch lowers the count, and so the error, by the same
+            int reported = this.reportedCount(slot);
+            bound = Math.max(bound,
+                    this.errors[slot] - (this.counts[slot] - reported));
+        }
+        return bound;
+    }
+
+    @Override
+    public int resizes() {
+        // the slots and the sketch are sized once, for the capacity
+        return 0;
+    }
+
+}
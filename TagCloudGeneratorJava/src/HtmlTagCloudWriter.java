@@ -0,0 +1,382 @@
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes the HTML page of a tag cloud straight to a {@code Writer} through a
+ * reusable character buffer. The markup surrounding each word is rendered
+ * once for every font size, so writing a word copies characters but creates
+ * no objects; words are HTML-escaped as they are copied. As a
+ * {@code TagCloudRenderer}, it sizes each word by its count between the
+ * minimum and maximum counts given to the header.
+ *
+ * @author Bryce Putman and Cody Yang
+ *
+ */
+public final class HtmlTagCloudWriter implements TagCloudRenderer {
+
+    /**
+     * Minimum font size for the words in the output.
+     */
+    public static final int MIN_FONT_SIZE = 12;
+
+    /**
+     * Maximum font size for the words in the output.
+     */
+    public static final int MAX_FONT_SIZE = 48;
+
+    /**
+     * Number of characters buffered before writing to the output.
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Line separator, as written by {@code PrintWriter.println}.
+     */
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    /**
+     * Style sheet links of the page.
+     */
+    private static final String STYLE_LINKS = "<link href=\"http://web.cse"
+            + ".ohio-state.edu/software/2231/web-sw2/assignments/projects/"
+            + "tag-cloud-generator/data/tagcloud.css\" rel=\"stylesheet\" "
+            + "type=\"text/css\"><link href=\"tagcloud.css\" "
+            + "rel=\"stylesheet\" type=\"text/css\">";
+
+    /**
+     * Markup opening the word span, up to its count, for each font size from
+     * {@code MIN_FONT_SIZE} to {@code MAX_FONT_SIZE}.
+     */
+    private static final char[][] SPAN_STARTS = new char[MAX_FONT_SIZE
+            - MIN_FONT_SIZE + 1][];
+
+    static {
+        for (int i = 0; i < SPAN_STARTS.length; i++) {
+            SPAN_STARTS[i] = ("<span style =\"cursor:default\" class = \"f"
+                    + (MIN_FONT_SIZE + i) + "\" title=\"count: ")
+                            .toCharArray();
+        }
+    }
+
+    /**
+     * Tooltip text between an approximate count and its error bound.
+     */
+    private static final char[] ERROR_BOUND = ", error at most ".toCharArray();
+
+    /**
+     * Markup between the count and the word of a span.
+     */
+    private static final char[] SPAN_MIDDLE = "\">".toCharArray();
+
+    /**
+     * Markup closing a span, with its line separator.
+     */
+    private static final char[] SPAN_END = ("</span>" + LINE_SEPARATOR)
+            .toCharArray();
+
+    /**
+     * The output.
+     */
+    private final Writer out;
+
+    /**
+     * Characters not yet written to the output.
+     */
+    private final char[] buffer = new char[BUFFER_SIZE];
+
+    /**
+     * Number of characters in {@code buffer}.
+     */
+    private int length = 0;
+
+    /**
+     * Minimum count among the words, given to the header.
+     */
+    private int minCount = 0;
+
+    /**
+     * Maximum count among the words, given to the header.
+     */
+    private int maxCount = 0;
+
+    /**
+     * Error bound of the counts, given to the header.
+     */
+    private int errorBound = 0;
+
+    /**
+     * Constructor from output.
+     *
+     * @param out
+     *            the writer to write the HTML page to
+     */
+    public HtmlTagCloudWriter(Writer out) {
+        assert out != null : "Violation of: out is not null";
+
+        this.out = out;
+    }
+
+    /**
+     * Writes the buffered characters to the output.
+     *
+     * @throws IOException
+     *             if the output cannot be written
+     */
+    private void drain() throws IOException {
+        this.out.write(this.buffer, 0, this.length);
+        this.length = 0;
+    }
+
+    /**
+     * Appends {@code c} to the buffer.
+     *
+     * @param c
+     *            the character to append
+     * @throws IOException
+     *             if the output cannot be written
+     */
+    private void append(char c) throws IOException {
+        if (this.length == this.buffer.length) {
+            this.drain();
+        }
+        this.buffer[this.length] = c;
+        this.length++;
+    }
+
+    /**
+     * Appends {@code chars} to the buffer.
+     *
+     * @param chars
+     *            the characters to append
+     * @throws IOException
+     *             if the output cannot be written
+     */
+    private void append(char[] chars) throws IOException {
+        if (chars.length > this.buffer.length - this.length) {
+            this.drain();
+        }
+        if (chars.length > this.buffer.length) {
+            this.out.write(chars);
+        } else {
+            System.arraycopy(chars, 0, this.buffer, this.length,
+                    chars.length);
+            this.length += chars.length;
+        }
+    }
+
+    /**
+     * Appends the decimal digits of {@code n} to the buffer.
+     *
+     * @param n
+     *            the number to append
+     * @throws IOException
+     *             if the output cannot be written
+     * @requires n >= 0
+     */
+    private void appendNumber(int n) throws IOException {
+        final int maxDigits = 10;
+        final int radix = 10;
+        if (this.buffer.length - this.length < maxDigits) {
+            this.drain();
+        }
+        int digits = 1;
+        for (int rest = n / radix; rest > 0; rest /= radix) {
+            digits++;
+        }
+        int rest = n;
+        for (int i = this.length + digits - 1; i >= this.length; i--) {
+            this.buffer[i] = (char) ('0' + rest % radix);
+            rest /= radix;
+        }
+        this.length += digits;
+    }
+
+    /**
+     * Appends {@code text} to the buffer, replacing the characters which are
+     * special in HTML by character references.
+     *
+     * @param text
+     *            the text to append
+     * @throws IOException
+     *             if the output cannot be written
+     */
+    private void appendEscaped(String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&':
+                    this.appendRaw("&amp;");
+                    break;
+                case '<':
+                    this.appendRaw("&lt;");
+                    break;
+                case '>':
+                    this.appendRaw("&gt;");
+                    break;
+                case '"':
+                    this.appendRaw("&quot;");
+                    break;
+                case '\'':
+                    this.appendRaw("&#39;");
+                    break;
+                default:
+                    this.append(c);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Appends {@code text} to the buffer as it is.
+     *
+     * @param text
+     *            the text to append
+     * @throws IOException
+     *             if the output cannot be written
+     */
+    private void appendRaw(String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            this.append(text.charAt(i));
+        }
+    }
+
+    /**
+     * Appends {@code text} and a line separator to the buffer.
+     *
+     * @param text
+     *            the text to append
+     * @throws IOException
+     *             if the output cannot be written
+     */
+    private void appendLine(String text) throws IOException {
+        this.appendRaw(text);
+        this.appendRaw(LINE_SEPARATOR);
+    }
+
+    /**
+     * Writes the start of the page, up to the first word.
+     *
+     * @param title
+     *            the description of the input, used in the page title
+     * @param numWordsToOutput
+     *            the number of words in the tag cloud
+     * @throws IOException
+     *             if the output cannot be written
+     */
+    public void writeHeader(String title, int numWordsToOutput)
+            throws IOException {
+        this.appendLine("<html>");
+        this.appendLine("<head>");
+        this.appendLine(STYLE_LINKS);
+        this.appendRaw("<title> Top ");
+        this.appendNumber(numWordsToOutput);
+        this.appendRaw(" in ");
+        this.appendEscaped(title);
+        this.appendLine("</title>");
+        this.appendLine("</head>");
+        this.appendLine("<body>");
+        this.appendRaw("<h1> Top ");
+        this.appendNumber(numWordsToOutput);
+        this.appendRaw(" in ");
+        this.appendEscaped(title);
+        this.appendLine("</h1>");
+        this.appendLine("<hr>");
+        this.appendLine("<div class=\"cdiv\">");
+        this.appendLine("<p class =\"cbox\">");
+    }
+
+    @Override
+    public void writeHeader(String title, int numWordsToOutput, int minCount,
+            int maxCount, int errorBound) throws IOException {
+        this.minCount = minCount;
+        this.maxCount = maxCount;
+        this.errorBound = errorBound;
+        this.writeHeader(title, numWordsToOutput);
+    }
+
+    @Override
+    public void writeWord(String word, int count) throws IOException {
+        int fontSize = TagCloudGenerator.calculateFontSize(count,
+                this.minCount, this.maxCount, MIN_FONT_SIZE, MAX_FONT_SIZE);
+        this.writeWord(word, count, this.errorBound, fontSize);
+    }
+
+    /**
+     * Writes one word of the tag cloud.
+     *
+     * @param word
+     *            the word
+     * @param count
+     *            the number of occurrences of the word
+     * @param fontSize
+     *            the font size of the word
+     * @throws IOException
+     *             if the output cannot be written
+     * @requires <pre>
+     * count >= 0  and  MIN_FONT_SIZE <= fontSize <= MAX_FONT_SIZE
+     * </pre>
+     */
+    public void writeWord(String word, int count, int fontSize)
+            throws IOException {
+        this.writeWord(word, count, 0, fontSize);
+    }
+
+    /**
+     * Writes one word of the tag cloud with an approximate count, whose
+     * tooltip gives the error bound of the count unless it is 0.
+     *
+     * @param word
+     *            the word
+     * @param count
+     *            the approximate number of occurrences of the word
+     * @param errorBound
+     *            the most by which the count may exceed the true count
+     * @param fontSize
+     *            the font size of the word
+     * @throws IOException
+     *             if the output cannot be written
+     * @requires <pre>
+     * count >= 0  and  errorBound >= 0  and
+     * MIN_FONT_SIZE <= fontSize <= MAX_FONT_SIZE
+     * </pre>
+     */
+    public void writeWord(String word, int count, int errorBound,
+            int fontSize) throws IOException {
+        assert MIN_FONT_SIZE <= fontSize
+                && fontSize <= MAX_FONT_SIZE : "Violation of: "
+                        + "MIN_FONT_SIZE <= fontSize <= MAX_FONT_SIZE";
+
+        this.append(SPAN_STARTS[fontSize - MIN_FONT_SIZE]);
+        this.appendNumber(count);
+        if (errorBound > 0) {
+            this.append(ERROR_BOUND);
+            this.appendNumber(errorBound);
+        }
+        this.append(SPAN_MIDDLE);
+        this.appendEscaped(word);
+        this.append(SPAN_END);
+    }
+
+    /**
+     * Writes the end of the page, after the last word, and flushes the
+     * output.
+     *
+     * @throws IOException
+     *             if the output cannot be written
+     */
+    @Override
+    public void writeFooter() throws IOException {
+        this.appendLine("</p>");
+        this.appendLine("</div>");
+        this.appendLine("</body>");
+        this.appendLine("</html>");
+        this.drain();
+        this.out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.out.close();
+    }
+
+}
@@ -0,0 +1,110 @@
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes the words of a tag cloud as JSON lines: one JSON object per line
+ * and word, {@code {"word":"...","count":n}}, with an {@code "error"} member
+ * giving the error bound of the count if the counts are approximate. Words
+ * are escaped as JSON strings as they are written.
+ *
+ * @author Bryce Putman and Cody Yang
+ *
+ */
+public final class JsonLinesTagCloudWriter implements TagCloudRenderer {
+
+    /**
+     * Number of hexadecimal digits of a Unicode escape.
+     */
+    private static final int HEX_DIGITS = 4;
+
+    /**
+     * Characters below this must be escaped in a JSON string.
+     */
+    private static final char FIRST_UNESCAPED = ' ';
+
+    /**
+     * The output.
+     */
+    private final Writer out;
+
+    /**
+     * The error bound of the counts, written with each word unless 0.
+     */
+    private int errorBound = 0;
+
+    /**
+     * Constructor from output.
+     *
+     * @param out
+     *            the writer to write the lines to
+     */
+    public JsonLinesTagCloudWriter(Writer out) {
+        assert out != null : "Violation of: out is not null";
+
+        this.out = out;
+    }
+
+    /**
+     * Writes {@code text} as a JSON string, quoted and escaped.
+     *
+     * @param text
+     *            the text
+     * @throws IOException
+     *             if the output cannot be written
+     */
+    private void writeString(String text) throws IOException {
+        this.out.write('"');
+        int start = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\' || c < FIRST_UNESCAPED) {
+                // write the run of plain characters, then the escape
+                this.out.write(text, start, i - start);
+                if (c == '"' || c == '\\') {
+                    this.out.write('\\');
+                    this.out.write(c);
+                } else {
+                    String hex = Integer.toHexString(c);
+                    this.out.write("\\u");
+                    for (int j = hex.length(); j < HEX_DIGITS; j++) {
+                        this.out.write('0');
+                    }
+                    this.out.write(hex);
+                }
+                start = i + 1;
+            }
+        }
+        this.out.write(text, start, text.length() - start);
+        this.out.write('"');
+    }
+
+    @Override
+    public void writeHeader(String title, int numWordsToOutput, int minCount,
+            int maxCount, int errorBound) throws IOException {
+        this.errorBound = errorBound;
+    }
+
+    @Override
+    public void writeWord(String word, int count) throws IOException {
+        this.out.write("{\"word\":");
+        this.writeString(word);
+        this.out.write(",\"count\":");
+        this.out.write(Integer.toString(count));
+        if (this.errorBound > 0) {
+            this.out.write(",\"error\":");
+            this.out.write(Integer.toString(this.errorBound));
+        }
+        this.out.write("}\n");
+    }
+
+    @Override
+    public void writeFooter() throws IOException {
+        this.out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.out.close();
+    }
+
+}
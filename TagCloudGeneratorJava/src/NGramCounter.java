@@ -0,0 +1,523 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Counter of the phrases of {@code n} consecutive words (n-grams) of a text.
+ * Each distinct word is interned once, as a {@code String} with an
+ * {@code int} ID; an n-gram is then a tuple of {@code n} IDs, hashed and
+ * compared directly. The n-grams are kept with open addressing (linear
+ * probing) in one flat {@code int} array of IDs, {@code n} per slot, beside
+ * an array of counts, so counting a phrase seen before builds no string and
+ * allocates nothing, and each distinct phrase costs {@code n + 1} ints
+ * rather than a {@code String}. A phrase is built, its words joined by
+ * spaces, only when it is reported. The counts are exact.
+ *
+ * <p>
+ * Words are counted in the order they are given, each n-gram ending at the
+ * latest word; n-grams are not formed across the counters of different
+ * texts when they are merged by {@code addAll}.
+ *
+ * @author Bryce Putman and Cody Yang
+ *
+ */
+public final class NGramCounter implements WordCounter {
+
+    /**
+     * Largest number of words in an n-gram.
+     */
+    public static final int MAX_LENGTH = 3;
+
+    /**
+     * Capacity of the word and n-gram tables when created.
+     */
+    private static final int DEFAULT_CAPACITY = 64;
+
+    /**
+     * Largest capacity of the n-gram table, so that its IDs fit one array.
+     */
+    private static final int MAX_CAPACITY = 1 << 29;
+
+    /**
+     * Odd multiplier mixing each ID into the hash code of an n-gram.
+     */
+    private static final int MIX = 0x9E3779B9;
+
+    /**
+     * Character joining the words of a reported n-gram.
+     */
+    private static final char WORD_SEPARATOR = ' ';
+
+    /**
+     * Number of words in each n-gram.
+     */
+    private final int n;
+
+    /**
+     * Interned words, by ID.
+     */
+    private String[] words;
+
+    /**
+     * Hash codes of the interned words, by ID.
+     */
+    private int[] wordHashes;
+
+    /**
+     * Number of interned words, which is also the next ID.
+     */
+    private int wordCount;
+
+    /**
+     * Word table: the ID plus one of the word in each slot, 0 if empty.
+     */
+    private int[] wordSlots;
+
+    /**
+     * IDs of the words of the n-grams, {@code n} per slot.
+     */
+    private int[] grams;
+
+    /**
+     * Counts of the n-grams, 0 in empty slots.
+     */
+    private int[] counts;
+
+    /**
+     * Number of distinct n-grams.
+     */
+    private int size;
+
+    /**
+     * IDs of the latest words, oldest first.
+     */
+    private final int[] recent;
+
+    /**
+     * Number of words counted so far, up to {@code n}.
+     */
+    private int recentCount;
+
+    /**
+     * Number of times the word or n-gram table was grown.
+     */
+    private int resizes;
+
+    /**
+     * Constructor from n-gram length.
+     *
+     * @param n
+     *            the number of words in each n-gram
+     * @requires 0 < n <= MAX_LENGTH
+     */
+    public NGramCounter(int n) {
+        assert 0 < n
+                && n <= MAX_LENGTH : "Violation of: 0 < n <= MAX_LENGTH";
+
+        this.n = n;
+        this.words = new String[DEFAULT_CAPACITY];
+        this.wordHashes = new int[DEFAULT_CAPACITY];
+        this.wordCount = 0;
+        this.wordSlots = new int[DEFAULT_CAPACITY];
+        this.grams = new int[DEFAULT_CAPACITY * n];
+        this.counts = new int[DEFAULT_CAPACITY];
+        this.size = 0;
+        this.recent = new int[n];
+        this.recentCount = 0;
+        this.resizes = 0;
+    }
+
+    /**
+     * Returns the number of entries a table with {@code capacity} slots holds
+     * before it is grown, keeping the load factor at most 3/4.
+     *
+     * @param capacity
+     *            the number of slots
+     * @return the number of entries held before growing
+     */
+    private static int maxSize(int capacity) {
+        return capacity - capacity / 4;
+    }
+
+    /**
+     * Returns the hash code of the n-gram {@code ids[start, start + n)}.
+     *
+     * @param ids
+     *            the word IDs
+     * @param start
+     *            index of the ID of the first word of the n-gram
+     * @return the hash code of the n-gram
+     */
+    private int hashGram(int[] ids, int start) {
+        int hash = 0;
+        for (int i = start; i < start + this.n; i++) {
+            hash = (hash + ids[i]) * MIX;
+        }
+        return WordCountTable.spread(hash);
+    }
+
+    /**
+     * Interns the new word {@code word} with the given hash code in the empty
+     * slot {@code slot} of the word table, growing the table if it becomes too
+     * full.
+     *
+     * @param slot
+     *            the empty slot to fill
+     * @param word
+     *            the word
+     * @param hash
+     *            the hash code of the word
+     * @return the ID of the word
+     */
+    private int internNew(int slot, String word, int hash) {
+        int id = this.wordCount;
+        if (id == this.words.length) {
+            this.words = Arrays.copyOf(this.words, id * 2);
+            this.wordHashes = Arrays.copyOf(this.wordHashes, id * 2);
+        }
+        this.words[id] = word;
+        this.wordHashes[id] = hash;
+        this.wordSlots[slot] = id + 1;
+        this.wordCount++;
+        if (this.wordCount > maxSize(this.wordSlots.length)) {
+            // reinsert every ID using its cached hash code
+            this.resizes++;
+            int[] slots = new int[this.wordSlots.length * 2];
+            int mask = slots.length - 1;
+            for (int i = 0; i < this.wordCount; i++) {
+                int s = WordCountTable.spread(this.wordHashes[i]) & mask;
+                while (slots[s] != 0) {
+                    s = (s + 1) & mask;
+                }
+                slots[s] = i + 1;
+            }
+            this.wordSlots = slots;
+        }
+        return id;
+    }
+
+    /**
+     * Returns the ID of {@code word}, interning it if it is new.
+     *
+     * @param word
+     *            the word
+     * @return the ID of the word
+     */
+    private int intern(String word) {
+        int hash = word.hashCode();
+        int mask = this.wordSlots.length - 1;
+        int slot = WordCountTable.spread(hash) & mask;
+        while (this.wordSlots[slot] != 0) {
+            int id = this.wordSlots[slot] - 1;
+            if (this.wordHashes[id] == hash && this.words[id].equals(word)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return this.internNew(slot, word, hash);
+    }
+
+    /**
+     * Puts the n-gram {@code ids[start, start + n)} with count {@code count}
+     * in the n-gram table, or adds {@code count} to its count if it is
+     * already there.
+     *
+     * @param ids
+     *            the word IDs
+     * @param start
+     *            index of the ID of the first word of the n-gram
+     * @param count
+     *            the amount to add to the count of the n-gram
+     */
+    private void addGram(int[] ids, int start, int count) {
+        int mask = this.counts.length - 1;
+        int slot = this.hashGram(ids, start) & mask;
+        while (this.counts[slot] != 0) {
+            if (Arrays.equals(this.grams, slot * this.n,
+                    (slot + 1) * this.n, ids, start, start + this.n)) {
+                this.counts[slot] += count;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        System.arraycopy(ids, start, this.grams, slot * this.n, this.n);
+        this.counts[slot] = count;
+        this.size++;
+        if (this.size > maxSize(this.counts.length)) {
+            this.growGrams();
+        }
+    }
+
+    /**
+     * Doubles the capacity of the n-gram table, rehashing every n-gram from
+     * its IDs.
+     */
+    private void growGrams() {
+        assert this.counts.length < MAX_CAPACITY : ""
+                + "Violation of: table not full";
+
+        this.resizes++;
+
+        int[] oldGrams = this.grams;
+        int[] oldCounts = this.counts;
+        this.grams = new int[oldGrams.length * 2];
+        this.counts = new int[oldCounts.length * 2];
+        int mask = this.counts.length - 1;
+        for (int i = 0; i < oldCounts.length; i++) {
+            if (oldCounts[i] != 0) {
+                int slot = this.hashGram(oldGrams, i * this.n) & mask;
+                while (this.counts[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                System.arraycopy(oldGrams, i * this.n, this.grams,
+                        slot * this.n, this.n);
+                this.counts[slot] = oldCounts[i];
+            }
+        }
+    }
+
+    /**
+     * Appends the word with ID {@code id} to the latest words, counting the
+     * n-gram it ends once there are {@code n} of them.
+     *
+     * @param id
+     *            the ID of the word
+     */
+    private void countWord(int id) {
+        if (this.recentCount < this.n) {
+            this.recent[this.recentCount] = id;
+            this.recentCount++;
+        } else {
+            System.arraycopy(this.recent, 1, this.recent, 0, this.n - 1);
+            this.recent[this.n - 1] = id;
+        }
+        if (this.recentCount == this.n) {
+            this.addGram(this.recent, 0, 1);
+        }
+    }
+
+    /**
+     * Counts the word {@code word[start, end)} as the latest word of the
+     * text, adding one to the count of the n-gram it ends, if any.
+     *
+     * @param word
+     *            the characters of the word
+     * @param start
+     *            index of the first character of the word
+     * @param end
+     *            index one past the last character of the word
+     * @updates this
+     * @requires 0 <= start < end <= |word|
+     * @ensures this = #this with the count of the n-gram ending with
+     *          word[start, end) incremented
+     */
+    @Override
+    public void increment(char[] word, int start, int end) {
+        assert word != null : "Violation of: word is not null";
+        assert 0 <= start && start < end && end <= word.length : ""
+                + "Violation of: 0 <= start < end <= |word|";
+
+        int hash = WordCountTable.hash(word, start, end);
+        int mask = this.wordSlots.length - 1;
+        int slot = WordCountTable.spread(hash) & mask;
+        while (this.wordSlots[slot] != 0) {
+            int id = this.wordSlots[slot] - 1;
+            if (this.wordHashes[id] == hash && WordCountTable
+                    .matches(this.words[id], word, start, end)) {
+                this.countWord(id);
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        this.countWord(this.internNew(slot,
+                new String(word, start, end - start), hash));
+    }
+
+    /**
+     * Counts the word {@code word[start, end)} as the latest word of the
+     * text, adding one to the count of the n-gram it ends, if any.
+     *
+     * @param word
+     *            the characters of the word
+     * @param start
+     *            index of the first character of the word
+     * @param end
+     *            index one past the last character of the word
+     * @updates this
+     * @requires 0 <= start < end <= |word|
+     * @ensures this = #this with the count of the n-gram ending with
+     *          word[start, end) incremented
+     */
+    @Override
+    public void increment(CharSequence word, int start, int end) {
+        assert word != null : "Violation of: word is not null";
+        assert 0 <= start && start < end && end <= word.length() : ""
+                + "Violation of: 0 <= start < end <= |word|";
+
+        int hash = WordCountTable.hash(word, start, end);
+        int mask = this.wordSlots.length - 1;
+        int slot = WordCountTable.spread(hash) & mask;
+        while (this.wordSlots[slot] != 0) {
+            int id = this.wordSlots[slot] - 1;
+            if (this.wordHashes[id] == hash && WordCountTable
+                    .matches(this.words[id], word, start, end)) {
+                this.countWord(id);
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        this.countWord(this.internNew(slot,
+                word.subSequence(start, end).toString(), hash));
+    }
+
+    /**
+     * Counts the word whose UTF-8 bytes are {@code utf8[start, end)} as the
+     * latest word of the text. An ASCII word is hashed and compared byte by
+     * byte, so it is only decoded the first time it is seen; any other word
+     * is decoded first.
+     *
+     * @param utf8
+     *            the bytes of the text
+     * @param start
+     *            index of the first byte of the word
+     * @param end
+     *            index one past the last byte of the word
+     * @updates this
+     * @requires 0 <= start < end <= utf8.limit
+     * @ensures this = #this with the count of the n-gram ending with
+     *          [utf8[start, end) decoded] incremented
+     */
+    @Override
+    public void increment(ByteBuffer utf8, int start, int end) {
+        assert utf8 != null : "Violation of: utf8 is not null";
+        assert 0 <= start && start < end && end <= utf8.limit() : ""
+                + "Violation of: 0 <= start < end <= utf8.limit";
+
+        // hash as String.hashCode would, while checking for ASCII
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            byte b = utf8.get(i);
+            if (b < 0) {
+                WordCounter.super.increment(utf8, start, end);
+                return;
+            }
+            hash = 31 * hash + b;
+        }
+
+        int mask = this.wordSlots.length - 1;
+        int slot = WordCountTable.spread(hash) & mask;
+        while (this.wordSlots[slot] != 0) {
+            int id = this.wordSlots[slot] - 1;
+            if (this.wordHashes[id] == hash && WordCountTable
+                    .matches(this.words[id], utf8, start, end)) {
+                this.countWord(id);
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        byte[] word = new byte[end - start];
+        utf8.get(start, word);
+        this.countWord(this.internNew(slot,
+                new String(word, StandardCharsets.ISO_8859_1), hash));
+    }
+
+    /**
+     * Adds the counts of every n-gram of {@code source} to this counter. The
+     * words of another {@code NGramCounter} of the same length are interned
+     * once each, and its n-grams added by ID; the phrases of any other
+     * counter are split into words at spaces. No n-gram is formed across the
+     * latest words of this counter and the first words of {@code source}.
+     *
+     * @param source
+     *            the counter whose counts are added
+     * @updates this
+     * @requires source is not this and every phrase counted by source has n
+     *           words separated by single spaces
+     * @ensures this = [#this with the counts of source added by n-gram]
+     */
+    @Override
+    public void addAll(WordCounter source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+
+        if (source instanceof NGramCounter
+                && ((NGramCounter) source).n == this.n) {
+            NGramCounter counter = (NGramCounter) source;
+
+            // map the IDs of source to the IDs of this
+            int[] ids = new int[counter.wordCount];
+            for (int i = 0; i < counter.wordCount; i++) {
+                ids[i] = this.intern(counter.words[i]);
+            }
+            int[] gram = new int[this.n];
+            for (int i = 0; i < counter.counts.length; i++) {
+                if (counter.counts[i] != 0) {
+                    for (int j = 0; j < this.n; j++) {
+                        gram[j] = ids[counter.grams[i * this.n + j]];
+                    }
+                    this.addGram(gram, 0, counter.counts[i]);
+                }
+            }
+        } else {
+            int[] gram = new int[this.n];
+            source.forEach((phrase, count) -> {
+                int start = 0;
+                for (int j = 0; j < this.n - 1; j++) {
+                    int end = phrase.indexOf(WORD_SEPARATOR, start);
+                    gram[j] = this.intern(phrase.substring(start, end));
+                    start = end + 1;
+                }
+                gram[this.n - 1] = this.intern(phrase.substring(start));
+                this.addGram(gram, 0, count);
+            });
+        }
+    }
+
+    /**
+     * Returns the number of distinct n-grams counted.
+     *
+     * @return the number of distinct n-grams
+     */
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Performs {@code action} on every n-gram, its words joined by single
+     * spaces, and its count, in no particular order.
+     *
+     * @param action
+     *            the action to perform on each n-gram and count
+     */
+    @Override
+    public void forEach(ObjIntConsumer<String> action) {
+        assert action != null : "Violation of: action is not null";
+
+        StringBuilder phrase = new StringBuilder();
+        for (int i = 0; i < this.counts.length; i++) {
+            if (this.counts[i] != 0) {
+                phrase.setLength(0);
+                for (int j = 0; j < this.n; j++) {
+                    if (j > 0) {
+                        phrase.append(WORD_SEPARATOR);
+                    }
+                    phrase.append(this.words[this.grams[i * this.n + j]]);
+                }
+                action.accept(phrase.toString(), this.counts[i]);
+            }
+        }
+    }
+
+    @Override
+    public int errorBound() {
+        return 0;
+    }
+
+    @Override
+    public int resizes() {
+        return this.resizes;
+    }
+
+}
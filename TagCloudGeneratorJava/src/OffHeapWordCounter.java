@@ -0,0 +1,585 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Table of words and their counts kept outside the Java heap, for
+ * vocabularies too large for a {@code WordCountTable}. Each word is stored
+ * once, as its count followed by its length and its UTF-8 bytes, appended to
+ * large direct {@code ByteBuffer} arenas; an open addressing (linear
+ * probing) index of cached hash codes and arena references, also direct,
+ * finds it. Counting creates no objects at all, and the heap holds only a
+ * few buffers however many words there are, so garbage collection neither
+ * grows with the vocabulary nor pauses on it. A word costs its UTF-8 bytes
+ * plus about 20 bytes, against about 100 for a {@code String} key in a hash
+ * table. {@code String}s are only created when the words are iterated. The
+ * counts are exact.
+ *
+ * <p>
+ * Unpaired surrogates are counted as {@code '?'}, as
+ * {@code String.getBytes} encodes them.
+ * </p>
+ *
+ * @author Bryce Putman and Cody Yang
+ *
+ */
+public final class OffHeapWordCounter implements WordCounter {
+
+    /**
+     * Number of index slots of a counter created without a size hint.
+     */
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * Largest number of index slots, the most a direct buffer of references
+     * can hold.
+     */
+    private static final int MAX_CAPACITY = 1 << 27;
+
+    /**
+     * Number of bytes of each arena, unless a single word needs more.
+     */
+    private static final int ARENA_SIZE = 1 << 22;
+
+    /**
+     * Largest number of bytes of the UTF-8 encoding of one {@code char}.
+     */
+    private static final int MAX_BYTES_PER_CHAR = 3;
+
+    /**
+     * Byte of a word which cannot be encoded, as {@code String.getBytes}
+     * writes it.
+     */
+    private static final byte REPLACEMENT = '?';
+
+    /**
+     * Action performed on each entry by {@code forEachEntry}.
+     */
+    @FunctionalInterface
+    private interface EntryAction {
+
+        /**
+         * Performs this action on the word with the UTF-8 bytes
+         * {@code bytes[0, length)} and its count.
+         *
+         * @param bytes
+         *            the bytes of the word, valid only during the call
+         * @param length
+         *            the number of bytes of the word
+         * @param count
+         *            the count of the word
+         */
+        void accept(byte[] bytes, int length, int count);
+
+    }
+
+    /**
+     * Arenas of entries: the count, the length as a varint, then the UTF-8
+     * bytes of each word.
+     */
+    private final List<ByteBuffer> arenas = new ArrayList<>();
+
+    /**
+     * Arena entries are appended to, null before the first word.
+     */
+    private ByteBuffer arena = null;
+
+    /**
+     * Hash codes of the words in the index, by slot.
+     */
+    private IntBuffer hashes;
+
+    /**
+     * References of the words in the index, by slot: the arena number in the
+     * high 32 bits and the offset in the low, plus one, or 0 in empty slots.
+     */
+    private LongBuffer references;
+
+    /**
+     * Number of index slots.
+     */
+    private int capacity;
+
+    /**
+     * Number of words in the table.
+     */
+    private int size;
+
+    /**
+     * Number of words above which the index is grown.
+     */
+    private int threshold;
+
+    /**
+     * Number of times the index was grown.
+     */
+    private int resizes = 0;
+
+    /**
+     * Buffer the UTF-8 encoding of a word is built in.
+     */
+    private byte[] encoded = new byte[DEFAULT_CAPACITY];
+
+    /**
+     * No-argument constructor.
+     */
+    public OffHeapWordCounter() {
+        this.createIndex(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor from expected number of distinct words.
+     *
+     * @param expectedSize
+     *            the number of distinct words expected
+     * @requires expectedSize >= 0
+     */
+    public OffHeapWordCounter(int expectedSize) {
+        assert expectedSize >= 0 : "Violation of: expectedSize >= 0";
+
+        int slots = DEFAULT_CAPACITY;
+        while (slots < MAX_CAPACITY && maxSize(slots) < expectedSize) {
+            slots *= 2;
+        }
+        this.createIndex(slots);
+    }
+
+    /**
+     * Creates an empty index with the given number of slots.
+     *
+     * @param slots
+     *            the number of slots, a power of two
+     */
+    private void createIndex(int slots) {
+        this.hashes = ByteBuffer.allocateDirect(slots * Integer.BYTES)
+                .order(ByteOrder.nativeOrder()).asIntBuffer();
+        this.references = ByteBuffer.allocateDirect(slots * Long.BYTES)
+                .order(ByteOrder.nativeOrder()).asLongBuffer();
+        this.capacity = slots;
+        this.threshold = maxSize(slots);
+    }
+
+    /**
+     * Returns the number of words an index with {@code slots} slots holds
+     * before it is grown, keeping the load factor at most 3/4.
+     *
+     * @param slots
+     *            the number of slots
+     * @return the number of words held before growing
+     */
+    private static int maxSize(int slots) {
+        return slots - slots / 4;
+    }
+
+    /**
+     * Spreads the high bits of {@code hash} into the low bits used to index
+     * the table.
+     *
+     * @param hash
+     *            the hash code of a word
+     * @return the spread hash code
+     */
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Returns the hash code of the bytes {@code bytes[start, start + length)}.
+     *
+     * @param bytes
+     *            the bytes of the word
+     * @param start
+     *            index of the first byte of the word
+     * @param length
+     *            the number of bytes of the word
+     * @return the hash code of the word
+     */
+    private static int hash(byte[] bytes, int start, int length) {
+        int hash = 0;
+        for (int i = start; i < start + length; i++) {
+            hash = 31 * hash + bytes[i];
+        }
+        return hash;
+    }
+
+    /**
+     * Encodes {@code word[start, end)} in UTF-8 into {@code this.encoded}.
+     *
+     * @param word
+     *            the characters of the word
+     * @param start
+     *            index of the first character of the word
+     * @param end
+     *            index one past the last character of the word
+     * @return the number of bytes of the encoding
+     */
+    private int encode(char[] word, int start, int end) {
+        int maxLength = (end - start) * MAX_BYTES_PER_CHAR;
+        if (this.encoded.length < maxLength) {
+            this.encoded = new byte[Math.max(maxLength,
+                    2 * this.encoded.length)];
+        }
+        byte[] bytes = this.encoded;
+        int length = 0;
+        int i = start;
+
+        // ASCII, the common case, takes one byte per char
+        while (i < end && word[i] < 0x80) {
+            bytes[length] = (byte) word[i];
+            length++;
+            i++;
+        }
+        while (i < end) {
+            char c = word[i];
+            if (c < 0x80) {
+                bytes[length++] = (byte) c;
+            } else if (c < 0x800) {
+                bytes[length++] = (byte) (0xC0 | (c >> 6));
+                bytes[length++] = (byte) (0x80 | (c & 0x3F));
+            } else if (!Character.isSurrogate(c)) {
+                bytes[length++] = (byte) (0xE0 | (c >> 12));
+                bytes[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                bytes[length++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < end
+                    && Character.isLowSurrogate(word[i + 1])) {
+                int codePoint = Character.toCodePoint(c, word[i + 1]);
+                bytes[length++] = (byte) (0xF0 | (codePoint >> 18));
+                bytes[length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                bytes[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                bytes[length++] = (byte) (0x80 | (codePoint & 0x3F));
+                i++;
+            } else {
+                bytes[length++] = REPLACEMENT;
+            }
+            i++;
+        }
+        return length;
+    }
+
+    /**
+     * Returns the arena of the entry at {@code reference}.
+     *
+     * @param reference
+     *            the reference of the entry
+     * @return the arena of the entry
+     */
+    private ByteBuffer arenaOf(long reference) {
+        return this.arenas.get((int) (reference >>> Integer.SIZE));
+    }
+
+    /**
+     * Reports whether the word of the entry at {@code offset} of
+     * {@code arenaOfEntry} has the bytes {@code bytes[start, start + length)}.
+     *
+     * @param arenaOfEntry
+     *            the arena of the entry
+     * @param offset
+     *            the offset of the entry
+     * @param bytes
+     *            the bytes of the word
+     * @param start
+     *            index of the first byte of the word
+     * @param length
+     *            the number of bytes of the word
+     * @return true iff the entry is for the word
+     */
+    private static boolean matches(ByteBuffer arenaOfEntry, int offset,
+            byte[] bytes, int start, int length) {
+        int position = offset + Integer.BYTES;
+        int entryLength = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = arenaOfEntry.get(position);
+            position++;
+            entryLength |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        if (entryLength != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (arenaOfEntry.get(position + i) != bytes[start + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds {@code count} to the count of the word with the UTF-8 bytes
+     * {@code bytes[start, start + length)}.
+     *
+     * @param bytes
+     *            the bytes of the word
+     * @param start
+     *            index of the first byte of the word
+     * @param length
+     *            the number of bytes of the word
+     * @param count
+     *            the amount to add to the count of the word
+     */
+    private void add(byte[] bytes, int start, int length, int count) {
+        int hash = hash(bytes, start, length);
+        int mask = this.capacity - 1;
+        int slot = spread(hash) & mask;
+        long reference = this.references.get(slot);
+        while (reference != 0) {
+            reference--;
+            if (this.hashes.get(slot) == hash) {
+                ByteBuffer entryArena = this.arenaOf(reference);
+                int offset = (int) reference;
+                if (matches(entryArena, offset, bytes, start, length)) {
+                    entryArena.putInt(offset,
+                            entryArena.getInt(offset) + count);
+                    return;
+                }
+            }
+            slot = (slot + 1) & mask;
+            reference = this.references.get(slot);
+        }
+
+        this.hashes.put(slot, hash);
+        this.references.put(slot, this.append(bytes, start, length, count)
+                + 1);
+        this.size++;
+        if (this.size > this.threshold) {
+            this.grow();
+        }
+    }
+
+    /**
+     * Appends an entry for the word with the UTF-8 bytes
+     * {@code bytes[start, start + length)} and the given count to the
+     * current arena, starting a new arena if it is full.
+     *
+     * @param bytes
+     *            the bytes of the word
+     * @param start
+     *            index of the first byte of the word
+     * @param length
+     *            the number of bytes of the word
+     * @param count
+     *            the count of the word
+     * @return the reference of the entry
+     */
+    private long append(byte[] bytes, int start, int length, int count) {
+        final int maxVarIntBytes = 5;
+        int entrySize = Integer.BYTES + maxVarIntBytes + length;
+        if (this.arena == null || this.arena.remaining() < entrySize) {
+            this.arena = ByteBuffer.allocateDirect(
+                    Math.max(ARENA_SIZE, entrySize));
+            this.arenas.add(this.arena);
+        }
+        long reference = ((long) (this.arenas.size() - 1) << Integer.SIZE)
+                | this.arena.position();
+        this.arena.putInt(count);
+        int rest = length;
+        while (rest >= 0x80) {
+            this.arena.put((byte) ((rest & 0x7F) | 0x80));
+            rest >>>= 7;
+        }
+        this.arena.put((byte) rest);
+        this.arena.put(bytes, start, length);
+        return reference;
+    }
+
+    /**
+     * Doubles the number of index slots, reinserting every word using its
+     * cached hash code.
+     */
+    private void grow() {
+        assert this.capacity < MAX_CAPACITY : "Violation of: index not full";
+
+        this.resizes++;
+
+        IntBuffer oldHashes = this.hashes;
+        LongBuffer oldReferences = this.references;
+        int oldCapacity = this.capacity;
+        this.createIndex(oldCapacity * 2);
+        int mask = this.capacity - 1;
+        for (int i = 0; i < oldCapacity; i++) {
+            long reference = oldReferences.get(i);
+            if (reference != 0) {
+                int hash = oldHashes.get(i);
+                int slot = spread(hash) & mask;
+                while (this.references.get(slot) != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                this.hashes.put(slot, hash);
+                this.references.put(slot, reference);
+            }
+        }
+    }
+
+    /**
+     * Performs {@code action} on the bytes of the word of every entry, the
+     * index of its first byte, its number of bytes and its count, in the
+     * order the words were first counted.
+     *
+     * @param action
+     *            the action to perform on each entry
+     */
+    private void forEachEntry(EntryAction action) {
+        byte[] bytes = new byte[DEFAULT_CAPACITY];
+        for (ByteBuffer entryArena : this.arenas) {
+            int position = 0;
+            while (position < entryArena.position()) {
+                int count = entryArena.getInt(position);
+                position += Integer.BYTES;
+                int length = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = entryArena.get(position);
+                    position++;
+                    length |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                if (bytes.length < length) {
+                    bytes = new byte[Math.max(length, 2 * bytes.length)];
+                }
+                entryArena.get(position, bytes, 0, length);
+                position += length;
+                action.accept(bytes, length, count);
+            }
+        }
+    }
+
+    @Override
+    public void increment(char[] word, int start, int end) {
+        assert word != null : "Violation of: word is not null";
+        assert 0 <= start && start < end && end <= word.length : ""
+                + "Violation of: 0 <= start < end <= |word|";
+
+        int length = this.encode(word, start, end);
+        this.add(this.encoded, 0, length, 1);
+    }
+
+    @Override
+    public void increment(CharSequence word, int start, int end) {
+        assert word != null : "Violation of: word is not null";
+        assert 0 <= start && start < end && end <= word.length() : ""
+                + "Violation of: 0 <= start < end <= |word|";
+
+        this.add(word.subSequence(start, end).toString(), 1);
+    }
+
+    /**
+     * Adds one to the count of the word whose UTF-8 bytes are
+     * {@code utf8[start, end)}. The bytes of an ASCII word are counted as
+     * they are; any other word is decoded first, so that malformed bytes are
+     * counted as they would be after decoding the text.
+     *
+     * @param utf8
+     *            the bytes of the text
+     * @param start
+     *            index of the first byte of the word
+     * @param end
+     *            index one past the last byte of the word
+     * @updates this
+     * @requires 0 <= start < end <= utf8.limit
+     * @ensures this = #this with the count of [utf8[start, end) decoded]
+     *          incremented
+     */
+    @Override
+    public void increment(ByteBuffer utf8, int start, int end) {
+        assert utf8 != null : "Violation of: utf8 is not null";
+        assert 0 <= start && start < end && end <= utf8.limit() : ""
+                + "Violation of: 0 <= start < end <= utf8.limit";
+
+        int length = end - start;
+        if (this.encoded.length < length) {
+            this.encoded = new byte[Math.max(length, 2 * this.encoded.length)];
+        }
+        utf8.get(start, this.encoded, 0, length);
+        for (int i = 0; i < length; i++) {
+            if (this.encoded[i] < 0) {
+                WordCounter.super.increment(utf8, start, end);
+                return;
+            }
+        }
+        this.add(this.encoded, 0, length, 1);
+    }
+
+    /**
+     * Adds {@code count} to the count of {@code word}.
+     *
+     * @param word
+     *            the word
+     * @param count
+     *            the amount to add to the count of the word
+     * @updates this
+     * @requires count > 0
+     * @ensures this = #this with count added to the count of word
+     */
+    public void add(String word, int count) {
+        assert word != null : "Violation of: word is not null";
+        assert count > 0 : "Violation of: count > 0";
+
+        byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
+        this.add(bytes, 0, bytes.length, count);
+    }
+
+    /**
+     * Adds the counts of every word of {@code source} to this table. The
+     * bytes of another {@code OffHeapWordCounter} are added without decoding
+     * them.
+     *
+     * @param source
+     *            the counter whose counts are added
+     * @updates this
+     * @requires source is not this
+     * @ensures this = [#this with the counts of source added by word]
+     */
+    @Override
+    public void addAll(WordCounter source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+
+        if (source instanceof OffHeapWordCounter) {
+            ((OffHeapWordCounter) source).forEachEntry(
+                    (bytes, length, count) -> this.add(bytes, 0, length,
+                            count));
+        } else {
+            source.forEach(this::add);
+        }
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Performs {@code action} on every word of the table and its count, in
+     * the order the words were first counted. Each word is decoded into a new
+     * {@code String}.
+     *
+     * @param action
+     *            the action to perform on each word and count
+     */
+    @Override
+    public void forEach(ObjIntConsumer<String> action) {
+        assert action != null : "Violation of: action is not null";
+
+        this.forEachEntry((bytes, length, count) -> action.accept(
+                new String(bytes, 0, length, StandardCharsets.UTF_8), count));
+    }
+
+    @Override
+    public int errorBound() {
+        return 0;
+    }
+
+    @Override
+    public int resizes() {
+        return this.resizes;
+    }
+
+}
@@ -0,0 +1,126 @@
+import java.util.function.Supplier;
+
+/**
+ * Word counts over a sliding window of time, kept as a ring of buckets each
+ * counting the words of one slice of the window. Words are counted into the
+ * bucket of the current time; as time moves on, the buckets which slide out
+ * of the window are simply dropped, which takes O(number of buckets) time
+ * however many words they counted, instead of recounting the window. The
+ * window is the current bucket and the {@code buckets - 1} before it, so it
+ * spans between {@code windowMillis - bucketMillis} and {@code windowMillis}
+ * milliseconds.
+ *
+ * @author Bryce Putman and Cody Yang
+ *
+ */
+public final class SlidingWindowCounter {
+
+    /**
+     * Creates the counter of each bucket, and of the window.
+     */
+    private final Supplier<? extends WordCounter> counters;
+
+    /**
+     * Ring of bucket counters, null for buckets nothing was counted in.
+     */
+    private final WordCounter[] buckets;
+
+    /**
+     * Number of milliseconds of each bucket.
+     */
+    private final long bucketMillis;
+
+    /**
+     * Number of the bucket of the current time, counting buckets from the
+     * epoch; it is in slot {@code currentBucket % buckets.length}.
+     */
+    private long currentBucket;
+
+    /**
+     * Constructor from the length of the window and number of buckets.
+     *
+     * @param windowMillis
+     *            the number of milliseconds of the window
+     * @param buckets
+     *            the number of buckets the window is divided into
+     * @param counters
+     *            creates the counter of each bucket
+     * @param now
+     *            the current time, in milliseconds since the epoch
+     * @requires windowMillis >= buckets > 0
+     */
+    public SlidingWindowCounter(long windowMillis, int buckets,
+            Supplier<? extends WordCounter> counters, long now) {
+        assert buckets > 0 : "Violation of: buckets > 0";
+        assert windowMillis >= buckets : ""
+                + "Violation of: windowMillis >= buckets";
+        assert counters != null : "Violation of: counters is not null";
+
+        this.counters = counters;
+        this.buckets = new WordCounter[buckets];
+        this.bucketMillis = (windowMillis + buckets - 1) / buckets;
+        this.currentBucket = now / this.bucketMillis;
+    }
+
+    /**
+     * Moves the window on to {@code now}, dropping the buckets which slid out
+     * of it. A time before the current bucket, as after the clock is set
+     * back, counts as the current bucket.
+     *
+     * @param now
+     *            the current time, in milliseconds since the epoch
+     * @updates this
+     */
+    private void advance(long now) {
+        long bucket = now / this.bucketMillis;
+        if (bucket > this.currentBucket) {
+            // a gap longer than the window empties every bucket
+            long steps = Math.min(bucket - this.currentBucket,
+                    this.buckets.length);
+            for (long i = 1; i <= steps; i++) {
+                this.buckets[(int) ((this.currentBucket + i)
+                        % this.buckets.length)] = null;
+            }
+            this.currentBucket = bucket;
+        }
+    }
+
+    /**
+     * Returns the counter of the bucket of {@code now}, into which the words
+     * seen now are counted.
+     *
+     * @param now
+     *            the current time, in milliseconds since the epoch
+     * @return the counter of the current bucket
+     * @updates this
+     */
+    public WordCounter bucket(long now) {
+        this.advance(now);
+        int slot = (int) (this.currentBucket % this.buckets.length);
+        if (this.buckets[slot] == null) {
+            this.buckets[slot] = this.counters.get();
+        }
+        return this.buckets[slot];
+    }
+
+    /**
+     * Returns a new counter of the words counted in the window ending at
+     * {@code now}, the sum of the counters of its buckets.
+     *
+     * @param now
+     *            the current time, in milliseconds since the epoch
+     * @return the counter of the words of the window
+     * @updates this
+     */
+    public WordCounter window(long now) {
+        this.advance(now);
+        WordCounter wordToCount = this.counters.get();
+        for (WordCounter bucket : this.buckets) {
+            if (bucket != null) {
+                wordToCount.addAll(bucket);
+            }
+        }
+        return wordToCount;
+    }
+
+}
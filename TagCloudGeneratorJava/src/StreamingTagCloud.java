@@ -0,0 +1,294 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Long-running tag cloud of a stream of UTF-8 text, either standard input or
+ * a file which keeps growing. Words are counted into a
+ * {@code SlidingWindowCounter} as they arrive, and every refresh period the
+ * tag cloud of the words in the window is written to the output file,
+ * replacing the previous one in a single step so that a reader of the file
+ * never sees it half written.
+ *
+ * @author Bryce Putman and Cody Yang
+ *
+ */
+public final class StreamingTagCloud {
+
+    /**
+     * Number of bytes read from the stream at a time.
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Milliseconds to wait for a followed file to grow before reading again.
+     */
+    private static final long POLL_MILLIS = 200;
+
+    /**
+     * Words counted over the window, guarded by its own lock.
+     */
+    private final SlidingWindowCounter window;
+
+    /**
+     * The file the tag cloud is written to.
+     */
+    private final Path outPath;
+
+    /**
+     * The description of the stream, used for descriptive output.
+     */
+    private final String title;
+
+    /**
+     * The separator characters.
+     */
+    private final SeparatorClass separators;
+
+    /**
+     * Classifier of the chunks counted, or {@code null} if they are scanned
+     * character by character.
+     */
+    private final VectorSeparatorScanner scanner;
+
+    /**
+     * The normalization of counted words.
+     */
+    private final WordNormalizer normalizer;
+
+    /**
+     * The format of the tag cloud.
+     */
+    private final TagCloudFormat format;
+
+    /**
+     * Number of words in the tag cloud.
+     */
+    private final int numWordsToOutput;
+
+    /**
+     * The metrics of the run.
+     */
+    private final TagCloudMetrics metrics;
+
+    /**
+     * Constructor from the stream's window and tag cloud parameters.
+     *
+     * @param outPath
+     *            the file to write the tag cloud to
+     * @param title
+     *            the description of the stream, used for descriptive output
+     * @param separators
+     *            the class of separator characters
+     * @param normalizer
+     *            the normalization of counted words
+     * @param format
+     *            the format of the tag cloud
+     * @param numWordsToOutput
+     *            the number of words to output to tag cloud
+     * @param windowMillis
+     *            the number of milliseconds of the window
+     * @param buckets
+     *            the number of buckets the window is divided into
+     * @param counters
+     *            creates the word counters, exact or approximate
+     * @param metrics
+     *            the metrics of the run
+     * @requires windowMillis >= buckets > 0
+     */
+    public StreamingTagCloud(Path outPath, String title,
+            SeparatorClass separators, WordNormalizer normalizer,
+            TagCloudFormat format, int numWordsToOutput, long windowMillis,
+            int buckets, Supplier<? extends WordCounter> counters,
+            TagCloudMetrics metrics) {
+        this.outPath = outPath;
+        this.title = title;
+        this.separators = separators;
+        this.scanner = WordCounting.separatorScanner(separators);
+        this.normalizer = normalizer;
+        this.format = format;
+        this.numWordsToOutput = numWordsToOutput;
+        this.metrics = metrics;
+        this.window = new SlidingWindowCounter(windowMillis, buckets, counters,
+                System.currentTimeMillis());
+    }
+
+    /**
+     * Counts the words of {@code in} as they arrive, writing the tag cloud of
+     * the window every {@code refreshMillis} milliseconds and once more at the
+     * end. A {@code FileChannel} is followed: at its end, reading waits for
+     * the file to grow, and starts over from the beginning if the file is
+     * truncated, so it runs until the thread is interrupted or the process
+     * stopped. Any other channel ends at its end of stream.
+     *
+     * @param in
+     *            the stream of UTF-8 text
+     * @param refreshMillis
+     *            the number of milliseconds between tag clouds
+     * @throws IOException
+     *             if the stream cannot be read or the last tag cloud cannot
+     *             be written
+     * @requires refreshMillis > 0
+     */
+    public void run(ReadableByteChannel in, long refreshMillis)
+            throws IOException {
+        assert in != null : "Violation of: in is not null";
+        assert refreshMillis > 0 : "Violation of: refreshMillis > 0";
+
+        ScheduledExecutorService refresher = Executors
+                .newSingleThreadScheduledExecutor();
+        refresher.scheduleAtFixedRate(() -> {
+            /*
+             * report any failure rather than let it escape, which would
+             * cancel every later refresh
+             */
+            try {
+                this.writeTagCloud();
+            } catch (IOException | RuntimeException e) {
+                System.err.println(e);
+            }
+        }, refreshMillis, refreshMillis, TimeUnit.MILLISECONDS);
+        try {
+            this.count(in);
+        } finally {
+            // cancel later refreshes and let one being written finish
+            refresher.shutdown();
+            boolean interrupted = false;
+            while (!refresher.isTerminated()) {
+                try {
+                    refresher.awaitTermination(refreshMillis,
+                            TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    // the interrupt that stopped counting, kept for later
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        this.writeTagCloud();
+    }
+
+    /**
+     * Counts the words of {@code in} into the bucket of the time each chunk
+     * arrives, until the end of the stream or, for a followed file, until the
+     * thread is interrupted.
+     *
+     * @param in
+     *            the stream of UTF-8 text
+     * @throws IOException
+     *             if the stream cannot be read
+     */
+    private void count(ReadableByteChannel in) throws IOException {
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+        // a byte never decodes to more than one char, so chars cannot overflow
+        CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+        StringBuilder partialWord = new StringBuilder();
+        boolean follow = in instanceof FileChannel;
+
+        while (!Thread.currentThread().isInterrupted()) {
+            long readStart = System.nanoTime();
+            int bytesRead = in.read(bytes);
+            this.metrics.addTime(TagCloudMetrics.Phase.READ, readStart);
+            if (bytesRead < 0) {
+                if (!follow) {
+                    break;
+                }
+                FileChannel file = (FileChannel) in;
+                if (file.size() < file.position()) {
+                    // the file was truncated, so start over on the new text
+                    file.position(0);
+                    decoder.reset();
+                    bytes.clear();
+                    partialWord.setLength(0);
+                }
+                try {
+                    Thread.sleep(POLL_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            } else {
+                this.metrics.addBytesRead(bytesRead);
+                bytes.flip();
+                decoder.decode(bytes, chars, false);
+                bytes.compact();
+                this.countChars(chars, partialWord);
+            }
+        }
+
+        // count the bytes of an incomplete character and the last word
+        bytes.flip();
+        decoder.decode(bytes, chars, true);
+        decoder.flush(chars);
+        this.countChars(chars, partialWord);
+        synchronized (this.window) {
+            this.metrics.addTokens(WordCounting.countPartialWord(
+                    partialWord, this.normalizer,
+                    this.window.bucket(System.currentTimeMillis())));
+        }
+    }
+
+    /**
+     * Counts the words of the decoded characters in {@code chars} into the
+     * current bucket, and clears {@code chars}.
+     *
+     * @param chars
+     *            the decoded characters, from 0 to its position
+     * @param partialWord
+     *            the word which may continue across chunk boundaries
+     * @updates chars, partialWord
+     */
+    private void countChars(CharBuffer chars, StringBuilder partialWord) {
+        long countStart = System.nanoTime();
+        synchronized (this.window) {
+            WordCounter bucket = this.window
+                    .bucket(System.currentTimeMillis());
+            int resizes = bucket.resizes();
+            this.metrics.addTokens(WordCounting.countChunk(chars.array(),
+                    chars.position(), this.separators, this.scanner,
+                    this.normalizer, partialWord, bucket));
+            this.metrics.addResizes(bucket.resizes() - resizes);
+        }
+        this.metrics.addTime(TagCloudMetrics.Phase.COUNT, countStart);
+        chars.clear();
+    }
+
+    /**
+     * Writes the tag cloud of the words in the window to the output file. It
+     * is written to a temporary file which then replaces the output file.
+     *
+     * @throws IOException
+     *             if the tag cloud cannot be written
+     */
+    private void writeTagCloud() throws IOException {
+        WordCounter wordToCount;
+        synchronized (this.window) {
+            wordToCount = this.window.window(System.currentTimeMillis());
+        }
+        Path tempFile = this.outPath
+                .resolveSibling(this.outPath.getFileName() + ".tmp");
+        try (TagCloudRenderer outFile = this.format.open(tempFile)) {
+            TagCloudGenerator.outputTagCloud(wordToCount, this.title, outFile,
+                    this.numWordsToOutput, this.metrics);
+        }
+        Files.move(tempFile, this.outPath, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+}
@@ -0,0 +1,156 @@
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Output formats of a tag cloud: the HTML page, or a machine-readable table
+ * of the words and their counts for consumers which would otherwise parse
+ * the page back out. Each format creates the {@code TagCloudRenderer} which
+ * writes it.
+ *
+ * @author Bryce Putman and Cody Yang
+ *
+ */
+public enum TagCloudFormat {
+
+    /**
+     * HTML page, written by {@code HtmlTagCloudWriter}.
+     */
+    HTML("html", ".html"),
+
+    /**
+     * CSV table, written by {@code CsvTagCloudWriter}.
+     */
+    CSV("csv", ".csv"),
+
+    /**
+     * JSON object per line, written by {@code JsonLinesTagCloudWriter}.
+     */
+    JSON_LINES("jsonl", ".jsonl"),
+
+    /**
+     * Binary table, written by {@code BinaryTagCloudWriter}.
+     */
+    BINARY("binary", ".bin");
+
+    /**
+     * Number of bytes buffered before writing to the output.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Name of the format on the command line.
+     */
+    private final String optionName;
+
+    /**
+     * File name extension of the format, including the dot.
+     */
+    private final String extension;
+
+    /**
+     * Constructor from names.
+     *
+     * @param optionName
+     *            the name of the format on the command line
+     * @param extension
+     *            the file name extension of the format
+     */
+    TagCloudFormat(String optionName, String extension) {
+        this.optionName = optionName;
+        this.extension = extension;
+    }
+
+    /**
+     * Returns the format named {@code optionName} on the command line.
+     *
+     * @param optionName
+     *            the name of the format
+     * @return the format
+     * @throws IllegalArgumentException
+     *             if there is no such format
+     */
+    public static TagCloudFormat fromOptionName(String optionName) {
+        for (TagCloudFormat format : values()) {
+            if (format.optionName.equals(optionName)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unknown format: " + optionName);
+    }
+
+    /**
+     * Returns the file name extension of this format, including the dot.
+     *
+     * @return the extension
+     */
+    public String extension() {
+        return this.extension;
+    }
+
+    /**
+     * Returns whether this format is a table for programs rather than a page
+     * for people, so that by default it holds every word.
+     *
+     * @return true iff this is not {@code HTML}
+     */
+    public boolean isMachineReadable() {
+        return this != HTML;
+    }
+
+    /**
+     * Creates a renderer of this format writing to {@code out}, which it
+     * buffers. The HTML page is written in the platform's default charset,
+     * like a {@code FileWriter}, and the text tables in UTF-8.
+     *
+     * @param out
+     *            the output
+     * @return the renderer
+     */
+    public TagCloudRenderer renderer(OutputStream out) {
+        TagCloudRenderer renderer;
+        switch (this) {
+            case CSV:
+                renderer = new CsvTagCloudWriter(new BufferedWriter(
+                        new OutputStreamWriter(out, StandardCharsets.UTF_8),
+                        BUFFER_SIZE));
+                break;
+            case JSON_LINES:
+                renderer = new JsonLinesTagCloudWriter(new BufferedWriter(
+                        new OutputStreamWriter(out, StandardCharsets.UTF_8),
+                        BUFFER_SIZE));
+                break;
+            case BINARY:
+                renderer = new BinaryTagCloudWriter(
+                        new BufferedOutputStream(out, BUFFER_SIZE));
+                break;
+            default:
+                // the HTML writer buffers the page itself
+                renderer = new HtmlTagCloudWriter(
+                        new OutputStreamWriter(out, Charset.defaultCharset()));
+                break;
+        }
+        return renderer;
+    }
+
+    /**
+     * Creates a renderer of this format writing to the file at {@code path},
+     * replacing any existing file.
+     *
+     * @param path
+     *            the path of the output file
+     * @return the renderer
+     * @throws IOException
+     *             if the file cannot be created
+     */
+    public TagCloudRenderer open(Path path) throws IOException {
+        return this.renderer(Files.newOutputStream(path));
+    }
+
+}
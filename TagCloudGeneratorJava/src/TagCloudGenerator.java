@@ -1,17 +1,46 @@
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
-import java.io.FileNotFoundException;
+import java.io.File;
 import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import components.simplereader.SimpleReader;
 import components.simplereader.SimpleReader1L;
@@ -36,7 +65,9 @@ public final class TagCloudGenerator {
     }
 
     /**
-     * Comparator used to sort integers in descending order.
+     * Comparator used to sort integers in descending order. Entries with equal
+     * counts are ordered by key, so that the words selected are the same from
+     * run to run.
      */
     private static class IntegerGT
             implements Comparator<Map.Entry<String, Integer>> {
@@ -44,141 +75,67 @@ public final class TagCloudGenerator {
         public int compare(Map.Entry<String, Integer> o1,
                 Map.Entry<String, Integer> o2) {
             // return descending integer order
-            return -o1.getValue().compareTo(o2.getValue());
-        }
-    }
-
-    /**
-     * Comparator used to sort map entries by their key in alphabetical order.
-     */
-    private static class StringAlphabetical
-            implements Comparator<Map.Entry<String, Integer>> {
-        @Override
-        public int compare(Map.Entry<String, Integer> o1,
-                Map.Entry<String, Integer> o2) {
-            // return alphabetical order, ignoring case
-            return o1.getKey().compareToIgnoreCase(o2.getKey());
+            int order = -o1.getValue().compareTo(o2.getValue());
+            if (order == 0) {
+                // break ties by key
+                order = o1.getKey().compareTo(o2.getKey());
+            }
+            return order;
         }
     }
 
     /**
-     * Returns the first "word" (maximal length string of characters not in
-     * {@code separators}) or "separator string" (maximal length string of
-     * characters in {@code separators}) in the given {@code text} starting at
-     * the given {@code position}.
-     *
-     * @param text
-     *            the {@code String} from which to get the word or separator
-     *            string
-     * @param position
-     *            the starting index
-     * @param separators
-     *            the {@code Set} of separator characters
-     * @return the first word or separator string found in {@code text} starting
-     *         at index {@code position}
-     * @requires 0 <= position < |text|
-     * @ensures <pre>
-     * nextWordOrSeparator =
-     *   text[position, position + |nextWordOrSeparator|)  and
-     * if entries(text[position, position + 1)) intersection separators = {}
-     * then
-     *   entries(nextWordOrSeparator) intersection separators = {}  and
-     *   (position + |nextWordOrSeparator| = |text|  or
-     *    entries(text[position, position + |nextWordOrSeparator| + 1))
-     *      intersection separators /= {})
-     * else
-     *   entries(nextWordOrSeparator) is subset of separators  and
-     *   (position + |nextWordOrSeparator| = |text|  or
-     *    entries(text[position, position + |nextWordOrSeparator| + 1))
-     *      is not subset of separators)
-     * </pre>
+     * Map entry together with its collation key, the key of the entry with
+     * its case folded, computed once rather than on every comparison.
      */
+    private static final class CollationKey {
 
-    private static String nextWordOrSeparator(String text, int position,
-            Set<Character> separators) {
-        /*
-         * create nextWordOrSeparator to store either a word or string of
-         * separators
+        /**
+         * The key of the entry with its case folded.
          */
-        String nextWordOrSeparator = "";
-
-        // store whether first character is start of word or string of separators
-        boolean firstCharIsSeparator = separators
-                .contains(text.charAt(position));
+        private final String folded;
 
-        // create new variable to store position to avoid warnings
-        int newPosition = position;
+        /**
+         * The entry.
+         */
+        private final Map.Entry<String, Integer> entry;
 
-        /*
-         * continue until end of text is reached or first change in separator vs
-         * other character is reached
+        /**
+         * Constructor from entry.
+         *
+         * @param entry
+         *            the entry
          */
-        while (newPosition < text.length() && separators
-                .contains(text.charAt(newPosition)) == firstCharIsSeparator) {
-            // add next character to next word or separator
-            nextWordOrSeparator += text.charAt(newPosition);
-            // increment position to move through text
-            newPosition++;
+        CollationKey(Map.Entry<String, Integer> entry) {
+            this.folded = WordNormalizer.fold(entry.getKey());
+            this.entry = entry;
         }
-
-        return nextWordOrSeparator;
     }
 
     /**
-     * Creates a map containing the words in the files as keys, which are mapped
-     * to the number of occurrences of those words as values.
-     *
-     * @param inFile
-     *            the input stream, used to read in the words
-     * @param separators
-     *            a set containing separator characters
-     * @return map with keys being words and values being the word's respective
-     *         number of occurrences
-     * @ensures wordToCount = the words contained within in, mapped to the
-     *          number of appearances of the word with in
+     * Comparator used to sort map entries by their key in alphabetical order,
+     * using their collation keys.
      */
-    private static Map<String, Integer> createWordToCountMap(
-            BufferedReader inFile, Set<Character> separators) {
-
-        // create map of words to their respective counts
-        Map<String, Integer> wordToCount = new HashMap<>();
-
-        // store text from input file
-        String text = "";
-
-        // index in text to look for next word or separator
-        int position = 0;
-
-        // store text from input file
-        try {
-            String line = inFile.readLine();
-            while (line != null) {
-                text += line;
-                line = inFile.readLine();
-            }
-        } catch (IOException e) {
-            System.err.println(e);
-        }
-
-        // loops until end of text is reached
-        while (position < text.length()) {
-            // get next word or separator
-            String string = nextWordOrSeparator(text, position, separators);
-            // check if next string is a word
-            if (!separators.contains(string.charAt(0))) {
-                /*
-                 * increment word count by one, assuming count starts at 0 if
-                 * not found
-                 */
-                wordToCount.put(string,
-                        wordToCount.getOrDefault(string, 0) + 1);
+    private static class StringAlphabetical
+            implements Comparator<CollationKey> {
+        @Override
+        public int compare(CollationKey o1, CollationKey o2) {
+            // return alphabetical order, ignoring case
+            int order = o1.folded.compareTo(o2.folded);
+            if (order == 0) {
+                // break ties between words differing only in case
+                order = o1.entry.getKey().compareTo(o2.entry.getKey());
             }
-            // move along text according to length of string
-            position += string.length();
+            return order;
         }
-        return wordToCount;
     }
 
+    /**
+     * Most selected entries room is made for up front, since a full table may
+     * ask for every word of a merge whose number of words is not known.
+     */
+    private static final int MAX_INITIAL_SELECTION = 1 << 16;
+
     /**
      * Creates a tag cloud of the number of tags requested, with descending
      * order from the map given. The words are sorted in alphabetical order.
@@ -188,77 +145,276 @@ public final class TagCloudGenerator {
      *            the input stream, used to read in the words
      * @param inFileName
      *            the name of the input stream, used for descriptive output
-     * @param outFile
-     *            the output file
+     * @param renderer
+     *            the renderer of the tag cloud
      * @param numWordsToOutput
      *            the number of words to output to tag cloud
      * @param separators
-     *            a set containing separator characters
-     * @ensures the output file is populated with HTML which creates the
-     *          described tag cloud.
+     *            the class of separator characters
+     * @param normalizer
+     *            the normalization of counted words
+     * @param counters
+     *            creates the word counter, exact or approximate
+     * @param metrics
+     *            the metrics of the run
+     * @updates metrics
+     * @ensures the renderer's output is populated with the described tag
+     *          cloud.
      */
 
     public static void createTagCloud(BufferedReader inFile, String inFileName,
-            PrintWriter outFile, Set<Character> separators,
-            int numWordsToOutput) {
-
-        // create map of words to their respective counts
-        Map<String, Integer> wordToCount = createWordToCountMap(inFile,
-                separators);
-
-        // create integer descending order comparator
-        IntegerGT descendingOrder = new IntegerGT();
+            TagCloudRenderer renderer, SeparatorClass separators,
+            int numWordsToOutput, WordNormalizer normalizer,
+            Supplier<? extends WordCounter> counters,
+            TagCloudMetrics metrics) {
+
+        // create counter of words to their respective counts
+        WordCounter wordToCount = WordCounting.createWordToCountMap(inFile,
+                separators, normalizer, counters, metrics);
+
+        // select, sort and print the most frequent words
+        outputTagCloud(wordToCount, inFileName, renderer, numWordsToOutput,
+                metrics);
+    }
 
-        // create sorting machine with descending order for string, integer pairs
-        List<Map.Entry<String, Integer>> descendingOrderWordsToCounts;
-        descendingOrderWordsToCounts = new ArrayList<Map.Entry<String, Integer>>();
+    /**
+     * Creates a tag cloud of the number of tags requested from the file at
+     * {@code inPath}, counting the words of the file on {@code threads} worker
+     * threads. The words are sorted in alphabetical order. Larger words have
+     * higher count values than smaller words.
+     *
+     * @param inPath
+     *            the path of the input file
+     * @param renderer
+     *            the renderer of the tag cloud
+     * @param separators
+     *            the class of separator characters
+     * @param numWordsToOutput
+     *            the number of words to output to tag cloud
+     * @param threads
+     *            the number of worker threads to count with
+     * @param normalizer
+     *            the normalization of counted words
+     * @param counters
+     *            creates the word counters, exact or approximate
+     * @param metrics
+     *            the metrics of the run
+     * @throws IOException
+     *             if the input file cannot be read
+     * @updates metrics
+     * @requires threads > 0
+     * @ensures the renderer's output is populated with the described tag
+     *          cloud.
+     */
+    public static void createTagCloud(Path inPath, TagCloudRenderer renderer,
+            SeparatorClass separators, int numWordsToOutput, int threads,
+            WordNormalizer normalizer, Supplier<? extends WordCounter> counters,
+            TagCloudMetrics metrics) throws IOException {
+
+        // create counter of words to their respective counts
+        WordCounter wordToCount = WordCounting.createWordToCountMap(inPath,
+                separators, normalizer, threads, counters, metrics);
+
+        // select, sort and print the most frequent words
+        outputTagCloud(wordToCount, inPath.toString(), renderer,
+                numWordsToOutput, metrics);
+    }
 
-        // add entries from map to sorting machine
-        for (Map.Entry<String, Integer> entry : wordToCount.entrySet()) {
-            descendingOrderWordsToCounts.add(entry);
+    /**
+     * Selects the {@code numWordsToOutput} most frequent words of
+     * {@code wordToCount}, sorts them alphabetically and outputs them through
+     * {@code renderer}. Approximate counts are shown with their error bound.
+     * If every word is to be output, as for a full machine-readable table,
+     * there is nothing to select, so the words are collected as they are.
+     *
+     * @param wordToCount
+     *            counter of words and their respective number of occurrences
+     * @param inFileName
+     *            the name of the input stream, used for descriptive output
+     * @param renderer
+     *            the renderer of the tag cloud
+     * @param numWordsToOutput
+     *            the number of words to output to tag cloud
+     * @param metrics
+     *            the metrics of the run
+     * @updates metrics
+     * @ensures the renderer's output is populated with the described tag
+     *          cloud.
+     */
+    static void outputTagCloud(WordCounter wordToCount, String inFileName,
+            TagCloudRenderer renderer, int numWordsToOutput,
+            TagCloudMetrics metrics) {
+
+        // select most frequent words, unless every word is output
+        long selectStart = System.nanoTime();
+        metrics.distinctWords(wordToCount.size());
+        List<Map.Entry<String, Integer>> wordsToCounts;
+        if (numWordsToOutput >= wordToCount.size()) {
+            List<Map.Entry<String, Integer>> allWords = new ArrayList<>(
+                    wordToCount.size());
+            wordToCount.forEach((word, count) -> allWords
+                    .add(new SimpleImmutableEntry<>(word, count)));
+            wordsToCounts = allWords;
+        } else {
+            wordsToCounts = mostFrequentWords(wordToCount, numWordsToOutput);
         }
+        metrics.addTime(TagCloudMetrics.Phase.SELECT, selectStart);
+
+        outputTagCloud(wordsToCounts, wordToCount.errorBound(), inFileName,
+                renderer, numWordsToOutput, metrics);
+    }
 
-        // sort list in descending order
-        descendingOrderWordsToCounts.sort(descendingOrder);
+    /**
+     * Sorts the selected words {@code wordsToCounts} alphabetically and
+     * outputs them through {@code renderer}.
+     *
+     * @param wordsToCounts
+     *            the selected words, in any order
+     * @param errorBound
+     *            the most by which a count may exceed the true count, 0 if
+     *            the counts are exact
+     * @param inFileName
+     *            the name of the input stream, used for descriptive output
+     * @param renderer
+     *            the renderer of the tag cloud
+     * @param numWordsToOutput
+     *            the number of words to output to tag cloud
+     * @param metrics
+     *            the metrics of the run
+     * @updates wordsToCounts, metrics
+     * @ensures the renderer's output is populated with the described tag
+     *          cloud.
+     */
+    static void outputTagCloud(
+            List<Map.Entry<String, Integer>> wordsToCounts, int errorBound,
+            String inFileName, TagCloudRenderer renderer, int numWordsToOutput,
+            TagCloudMetrics metrics) {
 
         // track minimum and maximum counts for words
         int minCount = 0;
         int maxCount = 0;
-
-        // create sorting machine with descending order for string, integer pairs
-        List<Map.Entry<String, Integer>> alphabeticalOrderWordsToCounts;
-        alphabeticalOrderWordsToCounts = new ArrayList<Map.Entry<String, Integer>>();
-
-        /*
-         * move top numWordsToOutput words from sortedWordsToCounts to list,
-         * storing the min and max counts for the words
-         */
-        for (int i = 0; i < numWordsToOutput
-                && descendingOrderWordsToCounts.size() > 0; i++) {
-            Map.Entry<String, Integer> firstWord = descendingOrderWordsToCounts
-                    .get(i);
-
-            // if first removed, store max count
-            if (i == 0) {
-                maxCount = firstWord.getValue();
-            }
-            // if last removed, store min count
-            if (i == numWordsToOutput - 1
-                    || alphabeticalOrderWordsToCounts.size() == 0) {
-                minCount = firstWord.getValue();
+        if (wordsToCounts.size() > 0) {
+            minCount = Integer.MAX_VALUE;
+            for (Map.Entry<String, Integer> entry : wordsToCounts) {
+                minCount = Math.min(minCount, entry.getValue());
+                maxCount = Math.max(maxCount, entry.getValue());
             }
+        }
 
-            alphabeticalOrderWordsToCounts.add(i, firstWord);
+        // sort list alphabetically
+        long sortStart = System.nanoTime();
+        sortAlphabetically(wordsToCounts);
+        metrics.addTime(TagCloudMetrics.Phase.SORT, sortStart);
+
+        // render table through the renderer
+        long renderStart = System.nanoTime();
+        outputTable(inFileName, renderer, wordsToCounts, minCount, maxCount,
+                numWordsToOutput, errorBound);
+        metrics.addTime(TagCloudMetrics.Phase.RENDER, renderStart);
+    }
+
+    /**
+     * Sorts {@code wordsToCounts} by key in alphabetical order, ignoring case.
+     * The case of each key is folded once, into a collation key, rather than
+     * on every comparison.
+     *
+     * @param wordsToCounts
+     *            the entries to sort
+     * @updates wordsToCounts
+     * @ensures <pre>
+     * perms(wordsToCounts, #wordsToCounts)  and
+     * [wordsToCounts is sorted by key, ignoring case, ties broken by key]
+     * </pre>
+     */
+    static void sortAlphabetically(
+            List<Map.Entry<String, Integer>> wordsToCounts) {
+        CollationKey[] keys = new CollationKey[wordsToCounts.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = new CollationKey(wordsToCounts.get(i));
+        }
+        Arrays.sort(keys, new StringAlphabetical());
+        for (int i = 0; i < keys.length; i++) {
+            wordsToCounts.set(i, keys[i].entry);
         }
+    }
 
-        StringAlphabetical alphabeticalOrder = new StringAlphabetical();
+    /**
+     * Returns the {@code numWordsToOutput} most frequent entries of
+     * {@code wordToCount} in descending order of count, ties broken by key.
+     * Entries are selected with a min-heap holding at most
+     * {@code numWordsToOutput} entries, whose root is the least frequent entry
+     * selected so far, so selecting takes O(n log numWordsToOutput) time
+     * rather than sorting all n entries. An entry is only created for a word
+     * that is, at least for a while, among the most frequent.
+     *
+     * @param wordToCount
+     *            counter of words and their respective number of occurrences
+     * @param numWordsToOutput
+     *            the number of entries to select
+     * @return the most frequent entries, in descending order of count
+     * @requires numWordsToOutput >= 0
+     * @ensures <pre>
+     * |mostFrequentWords| = min(numWordsToOutput, |wordToCount|)  and
+     * [mostFrequentWords is the prefix of the entries of wordToCount sorted
+     *  by IntegerGT]
+     * </pre>
+     */
+    static List<Map.Entry<String, Integer>> mostFrequentWords(
+            WordCounter wordToCount, int numWordsToOutput) {
+        return mostFrequentWords(wordToCount::forEach,
+                Math.min(numWordsToOutput, wordToCount.size()));
+    }
 
-        // sort list alphabetically
-        alphabeticalOrderWordsToCounts.sort(alphabeticalOrder);
+    /**
+     * Returns the {@code size} most frequent of the words and counts given by
+     * {@code words} in descending order of count, ties broken by key. The
+     * words are only streamed once, so they need not all be in memory.
+     *
+     * @param words
+     *            performs its argument on every word and its count
+     * @param size
+     *            the number of entries to select
+     * @return the most frequent entries, in descending order of count
+     * @requires size >= 0
+     * @ensures <pre>
+     * |mostFrequentWords| = min(size, [number of words])  and
+     * [mostFrequentWords is the prefix of the words and counts sorted by
+     *  IntegerGT]
+     * </pre>
+     */
+    static List<Map.Entry<String, Integer>> mostFrequentWords(
+            Consumer<ObjIntConsumer<String>> words, int size) {
+        // create integer descending order comparator
+        IntegerGT descendingOrder = new IntegerGT();
 
-        // print HTML table in output file
-        outputTable(inFile, inFileName, outFile, alphabeticalOrderWordsToCounts,
-                minCount, maxCount, numWordsToOutput);
+        // min-heap with least frequent selected entry at the root
+        PriorityQueue<Map.Entry<String, Integer>> mostFrequent = new PriorityQueue<>(
+                Math.max(1, Math.min(size, MAX_INITIAL_SELECTION)),
+                descendingOrder.reversed());
+
+        words.accept((word, count) -> {
+            if (mostFrequent.size() < size) {
+                mostFrequent.add(new SimpleImmutableEntry<>(word, count));
+            } else if (size > 0) {
+                Map.Entry<String, Integer> leastFrequent = mostFrequent.peek();
+                int leastCount = leastFrequent.getValue();
+                if (count > leastCount || (count == leastCount
+                        && word.compareTo(leastFrequent.getKey()) < 0)) {
+                    // word beats least frequent selected entry, so replace it
+                    mostFrequent.poll();
+                    mostFrequent.add(new SimpleImmutableEntry<>(word, count));
+                }
+            }
+        });
+
+        // remove least frequent first, then reverse into descending order
+        List<Map.Entry<String, Integer>> descendingOrderWordsToCounts = new ArrayList<>(
+                mostFrequent.size());
+        while (mostFrequent.size() > 0) {
+            descendingOrderWordsToCounts.add(mostFrequent.poll());
+        }
+        Collections.reverse(descendingOrderWordsToCounts);
+        return descendingOrderWordsToCounts;
     }
 
     /**
@@ -300,96 +456,431 @@ public final class TagCloudGenerator {
     }
 
     /**
-     * Outputs an HTML table containing words and their corresponding font sizes
-     * based on their frequency. The method dequeues words from a given glossary
-     * word counter queue, calculates their font size using the
-     * calculateFontSize method, and outputs each word in a span with the
-     * calculated font size.
+     * Outputs the table of words and their counts through {@code renderer}:
+     * the header, each word of the given list in turn, and the footer. The
+     * renderer chooses the format; the HTML page sizes each word between
+     * {@code minCount} and {@code maxCount} with {@code calculateFontSize},
+     * and the machine-readable tables write the counts as they are. If the
+     * counts are approximate, the output also gives their error bound.
      *
-     * @param inFile
-     *            the input stream, used for reading in the words
      * @param inFileName
      *            the name of the input stream, used for descriptive output
-     * @param outFile
-     *            the output writer to write the HTML content
+     * @param renderer
+     *            the renderer of the tag cloud
      * @param alphaSortedList
-     *            a queue of entries, each containing a word and its frequency
+     *            a list of entries, each containing a word and its frequency
      * @param minCount
      *            the minimum frequency count among the words
      * @param maxCount
      *            the maximum frequency count among the words
      * @param numWordsToOutput
      *            the number of words to output in the tag cloud
+     * @param errorBound
+     *            the most by which a count may exceed the true count, 0 if
+     *            the counts are exact
      */
-    public static void outputTable(BufferedReader inFile, String inFileName,
-            PrintWriter outFile,
+    public static void outputTable(String inFileName,
+            TagCloudRenderer renderer,
             List<Map.Entry<String, Integer>> alphaSortedList, int minCount,
-            int maxCount, int numWordsToOutput) {
-
-        // output header
-        outFile.println("<html>");
-        outFile.println("<head>");
-
-        // output styling
-        outFile.println(
-                "<link href=\"http://web.cse.ohio-state.edu/software/2231/"
-                        + "web-sw2/assignments/projects/tag-cloud-generator/data/"
-                        + "tagcloud.css\" rel=\"stylesheet\" type=\"text/css\">"
-                        + "<link href=\"tagcloud.css\" rel=\"stylesheet\" "
-                        + "type=\"text/css\">");
-
-        // output web-page title including number of words to output
-        outFile.println("<title> Top " + numWordsToOutput + " in " + inFileName
-                + "</title>");
-        outFile.println("</head>");
-        outFile.println("<body>");
-
-        // output page title including number of words to output
-        outFile.println(
-                "<h1> Top " + numWordsToOutput + " in " + inFileName + "</h1>");
-        outFile.println("<hr>");
-
-        outFile.println("<div class=\"cdiv\">");
-
-        outFile.println("<p class =" + '"' + "cbox" + '"' + ">");
-
-        // set minimum and maximum font sizes for output
-        final int minFontSize = 12;
-        final int maxFontSize = 48;
-
-        // get entries from list, outputting each word
-        for (int i = 0; i < alphaSortedList.size(); i++) {
-            // get first word alphabetically
-            Map.Entry<String, Integer> firstWord = alphaSortedList.get(i);
-
-            // get font size of word using its count
-            int fontSize = calculateFontSize(firstWord.getValue(), minCount,
-                    maxCount, minFontSize, maxFontSize);
-
-            // output each word with correct font size
-            outFile.println("<span style =\"cursor:default\" class = \"f"
-                    + fontSize + "\" title=" + '"' + "count: "
-                    + firstWord.getValue() + '"' + ">" + firstWord.getKey()
-                    + "</span>");
+            int maxCount, int numWordsToOutput, int errorBound) {
+        try {
+            // output header, including number of words to output
+            renderer.writeHeader(inFileName, numWordsToOutput, minCount,
+                    maxCount, errorBound);
+
+            // get entries from list, outputting each word
+            for (Map.Entry<String, Integer> word : alphaSortedList) {
+                renderer.writeWord(word.getKey(), word.getValue());
+            }
+
+            // output footer
+            renderer.writeFooter();
+        } catch (IOException e) {
+            System.err.println(e);
+        }
+    }
 
+    /**
+     * Expands the given input files, directories and glob patterns into the
+     * list of files to count. A directory stands for every {@code .txt} file
+     * in its tree; a glob pattern (containing any of {@code *?[{}) stands for
+     * every file matching it under the pattern's leading directories.
+     *
+     * @param inputs
+     *            the input files, directories and glob patterns
+     * @return the files to count, without duplicates
+     * @throws IOException
+     *             if a directory cannot be walked
+     */
+    private static List<Path> expandInputs(List<String> inputs)
+            throws IOException {
+        Set<Path> inPaths = new LinkedHashSet<>();
+        for (String input : inputs) {
+            int firstWildcard = indexOfWildcard(input);
+            if (firstWildcard >= 0) {
+                // walk from the directories before the first wildcard
+                int lastSlash = Math.max(
+                        input.lastIndexOf('/', firstWildcard),
+                        input.lastIndexOf(File.separatorChar, firstWildcard));
+                String baseName = ".";
+                if (lastSlash >= 0) {
+                    baseName = input.substring(0, lastSlash + 1);
+                }
+                Path base = Paths.get(baseName);
+                PathMatcher matcher = FileSystems.getDefault()
+                        .getPathMatcher("glob:" + input);
+                try (Stream<Path> walk = Files.walk(base)) {
+                    walk.filter(Files::isRegularFile)
+                            .map(path -> lastSlash < 0 ? base.relativize(path)
+                                    : path)
+                            .filter(matcher::matches).sorted()
+                            .forEach(inPaths::add);
+                }
+            } else if (Files.isDirectory(Paths.get(input))) {
+                try (Stream<Path> walk = Files.walk(Paths.get(input))) {
+                    walk.filter(Files::isRegularFile)
+                            .filter(path -> path.toString().endsWith(".txt"))
+                            .sorted().forEach(inPaths::add);
+                }
+            } else {
+                inPaths.add(Paths.get(input));
+            }
         }
+        return new ArrayList<>(inPaths);
+    }
 
-        // output footer
-        outFile.println("</p>");
-        outFile.println("</div>");
-        outFile.println("</body>");
-        outFile.println("</html>");
+    /**
+     * Returns the index of the first glob wildcard character in
+     * {@code input}, or -1 if there is none.
+     *
+     * @param input
+     *            the input argument
+     * @return index of the first wildcard
+     */
+    private static int indexOfWildcard(String input) {
+        for (int i = 0; i < input.length(); i++) {
+            if ("*?[{".indexOf(input.charAt(i)) >= 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
 
+    /**
+     * Creates the tag cloud of the single file {@code inFileName} in
+     * {@code outFileName}, counting in the way selected by {@code options}.
+     *
+     * @param inFileName
+     *            the name of the input file
+     * @param outFileName
+     *            the name of the output file
+     * @param separators
+     *            the class of separator characters
+     * @param normalizer
+     *            the normalization of counted words
+     * @param numWords
+     *            the number of words to output to tag cloud
+     * @param options
+     *            the command line options
+     * @param metrics
+     *            the metrics of the run
+     * @return whether the tag cloud was created, rather than an error
+     *         reported
+     * @updates metrics
+     */
+    private static boolean createTagCloud(String inFileName,
+            String outFileName, SeparatorClass separators,
+            WordNormalizer normalizer, int numWords, TagCloudOptions options,
+            TagCloudMetrics metrics) {
+        // create a renderer of the output file in the selected format
+        TagCloudRenderer outFile;
+        try {
+            outFile = options.format().open(Paths.get(outFileName));
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+        boolean created = true;
+
+        // create tag cloud, counting a regular file from its mapped bytes
+        if (options.incremental()) {
+            try {
+                TagCloudModes.updateTagCloud(Paths.get(inFileName), outFile,
+                        separators, numWords, options.threads(), normalizer,
+                        metrics);
+            } catch (IOException e) {
+                e.printStackTrace();
+                created = false;
+            }
+        } else if (Files.isRegularFile(Paths.get(inFileName))) {
+            try {
+                createTagCloud(Paths.get(inFileName), outFile, separators,
+                        numWords, options.rangeThreads(), normalizer,
+                        createCounters(options, numWords), metrics);
+            } catch (IOException e) {
+                e.printStackTrace();
+                created = false;
+            }
+        } else {
+            // create an input stream using the input file name
+            try (BufferedReader inFile = new BufferedReader(
+                    new FileReader(inFileName))) {
+                createTagCloud(inFile, inFileName, outFile, separators,
+                        numWords, normalizer, createCounters(options, numWords),
+                        metrics);
+            } catch (IOException e) {
+                e.printStackTrace();
+                created = false;
+            }
+        }
+        try {
+            outFile.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+            created = false;
+        }
+        return created;
+    }
+
+    /**
+     * Creates the normalization of counted words selected by
+     * {@code options}. The stop word file, if any, is split into words by
+     * {@code separators}.
+     *
+     * @param options
+     *            the command line options
+     * @param separators
+     *            the class of separator characters
+     * @return the normalization of counted words
+     * @throws IOException
+     *             if the stop word file cannot be read
+     */
+    private static WordNormalizer createNormalizer(TagCloudOptions options,
+            SeparatorClass separators) throws IOException {
+        List<String> stopWords = new ArrayList<>();
+        if (options.stopWordFileName() != null) {
+            try (BufferedReader stopWordFile = Files.newBufferedReader(
+                    Paths.get(options.stopWordFileName()),
+                    StandardCharsets.UTF_8)) {
+                // the stop words are not input, so they are not measured
+                WordCounting.createWordToCountMap(stopWordFile, separators,
+                        WordNormalizer.NONE, WordCountTable::new,
+                        new TagCloudMetrics())
+                                .forEach((word, count) -> stopWords.add(word));
+            }
+        }
+        return new WordNormalizer(options.foldCase(), options.nfc(),
+                stopWords);
     }
 
     /**
-     * Main method.
+     * Returns the creator of the word counters selected by {@code options}:
+     * exact tables, on or off the heap, approximate counters monitoring at
+     * least {@code numWords} words, or exact counters of n-grams.
+     *
+     * @param options
+     *            the command line options
+     * @param numWords
+     *            the number of words to output to tag cloud
+     * @return creator of word counters
+     */
+    static Supplier<? extends WordCounter> createCounters(
+            TagCloudOptions options, int numWords) {
+        Supplier<? extends WordCounter> counters = WordCountTable::new;
+        if (options.ngramLength() > 1) {
+            int n = options.ngramLength();
+            counters = () -> new NGramCounter(n);
+        } else if (options.offHeap()) {
+            counters = OffHeapWordCounter::new;
+        } else if (options.approximate()) {
+            int capacity = (int) Math.min(HeavyHitterCounter.MAX_CAPACITY,
+                    Math.max(numWords,
+                            (long) Math.ceil(1 / options.error())));
+            double delta = 1 - options.confidence();
+            counters = () -> new HeavyHitterCounter(capacity, options.error(),
+                    delta);
+        }
+        return counters;
+    }
+
+    /**
+     * Main method. Without input arguments, asks for the input file, output
+     * file and number of words. With input files, directories or glob patterns
+     * as arguments, runs without prompting: a single input file is counted as
+     * in the interactive case, and several are counted in parallel, one task
+     * per file, into one tag cloud. The counts can also be saved to a
+     * snapshot, and with {@code --merge} the inputs are such snapshots, whose
+     * counts are merged into the tag cloud. With {@code --stream} the input
+     * is followed and the tag cloud of a sliding window rewritten
+     * periodically. The run can report its progress on standard error and
+     * write a JSON summary of its {@code TagCloudMetrics} at the end. See
+     * {@code TagCloudOptions} for the options. The exit status is 1 if the
+     * tag cloud could not be created, as when an input cannot be read.
      *
      * @param args
      *            the command line arguments
      */
     public static void main(String[] args) {
 
+        // read options from command line arguments
+        TagCloudOptions options;
+        try {
+            options = new TagCloudOptions(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(TagCloudOptions.USAGE);
+            return;
+        }
+
+        if (!run(options)) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Writes the JSON summary of {@code metrics} to the file
+     * {@code metricsFileName}, or to standard error if it is {@code -}.
+     *
+     * @param metricsFileName
+     *            the name of the file for the summary
+     * @param metrics
+     *            the metrics of the run
+     */
+    private static void writeMetrics(String metricsFileName,
+            TagCloudMetrics metrics) {
+        String summary = metrics.toJson();
+        if (metricsFileName.equals("-")) {
+            System.err.println(summary);
+        } else {
+            try {
+                Files.writeString(Paths.get(metricsFileName),
+                        summary + System.lineSeparator(),
+                        StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Creates the tag cloud described by {@code options}, measuring the run
+     * with its own {@code TagCloudMetrics}: its progress is reported on
+     * standard error while it runs and its summary written at the end, if
+     * {@code options} ask for them.
+     *
+     * @param options
+     *            the command line options
+     * @return whether the tag cloud was created, rather than an error
+     *         reported
+     */
+    private static boolean run(TagCloudOptions options) {
+        TagCloudMetrics metrics = new TagCloudMetrics();
+
+        // report progress on standard error while running, if asked
+        if (options.progressMillis() > 0) {
+            metrics.startProgress(System.err, options.progressMillis());
+        }
+        boolean created;
+        try {
+            created = generateTagCloud(options, metrics);
+        } finally {
+            metrics.stopProgress();
+        }
+
+        // write the summary of the run, if asked
+        if (options.metricsFileName() != null) {
+            writeMetrics(options.metricsFileName(), metrics);
+        }
+        return created;
+    }
+
+    /**
+     * Creates the tag cloud described by {@code options}, asking for the
+     * input file, output file and number of words if no inputs were given.
+     *
+     * @param options
+     *            the command line options
+     * @param metrics
+     *            the metrics of the run
+     * @return whether the tag cloud was created, rather than an error
+     *         reported
+     * @updates metrics
+     */
+    private static boolean generateTagCloud(TagCloudOptions options,
+            TagCloudMetrics metrics) {
+
+        // create string of separators
+        String separators = "!\"#$%&'()*+,-./:;<=>?@[\\]^_`{|}~\r\n ";
+
+        // create separator class from string of separators
+        final SeparatorClass separatorClass = new SeparatorClass(separators);
+
+        // create normalization of counted words from options
+        WordNormalizer normalizer;
+        try {
+            normalizer = createNormalizer(options, separatorClass);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+
+        if (options.stream()) {
+            // follow the input, rewriting the tag cloud until stopped
+            try {
+                TagCloudModes.streamTagCloud(separatorClass, normalizer,
+                        options, metrics);
+            } catch (IOException e) {
+                e.printStackTrace();
+                return false;
+            }
+            return true;
+        }
+
+        if (!options.isInteractive()) {
+            // count the inputs given on the command line without prompting
+            try {
+                List<Path> inPaths = expandInputs(options.inputs());
+                if (options.merge()) {
+                    try (TagCloudRenderer outFile = options.format()
+                            .open(Paths.get(options.outFileName()))) {
+                        TagCloudModes.mergeTagCloud(inPaths,
+                                String.join(" ", options.inputs()), outFile,
+                                options.numWords(), metrics);
+                    }
+                } else if (options.snapshotFileName() != null) {
+                    TagCloudModes.snapshotTagCloud(inPaths, separatorClass,
+                            normalizer, options, metrics);
+                } else if (inPaths.size() == 1
+                        && options.perFileDirectory() == null) {
+                    return createTagCloud(inPaths.get(0).toString(),
+                            options.outFileName(), separatorClass, normalizer,
+                            options.numWords(), options, metrics);
+                } else if (options.incremental()) {
+                    System.err.println(
+                            "--incremental takes a single input file");
+                    return false;
+                } else {
+                    try (TagCloudRenderer outFile = options.format()
+                            .open(Paths.get(options.outFileName()))) {
+                        TagCloudModes.createTagCloud(inPaths,
+                                String.join(" ", options.inputs()), outFile,
+                                separatorClass, options.numWords(),
+                                options.threads(),
+                                options.perFileDirectory() == null ? null
+                                        : Paths.get(
+                                                options.perFileDirectory()),
+                                options.format(), normalizer,
+                                createCounters(options, options.numWords()),
+                                metrics);
+                    }
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+                return false;
+            }
+            return true;
+        }
+
         // create streams
         SimpleWriter out = new SimpleWriter1L();
         SimpleReader in = new SimpleReader1L();
@@ -404,13 +895,6 @@ public final class TagCloudGenerator {
                     "Please enter a valid input file name ending in \".txt\"");
             inFileName = in.nextLine();
         }
-        // create an input stream using the input file name
-        BufferedReader inFile;
-        try {
-            inFile = new BufferedReader(new FileReader(inFileName));
-        } catch (FileNotFoundException e) {
-            e.printStackTrace();
-        }
 
         // request output file name
         out.println("Enter the name of the output file: ");
@@ -423,16 +907,6 @@ public final class TagCloudGenerator {
             outFileName = in.nextLine();
         }
 
-        // create an output stream using the output file name
-        PrintWriter outFile;
-        try {
-            outFile = new PrintWriter(
-                    new BufferedWriter(new FileWriter(outFileName)));
-        } catch (IOException e) {
-            // TODO Auto-generated catch block
-            e.printStackTrace();
-        }
-
         // request number of words to output in tag cloud
         out.println(
                 "Please enter the number of words you would like in the tag cloud");
@@ -444,31 +918,13 @@ public final class TagCloudGenerator {
             numWords = in.nextInteger();
         }
 
-        // create separator set
-        final Set<Character> separatorSet = new HashSet<>();
-
-        // create string of separators
-        String separators = "!\"#$%&'()*+,-./:;<=>?@[\\]^_`{|}~\r\n ";
-
-        // add separators to set
-        for (int i = 0; i < separators.length(); i++) {
-            separatorSet.add(separators.charAt(i));
-        }
-
         // close input/output streams
         in.close();
         out.close();
 
         // create tag cloud
-        createTagCloud(inFile, inFileName, outFile, separatorSet, numWords);
-
-        try {
-            inFile.close();
-        } catch (IOException e) {
-            // TODO Auto-generated catch block
-            e.printStackTrace();
-        }
-        outFile.close();
+        return createTagCloud(inFileName, outFileName, separatorClass,
+                normalizer, numWords, options, metrics);
 
     }
 
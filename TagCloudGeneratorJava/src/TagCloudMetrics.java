@@ -0,0 +1,316 @@
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Instrumentation of a run of {@code TagCloudGenerator}: the input read, the
+ * words counted, the resizes of the word tables, the time spent in each
+ * phase and the peak heap. Each run makes its own instance and passes it to
+ * what it measures. Figures are added once per chunk or range rather than
+ * per word, from any thread, so recording costs next to nothing and is always
+ * on; the word counters keep their own resize counts, which are added as
+ * each counter finishes counting or merging. The run's figures are reported
+ * as a JSON summary at the end and, if asked, as progress lines while it
+ * runs.
+ *
+ * <p>
+ * The time of a phase is summed over the threads that spent it, so with
+ * several worker threads it may exceed the elapsed time. Reading covers only
+ * the time blocked reading an input stream; a mapped file is read as it is
+ * counted, so its reading is timed as counting.
+ *
+ * @author Bryce Putman and Cody Yang
+ *
+ */
+public final class TagCloudMetrics {
+
+    /**
+     * Phases of a run.
+     */
+    public enum Phase {
+        /**
+         * Reading input streams.
+         */
+        READ,
+
+        /**
+         * Splitting text into words and counting them.
+         */
+        COUNT,
+
+        /**
+         * Selecting the most frequent words.
+         */
+        SELECT,
+
+        /**
+         * Sorting the selected words alphabetically.
+         */
+        SORT,
+
+        /**
+         * Writing the tag cloud.
+         */
+        RENDER
+    }
+
+    /**
+     * Number of nanoseconds in a millisecond.
+     */
+    private static final long NANOS_PER_MILLI = 1_000_000;
+
+    /**
+     * Number of nanoseconds in a second.
+     */
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    /**
+     * Number of bytes in a mebibyte, for progress lines.
+     */
+    private static final double BYTES_PER_MIB = 1 << 20;
+
+    /**
+     * Time the run started, from {@code System.nanoTime}.
+     */
+    private final long startNanos;
+
+    /**
+     * Bytes of input read, from files and byte streams.
+     */
+    private final LongAdder bytesRead = new LongAdder();
+
+    /**
+     * Characters of input read, from character streams.
+     */
+    private final LongAdder charsRead = new LongAdder();
+
+    /**
+     * Words split from the input, including stop words.
+     */
+    private final LongAdder tokens = new LongAdder();
+
+    /**
+     * Number of times a word table was grown, counting or merging.
+     */
+    private final LongAdder resizes = new LongAdder();
+
+    /**
+     * Largest number of distinct words of a tag cloud.
+     */
+    private final LongAccumulator distinctWords = new LongAccumulator(
+            Math::max, 0);
+
+    /**
+     * Nanoseconds spent in each phase, by ordinal.
+     */
+    private final LongAdder[] phaseNanos = new LongAdder[Phase
+            .values().length];
+
+    /**
+     * Prints the progress lines, null if not started.
+     */
+    private ScheduledExecutorService progress = null;
+
+    /**
+     * No-argument constructor, for a run starting now.
+     */
+    public TagCloudMetrics() {
+        this.startNanos = System.nanoTime();
+        for (int i = 0; i < this.phaseNanos.length; i++) {
+            this.phaseNanos[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records that {@code bytes} bytes of input were read.
+     *
+     * @param bytes
+     *            the number of bytes
+     */
+    public void addBytesRead(long bytes) {
+        this.bytesRead.add(bytes);
+    }
+
+    /**
+     * Records that {@code chars} characters of input were read.
+     *
+     * @param chars
+     *            the number of characters
+     */
+    public void addCharsRead(long chars) {
+        this.charsRead.add(chars);
+    }
+
+    /**
+     * Records that {@code words} words were split from the input.
+     *
+     * @param words
+     *            the number of words
+     */
+    public void addTokens(long words) {
+        this.tokens.add(words);
+    }
+
+    /**
+     * Records that word tables were grown {@code count} times, as reported by
+     * their counters' {@code resizes}.
+     *
+     * @param count
+     *            the number of resizes
+     */
+    public void addResizes(long count) {
+        this.resizes.add(count);
+    }
+
+    /**
+     * Records that a tag cloud was made from {@code words} distinct words.
+     *
+     * @param words
+     *            the number of distinct words
+     */
+    public void distinctWords(long words) {
+        this.distinctWords.accumulate(words);
+    }
+
+    /**
+     * Records that {@code phase} ran from {@code startNanos} until now.
+     *
+     * @param phase
+     *            the phase
+     * @param startNanos
+     *            the time the phase started, from {@code System.nanoTime}
+     */
+    public void addTime(Phase phase, long startNanos) {
+        this.phaseNanos[phase.ordinal()].add(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Returns the largest amount of heap used so far, summed over the heap's
+     * memory pools.
+     *
+     * @return the peak heap in bytes
+     */
+    public static long peakHeapBytes() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory
+                .getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    /**
+     * Returns the number of nanoseconds since the run started.
+     *
+     * @return the elapsed nanoseconds
+     */
+    private long elapsedNanos() {
+        return System.nanoTime() - this.startNanos;
+    }
+
+    /**
+     * Returns the number of words split per second since the run started.
+     *
+     * @return the tokens per second
+     */
+    private long tokensPerSecond() {
+        return (long) (this.tokens.sum() * NANOS_PER_SECOND
+                / Math.max(1, this.elapsedNanos()));
+    }
+
+    /**
+     * Returns a one-line report of the progress of the run so far.
+     *
+     * @return the progress line
+     */
+    public String progressLine() {
+        Runtime runtime = Runtime.getRuntime();
+        return String.format(Locale.ROOT,
+                "[%.1f s] %.1f MiB read, %d words (%d/s), %d resizes,"
+                        + " heap %.1f MiB",
+                this.elapsedNanos() / NANOS_PER_SECOND,
+                (this.bytesRead.sum() + this.charsRead.sum())
+                        / BYTES_PER_MIB,
+                this.tokens.sum(), this.tokensPerSecond(), this.resizes.sum(),
+                (runtime.totalMemory() - runtime.freeMemory())
+                        / BYTES_PER_MIB);
+    }
+
+    /**
+     * Returns the summary of the run so far as a JSON object, the times in
+     * milliseconds.
+     *
+     * @return the JSON summary
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder("{");
+        json.append("\"elapsedMillis\":")
+                .append(this.elapsedNanos() / NANOS_PER_MILLI);
+        json.append(",\"bytesRead\":").append(this.bytesRead.sum());
+        json.append(",\"charsRead\":").append(this.charsRead.sum());
+        json.append(",\"tokens\":").append(this.tokens.sum());
+        json.append(",\"tokensPerSecond\":").append(this.tokensPerSecond());
+        json.append(",\"distinctWords\":").append(this.distinctWords.get());
+        json.append(",\"resizes\":").append(this.resizes.sum());
+        json.append(",\"phaseMillis\":{");
+        for (Phase phase : Phase.values()) {
+            if (phase.ordinal() > 0) {
+                json.append(',');
+            }
+            json.append('"').append(phase.name().toLowerCase(Locale.ROOT))
+                    .append("\":").append(
+                            this.phaseNanos[phase.ordinal()].sum()
+                                    / NANOS_PER_MILLI);
+        }
+        json.append('}');
+        json.append(",\"peakHeapBytes\":").append(peakHeapBytes());
+        return json.append('}').toString();
+    }
+
+    /**
+     * Starts printing a progress line to {@code out} every
+     * {@code periodMillis} milliseconds, on a daemon thread, until
+     * {@code stopProgress} is called.
+     *
+     * @param out
+     *            the stream to print to
+     * @param periodMillis
+     *            the number of milliseconds between lines
+     * @requires periodMillis > 0 and progress is not already started
+     */
+    public synchronized void startProgress(PrintStream out,
+            long periodMillis) {
+        assert out != null : "Violation of: out is not null";
+        assert periodMillis > 0 : "Violation of: periodMillis > 0";
+        assert this.progress == null : "Violation of: not started";
+
+        this.progress = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "tag-cloud-progress");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.progress.scheduleAtFixedRate(
+                () -> out.println(this.progressLine()), periodMillis,
+                periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops printing progress lines, if started.
+     */
+    public synchronized void stopProgress() {
+        if (this.progress != null) {
+            this.progress.shutdownNow();
+            this.progress = null;
+        }
+    }
+
+}
@@ -0,0 +1,514 @@
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Runs the modes of the tag cloud generator beyond counting a single input:
+ * counting many files into one tag cloud, merging word count snapshots,
+ * counting only the bytes appended to a file, writing snapshots, and
+ * following a stream through a sliding window.
+ *
+ * @author Bryce Putman and Cody Yang
+ *
+ */
+public final class TagCloudModes {
+
+    /**
+     * No argument constructor--private to prevent instantiation.
+     */
+    private TagCloudModes() {
+    }
+
+    /**
+     * Most counters of files, per thread, waiting to be merged or being
+     * counted at once. More than one lets the workers start on the next files
+     * while the counters of finished files are merged.
+     */
+    private static final int PENDING_FILES_PER_THREAD = 2;
+
+    /**
+     * Creates one tag cloud of the number of tags requested from all the
+     * files in {@code inPaths}, counted by {@code countFiles}.
+     *
+     * @param inPaths
+     *            the paths of the input files
+     * @param title
+     *            the description of the inputs, used for descriptive output
+     * @param renderer
+     *            the renderer of the tag cloud
+     * @param separators
+     *            the class of separator characters
+     * @param numWordsToOutput
+     *            the number of words to output to each tag cloud
+     * @param threads
+     *            the number of files to count at once
+     * @param perFileDirectory
+     *            the directory for per-file tag clouds, or null for none
+     * @param perFileFormat
+     *            the format of per-file tag clouds
+     * @param normalizer
+     *            the normalization of counted words
+     * @param counters
+     *            creates the word counters, exact or approximate
+     * @param metrics
+     *            the metrics of the run
+     * @throws IOException
+     *             if any input file cannot be counted, or counting is
+     *             interrupted
+     * @updates metrics
+     * @requires threads > 0
+     * @ensures the renderer's output is populated with the described tag
+     *          cloud of all the files.
+     */
+    public static void createTagCloud(List<Path> inPaths, String title,
+            TagCloudRenderer renderer, SeparatorClass separators,
+            int numWordsToOutput, int threads, Path perFileDirectory,
+            TagCloudFormat perFileFormat, WordNormalizer normalizer,
+            Supplier<? extends WordCounter> counters, TagCloudMetrics metrics)
+            throws IOException {
+
+        // create counter of words to their respective counts
+        WordCounter wordToCount = countFiles(inPaths, separators,
+                numWordsToOutput, threads, perFileDirectory, perFileFormat,
+                normalizer, counters, metrics);
+
+        // select, sort and print the most frequent words
+        TagCloudGenerator.outputTagCloud(wordToCount, title, renderer,
+                numWordsToOutput, metrics);
+    }
+
+    /**
+     * Counts the words of all the files in {@code inPaths}. Each file is
+     * counted by its own task on a pool of {@code threads} threads, and the
+     * per-file counters are merged into one as the tasks complete. Files are
+     * only submitted while fewer than {@code PENDING_FILES_PER_THREAD *
+     * threads} counters are unmerged, so memory does not grow with the number
+     * of files. If {@code perFileDirectory} is not null, the tag cloud of each
+     * file is also written there by the task counting it. Every file is
+     * counted even if some cannot be, so that the exception reports all of
+     * those.
+     *
+     * @param inPaths
+     *            the paths of the input files
+     * @param separators
+     *            the class of separator characters
+     * @param numWordsToOutput
+     *            the number of words to output to each per-file tag cloud
+     * @param threads
+     *            the number of files to count at once
+     * @param perFileDirectory
+     *            the directory for per-file tag clouds, or null for none
+     * @param perFileFormat
+     *            the format of per-file tag clouds
+     * @param normalizer
+     *            the normalization of counted words
+     * @param counters
+     *            creates the word counters, exact or approximate
+     * @param metrics
+     *            the metrics of the run
+     * @return counter of words and their respective number of occurrences
+     * @throws IOException
+     *             if any file cannot be counted, naming each such file, or if
+     *             counting is interrupted
+     * @updates metrics
+     * @requires threads > 0
+     */
+    private static WordCounter countFiles(List<Path> inPaths,
+            SeparatorClass separators, int numWordsToOutput, int threads,
+            Path perFileDirectory, TagCloudFormat perFileFormat,
+            WordNormalizer normalizer, Supplier<? extends WordCounter> counters,
+            TagCloudMetrics metrics) throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CompletionService<WordCounter> tasks = new ExecutorCompletionService<>(
+                pool);
+        int maxPending = PENDING_FILES_PER_THREAD * threads;
+        List<Throwable> failures = new ArrayList<>();
+        WordCounter wordToCount = counters.get();
+        try {
+            // submit one counting task per file, merging the counters of the
+            // files in the order they complete once enough are pending
+            int pending = 0;
+            for (Path inPath : inPaths) {
+                if (pending == maxPending) {
+                    wordToCount = mergeCompleted(tasks, wordToCount, failures,
+                            metrics);
+                    pending--;
+                }
+                tasks.submit(() -> countFile(inPath, separators, normalizer,
+                        counters, numWordsToOutput, perFileDirectory,
+                        perFileFormat, metrics));
+                pending++;
+            }
+
+            // merge the counters of the files still pending
+            for (; pending > 0; pending--) {
+                wordToCount = mergeCompleted(tasks, wordToCount, failures,
+                        metrics);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while counting");
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // fail the run rather than leave the files that failed out of it
+        if (!failures.isEmpty()) {
+            StringBuilder message = new StringBuilder("Cannot count "
+                    + failures.size() + " of " + inPaths.size() + " files");
+            for (Throwable failure : failures) {
+                message.append(System.lineSeparator()).append("    ")
+                        .append(failure.getMessage());
+            }
+            IOException e = new IOException(message.toString(),
+                    failures.get(0));
+            for (int i = 1; i < failures.size(); i++) {
+                e.addSuppressed(failures.get(i));
+            }
+            throw e;
+        }
+        return wordToCount;
+    }
+
+    /**
+     * Waits for the next of {@code tasks} to complete and merges its counter
+     * with {@code wordToCount}, or adds the reason it failed to
+     * {@code failures}.
+     *
+     * @param tasks
+     *            the tasks counting files
+     * @param wordToCount
+     *            counter of the words of the files merged so far
+     * @param failures
+     *            the reasons files could not be counted
+     * @param metrics
+     *            the metrics of the run
+     * @return counter of the words of the files merged so far, including the
+     *         completed file's if it was counted
+     * @throws InterruptedException
+     *             if interrupted while waiting
+     * @updates failures, metrics
+     * @requires a task of tasks has been submitted and not yet taken
+     */
+    private static WordCounter mergeCompleted(
+            CompletionService<WordCounter> tasks, WordCounter wordToCount,
+            List<Throwable> failures, TagCloudMetrics metrics)
+            throws InterruptedException {
+        WordCounter merged = wordToCount;
+        try {
+            merged = WordCounting.mergeCounts(wordToCount, tasks.take().get(),
+                    metrics);
+        } catch (ExecutionException e) {
+            failures.add(e.getCause());
+        }
+        return merged;
+    }
+
+    /**
+     * Counts the words of the file at {@code inPath}, writing its own tag
+     * cloud under {@code perFileDirectory} if that is not null.
+     *
+     * @param inPath
+     *            the path of the input file
+     * @param separators
+     *            the class of separator characters
+     * @param normalizer
+     *            the normalization of counted words
+     * @param counters
+     *            creates the word counter
+     * @param numWordsToOutput
+     *            the number of words to output to the file's tag cloud
+     * @param perFileDirectory
+     *            the directory for per-file tag clouds, or null for none
+     * @param perFileFormat
+     *            the format of per-file tag clouds
+     * @param metrics
+     *            the metrics of the run
+     * @return counter of words and their respective number of occurrences
+     * @throws IOException
+     *             if the file cannot be read or its tag cloud written
+     * @updates metrics
+     */
+    private static WordCounter countFile(Path inPath,
+            SeparatorClass separators, WordNormalizer normalizer,
+            Supplier<? extends WordCounter> counters, int numWordsToOutput,
+            Path perFileDirectory, TagCloudFormat perFileFormat,
+            TagCloudMetrics metrics) throws IOException {
+        WordCounter wordToCount;
+        try {
+            wordToCount = WordCounting.createWordToCountMap(inPath, separators,
+                    normalizer, 1, counters, metrics);
+        } catch (IOException e) {
+            throw new IOException(inPath + ": " + e, e);
+        }
+        if (perFileDirectory != null) {
+            Path cloudPath = perFileCloudPath(perFileDirectory, inPath,
+                    perFileFormat);
+            Files.createDirectories(cloudPath.getParent());
+            try (TagCloudRenderer cloudFile = perFileFormat.open(cloudPath)) {
+                TagCloudGenerator.outputTagCloud(wordToCount,
+                        inPath.toString(), cloudFile, numWordsToOutput,
+                        metrics);
+            }
+        }
+        return wordToCount;
+    }
+
+    /**
+     * Returns the path of the tag cloud of the single input file
+     * {@code inPath} within {@code perFileDirectory}, mirroring the input's
+     * own path so that files of the same name in different directories do not
+     * collide.
+     *
+     * @param perFileDirectory
+     *            the directory for per-file tag clouds
+     * @param inPath
+     *            the path of the input file
+     * @param format
+     *            the format of the tag cloud, giving its extension
+     * @return the path of the input file's tag cloud
+     */
+    private static Path perFileCloudPath(Path perFileDirectory, Path inPath,
+            TagCloudFormat format) {
+        Path relative = inPath.normalize();
+        if (relative.getRoot() != null) {
+            relative = relative.getRoot().relativize(relative);
+        }
+        return perFileDirectory.resolve(relative + format.extension());
+    }
+
+    /**
+     * Creates a tag cloud of the number of tags requested from the
+     * append-only file at {@code inPath}, counting only the bytes appended
+     * since the previous call. The counts and the number of bytes they cover
+     * are kept in the file's {@code TagCloudState} sidecar file; a trailing
+     * word which may still grow is counted for this tag cloud but left out of
+     * the saved state. If the file is now shorter than the bytes counted, it
+     * is assumed to have been replaced and is counted from the beginning.
+     *
+     * @param inPath
+     *            the path of the input file
+     * @param renderer
+     *            the renderer of the tag cloud
+     * @param separators
+     *            the class of separator characters, the same for every call
+     *            on the same file
+     * @param numWordsToOutput
+     *            the number of words to output to tag cloud
+     * @param threads
+     *            the number of worker threads to count with
+     * @param normalizer
+     *            the normalization of counted words, the same for every call
+     *            on the same file
+     * @param metrics
+     *            the metrics of the run
+     * @throws IOException
+     *             if the input file or the state file cannot be read, or the
+     *             state file cannot be written
+     * @updates metrics
+     * @requires threads > 0
+     * @ensures the renderer's output is populated with the described tag
+     *          cloud, and the state file is updated.
+     */
+    public static void updateTagCloud(Path inPath, TagCloudRenderer renderer,
+            SeparatorClass separators, int numWordsToOutput, int threads,
+            WordNormalizer normalizer, TagCloudMetrics metrics)
+            throws IOException {
+        Path stateFile = TagCloudState.stateFileOf(inPath);
+        long settings = TagCloudState.settingsOf(separators, normalizer);
+        TagCloudState state = TagCloudState.load(stateFile, settings);
+        WordCountTable wordToCount;
+
+        try (FileChannel channel = FileChannel.open(inPath,
+                StandardOpenOption.READ)) {
+            long size = channel.size();
+
+            // a file shorter than what was counted has been replaced
+            if (size < state.offset()) {
+                state = new TagCloudState(settings);
+            }
+
+            // count the complete words appended since the last run
+            long boundary = WordCounting.lastWordBoundary(channel,
+                    state.offset(), size, separators);
+            WordCountTable appendedCounts = WordCounting.countFileRange(channel,
+                    state.offset(), boundary, separators, normalizer, threads,
+                    WordCountTable::new, metrics);
+            wordToCount = WordCounting.mergeCounts(state.wordToCount(),
+                    appendedCounts, metrics);
+            state.update(wordToCount, boundary);
+            state.save(stateFile);
+
+            // count the trailing word, which may grow, for this run only
+            WordCounting.countTrailingWord(channel, boundary, size, separators,
+                    normalizer, wordToCount, metrics);
+        }
+
+        // select, sort and print the most frequent words
+        TagCloudGenerator.outputTagCloud(wordToCount, inPath.toString(),
+                renderer, numWordsToOutput, metrics);
+    }
+
+    /**
+     * Creates one tag cloud of the number of tags requested from the word
+     * count snapshots at {@code snapshots}, written by
+     * {@code WordCountSnapshot.write} wherever the words were counted. The
+     * snapshots are merged in one streaming pass and the most frequent words
+     * selected as the merged counts stream past, so memory is proportional to
+     * the number of snapshots and words in the tag cloud, not to the number of
+     * distinct words.
+     *
+     * @param snapshots
+     *            the paths of the snapshot files
+     * @param title
+     *            the description of the inputs, used for descriptive output
+     * @param renderer
+     *            the renderer of the tag cloud
+     * @param numWordsToOutput
+     *            the number of words to output to tag cloud
+     * @param metrics
+     *            the metrics of the run
+     * @throws IOException
+     *             if a snapshot cannot be read
+     * @updates metrics
+     * @ensures the renderer's output is populated with the described tag
+     *          cloud of the merged counts.
+     */
+    public static void mergeTagCloud(List<Path> snapshots, String title,
+            TagCloudRenderer renderer, int numWordsToOutput,
+            TagCloudMetrics metrics) throws IOException {
+        int[] errorBound = new int[1];
+        long[] distinctWords = new long[1];
+
+        // merge the snapshots, selecting the most frequent words
+        long selectStart = System.nanoTime();
+        List<Map.Entry<String, Integer>> wordsToCounts;
+        try {
+            wordsToCounts = TagCloudGenerator.mostFrequentWords(action -> {
+                try {
+                    errorBound[0] = WordCountSnapshot.merge(snapshots,
+                            (word, count) -> {
+                                distinctWords[0]++;
+                                action.accept(word, count);
+                            });
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, numWordsToOutput);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        metrics.addTime(TagCloudMetrics.Phase.SELECT, selectStart);
+        metrics.distinctWords(distinctWords[0]);
+
+        // sort and print the most frequent words
+        TagCloudGenerator.outputTagCloud(wordsToCounts, errorBound[0], title,
+                renderer, numWordsToOutput, metrics);
+    }
+
+    /**
+     * Counts the words of all the files in {@code inPaths} and writes the
+     * counts to the snapshot file given by {@code options}, for merging with
+     * the counts of other inputs later. Also writes the tag cloud of the
+     * files if {@code options} gives an output file.
+     *
+     * @param inPaths
+     *            the paths of the input files
+     * @param separators
+     *            the class of separator characters
+     * @param normalizer
+     *            the normalization of counted words
+     * @param options
+     *            the command line options
+     * @param metrics
+     *            the metrics of the run
+     * @throws IOException
+     *             if an input file cannot be counted, or the snapshot or tag
+     *             cloud cannot be written
+     * @updates metrics
+     */
+    static void snapshotTagCloud(List<Path> inPaths,
+            SeparatorClass separators, WordNormalizer normalizer,
+            TagCloudOptions options, TagCloudMetrics metrics)
+            throws IOException {
+        Supplier<? extends WordCounter> counters = TagCloudGenerator
+                .createCounters(options, options.numWords());
+        Path perFileDirectory = options.perFileDirectory() == null ? null
+                : Paths.get(options.perFileDirectory());
+
+        // count a single file in parallel, several one task per file
+        WordCounter wordToCount;
+        if (inPaths.size() == 1 && perFileDirectory == null) {
+            wordToCount = WordCounting.createWordToCountMap(inPaths.get(0),
+                    separators, normalizer, options.rangeThreads(), counters,
+                    metrics);
+        } else {
+            wordToCount = countFiles(inPaths, separators, options.numWords(),
+                    options.threads(), perFileDirectory, options.format(),
+                    normalizer, counters, metrics);
+        }
+        WordCountSnapshot.write(wordToCount,
+                Paths.get(options.snapshotFileName()));
+
+        if (options.outFileName() != null) {
+            try (TagCloudRenderer outFile = options.format()
+                    .open(Paths.get(options.outFileName()))) {
+                TagCloudGenerator.outputTagCloud(wordToCount,
+                        String.join(" ", options.inputs()), outFile,
+                        options.numWords(), metrics);
+            }
+        }
+    }
+
+    /**
+     * Follows the single input of {@code options}, standard input if it is
+     * {@code -}, rewriting the tag cloud of its sliding window in the output
+     * file until the input ends or the process is stopped.
+     *
+     * @param separators
+     *            the class of separator characters
+     * @param normalizer
+     *            the normalization of counted words
+     * @param options
+     *            the command line options
+     * @param metrics
+     *            the metrics of the run
+     * @throws IOException
+     *             if the input cannot be read
+     * @updates metrics
+     */
+    static void streamTagCloud(SeparatorClass separators,
+            WordNormalizer normalizer, TagCloudOptions options,
+            TagCloudMetrics metrics) throws IOException {
+        String input = options.inputs().get(0);
+        StreamingTagCloud cloud = new StreamingTagCloud(
+                Paths.get(options.outFileName()), input, separators,
+                normalizer, options.format(), options.numWords(),
+                options.windowMillis(), options.buckets(),
+                TagCloudGenerator.createCounters(options, options.numWords()),
+                metrics);
+        try (ReadableByteChannel in = input.equals("-")
+                ? Channels.newChannel(System.in)
+                : FileChannel.open(Paths.get(input),
+                        StandardOpenOption.READ)) {
+            cloud.run(in, options.refreshMillis());
+        }
+    }
+
+}
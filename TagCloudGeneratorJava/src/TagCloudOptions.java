@@ -0,0 +1,659 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Command line options of {@code TagCloudGenerator}. Without any input
+ * arguments the generator asks for its input file, output file and number of
+ * words interactively; with input arguments (files, directories or glob
+ * patterns) it runs without prompting.
+ *
+ * @author Bryce Putman and Cody Yang
+ *
+ */
+public final class TagCloudOptions {
+
+    /**
+     * Number of words in an HTML tag cloud when not given; a table format
+     * holds every word unless given.
+     */
+    private static final int DEFAULT_NUM_WORDS = 100;
+
+    /**
+     * Relative error of approximate counts when not given.
+     */
+    private static final double DEFAULT_ERROR = 0.0001;
+
+    /**
+     * Confidence of the error bound of approximate counts when not given.
+     */
+    private static final double DEFAULT_CONFIDENCE = 0.99;
+
+    /**
+     * Seconds of the sliding window of a stream when not given.
+     */
+    private static final int DEFAULT_WINDOW_SECONDS = 900;
+
+    /**
+     * Seconds between tag clouds of a stream when not given.
+     */
+    private static final int DEFAULT_REFRESH_SECONDS = 60;
+
+    /**
+     * Number of buckets of the sliding window of a stream when not given.
+     */
+    private static final int DEFAULT_BUCKETS = 60;
+
+    /**
+     * Number of milliseconds in a second.
+     */
+    private static final long MILLIS_PER_SECOND = 1000;
+
+    /**
+     * Usage message listing the options.
+     */
+    public static final String USAGE = "Usage: TagCloudGenerator [options]"
+            + " [input file, directory or glob]...\n"
+            + "  --threads N       count on N worker threads\n"
+            + "  --incremental     count only what was appended since the"
+            + " last run\n"
+            + "  --top N           number of words in the tag cloud"
+            + " (default 100, or every\n"
+            + "                    word for a table format)\n"
+            + "  --output FILE     file for the tag cloud of all inputs\n"
+            + "  --format F        html (default), or the table formats csv,"
+            + " jsonl or binary\n"
+            + "  --per-file DIR    also write a tag cloud for each input"
+            + " file under DIR\n"
+            + "  --fold-case       count words ignoring case\n"
+            + "  --nfc             count words in Unicode NFC\n"
+            + "  --stop-words FILE do not count the words in FILE\n"
+            + "  --ngram N         count phrases of N consecutive words"
+            + " (1 to 3, default 1)\n"
+            + "  --approximate     count in fixed memory, approximately\n"
+            + "  --off-heap        keep the counts outside the Java heap,"
+            + " for huge vocabularies\n"
+            + "  --error E         relative error of approximate counts"
+            + " (default 0.0001)\n"
+            + "  --confidence C    confidence of the approximate error"
+            + " (default 0.99)\n"
+            + "  --snapshot FILE   also write the counts of all inputs to"
+            + " FILE, for --merge\n"
+            + "  --merge           inputs are snapshots; merge their counts"
+            + " into the tag cloud\n"
+            + "  --stream          follow one growing file, or - for standard"
+            + " input, rewriting\n"
+            + "                    the tag cloud of a sliding window\n"
+            + "  --window S        seconds of the sliding window"
+            + " (default 900)\n"
+            + "  --refresh S       seconds between tag clouds (default 60)\n"
+            + "  --buckets N       buckets the window is divided into"
+            + " (default 60)\n"
+            + "  --metrics FILE    write a JSON summary of the run to FILE,"
+            + " or - for standard\n"
+            + "                    error\n"
+            + "  --progress S      print progress to standard error every S"
+            + " seconds";
+
+    /**
+     * Number of worker threads to count words with.
+     */
+    private int threads = 1;
+
+    /**
+     * Whether to count only what was appended since the last run.
+     */
+    private boolean incremental = false;
+
+    /**
+     * Number of words in the tag cloud, 0 if not given.
+     */
+    private int numWords = 0;
+
+    /**
+     * Output format of the tag cloud.
+     */
+    private TagCloudFormat format = TagCloudFormat.HTML;
+
+    /**
+     * Name of the output file, null if not given.
+     */
+    private String outFileName = null;
+
+    /**
+     * Directory for the tag clouds of each input file, null if not given.
+     */
+    private String perFileDirectory = null;
+
+    /**
+     * Whether to count words ignoring case.
+     */
+    private boolean foldCase = false;
+
+    /**
+     * Whether to count words in Unicode NFC.
+     */
+    private boolean nfc = false;
+
+    /**
+     * Name of the file of words not to count, null if not given.
+     */
+    private String stopWordFileName = null;
+
+    /**
+     * Number of consecutive words counted as one phrase.
+     */
+    private int ngramLength = 1;
+
+    /**
+     * Whether to count approximately, in fixed memory.
+     */
+    private boolean approximate = false;
+
+    /**
+     * Whether to keep the counts outside the Java heap.
+     */
+    private boolean offHeap = false;
+
+    /**
+     * Relative error of approximate counts.
+     */
+    private double error = DEFAULT_ERROR;
+
+    /**
+     * Confidence of the error bound of approximate counts.
+     */
+    private double confidence = DEFAULT_CONFIDENCE;
+
+    /**
+     * Name of the snapshot file of the counts, null if not given.
+     */
+    private String snapshotFileName = null;
+
+    /**
+     * Whether the inputs are snapshots whose counts are merged.
+     */
+    private boolean merge = false;
+
+    /**
+     * Whether to follow a stream, rewriting the tag cloud of a window.
+     */
+    private boolean stream = false;
+
+    /**
+     * Seconds of the sliding window of a stream.
+     */
+    private int windowSeconds = DEFAULT_WINDOW_SECONDS;
+
+    /**
+     * Seconds between tag clouds of a stream.
+     */
+    private int refreshSeconds = DEFAULT_REFRESH_SECONDS;
+
+    /**
+     * Number of buckets of the sliding window of a stream.
+     */
+    private int buckets = DEFAULT_BUCKETS;
+
+    /**
+     * Name of the file for the JSON summary of the run, null if not given.
+     */
+    private String metricsFileName = null;
+
+    /**
+     * Seconds between progress lines, 0 for none.
+     */
+    private int progressSeconds = 0;
+
+    /**
+     * Input files, directories and glob patterns.
+     */
+    private final List<String> inputs = new ArrayList<>();
+
+    /**
+     * Constructor from command line arguments.
+     *
+     * @param args
+     *            the command line arguments
+     * @throws IllegalArgumentException
+     *             if the arguments are not valid options
+     */
+    public TagCloudOptions(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--incremental")) {
+                this.incremental = true;
+            } else if (arg.equals("--fold-case")) {
+                this.foldCase = true;
+            } else if (arg.equals("--nfc")) {
+                this.nfc = true;
+            } else if (arg.equals("--approximate")) {
+                this.approximate = true;
+            } else if (arg.equals("--off-heap")) {
+                this.offHeap = true;
+            } else if (arg.equals("--stream")) {
+                this.stream = true;
+            } else if (arg.equals("--merge")) {
+                this.merge = true;
+            } else if (arg.startsWith("--")) {
+                // every other option takes a value
+                if (i + 1 == args.length) {
+                    throw new IllegalArgumentException(
+                            "Missing value for " + arg);
+                }
+                i++;
+                this.parseOption(arg, args[i]);
+            } else {
+                this.inputs.add(arg);
+            }
+        }
+        if (!this.isInteractive() && this.outFileName == null
+                && (this.snapshotFileName == null || this.merge)) {
+            throw new IllegalArgumentException(
+                    "--output is required when inputs are given");
+        }
+        if (this.merge && (this.incremental || this.snapshotFileName != null
+                || this.perFileDirectory != null)) {
+            throw new IllegalArgumentException("--merge cannot be combined"
+                    + " with --incremental, --snapshot or --per-file");
+        }
+        if (this.snapshotFileName != null && this.incremental) {
+            throw new IllegalArgumentException(
+                    "--snapshot cannot be combined with --incremental");
+        }
+        if (this.stream && (this.inputs.size() != 1 || this.incremental
+                || this.merge || this.snapshotFileName != null
+                || this.perFileDirectory != null)) {
+            throw new IllegalArgumentException("--stream takes a single input"
+                    + " and cannot be combined with --incremental, --merge,"
+                    + " --snapshot or --per-file");
+        }
+        if (this.buckets > this.windowMillis()) {
+            throw new IllegalArgumentException(
+                    "--buckets cannot exceed the milliseconds of --window");
+        }
+        if (this.approximate && this.incremental) {
+            throw new IllegalArgumentException(
+                    "--approximate cannot be combined with --incremental");
+        }
+        if (this.approximate && this.format.isMachineReadable()
+                && this.numWords == 0) {
+            throw new IllegalArgumentException("--approximate with a table"
+                    + " format needs --top, as it cannot count every word");
+        }
+        if (this.offHeap && (this.approximate || this.incremental)) {
+            throw new IllegalArgumentException("--off-heap cannot be combined"
+                    + " with --approximate or --incremental");
+        }
+        if (this.ngramLength > 1 && (this.approximate || this.offHeap
+                || this.incremental || this.stream)) {
+            throw new IllegalArgumentException("--ngram cannot be combined"
+                    + " with --approximate, --off-heap, --incremental or"
+                    + " --stream");
+        }
+    }
+
+    /**
+     * Sets the option {@code name} to {@code value}.
+     *
+     * @param name
+     *            the name of the option, including the leading dashes
+     * @param value
+     *            the value of the option
+     * @throws IllegalArgumentException
+     *             if there is no such option or the value is not valid
+     */
+    private void parseOption(String name, String value) {
+        switch (name) {
+            case "--threads":
+                this.threads = parsePositive(name, value);
+                break;
+            case "--top":
+                this.numWords = parsePositive(name, value);
+                break;
+            case "--output":
+                this.outFileName = value;
+                break;
+            case "--format":
+                this.format = TagCloudFormat.fromOptionName(value);
+                break;
+            case "--per-file":
+                this.perFileDirectory = value;
+                break;
+            case "--stop-words":
+                this.stopWordFileName = value;
+                break;
+            case "--ngram":
+                this.ngramLength = parsePositive(name, value);
+                if (this.ngramLength > NGramCounter.MAX_LENGTH) {
+                    throw new IllegalArgumentException(name
+                            + " cannot exceed " + NGramCounter.MAX_LENGTH);
+                }
+                break;
+            case "--error":
+                this.error = parseFraction(name, value);
+                break;
+            case "--confidence":
+                this.confidence = parseFraction(name, value);
+                break;
+            case "--snapshot":
+                this.snapshotFileName = value;
+                break;
+            case "--window":
+                this.windowSeconds = parsePositive(name, value);
+                break;
+            case "--refresh":
+                this.refreshSeconds = parsePositive(name, value);
+                break;
+            case "--buckets":
+                this.buckets = parsePositive(name, value);
+                break;
+            case "--metrics":
+                this.metricsFileName = value;
+                break;
+            case "--progress":
+                this.progressSeconds = parsePositive(name, value);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown option: " + name);
+        }
+    }
+
+    /**
+     * Parses the value of option {@code name} as a positive integer.
+     *
+     * @param name
+     *            the name of the option
+     * @param value
+     *            the value of the option
+     * @return the value as an integer
+     * @throws IllegalArgumentException
+     *             if the value is not a positive integer
+     */
+    private static int parsePositive(String name, String value) {
+        int number;
+        try {
+            number = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(
+                    "Invalid value for " + name + ": " + value, e);
+        }
+        if (number <= 0) {
+            throw new IllegalArgumentException(name + " must be positive");
+        }
+        return number;
+    }
+
+    /**
+     * Parses the value of option {@code name} as a number strictly between 0
+     * and 1.
+     *
+     * @param name
+     *            the name of the option
+     * @param value
+     *            the value of the option
+     * @return the value as a number
+     * @throws IllegalArgumentException
+     *             if the value is not a number strictly between 0 and 1
+     */
+    private static double parseFraction(String name, String value) {
+        double number;
+        try {
+            number = Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(
+                    "Invalid value for " + name + ": " + value, e);
+        }
+        if (!(number > 0 && number < 1)) {
+            throw new IllegalArgumentException(
+                    name + " must be between 0 and 1");
+        }
+        return number;
+    }
+
+    /**
+     * Reports whether no inputs were given, so the generator must prompt.
+     *
+     * @return true iff no inputs were given
+     */
+    public boolean isInteractive() {
+        return this.inputs.isEmpty();
+    }
+
+    /**
+     * Returns the number of worker threads to count words with.
+     *
+     * @return the number of threads
+     */
+    public int threads() {
+        return this.threads;
+    }
+
+    /**
+     * Returns the number of worker threads to count the ranges of a single
+     * file with: {@code threads()}, or 1 when counting n-grams, since the
+     * n-grams spanning the boundaries of separately counted ranges would be
+     * lost.
+     *
+     * @return the number of threads per file
+     */
+    public int rangeThreads() {
+        int rangeThreads = this.threads;
+        if (this.ngramLength > 1) {
+            rangeThreads = 1;
+        }
+        return rangeThreads;
+    }
+
+    /**
+     * Reports whether to count only what was appended since the last run.
+     *
+     * @return true iff counting is incremental
+     */
+    public boolean incremental() {
+        return this.incremental;
+    }
+
+    /**
+     * Returns the number of words in the tag cloud: as given, or by default
+     * 100 for an HTML page and every word for a table format.
+     *
+     * @return the number of words
+     */
+    public int numWords() {
+        int words = this.numWords;
+        if (words == 0) {
+            words = DEFAULT_NUM_WORDS;
+            if (this.format.isMachineReadable()) {
+                words = Integer.MAX_VALUE;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Returns the output format of the tag cloud.
+     *
+     * @return the format
+     */
+    public TagCloudFormat format() {
+        return this.format;
+    }
+
+    /**
+     * Returns the name of the output file, or null if not given.
+     *
+     * @return the output file name
+     */
+    public String outFileName() {
+        return this.outFileName;
+    }
+
+    /**
+     * Returns the directory for the tag clouds of each input file, or null if
+     * not given.
+     *
+     * @return the per-file tag cloud directory
+     */
+    public String perFileDirectory() {
+        return this.perFileDirectory;
+    }
+
+    /**
+     * Reports whether to count words ignoring case.
+     *
+     * @return true iff case is folded
+     */
+    public boolean foldCase() {
+        return this.foldCase;
+    }
+
+    /**
+     * Reports whether to count words in Unicode NFC.
+     *
+     * @return true iff words are NFC normalized
+     */
+    public boolean nfc() {
+        return this.nfc;
+    }
+
+    /**
+     * Returns the name of the file of words not to count, or null if not
+     * given.
+     *
+     * @return the stop word file name
+     */
+    public String stopWordFileName() {
+        return this.stopWordFileName;
+    }
+
+    /**
+     * Returns the number of consecutive words counted as one phrase.
+     *
+     * @return the n-gram length, 1 to count single words
+     */
+    public int ngramLength() {
+        return this.ngramLength;
+    }
+
+    /**
+     * Reports whether to count approximately, in fixed memory.
+     *
+     * @return true iff counting is approximate
+     */
+    public boolean approximate() {
+        return this.approximate;
+    }
+
+    /**
+     * Reports whether to keep the counts outside the Java heap.
+     *
+     * @return true iff the counts are kept off the heap
+     */
+    public boolean offHeap() {
+        return this.offHeap;
+    }
+
+    /**
+     * Returns the relative error of approximate counts.
+     *
+     * @return the relative error
+     */
+    public double error() {
+        return this.error;
+    }
+
+    /**
+     * Returns the confidence of the error bound of approximate counts.
+     *
+     * @return the confidence
+     */
+    public double confidence() {
+        return this.confidence;
+    }
+
+    /**
+     * Returns the name of the snapshot file of the counts, or null if not
+     * given.
+     *
+     * @return the snapshot file name
+     */
+    public String snapshotFileName() {
+        return this.snapshotFileName;
+    }
+
+    /**
+     * Reports whether the inputs are snapshots whose counts are merged.
+     *
+     * @return true iff the inputs are merged snapshots
+     */
+    public boolean merge() {
+        return this.merge;
+    }
+
+    /**
+     * Reports whether to follow a stream, rewriting the tag cloud of a
+     * sliding window.
+     *
+     * @return true iff the input is streamed
+     */
+    public boolean stream() {
+        return this.stream;
+    }
+
+    /**
+     * Returns the number of milliseconds of the sliding window of a stream.
+     *
+     * @return the milliseconds of the window
+     */
+    public long windowMillis() {
+        return (long) this.windowSeconds * MILLIS_PER_SECOND;
+    }
+
+    /**
+     * Returns the number of milliseconds between tag clouds of a stream.
+     *
+     * @return the milliseconds between tag clouds
+     */
+    public long refreshMillis() {
+        return (long) this.refreshSeconds * MILLIS_PER_SECOND;
+    }
+
+    /**
+     * Returns the number of buckets of the sliding window of a stream.
+     *
+     * @return the number of buckets
+     */
+    public int buckets() {
+        return this.buckets;
+    }
+
+    /**
+     * Returns the name of the file for the JSON summary of the run, {@code -}
+     * for standard error, or null if not given.
+     *
+     * @return the metrics file name
+     */
+    public String metricsFileName() {
+        return this.metricsFileName;
+    }
+
+    /**
+     * Returns the number of milliseconds between progress lines, 0 for none.
+     *
+     * @return the milliseconds between progress lines
+     */
+    public long progressMillis() {
+        return (long) this.progressSeconds * MILLIS_PER_SECOND;
+    }
+
+    /**
+     * Returns the input files, directories and glob patterns.
+     *
+     * @return the inputs, in the order given
+     */
+    public List<String> inputs() {
+        return Collections.unmodifiableList(this.inputs);
+    }
+
+}
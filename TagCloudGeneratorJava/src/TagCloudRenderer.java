@@ -0,0 +1,60 @@
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Writes the selected words of a tag cloud, in alphabetical order, in some
+ * output format: the HTML page of {@code HtmlTagCloudWriter}, or one of the
+ * machine-readable tables of {@code TagCloudFormat}. A renderer writes one
+ * tag cloud, as a header, each word in turn, and a footer; the words are
+ * written as they are given, so a table of any number of words is a single
+ * sequential write. Closing the renderer closes its output.
+ *
+ * @author Bryce Putman and Cody Yang
+ *
+ */
+public interface TagCloudRenderer extends Closeable {
+
+    /**
+     * Writes the start of the tag cloud, before the first word.
+     *
+     * @param title
+     *            the description of the input, used for descriptive output
+     * @param numWordsToOutput
+     *            the number of words requested for the tag cloud
+     * @param minCount
+     *            the minimum count among the words
+     * @param maxCount
+     *            the maximum count among the words
+     * @param errorBound
+     *            the most by which a count may exceed the true count, 0 if
+     *            the counts are exact
+     * @throws IOException
+     *             if the output cannot be written
+     * @requires 0 <= minCount <= maxCount  and  errorBound >= 0
+     */
+    void writeHeader(String title, int numWordsToOutput, int minCount,
+            int maxCount, int errorBound) throws IOException;
+
+    /**
+     * Writes one word of the tag cloud.
+     *
+     * @param word
+     *            the word
+     * @param count
+     *            the number of occurrences of the word
+     * @throws IOException
+     *             if the output cannot be written
+     * @requires minCount <= count <= maxCount, as given to the header
+     */
+    void writeWord(String word, int count) throws IOException;
+
+    /**
+     * Writes the end of the tag cloud, after the last word, and flushes the
+     * output.
+     *
+     * @throws IOException
+     *             if the output cannot be written
+     */
+    void writeFooter() throws IOException;
+
+}
@@ -0,0 +1,219 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Word counts of an append-only input file together with the number of bytes
+ * of the file they account for, so that a later run only has to count the
+ * bytes appended since. Saved next to the input file in a sidecar file, with
+ * a fingerprint of the separators and normalization the words were counted
+ * with; counts made with other settings are discarded rather than merged.
+ *
+ * @author Bryce Putman and Cody Yang
+ *
+ */
+public final class TagCloudState {
+
+    /**
+     * Suffix added to the input file name to get the name of its state file.
+     */
+    public static final String SUFFIX = ".tcstate";
+
+    /**
+     * First four bytes of every state file ("TCS2").
+     */
+    private static final int MAGIC = 0x54435332;
+
+    /**
+     * First four bytes of a state file written before the settings were
+     * recorded ("TCST"), whose counts are discarded.
+     */
+    private static final int UNFINGERPRINTED_MAGIC = 0x54435354;
+
+    /**
+     * Odd multiplier combining the fingerprints of the settings.
+     */
+    private static final long FINGERPRINT_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Fingerprint of the separators and normalization of the counts.
+     */
+    private final long settings;
+
+    /**
+     * Words counted so far and their respective counts.
+     */
+    private WordCountTable wordToCount;
+
+    /**
+     * Number of bytes of the input file counted so far.
+     */
+    private long offset;
+
+    /**
+     * Constructor from settings, for an input file of which nothing has been
+     * counted yet.
+     *
+     * @param settings
+     *            the fingerprint of the separators and normalization, from
+     *            {@code settingsOf}
+     */
+    public TagCloudState(long settings) {
+        this.settings = settings;
+        this.wordToCount = new WordCountTable();
+        this.offset = 0;
+    }
+
+    /**
+     * Returns the fingerprint of counting with {@code separators} and
+     * {@code normalizer}, which must match for saved counts to be reused.
+     *
+     * @param separators
+     *            the class of separator characters
+     * @param normalizer
+     *            the normalization of counted words
+     * @return the fingerprint of the settings
+     */
+    public static long settingsOf(SeparatorClass separators,
+            WordNormalizer normalizer) {
+        return separators.fingerprint() * FINGERPRINT_MULTIPLIER
+                + normalizer.fingerprint();
+    }
+
+    /**
+     * Returns the state file of the input file {@code inPath}.
+     *
+     * @param inPath
+     *            the path of the input file
+     * @return the path of the state file
+     */
+    public static Path stateFileOf(Path inPath) {
+        return inPath.resolveSibling(inPath.getFileName() + SUFFIX);
+    }
+
+    /**
+     * Returns the words counted so far and their respective counts.
+     *
+     * @return the table of words to their respective counts
+     */
+    public WordCountTable wordToCount() {
+        return this.wordToCount;
+    }
+
+    /**
+     * Returns the number of bytes of the input file counted so far.
+     *
+     * @return the number of bytes counted
+     */
+    public long offset() {
+        return this.offset;
+    }
+
+    /**
+     * Replaces the counts and the number of bytes counted.
+     *
+     * @param counts
+     *            the table of words to their respective counts
+     * @param bytesCounted
+     *            the number of bytes of the input file counted
+     * @updates this
+     * @requires bytesCounted >= 0
+     * @ensures this.wordToCount = counts and this.offset = bytesCounted
+     */
+    public void update(WordCountTable counts, long bytesCounted) {
+        assert counts != null : "Violation of: counts is not null";
+        assert bytesCounted >= 0 : "Violation of: bytesCounted >= 0";
+
+        this.wordToCount = counts;
+        this.offset = bytesCounted;
+    }
+
+    /**
+     * Reads the state saved in {@code stateFile}, or returns a new state if
+     * there is no such file or its counts were made with other settings.
+     *
+     * @param stateFile
+     *            the path of the state file
+     * @param settings
+     *            the fingerprint of the separators and normalization, from
+     *            {@code settingsOf}
+     * @return the state saved in the file
+     * @throws IOException
+     *             if the file cannot be read or is not a state file
+     */
+    public static TagCloudState load(Path stateFile, long settings)
+            throws IOException {
+        TagCloudState state = new TagCloudState(settings);
+        if (Files.exists(stateFile)) {
+            try (DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(Files.newInputStream(stateFile)))) {
+                int magic = in.readInt();
+                if (magic != MAGIC && magic != UNFINGERPRINTED_MAGIC) {
+                    throw new IOException(
+                            "Not a tag cloud state file: " + stateFile);
+                }
+                if (magic == UNFINGERPRINTED_MAGIC
+                        || in.readLong() != settings) {
+                    System.err.println("Counting from the beginning, as "
+                            + stateFile + " was counted with other settings");
+                    return state;
+                }
+                long offset = in.readLong();
+                int size = in.readInt();
+                WordCountTable wordToCount = new WordCountTable(size);
+                for (int i = 0; i < size; i++) {
+                    byte[] word = new byte[in.readInt()];
+                    in.readFully(word);
+                    wordToCount.add(new String(word, StandardCharsets.UTF_8),
+                            in.readInt());
+                }
+                state.update(wordToCount, offset);
+            }
+        }
+        return state;
+    }
+
+    /**
+     * Saves this state to {@code stateFile}. The state is written to a
+     * temporary file which then replaces {@code stateFile}, so a run that
+     * fails part way leaves the previous state intact.
+     *
+     * @param stateFile
+     *            the path of the state file
+     * @throws IOException
+     *             if the file cannot be written
+     */
+    public void save(Path stateFile) throws IOException {
+        Path tempFile = stateFile
+                .resolveSibling(stateFile.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+            out.writeInt(MAGIC);
+            out.writeLong(this.settings);
+            out.writeLong(this.offset);
+            out.writeInt(this.wordToCount.size());
+            this.wordToCount.forEach((word, count) -> {
+                try {
+                    byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                    out.writeInt(count);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        Files.move(tempFile, stateFile, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+}
@@ -0,0 +1,134 @@
+import java.util.Arrays;
+
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Classifies a chunk of text into separators and word characters many
+ * {@code char}s at a time with the incubating Vector API, producing one bit
+ * per character from which word and separator boundaries are found with bit
+ * operations. Each vector of characters is compared against the runs of
+ * {@code SeparatorClass.asciiRanges}, so only separator classes whose
+ * separators are all ASCII are supported.
+ *
+ * <p>
+ * A scanner keeps the classification of its last chunk in a buffer it
+ * reuses, so each thread classifying text makes and keeps its own scanner.
+ * </p>
+ *
+ * <p>
+ * This class needs the module {@code jdk.incubator.vector}, which is only
+ * resolved if the JVM is started with
+ * {@code --add-modules jdk.incubator.vector}; check that the module is
+ * present before loading it.
+ * </p>
+ *
+ * @author Bryce Putman and Cody Yang
+ *
+ */
+public final class VectorSeparatorScanner {
+
+    /**
+     * Vector shape used, the widest the processor supports.
+     */
+    private static final VectorSpecies<Short> SPECIES = ShortVector
+            .SPECIES_PREFERRED;
+
+    /**
+     * Number of bits in each word of the classification.
+     */
+    private static final int BITS_PER_WORD = 64;
+
+    /**
+     * The separator characters.
+     */
+    private final SeparatorClass separators;
+
+    /**
+     * Lowest and highest separator of each run of ASCII separators, in turn.
+     */
+    private final short[] ranges;
+
+    /**
+     * Classification of the last chunk, reused for every chunk.
+     */
+    private long[] bits = new long[0];
+
+    /**
+     * Constructor from separator class.
+     *
+     * @param separators
+     *            the class of separator characters
+     * @requires separators.isAscii()
+     */
+    public VectorSeparatorScanner(SeparatorClass separators) {
+        assert separators.isAscii() : "Violation of: separators are ASCII";
+
+        this.separators = separators;
+        this.ranges = separators.asciiRanges();
+    }
+
+    /**
+     * Sets bit {@code i % 64} of {@code bits[i / 64]} iff {@code text[i]} is a
+     * separator, for every {@code i} below {@code limit}, and clears the
+     * other bits of those words.
+     *
+     * @param text
+     *            the text to classify
+     * @param limit
+     *            the number of characters to classify
+     * @param bits
+     *            the classification
+     * @updates bits
+     * @requires 0 <= limit <= |text| and |bits| >= ceil(limit / 64)
+     */
+    public void classify(char[] text, int limit, long[] bits) {
+        Arrays.fill(bits, 0, (limit + BITS_PER_WORD - 1) / BITS_PER_WORD, 0);
+
+        // the lane count is a power of two no larger than 64, so the bits of
+        // one vector always fall within one word
+        int i = 0;
+        int upperBound = SPECIES.loopBound(limit);
+        for (; i < upperBound; i += SPECIES.length()) {
+            ShortVector chars = ShortVector.fromCharArray(SPECIES, text, i);
+            VectorMask<Short> isSeparator = SPECIES.maskAll(false);
+            for (int r = 0; r < this.ranges.length; r += 2) {
+                // chars of 0x8000 and above compare as negative, below all
+                isSeparator = isSeparator.or(chars
+                        .compare(VectorOperators.GE, this.ranges[r])
+                        .and(chars.compare(VectorOperators.LE,
+                                this.ranges[r + 1])));
+            }
+            bits[i / BITS_PER_WORD] |= isSeparator.toLong() << i;
+        }
+        for (; i < limit; i++) {
+            if (this.separators.contains(text[i])) {
+                bits[i / BITS_PER_WORD] |= 1L << i;
+            }
+        }
+    }
+
+    /**
+     * Classifies the first {@code limit} characters of {@code text} like
+     * {@code classify(text, limit, bits)}, into a buffer of this scanner
+     * which is reused, and so overwritten, by the next call.
+     *
+     * @param text
+     *            the text to classify
+     * @param limit
+     *            the number of characters to classify
+     * @return the classification of text[0, limit), valid until the next call
+     * @requires 0 <= limit <= |text|
+     */
+    public long[] classify(char[] text, int limit) {
+        int words = (limit + BITS_PER_WORD - 1) / BITS_PER_WORD;
+        if (this.bits.length < words) {
+            this.bits = new long[words];
+        }
+        this.classify(text, limit, this.bits);
+        return this.bits;
+    }
+
+}
@@ -0,0 +1,384 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Compact binary snapshot of the counts of a {@code WordCounter}, so that
+ * words can be counted on several machines and the counts combined later. A
+ * snapshot holds the error bound of the counts and the words in ascending
+ * order, each front coded: the number of leading characters it shares with
+ * the previous word, then the rest of the word in UTF-8, then its count.
+ * Numbers are written as varints, seven bits to a byte. Since the words are
+ * sorted, any number of snapshots can be merged in one streaming pass that
+ * keeps only the current word of each snapshot in memory.
+ *
+ * @author Bryce Putman and Cody Yang
+ *
+ */
+public final class WordCountSnapshot {
+
+    /**
+     * No argument constructor--private to prevent instantiation.
+     */
+    private WordCountSnapshot() {
+    }
+
+    /**
+     * First four bytes of every snapshot file ("TCSN").
+     */
+    private static final int MAGIC = 0x5443534E;
+
+    /**
+     * Bits of a number written to each byte of a varint.
+     */
+    private static final int VARINT_BITS = 7;
+
+    /**
+     * Bit of a varint byte set when more bytes follow.
+     */
+    private static final int VARINT_MORE = 0x80;
+
+    /**
+     * Sequential reader of the words and counts of a snapshot, in ascending
+     * order of word.
+     */
+    public static final class Reader implements Closeable {
+
+        /**
+         * The snapshot file.
+         */
+        private final Path path;
+
+        /**
+         * Stream of the snapshot file.
+         */
+        private final DataInputStream in;
+
+        /**
+         * Error bound of the counts of the snapshot.
+         */
+        private final int errorBound;
+
+        /**
+         * Number of words not read yet.
+         */
+        private int remaining;
+
+        /**
+         * Characters of the current word, the prefix of the next.
+         */
+        private final StringBuilder chars = new StringBuilder();
+
+        /**
+         * The current word, null before the first.
+         */
+        private String word = null;
+
+        /**
+         * Count of the current word.
+         */
+        private int count = 0;
+
+        /**
+         * Constructor from the path of a snapshot file.
+         *
+         * @param path
+         *            the path of the snapshot file
+         * @throws IOException
+         *             if the file cannot be read or is not a snapshot
+         */
+        public Reader(Path path) throws IOException {
+            this.path = path;
+            this.in = new DataInputStream(
+                    new BufferedInputStream(Files.newInputStream(path)));
+            try {
+                if (this.in.readInt() != MAGIC) {
+                    throw new IOException("Not a word count snapshot: " + path);
+                }
+                this.errorBound = readVarInt(this.in);
+                this.remaining = readVarInt(this.in);
+            } catch (IOException e) {
+                this.in.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Returns the most by which a count of the snapshot may exceed the
+         * true count of its word.
+         *
+         * @return the error bound of the counts
+         */
+        public int errorBound() {
+            return this.errorBound;
+        }
+
+        /**
+         * Advances to the next word of the snapshot, if any.
+         *
+         * @return true iff there was a next word
+         * @throws IOException
+         *             if the file cannot be read or is corrupt
+         */
+        public boolean next() throws IOException {
+            if (this.remaining == 0) {
+                this.word = null;
+                return false;
+            }
+            int shared = readVarInt(this.in);
+            byte[] suffix = new byte[readVarInt(this.in)];
+            if (shared > this.chars.length()) {
+                throw new IOException("Corrupt word count snapshot: "
+                        + this.path);
+            }
+            this.in.readFully(suffix);
+            this.chars.setLength(shared);
+            this.chars.append(new String(suffix, StandardCharsets.UTF_8));
+            String previous = this.word;
+            this.word = this.chars.toString();
+            this.count = readVarInt(this.in);
+            this.remaining--;
+
+            // merging relies on the order, so check it rather than trust it
+            if (previous != null && previous.compareTo(this.word) >= 0) {
+                throw new IOException("Words out of order in word count"
+                        + " snapshot: " + this.path);
+            }
+            return true;
+        }
+
+        /**
+         * Returns the current word.
+         *
+         * @return the current word
+         * @requires the last call of next returned true
+         */
+        public String word() {
+            assert this.word != null : "Violation of: there is a current word";
+
+            return this.word;
+        }
+
+        /**
+         * Returns the count of the current word.
+         *
+         * @return the count of the current word
+         * @requires the last call of next returned true
+         */
+        public int count() {
+            assert this.word != null : "Violation of: there is a current word";
+
+            return this.count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.in.close();
+        }
+
+    }
+
+    /**
+     * Writes the counts of {@code wordToCount} to a snapshot file at
+     * {@code path}. The snapshot is written to a temporary file which then
+     * replaces {@code path}, so a run that fails part way leaves no snapshot
+     * behind.
+     *
+     * @param wordToCount
+     *            counter of words and their respective number of occurrences
+     * @param path
+     *            the path of the snapshot file
+     * @throws IOException
+     *             if the file cannot be written
+     */
+    public static void write(WordCounter wordToCount, Path path)
+            throws IOException {
+        assert wordToCount != null : "Violation of: wordToCount is not null";
+        assert path != null : "Violation of: path is not null";
+
+        // sort the words, as merging needs
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>(
+                wordToCount.size());
+        wordToCount.forEach((word, count) -> entries
+                .add(new SimpleImmutableEntry<>(word, count)));
+        entries.sort(Map.Entry.comparingByKey());
+
+        Path tempFile = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+            out.writeInt(MAGIC);
+            writeVarInt(out, wordToCount.errorBound());
+            writeVarInt(out, entries.size());
+            String previous = "";
+            for (Map.Entry<String, Integer> entry : entries) {
+                String word = entry.getKey();
+                int shared = sharedPrefixLength(previous, word);
+                byte[] suffix = word.substring(shared)
+                        .getBytes(StandardCharsets.UTF_8);
+                writeVarInt(out, shared);
+                writeVarInt(out, suffix.length);
+                out.write(suffix);
+                writeVarInt(out, entry.getValue());
+                previous = word;
+            }
+        }
+        Files.move(tempFile, path, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Merges the snapshots at {@code paths}, performing {@code action} on
+     * every word of any of them and the sum of its counts, in ascending order
+     * of word. The snapshots are merged k ways through a priority queue of
+     * their readers, so memory is proportional to the number of snapshots,
+     * not to the number of distinct words.
+     *
+     * @param paths
+     *            the paths of the snapshot files
+     * @param action
+     *            the action to perform on each word and its merged count
+     * @return the error bound of the merged counts, the sum of the error
+     *         bounds of the snapshots
+     * @throws IOException
+     *             if a file cannot be read or is not a snapshot
+     */
+    public static int merge(List<Path> paths, ObjIntConsumer<String> action)
+            throws IOException {
+        assert paths != null : "Violation of: paths is not null";
+        assert action != null : "Violation of: action is not null";
+
+        PriorityQueue<Reader> readers = new PriorityQueue<>(
+                Math.max(1, paths.size()),
+                Comparator.comparing(Reader::word));
+        List<Reader> opened = new ArrayList<>(paths.size());
+        try {
+            long errorBound = 0;
+            for (Path path : paths) {
+                Reader reader = new Reader(path);
+                opened.add(reader);
+                errorBound += reader.errorBound();
+                if (reader.next()) {
+                    readers.add(reader);
+                }
+            }
+
+            while (readers.size() > 0) {
+                // sum the counts of the smallest word over every snapshot
+                Reader reader = readers.poll();
+                String word = reader.word();
+                long count = reader.count();
+                if (reader.next()) {
+                    readers.add(reader);
+                }
+                while (readers.size() > 0
+                        && readers.peek().word().equals(word)) {
+                    reader = readers.poll();
+                    count += reader.count();
+                    if (reader.next()) {
+                        readers.add(reader);
+                    }
+                }
+                action.accept(word, (int) Math.min(Integer.MAX_VALUE, count));
+            }
+            return (int) Math.min(Integer.MAX_VALUE, errorBound);
+        } finally {
+            for (Reader reader : opened) {
+                reader.close();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of leading characters {@code word} shares with
+     * {@code previous}, never splitting a surrogate pair, so the rest of
+     * {@code word} can be encoded on its own.
+     *
+     * @param previous
+     *            the previous word
+     * @param word
+     *            the word
+     * @return the length of the shared prefix
+     */
+    private static int sharedPrefixLength(String previous, String word) {
+        int limit = Math.min(previous.length(), word.length());
+        int shared = 0;
+        while (shared < limit
+                && previous.charAt(shared) == word.charAt(shared)) {
+            shared++;
+        }
+        if (shared > 0 && Character.isHighSurrogate(word.charAt(shared - 1))) {
+            shared--;
+        }
+        return shared;
+    }
+
+    /**
+     * Writes the non-negative {@code value} as a varint, least significant
+     * seven bits first.
+     *
+     * @param out
+     *            the output stream
+     * @param value
+     *            the number to write
+     * @throws IOException
+     *             if the stream cannot be written
+     * @requires value >= 0
+     */
+    private static void writeVarInt(DataOutputStream out, int value)
+            throws IOException {
+        assert value >= 0 : "Violation of: value >= 0";
+
+        int rest = value;
+        while (rest >= VARINT_MORE) {
+            out.writeByte((rest & (VARINT_MORE - 1)) | VARINT_MORE);
+            rest >>>= VARINT_BITS;
+        }
+        out.writeByte(rest);
+    }
+
+    /**
+     * Reads a non-negative varint written by {@code writeVarInt}.
+     *
+     * @param in
+     *            the input stream
+     * @return the number read
+     * @throws IOException
+     *             if the stream cannot be read or holds no valid varint
+     */
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.read();
+            if (b < 0) {
+                throw new EOFException("Truncated word count snapshot");
+            }
+            if (shift >= Integer.SIZE) {
+                throw new IOException("Corrupt word count snapshot");
+            }
+            value |= (b & (VARINT_MORE - 1)) << shift;
+            shift += VARINT_BITS;
+        } while ((b & VARINT_MORE) != 0);
+        if (value < 0) {
+            throw new IOException("Corrupt word count snapshot");
+        }
+        return value;
+    }
+
+}
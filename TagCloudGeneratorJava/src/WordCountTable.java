@@ -0,0 +1,566 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Table of words and their counts, represented with open addressing (linear
+ * probing) over parallel arrays of keys, cached hash codes and {@code int}
+ * counts. Counting a word already in the table neither boxes an
+ * {@code Integer} nor creates a {@code String}; a {@code String} is created
+ * only the first time a word is seen. The counts are exact.
+ *
+ * @author Bryce Putman and Cody Yang
+ *
+ */
+public final class WordCountTable implements WordCounter {
+
+    /**
+     * Capacity of a table created without a size hint.
+     */
+    private static final int DEFAULT_CAPACITY = 64;
+
+    /**
+     * Largest capacity of the table.
+     */
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    /**
+     * Words in the table, null in empty slots.
+     */
+    private String[] keys;
+
+    /**
+     * Hash codes of the words in the table.
+     */
+    private int[] hashes;
+
+    /**
+     * Counts of the words in the table.
+     */
+    private int[] counts;
+
+    /**
+     * Number of words in the table.
+     */
+    private int size;
+
+    /**
+     * Number of words above which the table is grown.
+     */
+    private int threshold;
+
+    /**
+     * Number of times the table was grown.
+     */
+    private int resizes = 0;
+
+    /**
+     * No-argument constructor.
+     */
+    public WordCountTable() {
+        this.createNewRep(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor from expected number of distinct words.
+     *
+     * @param expectedSize
+     *            the number of distinct words expected
+     * @requires expectedSize >= 0
+     */
+    public WordCountTable(int expectedSize) {
+        assert expectedSize >= 0 : "Violation of: expectedSize >= 0";
+
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity < MAX_CAPACITY && maxSize(capacity) < expectedSize) {
+            capacity *= 2;
+        }
+        this.createNewRep(capacity);
+    }
+
+    /**
+     * Creates an empty representation with the given capacity.
+     *
+     * @param capacity
+     *            the number of slots, a power of two
+     */
+    private void createNewRep(int capacity) {
+        this.keys = new String[capacity];
+        this.hashes = new int[capacity];
+        this.counts = new int[capacity];
+        this.size = 0;
+        this.threshold = maxSize(capacity);
+    }
+
+    /**
+     * Returns the number of words a table with {@code capacity} slots holds
+     * before it is grown, keeping the load factor at most 3/4.
+     *
+     * @param capacity
+     *            the number of slots
+     * @return the number of words held before growing
+     */
+    private static int maxSize(int capacity) {
+        return capacity - capacity / 4;
+    }
+
+    /**
+     * Spreads the high bits of {@code hash} into the low bits used to index
+     * the table.
+     *
+     * @param hash
+     *            the hash code of a word
+     * @return the spread hash code
+     */
+    static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Returns the hash code {@code String.hashCode} would return for
+     * {@code word[start, end)}.
+     *
+     * @param word
+     *            the characters of the word
+     * @param start
+     *            index of the first character of the word
+     * @param end
+     *            index one past the last character of the word
+     * @return the hash code of the word
+     */
+    static int hash(CharSequence word, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + word.charAt(i);
+        }
+        return hash;
+    }
+
+    /**
+     * Returns the hash code {@code String.hashCode} would return for
+     * {@code word[start, end)}.
+     *
+     * @param word
+     *            the characters of the word
+     * @param start
+     *            index of the first character of the word
+     * @param end
+     *            index one past the last character of the word
+     * @return the hash code of the word
+     */
+    static int hash(char[] word, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + word[i];
+        }
+        return hash;
+    }
+
+    /**
+     * Reports whether {@code key} equals {@code word[start, end)}.
+     *
+     * @param key
+     *            a word in the table
+     * @param word
+     *            the characters of the word
+     * @param start
+     *            index of the first character of the word
+     * @param end
+     *            index one past the last character of the word
+     * @return true iff key = word[start, end)
+     */
+    static boolean matches(String key, CharSequence word, int start,
+            int end) {
+        if (key.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (key.charAt(i) != word.charAt(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reports whether {@code key} equals {@code word[start, end)}.
+     *
+     * @param key
+     *            a word in the table
+     * @param word
+     *            the characters of the word
+     * @param start
+     *            index of the first character of the word
+     * @param end
+     *            index one past the last character of the word
+     * @return true iff key = word[start, end)
+     */
+    static boolean matches(String key, char[] word, int start,
+            int end) {
+        if (key.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (key.charAt(i) != word[start + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reports whether {@code key} equals the ASCII word {@code ascii[start,
+     * end)}.
+     *
+     * @param key
+     *            a word in the table
+     * @param ascii
+     *            the ASCII bytes of the word
+     * @param start
+     *            index of the first byte of the word
+     * @param end
+     *            index one past the last byte of the word
+     * @return true iff key = ascii[start, end)
+     */
+    static boolean matches(String key, ByteBuffer ascii, int start,
+            int end) {
+        if (key.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (key.charAt(i) != ascii.get(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Puts {@code key} with the given hash code and count in the first empty
+     * slot of its probe sequence, growing the table if it becomes too full.
+     *
+     * @param slot
+     *            the empty slot to fill
+     * @param key
+     *            the word to put
+     * @param hash
+     *            the hash code of the word
+     * @param count
+     *            the count of the word
+     */
+    private void insert(int slot, String key, int hash, int count) {
+        this.keys[slot] = key;
+        this.hashes[slot] = hash;
+        this.counts[slot] = count;
+        this.size++;
+        if (this.size > this.threshold) {
+            this.grow();
+        }
+    }
+
+    /**
+     * Doubles the capacity of the table, reinserting every word using its
+     * cached hash code.
+     */
+    private void grow() {
+        assert this.keys.length < MAX_CAPACITY : "Violation of: table not full";
+
+        this.resizes++;
+
+        String[] oldKeys = this.keys;
+        int[] oldHashes = this.hashes;
+        int[] oldCounts = this.counts;
+        int oldSize = this.size;
+        this.createNewRep(oldKeys.length * 2);
+        int mask = this.keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int slot = spread(oldHashes[i]) & mask;
+                while (this.keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                this.keys[slot] = oldKeys[i];
+                this.hashes[slot] = oldHashes[i];
+                this.counts[slot] = oldCounts[i];
+            }
+        }
+        this.size = oldSize;
+    }
+
+    /**
+     * Adds one to the count of the word {@code word[start, end)}.
+     *
+     * @param word
+     *            the characters of the word
+     * @param start
+     *            index of the first character of the word
+     * @param end
+     *            index one past the last character of the word
+     * @updates this
+     * @requires 0 <= start < end <= |word|
+     * @ensures this = #this with the count of word[start, end) incremented
+     */
+    @Override
+    public void increment(CharSequence word, int start, int end) {
+        assert word != null : "Violation of: word is not null";
+        assert 0 <= start && start < end && end <= word.length() : ""
+                + "Violation of: 0 <= start < end <= |word|";
+
+        int hash = hash(word, start, end);
+        int mask = this.keys.length - 1;
+        int slot = spread(hash) & mask;
+        while (this.keys[slot] != null) {
+            if (this.hashes[slot] == hash
+                    && matches(this.keys[slot], word, start, end)) {
+                this.counts[slot]++;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        this.insert(slot, word.subSequence(start, end).toString(), hash, 1);
+    }
+
+    /**
+     * Adds one to the count of the word {@code word[start, end)}.
+     *
+     * @param word
+     *            the characters of the word
+     * @param start
+     *            index of the first character of the word
+     * @param end
+     *            index one past the last character of the word
+     * @updates this
+     * @requires 0 <= start < end <= |word|
+     * @ensures this = #this with the count of word[start, end) incremented
+     */
+    @Override
+    public void increment(char[] word, int start, int end) {
+        assert word != null : "Violation of: word is not null";
+        assert 0 <= start && start < end && end <= word.length : ""
+                + "Violation of: 0 <= start < end <= |word|";
+
+        int hash = hash(word, start, end);
+        int mask = this.keys.length - 1;
+        int slot = spread(hash) & mask;
+        while (this.keys[slot] != null) {
+            if (this.hashes[slot] == hash
+                    && matches(this.keys[slot], word, start, end)) {
+                this.counts[slot]++;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        this.insert(slot, new String(word, start, end - start), hash, 1);
+    }
+
+    /**
+     * Adds one to the count of the word whose UTF-8 bytes are
+     * {@code utf8[start, end)}. An ASCII word is hashed and compared byte by
+     * byte, so it is only decoded, into a new {@code String}, the first time
+     * it is seen; any other word is decoded first.
+     *
+     * @param utf8
+     *            the bytes of the text
+     * @param start
+     *            index of the first byte of the word
+     * @param end
+     *            index one past the last byte of the word
+     * @updates this
+     * @requires 0 <= start < end <= utf8.limit
+     * @ensures this = #this with the count of [utf8[start, end) decoded]
+     *          incremented
+     */
+    @Override
+    public void increment(ByteBuffer utf8, int start, int end) {
+        assert utf8 != null : "Violation of: utf8 is not null";
+        assert 0 <= start && start < end && end <= utf8.limit() : ""
+                + "Violation of: 0 <= start < end <= utf8.limit";
+
+        // hash as String.hashCode would, while checking for ASCII
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            byte b = utf8.get(i);
+            if (b < 0) {
+                WordCounter.super.increment(utf8, start, end);
+                return;
+            }
+            hash = 31 * hash + b;
+        }
+
+        int mask = this.keys.length - 1;
+        int slot = spread(hash) & mask;
+        while (this.keys[slot] != null) {
+            if (this.hashes[slot] == hash
+                    && matches(this.keys[slot], utf8, start, end)) {
+                this.counts[slot]++;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        byte[] word = new byte[end - start];
+        utf8.get(start, word);
+        this.insert(slot, new String(word, StandardCharsets.ISO_8859_1), hash,
+                1);
+    }
+
+    /**
+     * Adds {@code count} to the count of {@code word}.
+     *
+     * @param word
+     *            the word
+     * @param count
+     *            the amount to add to the count of the word
+     * @updates this
+     * @requires count > 0
+     * @ensures this = #this with count added to the count of word
+     */
+    public void add(String word, int count) {
+        assert word != null : "Violation of: word is not null";
+        assert count > 0 : "Violation of: count > 0";
+
+        this.add(word, word.hashCode(), count);
+    }
+
+    /**
+     * Adds {@code count} to the count of {@code word}, whose hash code is
+     * already known.
+     *
+     * @param word
+     *            the word
+     * @param hash
+     *            the hash code of the word
+     * @param count
+     *            the amount to add to the count of the word
+     */
+    private void add(String word, int hash, int count) {
+        int mask = this.keys.length - 1;
+        int slot = spread(hash) & mask;
+        while (this.keys[slot] != null) {
+            if (this.hashes[slot] == hash && this.keys[slot].equals(word)) {
+                this.counts[slot] += count;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        this.insert(slot, word, hash, count);
+    }
+
+    /**
+     * Adds the counts of every word of {@code source} to this table. The
+     * cached hash codes of another {@code WordCountTable} are reused.
+     *
+     * @param source
+     *            the counter whose counts are added
+     * @updates this
+     * @requires source is not this
+     * @ensures this = [#this with the counts of source added by word]
+     */
+    @Override
+    public void addAll(WordCounter source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+
+        if (source instanceof WordCountTable) {
+            WordCountTable table = (WordCountTable) source;
+            for (int i = 0; i < table.keys.length; i++) {
+                if (table.keys[i] != null) {
+                    this.add(table.keys[i], table.hashes[i], table.counts[i]);
+                }
+            }
+        } else {
+            source.forEach(this::add);
+        }
+    }
+
+    /**
+     * Returns the count of {@code word}, or 0 if it has not been counted.
+     *
+     * @param word
+     *            the word
+     * @return the count of the word
+     */
+    public int count(String word) {
+        assert word != null : "Violation of: word is not null";
+
+        int hash = word.hashCode();
+        int mask = this.keys.length - 1;
+        int slot = spread(hash) & mask;
+        while (this.keys[slot] != null) {
+            if (this.hashes[slot] == hash && this.keys[slot].equals(word)) {
+                return this.counts[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the count of the word {@code word[start, end)}, or 0 if it has
+     * not been counted.
+     *
+     * @param word
+     *            the characters of the word
+     * @param start
+     *            index of the first character of the word
+     * @param end
+     *            index one past the last character of the word
+     * @return the count of the word
+     * @requires 0 <= start <= end <= |word|
+     */
+    public int count(char[] word, int start, int end) {
+        assert word != null : "Violation of: word is not null";
+        assert 0 <= start && start <= end && end <= word.length : ""
+                + "Violation of: 0 <= start <= end <= |word|";
+
+        int hash = hash(word, start, end);
+        int mask = this.keys.length - 1;
+        int slot = spread(hash) & mask;
+        while (this.keys[slot] != null) {
+            if (this.hashes[slot] == hash
+                    && matches(this.keys[slot], word, start, end)) {
+                return this.counts[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the number of distinct words in the table.
+     *
+     * @return the number of distinct words
+     */
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Performs {@code action} on every word of the table and its count, in no
+     * particular order.
+     *
+     * @param action
+     *            the action to perform on each word and count
+     */
+    @Override
+    public void forEach(ObjIntConsumer<String> action) {
+        assert action != null : "Violation of: action is not null";
+
+        for (int i = 0; i < this.keys.length; i++) {
+            if (this.keys[i] != null) {
+                action.accept(this.keys[i], this.counts[i]);
+            }
+        }
+    }
+
+    @Override
+    public int errorBound() {
+        return 0;
+    }
+
+    @Override
+    public int resizes() {
+        return this.resizes;
+    }
+
+}
@@ -0,0 +1,113 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Counter of the words of a text, either exact ({@code WordCountTable}) or
+ * approximate ({@code HeavyHitterCounter}). The count reported for a word is
+ * never below its true count, and at most {@code errorBound()} above it.
+ *
+ * @author Bryce Putman and Cody Yang
+ *
+ */
+public interface WordCounter {
+
+    /**
+     * Adds one to the count of the word {@code word[start, end)}.
+     *
+     * @param word
+     *            the characters of the word
+     * @param start
+     *            index of the first character of the word
+     * @param end
+     *            index one past the last character of the word
+     * @updates this
+     * @requires 0 <= start < end <= |word|
+     * @ensures this = #this with the count of word[start, end) incremented
+     */
+    void increment(char[] word, int start, int end);
+
+    /**
+     * Adds one to the count of the word {@code word[start, end)}.
+     *
+     * @param word
+     *            the characters of the word
+     * @param start
+     *            index of the first character of the word
+     * @param end
+     *            index one past the last character of the word
+     * @updates this
+     * @requires 0 <= start < end <= |word|
+     * @ensures this = #this with the count of word[start, end) incremented
+     */
+    void increment(CharSequence word, int start, int end);
+
+    /**
+     * Adds one to the count of the word whose UTF-8 bytes are
+     * {@code utf8[start, end)}. Malformed bytes count as U+FFFD, as when the
+     * text is decoded first. By default the word is decoded and counted as
+     * characters; counters override this to count ASCII words without
+     * decoding them.
+     *
+     * @param utf8
+     *            the bytes of the text
+     * @param start
+     *            index of the first byte of the word
+     * @param end
+     *            index one past the last byte of the word
+     * @updates this
+     * @requires 0 <= start < end <= utf8.limit
+     * @ensures this = #this with the count of [utf8[start, end) decoded]
+     *          incremented
+     */
+    default void increment(ByteBuffer utf8, int start, int end) {
+        CharSequence word = StandardCharsets.UTF_8
+                .decode(utf8.slice(start, end - start));
+        this.increment(word, 0, word.length());
+    }
+
+    /**
+     * Adds the counts of every word of {@code source} to this counter.
+     *
+     * @param source
+     *            the counter whose counts are added
+     * @updates this
+     * @requires source is not this
+     * @ensures this = [#this with the counts of source added by word]
+     */
+    void addAll(WordCounter source);
+
+    /**
+     * Returns the number of distinct words whose counts are reported.
+     *
+     * @return the number of distinct words
+     */
+    int size();
+
+    /**
+     * Performs {@code action} on every word whose count is reported and its
+     * count, in no particular order.
+     *
+     * @param action
+     *            the action to perform on each word and count
+     */
+    void forEach(ObjIntConsumer<String> action);
+
+    /**
+     * Returns the most by which a reported count may exceed the true count of
+     * its word; 0 if the counts are exact.
+     *
+     * @return the error bound of the counts
+     */
+    int errorBound();
+
+    /**
+     * Returns the number of times this counter has grown its tables since it
+     * was created, for the metrics of a run; 0 for a counter whose capacity
+     * is fixed.
+     *
+     * @return the number of resizes of this counter
+     */
+    int resizes();
+
+}
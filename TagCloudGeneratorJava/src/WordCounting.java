@@ -0,0 +1,946 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+/**
+ * Counts the words of an input into a {@code WordCounter}: a character stream
+ * a chunk at a time, or a regular file from its mapped bytes, in ranges
+ * counted in parallel and merged. Also counts the bytes appended to a file
+ * since an earlier count, for the incremental mode.
+ *
+ * @author Bryce Putman and Cody Yang
+ *
+ */
+public final class WordCounting {
+
+    /**
+     * No argument constructor--private to prevent instantiation.
+     */
+    private WordCounting() {
+    }
+
+    /**
+     * Task counting the words in a range of a file. Ranges larger than the
+     * split size are halved on a separator boundary and counted in parallel;
+     * the partial counters are merged on the way back up.
+     *
+     * @param <C>
+     *            type of the word counters
+     */
+    private static final class RangeCountTask<C extends WordCounter>
+            extends RecursiveTask<C> {
+
+        /**
+         * Serialization version, required since tasks are serializable.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The file being counted.
+         */
+        private final transient FileChannel channel;
+
+        /**
+         * Index of the first byte of the range.
+         */
+        private final long start;
+
+        /**
+         * Index one past the last byte of the range.
+         */
+        private final long end;
+
+        /**
+         * Size above which the range is split.
+         */
+        private final long splitSize;
+
+        /**
+         * The separator characters.
+         */
+        private final transient SeparatorClass separators;
+
+        /**
+         * The normalization of counted words.
+         */
+        private final transient WordNormalizer normalizer;
+
+        /**
+         * Creates the counter of each range.
+         */
+        private final transient Supplier<C> counters;
+
+        /**
+         * The metrics of the run.
+         */
+        private final transient TagCloudMetrics metrics;
+
+        /**
+         * Constructor from file and range.
+         *
+         * @param channel
+         *            the file being counted
+         * @param start
+         *            index of the first byte of the range
+         * @param end
+         *            index one past the last byte of the range
+         * @param splitSize
+         *            size above which the range is split
+         * @param separators
+         *            the class of separator characters
+         * @param normalizer
+         *            the normalization of counted words
+         * @param counters
+         *            creates the counter of each range
+         * @param metrics
+         *            the metrics of the run
+         */
+        RangeCountTask(FileChannel channel, long start, long end,
+                long splitSize, SeparatorClass separators,
+                WordNormalizer normalizer, Supplier<C> counters,
+                TagCloudMetrics metrics) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+            this.splitSize = splitSize;
+            this.separators = separators;
+            this.normalizer = normalizer;
+            this.counters = counters;
+            this.metrics = metrics;
+        }
+
+        @Override
+        protected C compute() {
+            try {
+                if (this.end - this.start > this.splitSize) {
+                    long middle = this.nextSeparator(
+                            this.start + (this.end - this.start) / 2);
+                    // a range that is one giant word cannot be split
+                    if (middle < this.end) {
+                        RangeCountTask<C> left = new RangeCountTask<>(
+                                this.channel, this.start, middle,
+                                this.splitSize, this.separators,
+                                this.normalizer, this.counters, this.metrics);
+                        RangeCountTask<C> right = new RangeCountTask<>(
+                                this.channel, middle, this.end,
+                                this.splitSize, this.separators,
+                                this.normalizer, this.counters, this.metrics);
+                        left.fork();
+                        C rightCounts = right.compute();
+                        return mergeCounts(left.join(), rightCounts,
+                                this.metrics);
+                    }
+                }
+                return this.countRange();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Returns the index of the first separator byte at or after
+         * {@code position}, or the end of the range if there is none. Only
+         * ASCII separators are considered, since those bytes cannot occur
+         * inside a multi-byte UTF-8 character.
+         *
+         * @param position
+         *            the index to start looking from
+         * @return index of the next separator byte
+         * @throws IOException
+         *             if the file cannot be read
+         */
+        private long nextSeparator(long position) throws IOException {
+            ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+            long index = position;
+            while (index < this.end) {
+                bytes.clear();
+                int bytesRead = this.channel.read(bytes, index);
+                if (bytesRead <= 0) {
+                    return this.end;
+                }
+                for (int i = 0; i < bytesRead && index < this.end; i++) {
+                    byte b = bytes.get(i);
+                    if (b >= 0 && this.separators.contains((char) b)) {
+                        return index;
+                    }
+                    index++;
+                }
+            }
+            return this.end;
+        }
+
+        /**
+         * Counts the words of the range into a new counter.
+         *
+         * @return counter of the words within the range and their respective
+         *         number of occurrences
+         * @throws IOException
+         *             if the file cannot be read
+         */
+        private C countRange() throws IOException {
+            C wordToCount = this.counters.get();
+            countMappedRange(this.channel, this.start, this.end,
+                    this.separators, this.normalizer, wordToCount,
+                    this.metrics);
+            return wordToCount;
+        }
+    }
+
+    /**
+     * Number of characters read from the input stream at a time.
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Mask of the bits of a byte, to use it as an unsigned index.
+     */
+    private static final int BYTE_MASK = 0xFF;
+
+    /**
+     * Smallest range of a file worth counting on its own worker.
+     */
+    private static final long MIN_RANGE_SIZE = 1 << 20;
+
+    /**
+     * Largest range of a file that can be mapped at once.
+     */
+    private static final long MAX_RANGE_SIZE = Integer.MAX_VALUE;
+
+    /**
+     * Whether the Vector API is available to classify separators, which needs
+     * the JVM to be started with {@code --add-modules jdk.incubator.vector}.
+     */
+    private static final boolean VECTOR_API = ModuleLayer.boot()
+            .findModule("jdk.incubator.vector").isPresent();
+
+    /**
+     * Number of bits in each word of a separator classification.
+     */
+    private static final int BITS_PER_WORD = 64;
+
+    /**
+     * Returns the index one past the end of the first "word" (maximal length
+     * run of characters not in {@code separators}) or "separator string"
+     * (maximal length run of characters in {@code separators}) in the given
+     * {@code text} starting at the given {@code position} and ending no later
+     * than {@code limit}.
+     *
+     * @param text
+     *            the {@code char} buffer from which to get the word or
+     *            separator string
+     * @param position
+     *            the starting index
+     * @param limit
+     *            the index one past the last valid character in {@code text}
+     * @param separators
+     *            the {@code SeparatorClass} of separator characters
+     * @return the index one past the end of the first word or separator string
+     *         found in {@code text} starting at index {@code position}
+     * @requires 0 <= position < limit <= |text|
+     * @ensures <pre>
+     * position < nextWordOrSeparator <= limit  and
+     * if entries(text[position, position + 1)) intersection separators = {}
+     * then
+     *   entries(text[position, nextWordOrSeparator)) intersection
+     *     separators = {}  and
+     *   (nextWordOrSeparator = limit  or
+     *    entries(text[position, nextWordOrSeparator + 1))
+     *      intersection separators /= {})
+     * else
+     *   entries(text[position, nextWordOrSeparator)) is subset of
+     *     separators  and
+     *   (nextWordOrSeparator = limit  or
+     *    entries(text[position, nextWordOrSeparator + 1))
+     *      is not subset of separators)
+     * </pre>
+     */
+    static int nextWordOrSeparator(char[] text, int position,
+            int limit, SeparatorClass separators) {
+        // store whether first character is start of word or string of separators
+        boolean firstCharIsSeparator = separators.contains(text[position]);
+
+        // create new variable to store position to avoid warnings
+        int newPosition = position + 1;
+
+        /*
+         * continue until end of valid text is reached or first change in
+         * separator vs other character is reached
+         */
+        while (newPosition < limit && separators
+                .contains(text[newPosition]) == firstCharIsSeparator) {
+            newPosition++;
+        }
+
+        return newPosition;
+    }
+
+    /**
+     * Returns the index one past the end of the first word or separator string
+     * starting at the given {@code position} and ending no later than
+     * {@code limit}, like {@code nextWordOrSeparator(char[], ...)}, but from a
+     * classification of the text in which bit {@code i % 64} of
+     * {@code separatorBits[i / 64]} is set iff character {@code i} is a
+     * separator. The end is found a word of bits at a time.
+     *
+     * @param separatorBits
+     *            the classification of the text
+     * @param position
+     *            the starting index
+     * @param limit
+     *            the index one past the last valid character
+     * @return the index one past the end of the first word or separator string
+     *         starting at index {@code position}
+     * @requires 0 <= position < limit <= 64 * |separatorBits|  and
+     *           the bits from limit to the end of its word are clear
+     */
+    static int nextWordOrSeparator(long[] separatorBits, int position,
+            int limit) {
+        int index = position / BITS_PER_WORD;
+
+        // all ones if the first character is a separator, else all zeros
+        long first = -((separatorBits[index] >>> position) & 1);
+
+        // set bits are characters of the other kind, from position on
+        long changes = (separatorBits[index] ^ first) & (-1L << position);
+        while (changes == 0) {
+            index++;
+            if (index * BITS_PER_WORD >= limit) {
+                return limit;
+            }
+            changes = separatorBits[index] ^ first;
+        }
+
+        // the clear bits past limit end a separator string beyond limit
+        return Math.min(limit, index * BITS_PER_WORD
+                + Long.numberOfTrailingZeros(changes));
+    }
+
+    /**
+     * Reports whether character {@code i} is a separator in the given
+     * classification.
+     *
+     * @param separatorBits
+     *            the classification of the text
+     * @param i
+     *            the index of the character
+     * @return whether character {@code i} is a separator
+     * @requires 0 <= i < 64 * |separatorBits|
+     */
+    private static boolean isSeparator(long[] separatorBits, int i) {
+        return (separatorBits[i / BITS_PER_WORD] & (1L << i)) != 0;
+    }
+
+    /**
+     * Creates the scanner to classify chunks with the Vector API for
+     * {@code countChunk}, if the Vector API is available and the separators
+     * are ASCII. Kept apart so that the Vector API classes are only loaded if
+     * the module is present. The scanner reuses its buffer for every chunk,
+     * so each caller makes one and keeps it for all of its chunks.
+     *
+     * @param separators
+     *            the class of separator characters
+     * @return a scanner of {@code separators}, or {@code null} if chunks
+     *         must be scanned character by character
+     */
+    static VectorSeparatorScanner separatorScanner(SeparatorClass separators) {
+        VectorSeparatorScanner scanner = null;
+        if (VECTOR_API && separators.isAscii()) {
+            scanner = new VectorSeparatorScanner(separators);
+        }
+        return scanner;
+    }
+
+    /**
+     * Creates a counter containing the words in the files, each with the
+     * number of occurrences of the word. The input is consumed in fixed-size
+     * chunks in a single pass, so memory use is bounded by the counter rather
+     * than the size of the input; a word split across two chunks is carried
+     * over and counted once. Words reach the counter in the order of the
+     * text, so an {@code NGramCounter} counts its phrases of consecutive
+     * words.
+     *
+     * @param <C>
+     *            type of the word counter
+     * @param inFile
+     *            the input stream, used to read in the words
+     * @param separators
+     *            the class of separator characters
+     * @param normalizer
+     *            the normalization of counted words
+     * @param counters
+     *            creates the word counter
+     * @param metrics
+     *            the metrics of the run
+     * @return counter of words and their respective number of occurrences
+     * @updates metrics
+     * @ensures wordToCount = the normalized words contained within in, mapped
+     *          to the number of appearances of the word with in
+     */
+    static <C extends WordCounter> C createWordToCountMap(
+            BufferedReader inFile, SeparatorClass separators,
+            WordNormalizer normalizer, Supplier<C> counters,
+            TagCloudMetrics metrics) {
+
+        // create counter of words to their respective counts
+        C wordToCount = counters.get();
+
+        // chunk of text from input file
+        char[] buffer = new char[BUFFER_SIZE];
+
+        // word which may continue into the next chunk
+        StringBuilder partialWord = new StringBuilder();
+
+        // classifier of every chunk, if it can be vectorized
+        VectorSeparatorScanner scanner = separatorScanner(separators);
+
+        try {
+            long readStart = System.nanoTime();
+            int charsRead = inFile.read(buffer, 0, buffer.length);
+            while (charsRead != -1) {
+                long countStart = System.nanoTime();
+                metrics.addTime(TagCloudMetrics.Phase.READ, readStart);
+                metrics.addCharsRead(charsRead);
+                metrics.addTokens(countChunk(buffer, charsRead, separators,
+                        scanner, normalizer, partialWord, wordToCount));
+                metrics.addTime(TagCloudMetrics.Phase.COUNT, countStart);
+                readStart = System.nanoTime();
+                charsRead = inFile.read(buffer, 0, buffer.length);
+            }
+        } catch (IOException e) {
+            System.err.println(e);
+        }
+
+        // count word ending at end of input, if any
+        metrics.addTokens(
+                countPartialWord(partialWord, normalizer, wordToCount));
+        metrics.addResizes(wordToCount.resizes());
+
+        return wordToCount;
+    }
+
+    /**
+     * Counts the words in the first {@code limit} characters of
+     * {@code buffer}. A word running up to {@code limit} is left in
+     * {@code partialWord}, since it may continue in the next chunk; a word
+     * carried over from the previous chunk is completed by the first
+     * separator. Words are normalized by {@code normalizer} as they are
+     * counted, which may change them in place in {@code buffer}. Given a
+     * scanner, the chunk is classified many characters at a time up front,
+     * and words are then found from the classification instead of character
+     * by character.
+     *
+     * @param buffer
+     *            the chunk of text
+     * @param limit
+     *            the number of valid characters in {@code buffer}
+     * @param separators
+     *            the class of separator characters
+     * @param scanner
+     *            the caller's {@code separatorScanner(separators)}, or
+     *            {@code null} to scan character by character
+     * @param normalizer
+     *            the normalization of counted words
+     * @param partialWord
+     *            the word which may continue across chunk boundaries
+     * @param wordToCount
+     *            the table of words to their respective counts
+     * @return the number of words completed, for the run's metrics
+     * @updates buffer, partialWord, wordToCount
+     * @requires 0 <= limit <= |buffer|
+     * @ensures <pre>
+     * wordToCount = #wordToCount with the counts of the words completed in
+     *   #partialWord * buffer[0, limit) incremented  and
+     * partialWord = [the word running up to limit, if any]  and
+     * countChunk = [the number of words completed]
+     * </pre>
+     */
+    static int countChunk(char[] buffer, int limit,
+            SeparatorClass separators, VectorSeparatorScanner scanner,
+            WordNormalizer normalizer, StringBuilder partialWord,
+            WordCounter wordToCount) {
+        // index in chunk to look for next word or separator
+        int position = 0;
+
+        // number of words completed, for the run's metrics
+        int words = 0;
+
+        // classification of the chunk, if it can be vectorized
+        long[] separatorBits = null;
+        if (scanner != null) {
+            separatorBits = scanner.classify(buffer, limit);
+        }
+
+        // loops until end of chunk is reached
+        while (position < limit) {
+            // get end of next word or separator
+            int end;
+            boolean isSeparator;
+            if (separatorBits == null) {
+                end = nextWordOrSeparator(buffer, position, limit, separators);
+                isSeparator = separators.contains(buffer[position]);
+            } else {
+                end = nextWordOrSeparator(separatorBits, position, limit);
+                isSeparator = isSeparator(separatorBits, position);
+            }
+            if (isSeparator) {
+                // separator ends a word carried over from the previous chunk
+                words += countPartialWord(partialWord, normalizer,
+                        wordToCount);
+            } else if (end == limit) {
+                // word may still continue in the next chunk
+                partialWord.append(buffer, position, end - position);
+            } else if (partialWord.length() == 0) {
+                // whole word is in this chunk, so count it in place
+                normalizer.increment(buffer, position, end, wordToCount);
+                words++;
+            } else {
+                // word completes one carried over from the previous chunk
+                partialWord.append(buffer, position, end - position);
+                words += countPartialWord(partialWord, normalizer,
+                        wordToCount);
+            }
+            // move along chunk according to length of string
+            position = end;
+        }
+        return words;
+    }
+
+    /**
+     * Counts the words in the UTF-8 text {@code bytes[0, bytes.limit)}, which
+     * starts and ends on word boundaries, without decoding it. Each byte is
+     * classified by {@code separatorBytes}; the bytes of multi-byte characters
+     * are never separators, so they are part of words. Each word is counted
+     * from its bytes, which the counter decodes only if it needs to.
+     *
+     * @param bytes
+     *            the UTF-8 text
+     * @param separatorBytes
+     *            the table classifying bytes, from
+     *            {@code SeparatorClass.byteTable}
+     * @param wordToCount
+     *            the counter of words to their respective counts
+     * @return the number of words counted, for the run's metrics
+     * @updates wordToCount
+     * @requires every separator is ASCII
+     * @ensures <pre>
+     * wordToCount = #wordToCount with the counts of the words in
+     *   [bytes decoded] incremented  and
+     * countBytes = [the number of words in bytes]
+     * </pre>
+     */
+    private static int countBytes(ByteBuffer bytes, boolean[] separatorBytes,
+            WordCounter wordToCount) {
+        int limit = bytes.limit();
+        int position = 0;
+        int words = 0;
+        while (position < limit) {
+            // skip separators, then find the end of the word after them
+            while (position < limit
+                    && separatorBytes[bytes.get(position) & BYTE_MASK]) {
+                position++;
+            }
+            int start = position;
+            while (position < limit
+                    && !separatorBytes[bytes.get(position) & BYTE_MASK]) {
+                position++;
+            }
+            if (position > start) {
+                wordToCount.increment(bytes, start, position);
+                words++;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Creates a counter containing the words in the file at {@code inPath},
+     * each with the number of occurrences of the word. The file is
+     * memory-mapped and split into ranges which start on separator boundaries;
+     * each range is counted into its own counter by a worker of a
+     * {@code ForkJoinPool}, and the partial counters are merged. The file is
+     * read as UTF-8, so a separator byte can never fall inside a multi-byte
+     * character; when possible it is split into words byte by byte, without
+     * decoding it, by {@code countBytes}. Partial counters cannot join the
+     * phrases spanning two ranges, so n-grams should be counted on one
+     * thread, which counts every range into the same counter in order.
+     *
+     * @param <C>
+     *            type of the word counters
+     * @param inPath
+     *            the path of the input file
+     * @param separators
+     *            the class of separator characters
+     * @param normalizer
+     *            the normalization of counted words
+     * @param threads
+     *            the number of worker threads to count with
+     * @param counters
+     *            creates the counter of each range
+     * @param metrics
+     *            the metrics of the run
+     * @return counter of words and their respective number of occurrences
+     * @throws IOException
+     *             if the file cannot be read
+     * @updates metrics
+     * @requires threads > 0
+     * @ensures wordToCount = the normalized words contained within the file,
+     *          mapped to the number of appearances of the word within the file
+     */
+    static <C extends WordCounter> C createWordToCountMap(Path inPath,
+            SeparatorClass separators, WordNormalizer normalizer, int threads,
+            Supplier<C> counters, TagCloudMetrics metrics) throws IOException {
+        try (FileChannel channel = FileChannel.open(inPath,
+                StandardOpenOption.READ)) {
+            return countFileRange(channel, 0, channel.size(), separators,
+                    normalizer, threads, counters, metrics);
+        }
+    }
+
+    /**
+     * Maps bytes [{@code start}, {@code end}) of {@code channel} into memory
+     * and counts their words into {@code wordToCount}, in the order of the
+     * text. If words are counted as they are and every separator is ASCII,
+     * the bytes are split into words directly, without decoding the range.
+     *
+     * @param channel
+     *            the file to count
+     * @param start
+     *            index of the first byte to count, at a word boundary
+     * @param end
+     *            index one past the last byte to count, at a word boundary
+     * @param separators
+     *            the class of separator characters
+     * @param normalizer
+     *            the normalization of counted words
+     * @param wordToCount
+     *            the counter of words to their respective counts
+     * @param metrics
+     *            the metrics of the run
+     * @throws IOException
+     *             if the file cannot be read
+     * @updates wordToCount, metrics
+     * @requires <pre>
+     * 0 <= start <= end <= [size of channel]  and
+     * end - start <= MAX_RANGE_SIZE
+     * </pre>
+     */
+    private static void countMappedRange(FileChannel channel, long start,
+            long end, SeparatorClass separators, WordNormalizer normalizer,
+            WordCounter wordToCount, TagCloudMetrics metrics)
+            throws IOException {
+        long countStart = System.nanoTime();
+        int resizes = wordToCount.resizes();
+        MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY,
+                start, end - start);
+        long words = 0;
+        if (normalizer.isIdentity() && separators.isAscii()) {
+            words += countBytes(bytes, separators.byteTable(), wordToCount);
+        } else {
+            CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+            StringBuilder partialWord = new StringBuilder();
+            VectorSeparatorScanner scanner = separatorScanner(separators);
+
+            // decode one buffer of characters at a time until bytes run out
+            CoderResult result;
+            do {
+                result = decoder.decode(bytes, chars, true);
+                words += countChunk(chars.array(), chars.position(),
+                        separators, scanner, normalizer, partialWord,
+                        wordToCount);
+                chars.clear();
+            } while (result.isOverflow());
+            decoder.flush(chars);
+            words += countChunk(chars.array(), chars.position(), separators,
+                    scanner, normalizer, partialWord, wordToCount);
+
+            // count word ending at end of range, if any
+            words += countPartialWord(partialWord, normalizer, wordToCount);
+        }
+        metrics.addBytesRead(end - start);
+        metrics.addTokens(words);
+        metrics.addResizes(wordToCount.resizes() - resizes);
+        metrics.addTime(TagCloudMetrics.Phase.COUNT, countStart);
+    }
+
+    /**
+     * Creates a counter containing the words in bytes [{@code start},
+     * {@code end}) of {@code channel}, each with the number of occurrences of
+     * the word, counting on {@code threads} worker threads. On one thread the
+     * bytes are counted in order into one counter, in as few ranges as can
+     * be mapped, so an {@code NGramCounter} counts the phrases spanning them.
+     *
+     * @param <C>
+     *            type of the word counters
+     * @param channel
+     *            the file to count
+     * @param start
+     *            index of the first byte to count, at a word boundary
+     * @param end
+     *            index one past the last byte to count, at a word boundary
+     * @param separators
+     *            the class of separator characters
+     * @param normalizer
+     *            the normalization of counted words
+     * @param threads
+     *            the number of worker threads to count with
+     * @param counters
+     *            creates the counter of each range
+     * @param metrics
+     *            the metrics of the run
+     * @return counter of words and their respective number of occurrences
+     * @throws IOException
+     *             if the file cannot be read
+     * @updates metrics
+     * @requires 0 <= start <= end <= [size of channel] and threads > 0
+     * @ensures countFileRange = the words contained within the range, mapped
+     *          to the number of appearances of the word within the range
+     */
+    static <C extends WordCounter> C countFileRange(
+            FileChannel channel, long start, long end,
+            SeparatorClass separators, WordNormalizer normalizer, int threads,
+            Supplier<C> counters, TagCloudMetrics metrics)
+            throws IOException {
+        if (threads == 1) {
+            /*
+             * count ranges small enough to map in order into one counter, so
+             * that the phrases spanning them are counted by an NGramCounter
+             */
+            C wordToCount = counters.get();
+            long rangeStart = start;
+            while (rangeStart < end) {
+                long rangeEnd = end;
+                if (end - rangeStart > MAX_RANGE_SIZE) {
+                    rangeEnd = lastWordBoundary(channel, rangeStart,
+                            rangeStart + MAX_RANGE_SIZE, separators);
+                    if (rangeEnd == rangeStart) {
+                        throw new IOException("No separator in "
+                                + MAX_RANGE_SIZE + " bytes from byte "
+                                + rangeStart);
+                    }
+                }
+                countMappedRange(channel, rangeStart, rangeEnd, separators,
+                        normalizer, wordToCount, metrics);
+                rangeStart = rangeEnd;
+            }
+            return wordToCount;
+        }
+
+        // split into roughly one range per thread, each small enough to map
+        long rangeSize = Math.min(MAX_RANGE_SIZE, Math.max(MIN_RANGE_SIZE,
+                (end - start + threads - 1) / threads));
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return pool.invoke(new RangeCountTask<>(channel, start, end,
+                    rangeSize, separators, normalizer, counters, metrics));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Returns the index one past the last ASCII separator byte in bytes
+     * [{@code start}, {@code end}) of {@code channel}, or {@code start} if
+     * there is none. Every word before the returned index is complete, even
+     * if more bytes are later appended to the file.
+     *
+     * @param channel
+     *            the file to search
+     * @param start
+     *            index of the first byte to search
+     * @param end
+     *            index one past the last byte to search
+     * @param separators
+     *            the class of separator characters
+     * @return index one past the last separator byte
+     * @throws IOException
+     *             if the file cannot be read
+     * @requires 0 <= start <= end <= [size of channel]
+     */
+    static long lastWordBoundary(FileChannel channel, long start,
+            long end, SeparatorClass separators) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+        long blockEnd = end;
+        while (blockEnd > start) {
+            long blockStart = Math.max(start, blockEnd - BUFFER_SIZE);
+            bytes.clear();
+            bytes.limit((int) (blockEnd - blockStart));
+            while (bytes.hasRemaining()) {
+                if (channel.read(bytes, blockStart + bytes.position()) < 0) {
+                    throw new IOException("File shrank while reading");
+                }
+            }
+            for (int i = bytes.limit() - 1; i >= 0; i--) {
+                byte b = bytes.get(i);
+                if (b >= 0 && separators.contains((char) b)) {
+                    return blockStart + i + 1;
+                }
+            }
+            blockEnd = blockStart;
+        }
+        return start;
+    }
+
+    /**
+     * Counts the words in bytes [{@code start}, {@code end}) of
+     * {@code channel}, normally the one word after the last separator of the
+     * file, into {@code wordToCount}. The bytes are read and decoded one
+     * buffer at a time, so a word of any length the counter can hold is
+     * counted without reading it into one array first.
+     *
+     * @param channel
+     *            the file to read
+     * @param start
+     *            index of the first byte to count
+     * @param end
+     *            index one past the last byte to count
+     * @param separators
+     *            the class of separator characters
+     * @param normalizer
+     *            the normalization of counted words
+     * @param wordToCount
+     *            the counter of words to their respective counts
+     * @param metrics
+     *            the metrics of the run
+     * @throws IOException
+     *             if the file cannot be read
+     * @updates wordToCount, metrics
+     * @requires 0 <= start <= end <= [size of channel]
+     */
+    static void countTrailingWord(FileChannel channel, long start,
+            long end, SeparatorClass separators, WordNormalizer normalizer,
+            WordCounter wordToCount, TagCloudMetrics metrics)
+            throws IOException {
+        long countStart = System.nanoTime();
+        int resizes = wordToCount.resizes();
+        long words = 0;
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+        // no more chars than bytes are decoded, so one buffer holds them
+        CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+        StringBuilder partialWord = new StringBuilder();
+        VectorSeparatorScanner scanner = separatorScanner(separators);
+        long position = start;
+        boolean endOfInput = false;
+        while (!endOfInput) {
+            // read after the bytes of a character split by the last buffer
+            bytes.limit((int) Math.min(bytes.capacity(),
+                    bytes.position() + (end - position)));
+            while (bytes.hasRemaining()) {
+                int bytesRead = channel.read(bytes, position);
+                if (bytesRead < 0) {
+                    throw new IOException("File shrank while reading");
+                }
+                position += bytesRead;
+            }
+            endOfInput = position == end;
+            bytes.flip();
+            decoder.decode(bytes, chars, endOfInput);
+            if (endOfInput) {
+                decoder.flush(chars);
+            }
+            bytes.compact();
+            words += countChunk(chars.array(), chars.position(), separators,
+                    scanner, normalizer, partialWord, wordToCount);
+            chars.clear();
+        }
+        words += countPartialWord(partialWord, normalizer, wordToCount);
+        metrics.addBytesRead(end - start);
+        metrics.addTokens(words);
+        metrics.addResizes(wordToCount.resizes() - resizes);
+        metrics.addTime(TagCloudMetrics.Phase.COUNT, countStart);
+    }
+
+    /**
+     * Adds the counts of {@code wordToCount2} into those of
+     * {@code wordToCount1} or vice versa, whichever touches fewer entries, and
+     * returns the merged counter.
+     *
+     * @param <C>
+     *            type of the word counters
+     * @param wordToCount1
+     *            one counter of words to their respective counts
+     * @param wordToCount2
+     *            the other counter of words to their respective counts
+     * @param metrics
+     *            the metrics of the run, given the resizes of the merge
+     * @return counter with the counts of both counters summed by word
+     * @updates wordToCount1, wordToCount2, metrics
+     * @ensures mergeCounts = [#wordToCount1 and #wordToCount2, with the counts
+     *          of words in both summed]
+     */
+    static <C extends WordCounter> C mergeCounts(C wordToCount1,
+            C wordToCount2, TagCloudMetrics metrics) {
+        C larger = wordToCount1;
+        C smaller = wordToCount2;
+        if (larger.size() < smaller.size()) {
+            larger = wordToCount2;
+            smaller = wordToCount1;
+        }
+        int resizes = larger.resizes();
+        larger.addAll(smaller);
+        metrics.addResizes(larger.resizes() - resizes);
+        return larger;
+    }
+
+    /**
+     * Counts the normalization of the word in {@code partialWord}, if any, and
+     * clears it.
+     *
+     * @param partialWord
+     *            the word which may continue across chunk boundaries
+     * @param normalizer
+     *            the normalization of counted words
+     * @param wordToCount
+     *            the table of words to their respective counts
+     * @return the number of words completed, 0 or 1, for the run's metrics
+     * @updates partialWord, wordToCount
+     * @ensures <pre>
+     * partialWord = <>  and
+     * if #partialWord = <> then
+     *   wordToCount = #wordToCount  and  countPartialWord = 0
+     * else
+     *   wordToCount = #wordToCount with the count of
+     *     [normalization of #partialWord, unless a stop word] incremented  and
+     *   countPartialWord = 1
+     * </pre>
+     */
+    static int countPartialWord(StringBuilder partialWord,
+            WordNormalizer normalizer, WordCounter wordToCount) {
+        int words = 0;
+        if (partialWord.length() > 0) {
+            if (normalizer.isIdentity()) {
+                wordToCount.increment(partialWord, 0, partialWord.length());
+            } else {
+                char[] word = new char[partialWord.length()];
+                partialWord.getChars(0, word.length, word, 0);
+                normalizer.increment(word, 0, word.length, wordToCount);
+            }
+            partialWord.setLength(0);
+            words = 1;
+        }
+        return words;
+    }
+
+}
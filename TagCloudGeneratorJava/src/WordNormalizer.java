@@ -0,0 +1,237 @@
+import java.nio.CharBuffer;
+import java.text.Normalizer;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Normalization applied to each word as it is counted: optional case folding
+ * through a precomputed table, optional Unicode NFC normalization, and an
+ * optional set of stop words which are not counted at all. Folding is done in
+ * place in the buffer the word was read into, so a normalized word already
+ * in the table is still counted without creating any objects.
+ *
+ * @author Bryce Putman and Cody Yang
+ *
+ */
+public final class WordNormalizer {
+
+    /**
+     * Case folding of every {@code char}, the same folding as
+     * {@code String.compareToIgnoreCase}.
+     */
+    private static final char[] FOLD = new char[Character.MAX_VALUE + 1];
+
+    static {
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            FOLD[c] = Character
+                    .toLowerCase(Character.toUpperCase((char) c));
+        }
+    }
+
+    /**
+     * Normalizer which counts every word as it is.
+     */
+    public static final WordNormalizer NONE = new WordNormalizer(false,
+            false, Collections.emptySet());
+
+    /**
+     * Smallest {@code char} which may need NFC normalization; every
+     * character below it is unchanged by NFC and never composes with the
+     * character before it.
+     */
+    private static final char FIRST_NON_NFC_SAFE = '\u0300';
+
+    /**
+     * Odd multiplier combining the parts of a fingerprint.
+     */
+    private static final long FINGERPRINT_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Whether words are case folded.
+     */
+    private final boolean foldCase;
+
+    /**
+     * Whether words are NFC normalized.
+     */
+    private final boolean nfc;
+
+    /**
+     * Normalized stop words, each with count 1.
+     */
+    private final WordCountTable stopWords;
+
+    /**
+     * Constructor from normalization options.
+     *
+     * @param foldCase
+     *            whether to fold the case of words
+     * @param nfc
+     *            whether to NFC normalize words
+     * @param stopWords
+     *            words not to count, normalized in the same way as counted
+     *            words before comparing
+     */
+    public WordNormalizer(boolean foldCase, boolean nfc,
+            Collection<String> stopWords) {
+        assert stopWords != null : "Violation of: stopWords is not null";
+
+        this.foldCase = foldCase;
+        this.nfc = nfc;
+        this.stopWords = new WordCountTable(stopWords.size());
+        for (String word : stopWords) {
+            if (word.length() > 0) {
+                String normalized = this.normalize(word);
+                if (this.stopWords.count(normalized) == 0) {
+                    this.stopWords.add(normalized, 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns {@code word} with the case of every character folded, or
+     * {@code word} itself if folding changes nothing. Comparing folded words
+     * with {@code compareTo} orders them as {@code compareToIgnoreCase} orders
+     * the original words.
+     *
+     * @param word
+     *            the word
+     * @return the folded word
+     */
+    public static String fold(String word) {
+        int i = 0;
+        while (i < word.length() && FOLD[word.charAt(i)] == word.charAt(i)) {
+            i++;
+        }
+        if (i == word.length()) {
+            return word;
+        }
+        char[] folded = word.toCharArray();
+        for (; i < folded.length; i++) {
+            folded[i] = FOLD[folded[i]];
+        }
+        return new String(folded);
+    }
+
+    /**
+     * Reports whether this normalizer leaves every word as it is and counts
+     * them all.
+     *
+     * @return true iff words are counted as they are
+     */
+    public boolean isIdentity() {
+        return !this.foldCase && !this.nfc && this.stopWords.size() == 0;
+    }
+
+    /**
+     * Returns a fingerprint of this normalization, the same in every run for
+     * the same options and stop words, so that counts saved by one run can be
+     * checked to have been normalized as another would.
+     *
+     * @return the fingerprint of the normalization
+     */
+    public long fingerprint() {
+        // sum the stop words' hashes, as the table's order is arbitrary
+        long[] stopWordSum = new long[1];
+        this.stopWords.forEach((word, count) -> stopWordSum[0] += word
+                .hashCode() * FINGERPRINT_MULTIPLIER);
+        long fingerprint = stopWordSum[0] * FINGERPRINT_MULTIPLIER
+                + this.stopWords.size();
+        fingerprint = fingerprint * FINGERPRINT_MULTIPLIER
+                + (this.foldCase ? 1 : 0);
+        return fingerprint * FINGERPRINT_MULTIPLIER + (this.nfc ? 1 : 0);
+    }
+
+    /**
+     * Returns the normalization of {@code word}.
+     *
+     * @param word
+     *            the word
+     * @return the normalized word
+     */
+    public String normalize(String word) {
+        assert word != null : "Violation of: word is not null";
+
+        String normalized = word;
+        if (this.nfc) {
+            normalized = Normalizer.normalize(normalized,
+                    Normalizer.Form.NFC);
+        }
+        if (this.foldCase) {
+            normalized = fold(normalized);
+        }
+        return normalized;
+    }
+
+    /**
+     * Adds one to the count of the normalization of the word
+     * {@code word[start, end)}, unless it is a stop word. Case is folded in
+     * place in {@code word}.
+     *
+     * @param word
+     *            the characters of the word
+     * @param start
+     *            index of the first character of the word
+     * @param end
+     *            index one past the last character of the word
+     * @param wordToCount
+     *            the counter of words to their respective counts
+     * @updates word, wordToCount
+     * @requires 0 <= start < end <= |word|
+     * @ensures <pre>
+     * if [normalization of #word[start, end)] is a stop word then
+     *   wordToCount = #wordToCount
+     * else
+     *   wordToCount = #wordToCount with the count of
+     *     [normalization of #word[start, end)] incremented
+     * </pre>
+     */
+    public void increment(char[] word, int start, int end,
+            WordCounter wordToCount) {
+        if (this.nfc && !isNfcSafe(word, start, end)) {
+            // rare: the word may need composing, so normalize a copy
+            String normalized = Normalizer.normalize(
+                    CharBuffer.wrap(word, start, end - start),
+                    Normalizer.Form.NFC);
+            if (this.foldCase) {
+                normalized = fold(normalized);
+            }
+            if (this.stopWords.count(normalized) == 0) {
+                wordToCount.increment(normalized, 0, normalized.length());
+            }
+            return;
+        }
+        if (this.foldCase) {
+            for (int i = start; i < end; i++) {
+                word[i] = FOLD[word[i]];
+            }
+        }
+        if (this.stopWords.size() == 0
+                || this.stopWords.count(word, start, end) == 0) {
+            wordToCount.increment(word, start, end);
+        }
+    }
+
+    /**
+     * Reports whether every character of {@code word[start, end)} is below
+     * {@code FIRST_NON_NFC_SAFE}, so the word is already in NFC.
+     *
+     * @param word
+     *            the characters of the word
+     * @param start
+     *            index of the first character of the word
+     * @param end
+     *            index one past the last character of the word
+     * @return true iff the word is trivially in NFC
+     */
+    private static boolean isNfcSafe(char[] word, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (word[i] >= FIRST_NON_NFC_SAFE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,73 @@
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code BinaryTagCloudWriter}.
+ *
+ * @author Bryce Putman and Cody Yang
+ *
+ */
+public final class BinaryTagCloudWriterTest {
+
+    /**
+     * Reads the next word of a binary table.
+     *
+     * @param in
+     *            the table
+     * @return the word
+     * @throws IOException
+     *             if the table cannot be read
+     */
+    private static String readWord(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /*
+     * Routine Case: Testing reading back a table of words, ASCII and not,
+     * with the error bound of their counts.
+     */
+    @Test
+    public final void testWriteWords() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryTagCloudWriter writer = new BinaryTagCloudWriter(out);
+
+        writer.writeHeader("data.txt", 2, 3, 12, 5);
+        writer.writeWord("caf\u00e9", 3);
+        writer.writeWord("fig", 12);
+        writer.writeFooter();
+
+        DataInputStream in = new DataInputStream(
+                new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(BinaryTagCloudWriter.MAGIC, in.readInt());
+        assertEquals(5, in.readInt());
+        assertEquals("caf\u00e9", readWord(in));
+        assertEquals(3, in.readInt());
+        assertEquals("fig", readWord(in));
+        assertEquals(12, in.readInt());
+        assertEquals(0, in.available());
+    }
+
+    /*
+     * Boundary Case: Testing the table of no words, only its header.
+     */
+    @Test
+    public final void testWriteNoWords() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryTagCloudWriter writer = new BinaryTagCloudWriter(out);
+
+        writer.writeHeader("empty.txt", 0, 0, 0, 0);
+        writer.writeFooter();
+
+        assertEquals(2 * Integer.BYTES, out.size());
+    }
+
+}
@@ -0,0 +1,81 @@
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code CsvTagCloudWriter}.
+ *
+ * @author Bryce Putman and Cody Yang
+ *
+ */
+public final class CsvTagCloudWriterTest {
+
+    /**
+     * Writes a table of the given words and counts, with the given error
+     * bound, and returns it.
+     *
+     * @param errorBound
+     *            the error bound of the counts
+     * @param wordsAndCounts
+     *            the words, each followed by its count
+     * @return the table written
+     * @throws IOException
+     *             if the table cannot be written
+     * @requires wordsAndCounts alternates words and counts
+     */
+    private static String write(int errorBound, Object... wordsAndCounts)
+            throws IOException {
+        StringWriter out = new StringWriter();
+        CsvTagCloudWriter writer = new CsvTagCloudWriter(out);
+        writer.writeHeader("data.txt", wordsAndCounts.length / 2, 1, 1,
+                errorBound);
+        for (int i = 0; i < wordsAndCounts.length; i += 2) {
+            writer.writeWord((String) wordsAndCounts[i],
+                    (Integer) wordsAndCounts[i + 1]);
+        }
+        writer.writeFooter();
+        return out.toString();
+    }
+
+    /*
+     * Boundary Case: Testing the table of no words, only its header.
+     */
+    @Test
+    public final void testWriteNoWords() throws IOException {
+        assertEquals("word,count\r\n", write(0));
+    }
+
+    /*
+     * Routine Case: Testing a table of plain words, one row each.
+     */
+    @Test
+    public final void testWriteWords() throws IOException {
+        assertEquals("word,count\r\napple,3\r\nfig,12\r\n",
+                write(0, "apple", 3, "fig", 12));
+    }
+
+    /*
+     * Challenging Case: Testing that words holding commas, quotes or line
+     * breaks are quoted, with their quotes doubled, and other words are not.
+     */
+    @Test
+    public final void testWriteQuoted() throws IOException {
+        assertEquals("word,count\r\n\"a,b\",1\r\n\"say \"\"hi\"\"\",2\r\n"
+                + "\"two\r\nlines\",3\r\n\"cr\r\",4\r\nit's,5\r\n",
+                write(0, "a,b", 1, "say \"hi\"", 2, "two\r\nlines", 3,
+                        "cr\r", 4, "it's", 5));
+    }
+
+    /*
+     * Routine Case: Testing that approximate counts add an error column.
+     */
+    @Test
+    public final void testWriteErrorBound() throws IOException {
+        assertEquals("word,count,error\r\nthe,100,7\r\n",
+                write(7, "the", 100));
+    }
+
+}
@@ -0,0 +1,229 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code HeavyHitterCounter}.
+ *
+ * @author Bryce Putman and Cody Yang
+ *
+ */
+public final class HeavyHitterCounterTest {
+
+    /**
+     * Number of words monitored by the counters of the test cases.
+     */
+    private static final int CAPACITY = 16;
+
+    /**
+     * Relative error of the sketches of the test cases.
+     */
+    private static final double EPSILON = 0.01;
+
+    /**
+     * Probability the sketch error is exceeded in the test cases.
+     */
+    private static final double DELTA = 0.01;
+
+    /**
+     * Number of heavy words in the skewed streams.
+     */
+    private static final int HEAVY_WORDS = 4;
+
+    /**
+     * Number of rare words in the skewed streams, many more than the
+     * capacity.
+     */
+    private static final int RARE_WORDS = 2000;
+
+    /**
+     * Number of rare words counted between two occurrences of the heavy
+     * words in the skewed streams.
+     */
+    private static final int RARE_PER_HEAVY = 5;
+
+    /**
+     * Returns the words of {@code wordToCount} mapped to their counts.
+     *
+     * @param wordToCount
+     *            the counter
+     * @return map of the words of {@code wordToCount} to their counts
+     */
+    private static Map<String, Integer> countsOf(WordCounter wordToCount) {
+        Map<String, Integer> counts = new TreeMap<>();
+        wordToCount.forEach(counts::put);
+        return counts;
+    }
+
+    /**
+     * Counts a skewed stream of words, in which each of {@code HEAVY_WORDS}
+     * words named with {@code prefix} occurs once every
+     * {@code RARE_PER_HEAVY} of {@code RARE_WORDS} rare words, both in
+     * {@code wordToCount} and exactly in {@code trueCounts}.
+     *
+     * @param prefix
+     *            the prefix of the words of the stream
+     * @param wordToCount
+     *            the counter of the stream
+     * @param trueCounts
+     *            the exact counts of the words of the stream
+     * @updates wordToCount, trueCounts
+     */
+    private static void countSkewed(String prefix, WordCounter wordToCount,
+            Map<String, Integer> trueCounts) {
+        for (int i = 0; i < RARE_WORDS; i++) {
+            String rare = prefix + "rare" + i;
+            wordToCount.increment(rare, 0, rare.length());
+            trueCounts.merge(rare, 1, Integer::sum);
+            if (i % RARE_PER_HEAVY == 0) {
+                for (int j = 0; j < HEAVY_WORDS; j++) {
+                    String heavy = prefix + "heavy" + j;
+                    wordToCount.increment(heavy, 0, heavy.length());
+                    trueCounts.merge(heavy, 1, Integer::sum);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks the guarantees of the Space-Saving summary of
+     * {@code wordToCount}: every reported count is at least the true count
+     * and at most the true count plus the error bound, and every word whose
+     * true count exceeds (number of words counted) / {@code CAPACITY} is
+     * reported.
+     *
+     * @param wordToCount
+     *            the counter
+     * @param trueCounts
+     *            the exact counts of the words counted
+     */
+    private static void assertBounds(WordCounter wordToCount,
+            Map<String, Integer> trueCounts) {
+        Map<String, Integer> counts = countsOf(wordToCount);
+        int errorBound = wordToCount.errorBound();
+        long total = 0;
+        for (int count : trueCounts.values()) {
+            total += count;
+        }
+
+        assertEquals(true, counts.size() <= CAPACITY);
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            int trueCount = trueCounts.getOrDefault(entry.getKey(), 0);
+            assertEquals(true, trueCount <= entry.getValue());
+            assertEquals(true, entry.getValue() - errorBound <= trueCount);
+        }
+        for (Map.Entry<String, Integer> entry : trueCounts.entrySet()) {
+            if (entry.getValue() > total / CAPACITY) {
+                assertEquals(true, counts.containsKey(entry.getKey()));
+            }
+        }
+    }
+
+    /*
+     * Boundary Case: Testing a counter of no words.
+     */
+    @Test
+    public final void testConstructor() {
+        HeavyHitterCounter wordToCount = new HeavyHitterCounter(CAPACITY,
+                EPSILON, DELTA);
+
+        assertEquals(0, wordToCount.size());
+        assertEquals(0, wordToCount.errorBound());
+        assertEquals(0, wordToCount.resizes());
+    }
+
+    /*
+     * Routine Case: Testing that fewer distinct words than the capacity are
+     * counted exactly.
+     */
+    @Test
+    public final void testIncrementExact() {
+        HeavyHitterCounter wordToCount = new HeavyHitterCounter(CAPACITY,
+                EPSILON, DELTA);
+        char[] text = "red green red blue red green".toCharArray();
+
+        for (int start = 0; start < text.length;) {
+            int end = start;
+            while (end < text.length && text[end] != ' ') {
+                end++;
+            }
+            wordToCount.increment(text, start, end);
+            start = end + 1;
+        }
+        wordToCount.add("blue", 2);
+
+        Map<String, Integer> expected = new TreeMap<>();
+        expected.put("red", 3);
+        expected.put("green", 2);
+        expected.put("blue", 3);
+        assertEquals(expected, countsOf(wordToCount));
+        assertEquals(0, wordToCount.errorBound());
+    }
+
+    /*
+     * Challenging Case: Testing a skewed stream of many more distinct words
+     * than the capacity, which keeps the heavy words and bounds every count
+     * by the error bound.
+     */
+    @Test
+    public final void testIncrementErrorBound() {
+        HeavyHitterCounter wordToCount = new HeavyHitterCounter(CAPACITY,
+                EPSILON, DELTA);
+        Map<String, Integer> trueCounts = new HashMap<>();
+
+        countSkewed("", wordToCount, trueCounts);
+
+        assertEquals(CAPACITY, wordToCount.size());
+        assertEquals(true, wordToCount.errorBound() > 0);
+        assertBounds(wordToCount, trueCounts);
+        for (int j = 0; j < HEAVY_WORDS; j++) {
+            assertEquals(true, countsOf(wordToCount).containsKey("heavy" + j));
+        }
+    }
+
+    /*
+     * Challenging Case: Testing merging the summaries of two skewed streams,
+     * which keeps the heavy words of both and bounds every count by the
+     * error bound.
+     */
+    @Test
+    public final void testAddAllMerge() {
+        HeavyHitterCounter wordToCount1 = new HeavyHitterCounter(CAPACITY,
+                EPSILON, DELTA);
+        HeavyHitterCounter wordToCount2 = new HeavyHitterCounter(CAPACITY,
+                EPSILON, DELTA);
+        Map<String, Integer> trueCounts = new HashMap<>();
+        countSkewed("a", wordToCount1, trueCounts);
+        countSkewed("b", wordToCount2, trueCounts);
+
+        wordToCount1.addAll(wordToCount2);
+
+        assertBounds(wordToCount1, trueCounts);
+    }
+
+    /*
+     * Routine Case: Testing adding the counts of an exact counter, which are
+     * added word by word.
+     */
+    @Test
+    public final void testAddAllTable() {
+        HeavyHitterCounter wordToCount = new HeavyHitterCounter(CAPACITY,
+                EPSILON, DELTA);
+        wordToCount.add("red", 2);
+        WordCountTable table = new WordCountTable();
+        table.add("red", 3);
+        table.add("green", 1);
+
+        wordToCount.addAll(table);
+
+        Map<String, Integer> expected = new TreeMap<>();
+        expected.put("red", 5);
+        expected.put("green", 1);
+        assertEquals(expected, countsOf(wordToCount));
+    }
+
+}
@@ -0,0 +1,161 @@
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code HtmlTagCloudWriter}.
+ *
+ * @author Bryce Putman and Cody Yang
+ *
+ */
+public final class HtmlTagCloudWriterTest {
+
+    /**
+     * Line separator, as written by the writer.
+     */
+    private static final String NL = System.lineSeparator();
+
+    /**
+     * The end of the page of a tag cloud, after the last word.
+     */
+    private static final String FOOTER = "</p>" + NL + "</div>" + NL
+            + "</body>" + NL + "</html>" + NL;
+
+    /**
+     * Number of words written in the many-word test case, enough to fill the
+     * writer's buffer several times.
+     */
+    private static final int MANY_WORDS = 2000;
+
+    /**
+     * Returns the start of the page of a tag cloud, up to the first word.
+     *
+     * @param topAndTitle
+     *            the page title after "Top ", as it appears in the page
+     * @return the start of the page
+     */
+    private static String header(String topAndTitle) {
+        return "<html>" + NL + "<head>" + NL
+                + "<link href=\"http://web.cse.ohio-state.edu/software/2231/"
+                + "web-sw2/assignments/projects/tag-cloud-generator/data/"
+                + "tagcloud.css\" rel=\"stylesheet\" type=\"text/css\">"
+                + "<link href=\"tagcloud.css\" rel=\"stylesheet\" "
+                + "type=\"text/css\">" + NL + "<title> Top " + topAndTitle
+                + "</title>" + NL + "</head>" + NL + "<body>" + NL
+                + "<h1> Top " + topAndTitle + "</h1>" + NL + "<hr>" + NL
+                + "<div class=\"cdiv\">" + NL + "<p class =\"cbox\">" + NL;
+    }
+
+    /**
+     * Returns the span of one word of a tag cloud.
+     *
+     * @param tooltip
+     *            the tooltip text after "count: "
+     * @param fontSize
+     *            the font size of the word
+     * @param word
+     *            the word, as it appears in the page
+     * @return the span of the word
+     */
+    private static String span(String tooltip, int fontSize, String word) {
+        return "<span style =\"cursor:default\" class = \"f" + fontSize
+                + "\" title=\"count: " + tooltip + "\">" + word + "</span>"
+                + NL;
+    }
+
+    /*
+     * Boundary Case: Testing the page of a tag cloud of no words.
+     */
+    @Test
+    public final void testWriteNoWords() throws IOException {
+        StringWriter out = new StringWriter();
+        HtmlTagCloudWriter writer = new HtmlTagCloudWriter(out);
+
+        writer.writeHeader("empty.txt", 0, 0, 0, 0);
+        writer.writeFooter();
+
+        assertEquals(header("0 in empty.txt") + FOOTER, out.toString());
+    }
+
+    /*
+     * Routine Case: Testing the page of a tag cloud, sizing each word by its
+     * count between the minimum and maximum counts.
+     */
+    @Test
+    public final void testWriteWords() throws IOException {
+        StringWriter out = new StringWriter();
+        HtmlTagCloudWriter writer = new HtmlTagCloudWriter(out);
+
+        writer.writeHeader("data.txt", 3, 1, 9, 0);
+        writer.writeWord("apple", 9);
+        writer.writeWord("fig", 1);
+        writer.writeWord("kiwi", 5);
+        writer.writeFooter();
+
+        assertEquals(header("3 in data.txt") + span("9", 48, "apple")
+                + span("1", 12, "fig") + span("5", 30, "kiwi") + FOOTER,
+                out.toString());
+    }
+
+    /*
+     * Challenging Case: Testing that the title and the words are escaped, so
+     * that characters special in HTML appear as they are.
+     */
+    @Test
+    public final void testWriteEscaped() throws IOException {
+        StringWriter out = new StringWriter();
+        HtmlTagCloudWriter writer = new HtmlTagCloudWriter(out);
+
+        writer.writeHeader("<a & b>", 1, 2, 2, 0);
+        writer.writeWord("\"it's\"", 2);
+        writer.writeFooter();
+
+        assertEquals(header("1 in &lt;a &amp; b&gt;")
+                + span("2", 12, "&quot;it&#39;s&quot;") + FOOTER,
+                out.toString());
+    }
+
+    /*
+     * Routine Case: Testing that approximate counts give their error bound
+     * in the tooltip.
+     */
+    @Test
+    public final void testWriteErrorBound() throws IOException {
+        StringWriter out = new StringWriter();
+        HtmlTagCloudWriter writer = new HtmlTagCloudWriter(out);
+
+        writer.writeHeader("big.txt", 1, 1000, 1000, 17);
+        writer.writeWord("the", 1000);
+        writer.writeFooter();
+
+        assertEquals(header("1 in big.txt")
+                + span("1000, error at most 17", 12, "the") + FOOTER,
+                out.toString());
+    }
+
+    /*
+     * Challenging Case: Testing a page longer than the writer's buffer,
+     * which is written whole and in order.
+     */
+    @Test
+    public final void testWriteManyWords() throws IOException {
+        StringWriter out = new StringWriter();
+        HtmlTagCloudWriter writer = new HtmlTagCloudWriter(out);
+        StringBuilder expected = new StringBuilder(
+                header(MANY_WORDS + " in many.txt"));
+
+        writer.writeHeader("many.txt", MANY_WORDS, 1, 1, 0);
+        for (int i = 0; i < MANY_WORDS; i++) {
+            writer.writeWord("w" + i, 1);
+            expected.append(span("1", 12, "w" + i));
+        }
+        writer.writeFooter();
+        expected.append(FOOTER);
+
+        assertEquals(expected.toString(), out.toString());
+    }
+
+}
@@ -0,0 +1,84 @@
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code JsonLinesTagCloudWriter}.
+ *
+ * @author Bryce Putman and Cody Yang
+ *
+ */
+public final class JsonLinesTagCloudWriterTest {
+
+    /**
+     * Writes a table of the given words and counts, with the given error
+     * bound, and returns it.
+     *
+     * @param errorBound
+     *            the error bound of the counts
+     * @param wordsAndCounts
+     *            the words, each followed by its count
+     * @return the table written
+     * @throws IOException
+     *             if the table cannot be written
+     * @requires wordsAndCounts alternates words and counts
+     */
+    private static String write(int errorBound, Object... wordsAndCounts)
+            throws IOException {
+        StringWriter out = new StringWriter();
+        JsonLinesTagCloudWriter writer = new JsonLinesTagCloudWriter(out);
+        writer.writeHeader("data.txt", wordsAndCounts.length / 2, 1, 1,
+                errorBound);
+        for (int i = 0; i < wordsAndCounts.length; i += 2) {
+            writer.writeWord((String) wordsAndCounts[i],
+                    (Integer) wordsAndCounts[i + 1]);
+        }
+        writer.writeFooter();
+        return out.toString();
+    }
+
+    /*
+     * Boundary Case: Testing the table of no words, which is empty.
+     */
+    @Test
+    public final void testWriteNoWords() throws IOException {
+        assertEquals("", write(0));
+    }
+
+    /*
+     * Routine Case: Testing a table of plain words, one object per line.
+     */
+    @Test
+    public final void testWriteWords() throws IOException {
+        assertEquals("{\"word\":\"apple\",\"count\":3}\n"
+                + "{\"word\":\"fig\",\"count\":12}\n",
+                write(0, "apple", 3, "fig", 12));
+    }
+
+    /*
+     * Challenging Case: Testing that quotes, backslashes and control
+     * characters are escaped, and other characters are not.
+     */
+    @Test
+    public final void testWriteEscaped() throws IOException {
+        assertEquals("{\"word\":\"say \\\"hi\\\"\",\"count\":1}\n"
+                + "{\"word\":\"a\\\\b\",\"count\":2}\n"
+                + "{\"word\":\"tab\\u0009nl\\u000a\\u001f\",\"count\":3}\n"
+                + "{\"word\":\"caf\u00e9/,\",\"count\":4}\n",
+                write(0, "say \"hi\"", 1, "a\\b", 2, "tab\tnl\n\u001f", 3,
+                        "caf\u00e9/,", 4));
+    }
+
+    /*
+     * Routine Case: Testing that approximate counts add an error field.
+     */
+    @Test
+    public final void testWriteErrorBound() throws IOException {
+        assertEquals("{\"word\":\"the\",\"count\":100,\"error\":7}\n",
+                write(7, "the", 100));
+    }
+
+}
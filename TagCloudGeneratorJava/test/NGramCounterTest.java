@@ -0,0 +1,263 @@
+import static org.junit.Assert.assertEquals;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code NGramCounter}.
+ *
+ * @author Bryce Putman and Cody Yang
+ *
+ */
+public final class NGramCounterTest {
+
+    /**
+     * Separator characters of the test cases.
+     */
+    private static final SeparatorClass SEPARATORS = new SeparatorClass(
+            " ,.!?\n");
+
+    /**
+     * Number of words of the long texts, enough to span several chunks of a
+     * stream and to grow the counters several times.
+     */
+    private static final int MANY_WORDS = 20000;
+
+    /**
+     * Number of distinct words of the long texts.
+     */
+    private static final int DISTINCT_WORDS = 97;
+
+    /**
+     * Step through the distinct words of the long texts, coprime to their
+     * number so that the phrases vary.
+     */
+    private static final int STEP = 31;
+
+    /**
+     * Returns the words of {@code wordToCount} mapped to their counts.
+     *
+     * @param wordToCount
+     *            the counter
+     * @return map of the words of {@code wordToCount} to their counts
+     */
+    private static Map<String, Integer> countsOf(WordCounter wordToCount) {
+        Map<String, Integer> counts = new TreeMap<>();
+        wordToCount.forEach(counts::put);
+        return counts;
+    }
+
+    /**
+     * Returns the map of the given phrases to the given counts.
+     *
+     * @param phrasesAndCounts
+     *            the phrases, each followed by its count
+     * @return the constructed map
+     * @requires phrasesAndCounts alternates phrases and counts
+     */
+    private static Map<String, Integer> createMap(
+            Object... phrasesAndCounts) {
+        Map<String, Integer> counts = new TreeMap<>();
+        for (int i = 0; i < phrasesAndCounts.length; i += 2) {
+            counts.put((String) phrasesAndCounts[i],
+                    (Integer) phrasesAndCounts[i + 1]);
+        }
+        return counts;
+    }
+
+    /**
+     * Counts the words of {@code text}, separated by single spaces, one at a
+     * time into {@code wordToCount}.
+     *
+     * @param text
+     *            the words
+     * @param wordToCount
+     *            the counter
+     * @updates wordToCount
+     */
+    private static void countWords(String text, WordCounter wordToCount) {
+        int start = 0;
+        while (start < text.length()) {
+            int end = text.indexOf(' ', start);
+            if (end < 0) {
+                end = text.length();
+            }
+            wordToCount.increment(text, start, end);
+            start = end + 1;
+        }
+    }
+
+    /**
+     * Returns the counts of the phrases of {@code n} consecutive words of
+     * {@code words}, counted with a map.
+     *
+     * @param words
+     *            the words
+     * @param n
+     *            the number of words of each phrase
+     * @return map of the phrases to their counts
+     */
+    private static Map<String, Integer> phraseCounts(String[] words, int n) {
+        Map<String, Integer> counts = new TreeMap<>();
+        for (int i = n - 1; i < words.length; i++) {
+            StringBuilder phrase = new StringBuilder(words[i - n + 1]);
+            for (int j = i - n + 2; j <= i; j++) {
+                phrase.append(' ').append(words[j]);
+            }
+            counts.merge(phrase.toString(), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    /**
+     * Returns {@code MANY_WORDS} words of {@code DISTINCT_WORDS} distinct
+     * words of different lengths.
+     *
+     * @return the words
+     */
+    private static String[] manyWords() {
+        String[] words = new String[MANY_WORDS];
+        for (int i = 0; i < MANY_WORDS; i++) {
+            int word = i * STEP % DISTINCT_WORDS;
+            words[i] = "w".repeat(1 + word % 5) + word;
+        }
+        return words;
+    }
+
+    /*
+     * Boundary Case: Testing that fewer words than the length of a phrase
+     * count no phrase.
+     */
+    @Test
+    public final void testIncrementTooFewWords() {
+        NGramCounter wordToCount = new NGramCounter(3);
+
+        countWords("one two", wordToCount);
+
+        assertEquals(0, wordToCount.size());
+        assertEquals(createMap(), countsOf(wordToCount));
+    }
+
+    /*
+     * Boundary Case: Testing that phrases of one word are the words.
+     */
+    @Test
+    public final void testIncrementUnigrams() {
+        NGramCounter wordToCount = new NGramCounter(1);
+
+        countWords("a b a c", wordToCount);
+
+        assertEquals(createMap("a", 2, "b", 1, "c", 1),
+                countsOf(wordToCount));
+    }
+
+    /*
+     * Routine Case: Testing counting the bigrams of a text, overlapping.
+     */
+    @Test
+    public final void testIncrementBigrams() {
+        NGramCounter wordToCount = new NGramCounter(2);
+
+        countWords("to be or not to be", wordToCount);
+
+        assertEquals(createMap("be or", 1, "not to", 1, "or not", 1, "to be",
+                2), countsOf(wordToCount));
+    }
+
+    /*
+     * Routine Case: Testing counting the trigrams of a text, given as
+     * characters, character sequences and UTF-8 bytes.
+     */
+    @Test
+    public final void testIncrementTrigrams() {
+        NGramCounter wordToCount = new NGramCounter(3);
+        String text = "a b c a b c caf\u00e9";
+        ByteBuffer utf8 = ByteBuffer
+                .wrap(text.getBytes(StandardCharsets.UTF_8));
+
+        wordToCount.increment(text.toCharArray(), 0, 1);
+        wordToCount.increment(text, 2, 3);
+        wordToCount.increment(utf8, 4, 5);
+        wordToCount.increment(text.toCharArray(), 6, 7);
+        wordToCount.increment(utf8, 8, 9);
+        wordToCount.increment(utf8, 10, 11);
+        wordToCount.increment(utf8, 12, 17);
+
+        assertEquals(createMap("a b c", 2, "b c a", 1, "c a b", 1,
+                "b c caf\u00e9", 1), countsOf(wordToCount));
+    }
+
+    /*
+     * Challenging Case: Testing counting the phrases of many words, growing
+     * the counter without losing any count.
+     */
+    @Test
+    public final void testIncrementManyWords() {
+        String[] words = manyWords();
+        NGramCounter wordToCount = new NGramCounter(2);
+
+        countWords(String.join(" ", words), wordToCount);
+
+        assertEquals(true, wordToCount.resizes() > 0);
+        assertEquals(phraseCounts(words, 2), countsOf(wordToCount));
+    }
+
+    /*
+     * Challenging Case: Testing counting the phrases of a stream spanning
+     * several chunks and of a file, which must include the phrases spanning
+     * chunk boundaries.
+     */
+    @Test
+    public final void testCreateWordToCountMapAcrossChunks()
+            throws IOException {
+        String[] words = manyWords();
+        String text = String.join(" ", words).replace("w0 ", "w0.\n");
+        Path inPath = Files.createTempFile("ngrams", ".txt");
+        try {
+            Files.writeString(inPath, text, StandardCharsets.UTF_8);
+
+            NGramCounter stream = WordCounting.createWordToCountMap(
+                    new BufferedReader(new StringReader(text)), SEPARATORS,
+                    WordNormalizer.NONE, () -> new NGramCounter(3),
+                    new TagCloudMetrics());
+            NGramCounter file = WordCounting.createWordToCountMap(inPath,
+                    SEPARATORS, WordNormalizer.NONE, 1,
+                    () -> new NGramCounter(3), new TagCloudMetrics());
+
+            assertEquals(phraseCounts(words, 3), countsOf(stream));
+            assertEquals(phraseCounts(words, 3), countsOf(file));
+        } finally {
+            Files.delete(inPath);
+        }
+    }
+
+    /*
+     * Routine Case: Testing adding the counts of another counter of the same
+     * length and of a table of phrases, forming no phrase across them.
+     */
+    @Test
+    public final void testAddAll() {
+        NGramCounter wordToCount = new NGramCounter(2);
+        countWords("x y z", wordToCount);
+        NGramCounter other = new NGramCounter(2);
+        countWords("a x y", other);
+        WordCountTable table = new WordCountTable();
+        table.add("y z", 3);
+
+        wordToCount.addAll(other);
+        wordToCount.addAll(table);
+
+        assertEquals(createMap("a x", 1, "x y", 2, "y z", 4),
+                countsOf(wordToCount));
+    }
+
+}
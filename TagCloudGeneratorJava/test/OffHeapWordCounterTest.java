@@ -0,0 +1,216 @@
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code OffHeapWordCounter}.
+ *
+ * @author Bryce Putman and Cody Yang
+ *
+ */
+public final class OffHeapWordCounterTest {
+
+    /**
+     * Number of distinct words counted in the many-word test cases, enough
+     * for a counter created without a size hint to grow several times.
+     */
+    private static final int MANY_WORDS = 5000;
+
+    /**
+     * Length of each word in the long-word test case, so that the words fill
+     * more than one arena.
+     */
+    private static final int LONG_WORD_LENGTH = 1000;
+
+    /**
+     * Length of a word longer than an arena.
+     */
+    private static final int HUGE_WORD_LENGTH = (1 << 22) + 1;
+
+    /**
+     * Returns the words of {@code wordToCount} mapped to their counts.
+     *
+     * @param wordToCount
+     *            the counter
+     * @return map of the words of {@code wordToCount} to their counts
+     */
+    private static Map<String, Integer> countsOf(WordCounter wordToCount) {
+        Map<String, Integer> counts = new TreeMap<>();
+        wordToCount.forEach(counts::put);
+        return counts;
+    }
+
+    /**
+     * Counts {@code word} once in each of {@code wordToCounts}.
+     *
+     * @param word
+     *            the word
+     * @param wordToCounts
+     *            the counters
+     * @updates wordToCounts
+     */
+    private static void incrementAll(String word,
+            WordCounter... wordToCounts) {
+        for (WordCounter wordToCount : wordToCounts) {
+            wordToCount.increment(word, 0, word.length());
+        }
+    }
+
+    /*
+     * Boundary Case: Testing the no-argument constructor.
+     */
+    @Test
+    public final void testConstructor() {
+        OffHeapWordCounter wordToCount = new OffHeapWordCounter();
+
+        assertEquals(0, wordToCount.size());
+        assertEquals(0, wordToCount.errorBound());
+        assertEquals(0, wordToCount.resizes());
+        assertEquals(new TreeMap<String, Integer>(), countsOf(wordToCount));
+    }
+
+    /*
+     * Routine Case: Testing that words are iterated in the order they were
+     * first counted.
+     */
+    @Test
+    public final void testForEachOrder() {
+        OffHeapWordCounter wordToCount = new OffHeapWordCounter();
+        char[] text = "pear fig pear kiwi fig pear".toCharArray();
+
+        for (int start = 0; start < text.length;) {
+            int end = start;
+            while (end < text.length && text[end] != ' ') {
+                end++;
+            }
+            wordToCount.increment(text, start, end);
+            start = end + 1;
+        }
+        List<String> words = new ArrayList<>();
+        List<Integer> counts = new ArrayList<>();
+        wordToCount.forEach((word, count) -> {
+            words.add(word);
+            counts.add(count);
+        });
+
+        assertEquals(List.of("pear", "fig", "kiwi"), words);
+        assertEquals(List.of(3, 2, 1), counts);
+    }
+
+    /*
+     * Challenging Case: Testing counting many words, growing the index and
+     * keeping the same counts as a {@code WordCountTable}.
+     */
+    @Test
+    public final void testIncrementManyWordsResize() {
+        OffHeapWordCounter wordToCount = new OffHeapWordCounter();
+        WordCountTable expected = new WordCountTable();
+
+        for (int i = 0; i < MANY_WORDS; i++) {
+            for (int j = 0; j <= i % 3; j++) {
+                incrementAll("w" + i, wordToCount, expected);
+            }
+        }
+
+        assertEquals(MANY_WORDS, wordToCount.size());
+        assertEquals(true, wordToCount.resizes() > 0);
+        assertEquals(countsOf(expected), countsOf(wordToCount));
+    }
+
+    /*
+     * Challenging Case: Testing counting words filling several arenas, and a
+     * word longer than an arena.
+     */
+    @Test
+    public final void testIncrementLongWords() {
+        OffHeapWordCounter wordToCount = new OffHeapWordCounter();
+        WordCountTable expected = new WordCountTable();
+        String padding = "x".repeat(LONG_WORD_LENGTH);
+
+        for (int i = 0; i < MANY_WORDS; i++) {
+            incrementAll(i + padding, wordToCount, expected);
+        }
+        incrementAll("0" + padding, wordToCount, expected);
+        incrementAll("y".repeat(HUGE_WORD_LENGTH), wordToCount, expected);
+        incrementAll("short", wordToCount, expected);
+
+        assertEquals(MANY_WORDS + 2, wordToCount.size());
+        assertEquals(countsOf(expected), countsOf(wordToCount));
+    }
+
+    /*
+     * Routine Case: Testing that a counter created for the number of words it
+     * is given never grows.
+     */
+    @Test
+    public final void testConstructorExpectedSizeNoResize() {
+        OffHeapWordCounter wordToCount = new OffHeapWordCounter(MANY_WORDS);
+
+        for (int i = 0; i < MANY_WORDS; i++) {
+            wordToCount.add("w" + i, 1);
+        }
+
+        assertEquals(MANY_WORDS, wordToCount.size());
+        assertEquals(0, wordToCount.resizes());
+    }
+
+    /*
+     * Challenging Case: Testing counting non-ASCII words given as characters
+     * and as UTF-8 bytes, with an unpaired surrogate counted as '?'.
+     */
+    @Test
+    public final void testIncrementNonAscii() {
+        OffHeapWordCounter wordToCount = new OffHeapWordCounter();
+        String text = "caf\u00e9 \u65e5\u672c \ud83d\ude00 a\ud800";
+        ByteBuffer utf8 = ByteBuffer
+                .wrap(text.getBytes(StandardCharsets.UTF_8));
+
+        wordToCount.increment(text, 0, 4);
+        wordToCount.increment(text.toCharArray(), 5, 7);
+        wordToCount.increment(text, 8, 10);
+        wordToCount.increment(text, 11, 13);
+        wordToCount.increment(utf8, 0, 5);
+        wordToCount.increment(utf8, 6, 12);
+        wordToCount.increment(utf8, 13, 17);
+
+        Map<String, Integer> expected = new TreeMap<>();
+        expected.put("caf\u00e9", 2);
+        expected.put("\u65e5\u672c", 2);
+        expected.put("\ud83d\ude00", 2);
+        expected.put("a?", 1);
+        assertEquals(expected, countsOf(wordToCount));
+    }
+
+    /*
+     * Routine Case: Testing adding the counts of another off-heap counter and
+     * of a {@code WordCountTable}.
+     */
+    @Test
+    public final void testAddAll() {
+        OffHeapWordCounter wordToCount = new OffHeapWordCounter();
+        wordToCount.add("red", 3);
+        OffHeapWordCounter other = new OffHeapWordCounter();
+        other.add("red", 2);
+        other.add("gr\u00fcn", 5);
+        WordCountTable table = new WordCountTable();
+        table.add("gr\u00fcn", 1);
+        table.add("blue", 4);
+
+        wordToCount.addAll(other);
+        wordToCount.addAll(table);
+
+        Map<String, Integer> expected = new TreeMap<>();
+        expected.put("red", 5);
+        expected.put("gr\u00fcn", 6);
+        expected.put("blue", 4);
+        assertEquals(expected, countsOf(wordToCount));
+    }
+
+}
@@ -0,0 +1,180 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code SlidingWindowCounter}.
+ *
+ * @author Bryce Putman and Cody Yang
+ *
+ */
+public final class SlidingWindowCounterTest {
+
+    /**
+     * Number of milliseconds of the window of the test cases.
+     */
+    private static final long WINDOW_MILLIS = 1000;
+
+    /**
+     * Number of buckets of the window of the test cases.
+     */
+    private static final int BUCKETS = 4;
+
+    /**
+     * Number of milliseconds of each bucket of the test cases.
+     */
+    private static final long BUCKET_MILLIS = WINDOW_MILLIS / BUCKETS;
+
+    /**
+     * Time the test cases start at, the start of a bucket.
+     */
+    private static final long START = 1_000_000;
+
+    /**
+     * Returns the words of {@code wordToCount} mapped to their counts.
+     *
+     * @param wordToCount
+     *            the counter
+     * @return map of the words of {@code wordToCount} to their counts
+     */
+    private static Map<String, Integer> countsOf(WordCounter wordToCount) {
+        Map<String, Integer> counts = new TreeMap<>();
+        wordToCount.forEach(counts::put);
+        return counts;
+    }
+
+    /**
+     * Returns the map of the given words, each with count 1.
+     *
+     * @param words
+     *            the words
+     * @return the constructed map
+     */
+    private static Map<String, Integer> createMap(String... words) {
+        Map<String, Integer> counts = new TreeMap<>();
+        for (String word : words) {
+            counts.put(word, 1);
+        }
+        return counts;
+    }
+
+    /**
+     * Counts {@code word} at time {@code now} in {@code window}.
+     *
+     * @param window
+     *            the sliding window counter
+     * @param word
+     *            the word
+     * @param now
+     *            the time the word is seen
+     * @updates window
+     */
+    private static void count(SlidingWindowCounter window, String word,
+            long now) {
+        window.bucket(now).increment(word, 0, word.length());
+    }
+
+    /**
+     * Creates the sliding window counter of the test cases, starting at
+     * {@code START}.
+     *
+     * @return the sliding window counter
+     */
+    private static SlidingWindowCounter create() {
+        return new SlidingWindowCounter(WINDOW_MILLIS, BUCKETS,
+                WordCountTable::new, START);
+    }
+
+    /*
+     * Boundary Case: Testing the window of nothing counted.
+     */
+    @Test
+    public final void testWindowEmpty() {
+        SlidingWindowCounter window = create();
+
+        assertEquals(0, window.window(START).size());
+    }
+
+    /*
+     * Routine Case: Testing that words seen within one bucket's time are
+     * counted in the same bucket, and those seen later in the next.
+     */
+    @Test
+    public final void testBucket() {
+        SlidingWindowCounter window = create();
+
+        WordCounter bucket1 = window.bucket(START);
+        WordCounter bucket2 = window.bucket(START + BUCKET_MILLIS - 1);
+        WordCounter bucket3 = window.bucket(START + BUCKET_MILLIS);
+
+        assertEquals(true, bucket1 == bucket2);
+        assertEquals(false, bucket1 == bucket3);
+    }
+
+    /*
+     * Challenging Case: Testing that the words of each bucket leave the
+     * window once the window has moved a whole window past the start of
+     * their bucket.
+     */
+    @Test
+    public final void testWindowExpiry() {
+        SlidingWindowCounter window = create();
+        count(window, "a", START);
+        count(window, "b", START + BUCKET_MILLIS);
+        count(window, "c", START + 3 * BUCKET_MILLIS);
+
+        Map<String, Integer> counts1 = countsOf(
+                window.window(START + WINDOW_MILLIS - 1));
+        Map<String, Integer> counts2 = countsOf(
+                window.window(START + WINDOW_MILLIS));
+        Map<String, Integer> counts3 = countsOf(
+                window.window(START + WINDOW_MILLIS + BUCKET_MILLIS));
+        count(window, "d", START + WINDOW_MILLIS + BUCKET_MILLIS);
+        Map<String, Integer> counts4 = countsOf(
+                window.window(START + WINDOW_MILLIS + 3 * BUCKET_MILLIS));
+
+        assertEquals(createMap("a", "b", "c"), counts1);
+        assertEquals(createMap("b", "c"), counts2);
+        assertEquals(createMap("c"), counts3);
+        assertEquals(createMap("d"), counts4);
+    }
+
+    /*
+     * Challenging Case: Testing that a gap longer than the window empties
+     * it, and that counting goes on after it.
+     */
+    @Test
+    public final void testWindowGap() {
+        SlidingWindowCounter window = create();
+        count(window, "a", START);
+        count(window, "b", START + 2 * BUCKET_MILLIS);
+        long later = START + 10 * WINDOW_MILLIS + BUCKET_MILLIS / 2;
+
+        Map<String, Integer> counts1 = countsOf(window.window(later));
+        count(window, "c", later);
+        Map<String, Integer> counts2 = countsOf(window.window(later));
+
+        assertEquals(createMap(), counts1);
+        assertEquals(createMap("c"), counts2);
+    }
+
+    /*
+     * Boundary Case: Testing that a time before the current bucket, as after
+     * the clock is set back, counts in the current bucket.
+     */
+    @Test
+    public final void testBucketClockBack() {
+        SlidingWindowCounter window = create();
+        count(window, "a", START + BUCKET_MILLIS);
+
+        count(window, "b", START - WINDOW_MILLIS);
+        Map<String, Integer> counts = countsOf(
+                window.bucket(START + BUCKET_MILLIS));
+
+        assertEquals(createMap("a", "b"), counts);
+    }
+
+}
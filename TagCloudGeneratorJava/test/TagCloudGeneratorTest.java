@@ -0,0 +1,147 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for the selection and sorting of
+ * {@code TagCloudGenerator}.
+ *
+ * @author Bryce Putman and Cody Yang
+ *
+ */
+public final class TagCloudGeneratorTest {
+
+    /**
+     * Creates and returns a {@code WordCountTable} with the given words and
+     * counts.
+     *
+     * @param wordsAndCounts
+     *            the words, each followed by its count
+     * @return the constructed table
+     * @requires wordsAndCounts alternates words and positive counts
+     */
+    private static WordCountTable createTable(Object... wordsAndCounts) {
+        WordCountTable wordToCount = new WordCountTable();
+        for (int i = 0; i < wordsAndCounts.length; i += 2) {
+            wordToCount.add((String) wordsAndCounts[i],
+                    (Integer) wordsAndCounts[i + 1]);
+        }
+        return wordToCount;
+    }
+
+    /**
+     * Creates and returns the list of the given words and counts, in order.
+     *
+     * @param wordsAndCounts
+     *            the words, each followed by its count
+     * @return the constructed list
+     * @requires wordsAndCounts alternates words and counts
+     */
+    private static List<Map.Entry<String, Integer>> createList(
+            Object... wordsAndCounts) {
+        List<Map.Entry<String, Integer>> list = new ArrayList<>();
+        for (int i = 0; i < wordsAndCounts.length; i += 2) {
+            list.add(new SimpleImmutableEntry<>((String) wordsAndCounts[i],
+                    (Integer) wordsAndCounts[i + 1]));
+        }
+        return list;
+    }
+
+    /*
+     * Boundary Case: Testing selecting no words.
+     */
+    @Test
+    public final void testMostFrequentWordsNone() {
+        WordCountTable wordToCount = createTable("a", 5, "b", 3);
+
+        List<Map.Entry<String, Integer>> mostFrequent = TagCloudGenerator
+                .mostFrequentWords(wordToCount, 0);
+
+        assertEquals(createList(), mostFrequent);
+    }
+
+    /*
+     * Routine Case: Testing selecting the most frequent words in descending
+     * order of count.
+     */
+    @Test
+    public final void testMostFrequentWordsRoutine() {
+        WordCountTable wordToCount = createTable("a", 5, "b", 3, "c", 9, "d",
+                1);
+
+        List<Map.Entry<String, Integer>> mostFrequent = TagCloudGenerator
+                .mostFrequentWords(wordToCount, 2);
+
+        assertEquals(createList("c", 9, "a", 5), mostFrequent);
+    }
+
+    /*
+     * Boundary Case: Testing selecting more words than there are.
+     */
+    @Test
+    public final void testMostFrequentWordsMoreThanSize() {
+        WordCountTable wordToCount = createTable("a", 5, "b", 3, "c", 9);
+
+        List<Map.Entry<String, Integer>> mostFrequent = TagCloudGenerator
+                .mostFrequentWords(wordToCount, 10);
+
+        assertEquals(createList("c", 9, "a", 5, "b", 3), mostFrequent);
+    }
+
+    /*
+     * Challenging Case: Testing that words tied at the least count selected
+     * are chosen by key, whatever the order they are counted in.
+     */
+    @Test
+    public final void testMostFrequentWordsTies() {
+        WordCountTable wordToCount1 = createTable("pear", 2, "fig", 2, "kiwi",
+                3, "apple", 2, "plum", 1);
+        WordCountTable wordToCount2 = createTable("plum", 1, "apple", 2,
+                "kiwi", 3, "fig", 2, "pear", 2);
+
+        List<Map.Entry<String, Integer>> mostFrequent1 = TagCloudGenerator
+                .mostFrequentWords(wordToCount1, 3);
+        List<Map.Entry<String, Integer>> mostFrequent2 = TagCloudGenerator
+                .mostFrequentWords(wordToCount2, 3);
+
+        List<Map.Entry<String, Integer>> expected = createList("kiwi", 3,
+                "apple", 2, "fig", 2);
+        assertEquals(expected, mostFrequent1);
+        assertEquals(expected, mostFrequent2);
+    }
+
+    /*
+     * Routine Case: Testing sorting words alphabetically, ignoring case, with
+     * words differing only in case ordered by key.
+     */
+    @Test
+    public final void testSortAlphabetically() {
+        List<Map.Entry<String, Integer>> wordsToCounts = createList("banana",
+                1, "apple", 2, "Cherry", 3, "Apple", 4);
+
+        TagCloudGenerator.sortAlphabetically(wordsToCounts);
+
+        assertEquals(createList("Apple", 4, "apple", 2, "banana", 1, "Cherry",
+                3), wordsToCounts);
+    }
+
+    /*
+     * Routine Case: Testing scaling counts to font sizes, including counts at
+     * and beyond the ends of the range.
+     */
+    @Test
+    public final void testCalculateFontSize() {
+        assertEquals(11, TagCloudGenerator.calculateFontSize(0, 1, 9, 11, 48));
+        assertEquals(11, TagCloudGenerator.calculateFontSize(1, 1, 9, 11, 48));
+        assertEquals(29, TagCloudGenerator.calculateFontSize(5, 1, 9, 11, 48));
+        assertEquals(48, TagCloudGenerator.calculateFontSize(9, 1, 9, 11, 48));
+        assertEquals(48,
+                TagCloudGenerator.calculateFontSize(10, 1, 9, 11, 48));
+    }
+
+}
@@ -0,0 +1,200 @@
+import static org.junit.Assert.assertEquals;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code TagCloudMetrics}.
+ *
+ * @author Bryce Putman and Cody Yang
+ *
+ */
+public final class TagCloudMetricsTest {
+
+    /**
+     * Separator characters of the test cases.
+     */
+    private static final SeparatorClass SEPARATORS = new SeparatorClass(
+            " ,.!?\n");
+
+    /**
+     * Number of threads recording at once in the concurrent test case.
+     */
+    private static final int THREADS = 4;
+
+    /**
+     * Number of figures each thread records in the concurrent test case.
+     */
+    private static final int RECORDS_PER_THREAD = 10000;
+
+    /**
+     * Number of distinct words counted in the counting test cases, enough for
+     * a word table to grow.
+     */
+    private static final int MANY_WORDS = 1000;
+
+    /**
+     * Returns the number which is the value of {@code name} in the JSON
+     * summary {@code json}.
+     *
+     * @param json
+     *            the JSON summary
+     * @param name
+     *            the name of the field
+     * @return the value of the field
+     * @requires the field is in json and its value is a number
+     */
+    private static long field(String json, String name) {
+        Matcher matcher = Pattern.compile("\"" + name + "\":(\\d+)")
+                .matcher(json);
+        assertEquals(true, matcher.find());
+        return Long.parseLong(matcher.group(1));
+    }
+
+    /**
+     * Returns {@code MANY_WORDS} distinct words separated by spaces.
+     *
+     * @return the text
+     */
+    private static String manyWords() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < MANY_WORDS; i++) {
+            text.append('w').append(i).append(' ');
+        }
+        return text.toString();
+    }
+
+    /*
+     * Boundary Case: Testing the summary of a run which recorded nothing.
+     */
+    @Test
+    public final void testToJsonNothing() {
+        String json = new TagCloudMetrics().toJson();
+
+        assertEquals(true, json.startsWith("{") && json.endsWith("}"));
+        assertEquals(0, field(json, "bytesRead"));
+        assertEquals(0, field(json, "charsRead"));
+        assertEquals(0, field(json, "tokens"));
+        assertEquals(0, field(json, "distinctWords"));
+        assertEquals(0, field(json, "resizes"));
+        for (TagCloudMetrics.Phase phase : TagCloudMetrics.Phase.values()) {
+            assertEquals(true, json.contains(
+                    "\"" + phase.name().toLowerCase(Locale.ROOT) + "\":"));
+        }
+        assertEquals(true, field(json, "peakHeapBytes") > 0);
+    }
+
+    /*
+     * Routine Case: Testing that recorded figures are summed, except the
+     * distinct words, of which the largest is kept.
+     */
+    @Test
+    public final void testToJsonRecorded() {
+        TagCloudMetrics metrics = new TagCloudMetrics();
+
+        metrics.addBytesRead(100);
+        metrics.addBytesRead(20);
+        metrics.addCharsRead(7);
+        metrics.addTokens(30);
+        metrics.addTokens(12);
+        metrics.addResizes(2);
+        metrics.distinctWords(15);
+        metrics.distinctWords(9);
+        String json = metrics.toJson();
+
+        assertEquals(120, field(json, "bytesRead"));
+        assertEquals(7, field(json, "charsRead"));
+        assertEquals(42, field(json, "tokens"));
+        assertEquals(2, field(json, "resizes"));
+        assertEquals(15, field(json, "distinctWords"));
+    }
+
+    /*
+     * Challenging Case: Testing that figures recorded by several threads at
+     * once are all kept.
+     */
+    @Test
+    public final void testAddTokensThreads() throws InterruptedException {
+        TagCloudMetrics metrics = new TagCloudMetrics();
+        Thread[] threads = new Thread[THREADS];
+
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < RECORDS_PER_THREAD; i++) {
+                    metrics.addTokens(1);
+                    metrics.distinctWords(thread * RECORDS_PER_THREAD + i);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        String json = metrics.toJson();
+
+        assertEquals(THREADS * RECORDS_PER_THREAD, field(json, "tokens"));
+        assertEquals(THREADS * RECORDS_PER_THREAD - 1,
+                field(json, "distinctWords"));
+    }
+
+    /*
+     * Routine Case: Testing the figures recorded by counting a stream and a
+     * file: the input read, every word split, and the growth of the word
+     * table.
+     */
+    @Test
+    public final void testCountingRecorded() throws IOException {
+        String text = manyWords();
+        TagCloudMetrics streamMetrics = new TagCloudMetrics();
+        TagCloudMetrics fileMetrics = new TagCloudMetrics();
+        Path inPath = Files.createTempFile("metrics", ".txt");
+        try {
+            Files.writeString(inPath, text, StandardCharsets.UTF_8);
+
+            WordCountTable stream = WordCounting.createWordToCountMap(
+                    new BufferedReader(new StringReader(text)), SEPARATORS,
+                    WordNormalizer.NONE, WordCountTable::new, streamMetrics);
+            WordCounting.createWordToCountMap(inPath, SEPARATORS,
+                    WordNormalizer.NONE, 1, WordCountTable::new, fileMetrics);
+            String streamJson = streamMetrics.toJson();
+            String fileJson = fileMetrics.toJson();
+
+            assertEquals(text.length(), field(streamJson, "charsRead"));
+            assertEquals(MANY_WORDS, field(streamJson, "tokens"));
+            assertEquals(stream.resizes(), field(streamJson, "resizes"));
+            assertEquals(true, stream.resizes() > 0);
+            assertEquals(Files.size(inPath), field(fileJson, "bytesRead"));
+            assertEquals(MANY_WORDS, field(fileJson, "tokens"));
+            assertEquals(stream.resizes(), field(fileJson, "resizes"));
+        } finally {
+            Files.delete(inPath);
+        }
+    }
+
+    /*
+     * Routine Case: Testing the progress line of a run.
+     */
+    @Test
+    public final void testProgressLine() {
+        TagCloudMetrics metrics = new TagCloudMetrics();
+
+        metrics.addTokens(1234);
+        metrics.addResizes(3);
+        String line = metrics.progressLine();
+
+        assertEquals(true, line.startsWith("["));
+        assertEquals(true, line.contains(" 1234 words ("));
+        assertEquals(true, line.contains(" 3 resizes,"));
+    }
+
+}
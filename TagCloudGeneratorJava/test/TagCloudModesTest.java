@@ -0,0 +1,289 @@
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for the run modes of {@code TagCloudModes}.
+ *
+ * @author Bryce Putman and Cody Yang
+ *
+ */
+public final class TagCloudModesTest {
+
+    /**
+     * Separator characters of the test cases.
+     */
+    private static final SeparatorClass SEPARATORS = new SeparatorClass(
+            " ,.!?\n");
+
+    /**
+     * Number of words to output to every tag cloud, more than any test case
+     * counts.
+     */
+    private static final int ALL_WORDS = 100;
+
+    /**
+     * Number of files counted at once in the many-file test cases.
+     */
+    private static final int THREADS = 2;
+
+    /**
+     * Number of files in the many-file test cases, more than the counters
+     * left unmerged at once for {@code THREADS} threads.
+     */
+    private static final int FILES = 7;
+
+    /**
+     * Returns the words and counts of the CSV table {@code csv}.
+     *
+     * @param csv
+     *            the table, with a header row
+     * @return map of the words of the table to their counts
+     */
+    private static Map<String, Integer> parseCsv(String csv) {
+        Map<String, Integer> counts = new TreeMap<>();
+        String[] rows = csv.split("\r\n");
+        for (int i = 1; i < rows.length; i++) {
+            int comma = rows[i].lastIndexOf(',');
+            counts.put(rows[i].substring(0, comma),
+                    Integer.parseInt(rows[i].substring(comma + 1)));
+        }
+        return counts;
+    }
+
+    /**
+     * Updates the tag cloud of the file at {@code inPath} with the bytes
+     * appended since the last update, and returns its words and counts.
+     *
+     * @param inPath
+     *            the path of the input file
+     * @return map of the words of the tag cloud to their counts
+     * @throws IOException
+     *             if the file or its state cannot be read or written
+     */
+    private static Map<String, Integer> update(Path inPath)
+            throws IOException {
+        StringWriter out = new StringWriter();
+        TagCloudModes.updateTagCloud(inPath, new CsvTagCloudWriter(out),
+                SEPARATORS, ALL_WORDS, 1, WordNormalizer.NONE,
+                new TagCloudMetrics());
+        return parseCsv(out.toString());
+    }
+
+    /**
+     * Creates the tag cloud of all the files in {@code inPaths} and returns
+     * its words and counts.
+     *
+     * @param inPaths
+     *            the paths of the input files
+     * @return map of the words of the tag cloud to their counts
+     * @throws IOException
+     *             if any file cannot be counted
+     */
+    private static Map<String, Integer> create(List<Path> inPaths)
+            throws IOException {
+        StringWriter out = new StringWriter();
+        TagCloudModes.createTagCloud(inPaths, "files",
+                new CsvTagCloudWriter(out), SEPARATORS, ALL_WORDS, THREADS,
+                null, TagCloudFormat.CSV, WordNormalizer.NONE,
+                WordCountTable::new, new TagCloudMetrics());
+        return parseCsv(out.toString());
+    }
+
+    /**
+     * Creates {@code FILES} temporary files, the i-th of which holds the
+     * words "shared", "file" + i, and i + 1 times "repeated".
+     *
+     * @return the paths of the created files
+     * @throws IOException
+     *             if a file cannot be written
+     */
+    private static List<Path> createFiles() throws IOException {
+        List<Path> inPaths = new ArrayList<>();
+        for (int i = 0; i < FILES; i++) {
+            Path inPath = Files.createTempFile("files", ".txt");
+            inPaths.add(inPath);
+            append(inPath, "shared file" + i + " repeated".repeat(i + 1));
+        }
+        return inPaths;
+    }
+
+    /**
+     * Returns the map of the given words to the given counts.
+     *
+     * @param wordsAndCounts
+     *            the words, each followed by its count
+     * @return the constructed map
+     * @requires wordsAndCounts alternates words and counts
+     */
+    private static Map<String, Integer> createMap(Object... wordsAndCounts) {
+        Map<String, Integer> counts = new TreeMap<>();
+        for (int i = 0; i < wordsAndCounts.length; i += 2) {
+            counts.put((String) wordsAndCounts[i],
+                    (Integer) wordsAndCounts[i + 1]);
+        }
+        return counts;
+    }
+
+    /**
+     * Appends {@code text} to the file at {@code inPath}.
+     *
+     * @param inPath
+     *            the path of the file
+     * @param text
+     *            the text to append
+     * @throws IOException
+     *             if the file cannot be written
+     */
+    private static void append(Path inPath, String text) throws IOException {
+        Files.writeString(inPath, text, StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Deletes the input file at {@code inPath} and its state file, if any.
+     *
+     * @param inPath
+     *            the path of the input file
+     * @throws IOException
+     *             if a file cannot be deleted
+     */
+    private static void deleteWithState(Path inPath) throws IOException {
+        Files.deleteIfExists(TagCloudState.stateFileOf(inPath));
+        Files.delete(inPath);
+    }
+
+    /*
+     * Routine Case: Testing updating the tag cloud of a file twice, counting
+     * only the bytes appended in between.
+     */
+    @Test
+    public final void testUpdateTagCloudAppend() throws IOException {
+        Path inPath = Files.createTempFile("incremental", ".txt");
+        try {
+            append(inPath, "red green red\n");
+            Map<String, Integer> counts1 = update(inPath);
+            append(inPath, "blue red\n");
+            Map<String, Integer> counts2 = update(inPath);
+
+            assertEquals(createMap("green", 1, "red", 2), counts1);
+            assertEquals(createMap("blue", 1, "green", 1, "red", 3), counts2);
+            assertEquals(Files.size(inPath), TagCloudState
+                    .load(TagCloudState.stateFileOf(inPath), TagCloudState
+                            .settingsOf(SEPARATORS, WordNormalizer.NONE))
+                    .offset());
+        } finally {
+            deleteWithState(inPath);
+        }
+    }
+
+    /*
+     * Challenging Case: Testing updating the tag cloud of a file whose last
+     * word is completed by the bytes appended later, which must be counted
+     * once, whole.
+     */
+    @Test
+    public final void testUpdateTagCloudAppendMidWord() throws IOException {
+        Path inPath = Files.createTempFile("incremental", ".txt");
+        try {
+            append(inPath, "alpha be");
+            Map<String, Integer> counts1 = update(inPath);
+            append(inPath, "ta gamma");
+            Map<String, Integer> counts2 = update(inPath);
+            append(inPath, " alpha");
+            Map<String, Integer> counts3 = update(inPath);
+
+            assertEquals(createMap("alpha", 1, "be", 1), counts1);
+            assertEquals(createMap("alpha", 1, "beta", 1, "gamma", 1),
+                    counts2);
+            assertEquals(createMap("alpha", 2, "beta", 1, "gamma", 1),
+                    counts3);
+        } finally {
+            deleteWithState(inPath);
+        }
+    }
+
+    /*
+     * Challenging Case: Testing updating the tag cloud of a file that was
+     * replaced by a shorter one, which is counted from the beginning.
+     */
+    @Test
+    public final void testUpdateTagCloudReplaced() throws IOException {
+        Path inPath = Files.createTempFile("incremental", ".txt");
+        try {
+            append(inPath, "one two three four\n");
+            update(inPath);
+            Files.writeString(inPath, "five\n", StandardCharsets.UTF_8);
+
+            Map<String, Integer> counts = update(inPath);
+
+            assertEquals(createMap("five", 1), counts);
+        } finally {
+            deleteWithState(inPath);
+        }
+    }
+
+    /*
+     * Routine Case: Testing the tag cloud of more files than are counted at
+     * once, which sums the counts of every file.
+     */
+    @Test
+    public final void testCreateTagCloudFiles() throws IOException {
+        List<Path> inPaths = createFiles();
+        try {
+            Map<String, Integer> counts = create(inPaths);
+
+            Map<String, Integer> expected = createMap("shared", FILES,
+                    "repeated", FILES * (FILES + 1) / 2);
+            for (int i = 0; i < FILES; i++) {
+                expected.put("file" + i, 1);
+            }
+            assertEquals(expected, counts);
+        } finally {
+            for (Path inPath : inPaths) {
+                Files.delete(inPath);
+            }
+        }
+    }
+
+    /*
+     * Error Case: Testing the tag cloud of files some of which are missing,
+     * which reports every missing file rather than the tag cloud of the
+     * others.
+     */
+    @Test
+    public final void testCreateTagCloudMissingFiles() throws IOException {
+        List<Path> inPaths = createFiles();
+        Path missing1 = inPaths.get(1);
+        Path missing2 = inPaths.get(FILES - 1);
+        Files.delete(missing1);
+        Files.delete(missing2);
+        String message = null;
+        try {
+            create(inPaths);
+        } catch (IOException e) {
+            message = e.getMessage();
+        } finally {
+            for (Path inPath : inPaths) {
+                Files.deleteIfExists(inPath);
+            }
+        }
+
+        assertEquals(true, message != null);
+        assertEquals(true, message.startsWith("Cannot count 2 of " + FILES));
+        assertEquals(true, message.contains(missing1.toString()));
+        assertEquals(true, message.contains(missing2.toString()));
+    }
+
+}
@@ -0,0 +1,197 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code TagCloudOptions}.
+ *
+ * @author Bryce Putman and Cody Yang
+ *
+ */
+public final class TagCloudOptionsTest {
+
+    /**
+     * Creates the options of the given command line arguments.
+     *
+     * @param args
+     *            the command line arguments
+     * @return the options
+     */
+    private static TagCloudOptions create(String... args) {
+        return new TagCloudOptions(args);
+    }
+
+    /*
+     * Boundary Case: Testing the options of no arguments, which prompt for
+     * the input.
+     */
+    @Test
+    public final void testConstructorInteractive() {
+        TagCloudOptions options = create();
+
+        assertEquals(true, options.isInteractive());
+        assertEquals(1, options.threads());
+        assertEquals(100, options.numWords());
+        assertEquals(TagCloudFormat.HTML, options.format());
+        assertEquals(null, options.outFileName());
+    }
+
+    /*
+     * Routine Case: Testing options with values and several inputs, in any
+     * order.
+     */
+    @Test
+    public final void testConstructorRoutine() {
+        TagCloudOptions options = create("a.txt", "--threads", "4", "--top",
+                "20", "docs", "--output", "out.html", "--fold-case",
+                "*.log");
+
+        assertEquals(false, options.isInteractive());
+        assertEquals(4, options.threads());
+        assertEquals(4, options.rangeThreads());
+        assertEquals(20, options.numWords());
+        assertEquals("out.html", options.outFileName());
+        assertEquals(true, options.foldCase());
+        assertEquals(false, options.incremental());
+        assertEquals(Arrays.asList("a.txt", "docs", "*.log"),
+                options.inputs());
+    }
+
+    /*
+     * Routine Case: Testing that a table format outputs every word unless
+     * told otherwise.
+     */
+    @Test
+    public final void testNumWordsTableFormat() {
+        TagCloudOptions options = create("--format", "csv", "--output",
+                "out.csv", "a.txt");
+
+        assertEquals(TagCloudFormat.CSV, options.format());
+        assertEquals(Integer.MAX_VALUE, options.numWords());
+    }
+
+    /*
+     * Routine Case: Testing that the ranges of a file are counted on one
+     * thread when counting n-grams.
+     */
+    @Test
+    public final void testRangeThreadsNgram() {
+        TagCloudOptions options = create("--ngram", "2", "--threads", "4",
+                "--output", "out.html", "a.txt");
+
+        assertEquals(2, options.ngramLength());
+        assertEquals(4, options.threads());
+        assertEquals(1, options.rangeThreads());
+    }
+
+    /*
+     * Error Case: Testing inputs without an output file.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testConstructorMissingOutput() {
+        create("a.txt");
+    }
+
+    /*
+     * Error Case: Testing an option missing its value.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testConstructorMissingValue() {
+        create("--output", "out.html", "a.txt", "--top");
+    }
+
+    /*
+     * Error Case: Testing an unknown option.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testConstructorUnknownOption() {
+        create("--colour", "red", "--output", "out.html", "a.txt");
+    }
+
+    /*
+     * Error Case: Testing a number of threads that is not positive.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testConstructorThreadsNotPositive() {
+        create("--threads", "0", "--output", "out.html", "a.txt");
+    }
+
+    /*
+     * Error Case: Testing merging snapshots incrementally.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testConstructorMergeIncremental() {
+        create("--merge", "--incremental", "--output", "out.html", "a.tcs");
+    }
+
+    /*
+     * Error Case: Testing merging snapshots into another snapshot.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testConstructorMergeSnapshot() {
+        create("--merge", "--snapshot", "all.tcs", "--output", "out.html",
+                "a.tcs");
+    }
+
+    /*
+     * Error Case: Testing writing a snapshot of incremental counts.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testConstructorSnapshotIncremental() {
+        create("--snapshot", "a.tcs", "--incremental", "a.txt");
+    }
+
+    /*
+     * Error Case: Testing following more than one stream.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testConstructorStreamInputs() {
+        create("--stream", "--output", "out.html", "a.log", "b.log");
+    }
+
+    /*
+     * Error Case: Testing more buckets than milliseconds in the window.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testConstructorBucketsExceedWindow() {
+        create("--stream", "--window", "1", "--buckets", "1001", "--output",
+                "out.html", "a.log");
+    }
+
+    /*
+     * Error Case: Testing counting approximately and incrementally.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testConstructorApproximateIncremental() {
+        create("--approximate", "--incremental", "--output", "out.html",
+                "a.txt");
+    }
+
+    /*
+     * Error Case: Testing counting approximately off the heap.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testConstructorOffHeapApproximate() {
+        create("--off-heap", "--approximate", "--output", "out.html",
+                "a.txt");
+    }
+
+    /*
+     * Error Case: Testing counting n-grams of a stream.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testConstructorNgramStream() {
+        create("--ngram", "2", "--stream", "--output", "out.html", "a.log");
+    }
+
+    /*
+     * Error Case: Testing n-grams longer than can be counted.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testConstructorNgramTooLong() {
+        create("--ngram", "4", "--output", "out.html", "a.txt");
+    }
+
+}
@@ -0,0 +1,130 @@
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code TagCloudState}.
+ *
+ * @author Bryce Putman and Cody Yang
+ *
+ */
+public final class TagCloudStateTest {
+
+    /**
+     * Separator characters of the test cases.
+     */
+    private static final SeparatorClass SEPARATORS = new SeparatorClass(
+            " ,.!?\n");
+
+    /**
+     * Normalization folding the case of counted words.
+     */
+    private static final WordNormalizer FOLD_CASE = new WordNormalizer(true,
+            false, Collections.emptyList());
+
+    /*
+     * Boundary Case: Testing loading the state of a file never counted.
+     */
+    @Test
+    public final void testLoadMissing() throws IOException {
+        Path directory = Files.createTempDirectory("state");
+        Path stateFile = directory.resolve("missing.txt.tcstate");
+        try {
+            TagCloudState state = TagCloudState.load(stateFile,
+                    TagCloudState.settingsOf(SEPARATORS, WordNormalizer.NONE));
+
+            assertEquals(0, state.offset());
+            assertEquals(0, state.wordToCount().size());
+        } finally {
+            Files.delete(directory);
+        }
+    }
+
+    /*
+     * Routine Case: Testing saving a state and loading it with the same
+     * settings.
+     */
+    @Test
+    public final void testSaveLoad() throws IOException {
+        long settings = TagCloudState.settingsOf(SEPARATORS,
+                WordNormalizer.NONE);
+        Path stateFile = Files.createTempFile("state", ".tcstate");
+        try {
+            WordCountTable counts = new WordCountTable();
+            counts.add("alpha", 3);
+            counts.add("\u00e9t\u00e9", 2);
+            TagCloudState state = new TagCloudState(settings);
+            state.update(counts, 42);
+
+            state.save(stateFile);
+            TagCloudState loaded = TagCloudState.load(stateFile, settings);
+
+            assertEquals(42, loaded.offset());
+            assertEquals(2, loaded.wordToCount().size());
+            assertEquals(3, loaded.wordToCount().count("alpha"));
+            assertEquals(2, loaded.wordToCount().count("\u00e9t\u00e9"));
+        } finally {
+            Files.delete(stateFile);
+        }
+    }
+
+    /*
+     * Challenging Case: Testing that a state saved with other settings is
+     * discarded when loaded.
+     */
+    @Test
+    public final void testLoadOtherSettings() throws IOException {
+        Path stateFile = Files.createTempFile("state", ".tcstate");
+        try {
+            WordCountTable counts = new WordCountTable();
+            counts.add("Alpha", 1);
+            TagCloudState state = new TagCloudState(
+                    TagCloudState.settingsOf(SEPARATORS, WordNormalizer.NONE));
+            state.update(counts, 6);
+            state.save(stateFile);
+
+            TagCloudState loaded = TagCloudState.load(stateFile,
+                    TagCloudState.settingsOf(SEPARATORS, FOLD_CASE));
+
+            assertEquals(0, loaded.offset());
+            assertEquals(0, loaded.wordToCount().size());
+        } finally {
+            Files.delete(stateFile);
+        }
+    }
+
+    /*
+     * Routine Case: Testing that the settings fingerprint changes with the
+     * separators and the normalization, and only with them.
+     */
+    @Test
+    public final void testSettingsOf() {
+        long settings = TagCloudState.settingsOf(SEPARATORS,
+                WordNormalizer.NONE);
+
+        assertEquals(settings, TagCloudState.settingsOf(
+                new SeparatorClass(" ,.!?\n"), WordNormalizer.NONE));
+        assertEquals(false, settings == TagCloudState
+                .settingsOf(new SeparatorClass(" "), WordNormalizer.NONE));
+        assertEquals(false,
+                settings == TagCloudState.settingsOf(SEPARATORS, FOLD_CASE));
+    }
+
+    /*
+     * Routine Case: Testing the name of the state file of an input file.
+     */
+    @Test
+    public final void testStateFileOf() {
+        Path inPath = Paths.get("logs", "app.log");
+
+        assertEquals(Paths.get("logs", "app.log.tcstate"),
+                TagCloudState.stateFileOf(inPath));
+    }
+
+}
@@ -0,0 +1,125 @@
+import static org.junit.Assert.assertArrayEquals;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code VectorSeparatorScanner}. Run with
+ * {@code --add-modules jdk.incubator.vector}.
+ *
+ * @author Bryce Putman and Cody Yang
+ *
+ */
+public final class VectorSeparatorScannerTest {
+
+    /**
+     * Separator characters of the test cases, in several runs.
+     */
+    private static final SeparatorClass SEPARATORS = new SeparatorClass(
+            " ,-./0123456789!?\n\t");
+
+    /**
+     * Characters the texts of the test cases are made of, separators and
+     * not, ASCII and not, including characters which compare as negative
+     * shorts.
+     */
+    private static final String ALPHABET = "a ,Z-.9/0!?\n\t:@~\u00e9\u2014"
+            + "\u8000\uffff/:";
+
+    /**
+     * Lengths of the texts of the test cases, around vector and word sizes.
+     */
+    private static final int[] LENGTHS = { 0, 1, 7, 8, 15, 16, 31, 63, 64,
+            65, 127, 128, 200, 1000 };
+
+    /**
+     * Step through the alphabet, coprime to its length so that every
+     * character follows every other.
+     */
+    private static final int STEP = 7;
+
+    /**
+     * Number of bits in each word of a classification.
+     */
+    private static final int BITS_PER_WORD = 64;
+
+    /**
+     * Returns text of {@code length} characters of {@code ALPHABET}.
+     *
+     * @param length
+     *            the length of the text
+     * @return the text
+     */
+    private static char[] createText(int length) {
+        char[] text = new char[length];
+        for (int i = 0; i < length; i++) {
+            text[i] = ALPHABET.charAt(i * STEP % ALPHABET.length());
+        }
+        return text;
+    }
+
+    /**
+     * Returns the classification of the first {@code limit} characters of
+     * {@code text}, one character at a time.
+     *
+     * @param text
+     *            the text to classify
+     * @param limit
+     *            the number of characters to classify
+     * @return the classification of text[0, limit)
+     */
+    private static long[] classifyEach(char[] text, int limit) {
+        long[] bits = new long[(limit + BITS_PER_WORD - 1) / BITS_PER_WORD];
+        for (int i = 0; i < limit; i++) {
+            if (SEPARATORS.contains(text[i])) {
+                bits[i / BITS_PER_WORD] |= 1L << i;
+            }
+        }
+        return bits;
+    }
+
+    /*
+     * Challenging Case: Testing classifying texts of lengths around the
+     * vector size, into buffers holding stale bits, the same as one
+     * character at a time.
+     */
+    @Test
+    public final void testClassify() {
+        VectorSeparatorScanner scanner = new VectorSeparatorScanner(
+                SEPARATORS);
+
+        for (int length : LENGTHS) {
+            char[] text = createText(length);
+            int words = (length + BITS_PER_WORD - 1) / BITS_PER_WORD;
+            long[] bits = new long[words];
+            Arrays.fill(bits, -1);
+
+            scanner.classify(text, length, bits);
+
+            assertArrayEquals(classifyEach(text, length), bits);
+        }
+    }
+
+    /*
+     * Routine Case: Testing classifying a prefix of a text into the reused
+     * buffer of the scanner, first long then short.
+     */
+    @Test
+    public final void testClassifyReused() {
+        VectorSeparatorScanner scanner = new VectorSeparatorScanner(
+                SEPARATORS);
+        char[] text = createText(LENGTHS[LENGTHS.length - 1]);
+
+        for (int i = LENGTHS.length - 1; i >= 0; i--) {
+            int limit = LENGTHS[i];
+            long[] bits = scanner.classify(text, limit);
+            long[] expected = classifyEach(text, limit);
+            long[] prefix = new long[expected.length];
+            System.arraycopy(bits, 0, prefix, 0, prefix.length);
+
+            assertArrayEquals(expected, prefix);
+        }
+    }
+
+}
@@ -0,0 +1,252 @@
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code WordCountSnapshot}.
+ *
+ * @author Bryce Putman and Cody Yang
+ *
+ */
+public final class WordCountSnapshotTest {
+
+    /**
+     * A count needing more than one byte as a varint.
+     */
+    private static final int LARGE_COUNT = 300_000;
+
+    /**
+     * Relative error of a sketch so narrow that the words counted in it
+     * share its counters.
+     */
+    private static final double COARSE_EPSILON = 0.99;
+
+    /**
+     * Number of distinct words counted by a one-word approximate counter, so
+     * that its count has an error.
+     */
+    private static final int APPROXIMATE_WORDS = 30;
+
+    /**
+     * Creates and returns a {@code WordCountTable} with the given words and
+     * counts.
+     *
+     * @param wordsAndCounts
+     *            the words, each followed by its count
+     * @return the constructed table
+     * @requires wordsAndCounts alternates words and positive counts
+     */
+    private static WordCountTable createTable(Object... wordsAndCounts) {
+        WordCountTable wordToCount = new WordCountTable();
+        for (int i = 0; i < wordsAndCounts.length; i += 2) {
+            wordToCount.add((String) wordsAndCounts[i],
+                    (Integer) wordsAndCounts[i + 1]);
+        }
+        return wordToCount;
+    }
+
+    /**
+     * Creates and returns the list of the given words and counts, in order.
+     *
+     * @param wordsAndCounts
+     *            the words, each followed by its count
+     * @return the constructed list
+     * @requires wordsAndCounts alternates words and counts
+     */
+    private static List<Map.Entry<String, Integer>> createList(
+            Object... wordsAndCounts) {
+        List<Map.Entry<String, Integer>> list = new ArrayList<>();
+        for (int i = 0; i < wordsAndCounts.length; i += 2) {
+            list.add(new SimpleImmutableEntry<>((String) wordsAndCounts[i],
+                    (Integer) wordsAndCounts[i + 1]));
+        }
+        return list;
+    }
+
+    /**
+     * Writes each of {@code wordToCounts} to a snapshot file in
+     * {@code directory}.
+     *
+     * @param directory
+     *            the directory of the snapshot files
+     * @param wordToCounts
+     *            the counters to write
+     * @return the paths of the snapshot files, in the order of the counters
+     * @throws IOException
+     *             if a file cannot be written
+     */
+    private static List<Path> writeAll(Path directory,
+            WordCounter... wordToCounts) throws IOException {
+        List<Path> paths = new ArrayList<>();
+        for (int i = 0; i < wordToCounts.length; i++) {
+            Path path = directory.resolve("counts" + i + ".tcs");
+            WordCountSnapshot.write(wordToCounts[i], path);
+            paths.add(path);
+        }
+        return paths;
+    }
+
+    /**
+     * Merges the snapshots at {@code paths}.
+     *
+     * @param paths
+     *            the paths of the snapshot files
+     * @param merged
+     *            the merged words and counts, in the order merged
+     * @return the error bound of the merged counts
+     * @throws IOException
+     *             if a file cannot be read
+     * @replaces merged
+     */
+    private static int merge(List<Path> paths,
+            List<Map.Entry<String, Integer>> merged) throws IOException {
+        merged.clear();
+        return WordCountSnapshot.merge(paths, (word, count) -> merged
+                .add(new SimpleImmutableEntry<>(word, count)));
+    }
+
+    /**
+     * Deletes {@code directory} and the files in it.
+     *
+     * @param directory
+     *            the directory to delete
+     * @throws IOException
+     *             if a file cannot be deleted
+     */
+    private static void deleteAll(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    /*
+     * Boundary Case: Testing the snapshot of no words.
+     */
+    @Test
+    public final void testWriteEmpty() throws IOException {
+        Path directory = Files.createTempDirectory("snapshot");
+        try {
+            List<Path> paths = writeAll(directory, new WordCountTable());
+            List<Map.Entry<String, Integer>> merged = new ArrayList<>();
+
+            int errorBound = merge(paths, merged);
+
+            assertEquals(0, errorBound);
+            assertEquals(createList(), merged);
+        } finally {
+            deleteAll(directory);
+        }
+    }
+
+    /*
+     * Routine Case: Testing reading back a snapshot of words sharing
+     * prefixes, with non-ASCII characters and a large count, in ascending
+     * order of word.
+     */
+    @Test
+    public final void testWriteReader() throws IOException {
+        Path directory = Files.createTempDirectory("snapshot");
+        try {
+            List<Path> paths = writeAll(directory,
+                    createTable("tea", 2, "team", LARGE_COUNT, "te", 1,
+                            "t\u00e9", 4, "apple", 3));
+            List<Map.Entry<String, Integer>> read = new ArrayList<>();
+
+            try (WordCountSnapshot.Reader reader = new WordCountSnapshot.Reader(
+                    paths.get(0))) {
+                assertEquals(0, reader.errorBound());
+                while (reader.next()) {
+                    read.add(new SimpleImmutableEntry<>(reader.word(),
+                            reader.count()));
+                }
+            }
+
+            assertEquals(createList("apple", 3, "te", 1, "tea", 2, "team",
+                    LARGE_COUNT, "t\u00e9", 4), read);
+        } finally {
+            deleteAll(directory);
+        }
+    }
+
+    /*
+     * Challenging Case: Testing merging several snapshots sharing some words,
+     * which sums the counts of each word in one ascending pass.
+     */
+    @Test
+    public final void testMergeKWay() throws IOException {
+        Path directory = Files.createTempDirectory("snapshot");
+        try {
+            List<Path> paths = writeAll(directory,
+                    createTable("b", 1, "d", 2, "f", 3),
+                    createTable("a", 4, "d", 5),
+                    createTable("f", 6, "g", 7, "a", 8),
+                    new WordCountTable());
+            List<Map.Entry<String, Integer>> merged = new ArrayList<>();
+
+            int errorBound = merge(paths, merged);
+
+            assertEquals(0, errorBound);
+            assertEquals(createList("a", 12, "b", 1, "d", 7, "f", 9, "g", 7),
+                    merged);
+        } finally {
+            deleteAll(directory);
+        }
+    }
+
+    /*
+     * Routine Case: Testing that merging approximate snapshots sums their
+     * error bounds.
+     */
+    @Test
+    public final void testMergeErrorBound() throws IOException {
+        Path directory = Files.createTempDirectory("snapshot");
+        try {
+            HeavyHitterCounter wordToCount = new HeavyHitterCounter(1,
+                    COARSE_EPSILON, COARSE_EPSILON);
+            for (int i = 0; i < APPROXIMATE_WORDS; i++) {
+                wordToCount.add("w" + i, 1);
+            }
+            List<Path> paths = writeAll(directory, wordToCount, wordToCount,
+                    createTable("a", 1));
+            List<Map.Entry<String, Integer>> merged = new ArrayList<>();
+
+            int errorBound = merge(paths, merged);
+
+            assertEquals(true, wordToCount.errorBound() > 0);
+            assertEquals(2 * wordToCount.errorBound(), errorBound);
+        } finally {
+            deleteAll(directory);
+        }
+    }
+
+    /*
+     * Error Case: Testing reading a file which is not a snapshot.
+     */
+    @Test(expected = IOException.class)
+    public final void testReaderNotSnapshot() throws IOException {
+        Path path = Files.createTempFile("snapshot", ".txt");
+        try {
+            Files.write(path, Arrays.asList("word,count", "a,1"),
+                    StandardCharsets.UTF_8);
+
+            new WordCountSnapshot.Reader(path).close();
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+}
@@ -0,0 +1,172 @@
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code WordCountTable}.
+ *
+ * @author Bryce Putman and Cody Yang
+ *
+ */
+public final class WordCountTableTest {
+
+    /**
+     * Number of distinct words added in the many-word test cases, enough for
+     * a table created without a size hint to grow several times.
+     */
+    private static final int MANY_WORDS = 1000;
+
+    /**
+     * Returns the words of {@code wordToCount} mapped to their counts.
+     *
+     * @param wordToCount
+     *            the counter
+     * @return map of the words of {@code wordToCount} to their counts
+     */
+    private static Map<String, Integer> countsOf(WordCounter wordToCount) {
+        Map<String, Integer> counts = new TreeMap<>();
+        wordToCount.forEach(counts::put);
+        return counts;
+    }
+
+    /*
+     * Boundary Case: Testing the no-argument constructor.
+     */
+    @Test
+    public final void testConstructor() {
+        WordCountTable wordToCount = new WordCountTable();
+
+        assertEquals(0, wordToCount.size());
+        assertEquals(0, wordToCount.count("word"));
+        assertEquals(0, wordToCount.errorBound());
+        assertEquals(0, wordToCount.resizes());
+    }
+
+    /*
+     * Routine Case: Testing counting words given as ranges of characters and
+     * of character sequences, which count the same word.
+     */
+    @Test
+    public final void testIncrement() {
+        WordCountTable wordToCount = new WordCountTable();
+        char[] text = "the cat the".toCharArray();
+
+        wordToCount.increment(text, 0, 3);
+        wordToCount.increment(text, 4, 7);
+        wordToCount.increment(text, 8, 11);
+        wordToCount.increment(new StringBuilder("a cat"), 2, 5);
+
+        assertEquals(2, wordToCount.size());
+        assertEquals(2, wordToCount.count("the"));
+        assertEquals(2, wordToCount.count("cat"));
+        assertEquals(2, wordToCount.count(text, 4, 7));
+        assertEquals(0, wordToCount.count("th"));
+    }
+
+    /*
+     * Routine Case: Testing counting words given as UTF-8 bytes, ASCII and
+     * not, which count the same words as characters.
+     */
+    @Test
+    public final void testIncrementBytes() {
+        WordCountTable wordToCount = new WordCountTable();
+        String text = "cat caf\u00e9 cat \u65e5\u672c";
+        ByteBuffer utf8 = ByteBuffer
+                .wrap(text.getBytes(StandardCharsets.UTF_8));
+
+        wordToCount.increment(utf8, 0, 3);
+        wordToCount.increment(utf8, 4, 9);
+        wordToCount.increment(utf8, 10, 13);
+        wordToCount.increment(utf8, 14, 20);
+        wordToCount.increment(text, 4, 8);
+        wordToCount.increment(text, 13, 15);
+
+        assertEquals(3, wordToCount.size());
+        assertEquals(2, wordToCount.count("cat"));
+        assertEquals(2, wordToCount.count("caf\u00e9"));
+        assertEquals(2, wordToCount.count("\u65e5\u672c"));
+    }
+
+    /*
+     * Routine Case: Testing adding counts to new and existing words.
+     */
+    @Test
+    public final void testAdd() {
+        WordCountTable wordToCount = new WordCountTable();
+
+        wordToCount.add("red", 3);
+        wordToCount.add("blue", 1);
+        wordToCount.add("red", 4);
+
+        assertEquals(2, wordToCount.size());
+        assertEquals(7, wordToCount.count("red"));
+        assertEquals(1, wordToCount.count("blue"));
+    }
+
+    /*
+     * Routine Case: Testing adding the counts of another table and of another
+     * kind of counter.
+     */
+    @Test
+    public final void testAddAll() {
+        WordCountTable wordToCount = new WordCountTable();
+        wordToCount.add("red", 3);
+        WordCountTable table = new WordCountTable();
+        table.add("red", 2);
+        table.add("green", 5);
+        WordCounter offHeap = new OffHeapWordCounter();
+        offHeap.increment("green blue", 6, 10);
+
+        wordToCount.addAll(table);
+        wordToCount.addAll(offHeap);
+
+        assertEquals(3, wordToCount.size());
+        assertEquals(5, wordToCount.count("red"));
+        assertEquals(5, wordToCount.count("green"));
+        assertEquals(1, wordToCount.count("blue"));
+    }
+
+    /*
+     * Challenging Case: Testing counting many words, growing the table
+     * without losing any count.
+     */
+    @Test
+    public final void testIncrementManyWordsResize() {
+        WordCountTable wordToCount = new WordCountTable();
+        Map<String, Integer> expected = new TreeMap<>();
+
+        for (int i = 0; i < MANY_WORDS; i++) {
+            String word = "w" + i;
+            for (int j = 0; j <= i % 3; j++) {
+                wordToCount.increment(word, 0, word.length());
+            }
+            expected.put(word, 1 + i % 3);
+        }
+
+        assertEquals(MANY_WORDS, wordToCount.size());
+        assertEquals(true, wordToCount.resizes() > 0);
+        assertEquals(expected, countsOf(wordToCount));
+    }
+
+    /*
+     * Routine Case: Testing that a table created for the number of words it
+     * is given never grows.
+     */
+    @Test
+    public final void testConstructorExpectedSizeNoResize() {
+        WordCountTable wordToCount = new WordCountTable(MANY_WORDS);
+
+        for (int i = 0; i < MANY_WORDS; i++) {
+            wordToCount.add("w" + i, 1);
+        }
+
+        assertEquals(MANY_WORDS, wordToCount.size());
+        assertEquals(0, wordToCount.resizes());
+    }
+
+}
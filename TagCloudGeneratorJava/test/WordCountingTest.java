@@ -0,0 +1,375 @@
+import static org.junit.Assert.assertEquals;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for the counting of {@code WordCounting}.
+ *
+ * @author Bryce Putman and Cody Yang
+ *
+ */
+public final class WordCountingTest {
+
+    /**
+     * Separator characters of the test cases.
+     */
+    private static final SeparatorClass SEPARATORS = new SeparatorClass(
+            " ,.!?\n");
+
+    /**
+     * Number of characters {@code WordCounting} reads from a stream at a
+     * time.
+     */
+    private static final int CHUNK_SIZE = 8192;
+
+    /**
+     * Number of words in the chunk of the scanner test case, enough to fill
+     * many 64-character words of its classification.
+     */
+    private static final int SCANNED_WORDS = 1000;
+
+    /**
+     * Number of distinct words in the chunk of the scanner test case.
+     */
+    private static final int DISTINCT_WORDS = 13;
+
+    /**
+     * Number of bytes of the files of the parallel test cases, enough for
+     * several ranges of at least {@code WordCounting}'s smallest range size.
+     */
+    private static final int PARALLEL_FILE_SIZE = 5 << 19;
+
+    /**
+     * Number of threads of the parallel test cases.
+     */
+    private static final int THREADS = 4;
+
+    /**
+     * Number of distinct words of the files of the parallel test cases.
+     */
+    private static final int FILE_WORDS = 5000;
+
+    /**
+     * Step through the words of the files of the parallel test cases,
+     * coprime to their number so that the words are scrambled.
+     */
+    private static final int SCRAMBLE_STEP = 7919;
+
+    /**
+     * Words which are not ASCII, with their separators, counted between the
+     * ASCII text of the byte path test case.
+     */
+    private static final String NON_ASCII_WORDS = " caf\u00e9 na\u00efve "
+            + "\u65e5\u672c \ud83d\ude00.\n";
+
+    /**
+     * A word of malformed UTF-8, with its separators.
+     */
+    private static final byte[] MALFORMED_WORD = { ' ', 'x', (byte) 0xFF,
+            'y', (byte) 0xC3, ' ' };
+
+    /**
+     * Counts the words of {@code text} read as a stream.
+     *
+     * @param text
+     *            the text to count
+     * @return counter of the words of {@code text}
+     */
+    private static WordCountTable countReader(String text) {
+        return WordCounting.createWordToCountMap(
+                new BufferedReader(new StringReader(text)), SEPARATORS,
+                WordNormalizer.NONE, WordCountTable::new,
+                new TagCloudMetrics());
+    }
+
+    /**
+     * Counts the words of the file at {@code inPath} on {@code threads}
+     * threads.
+     *
+     * @param inPath
+     *            the path of the file
+     * @param threads
+     *            the number of threads to count with
+     * @return counter of the words of the file
+     * @throws IOException
+     *             if the file cannot be read
+     */
+    private static WordCountTable countFile(Path inPath, int threads)
+            throws IOException {
+        return WordCounting.createWordToCountMap(inPath, SEPARATORS,
+                WordNormalizer.NONE, threads, WordCountTable::new,
+                new TagCloudMetrics());
+    }
+
+    /**
+     * Returns the words of {@code wordToCount} mapped to their counts.
+     *
+     * @param wordToCount
+     *            the counter
+     * @return map of the words of {@code wordToCount} to their counts
+     */
+    private static Map<String, Integer> countsOf(WordCounter wordToCount) {
+        Map<String, Integer> counts = new TreeMap<>();
+        wordToCount.forEach(counts::put);
+        return counts;
+    }
+
+    /**
+     * Returns text of at least {@code size} characters of scrambled words of
+     * different lengths, separated by runs of different separators.
+     *
+     * @param size
+     *            the least number of characters
+     * @return the text
+     */
+    private static String scrambledText(int size) {
+        StringBuilder text = new StringBuilder();
+        int i = 0;
+        while (text.length() < size) {
+            int word = (int) ((long) i * SCRAMBLE_STEP % FILE_WORDS);
+            text.append("w".repeat(1 + word % 7)).append(word);
+            text.append(word % 5 == 0 ? ".\n" : " ");
+            i++;
+        }
+        return text.toString();
+    }
+
+    /**
+     * Returns {@code count} separators, so that the text after them starts at
+     * index {@code count}.
+     *
+     * @param count
+     *            the number of separators
+     * @return a string of {@code count} separators
+     */
+    private static String padding(int count) {
+        return " ".repeat(count);
+    }
+
+    /*
+     * Boundary Case: Testing counting an empty stream.
+     */
+    @Test
+    public final void testCreateWordToCountMapEmpty() {
+        WordCountTable wordToCount = countReader("");
+
+        assertEquals(0, wordToCount.size());
+    }
+
+    /*
+     * Routine Case: Testing counting a stream of repeated words, ending with
+     * a word.
+     */
+    @Test
+    public final void testCreateWordToCountMapRoutine() {
+        WordCountTable wordToCount = countReader("the cat, the hat! the end");
+
+        assertEquals(4, wordToCount.size());
+        assertEquals(3, wordToCount.count("the"));
+        assertEquals(1, wordToCount.count("cat"));
+        assertEquals(1, wordToCount.count("hat"));
+        assertEquals(1, wordToCount.count("end"));
+    }
+
+    /*
+     * Challenging Case: Testing counting a word split across the boundary
+     * between two chunks of the stream.
+     */
+    @Test
+    public final void testCreateWordToCountMapWordAcrossChunks() {
+        String text = padding(CHUNK_SIZE - 3) + "boundary split";
+
+        WordCountTable wordToCount = countReader(text);
+
+        assertEquals(2, wordToCount.size());
+        assertEquals(1, wordToCount.count("boundary"));
+        assertEquals(1, wordToCount.count("split"));
+        assertEquals(0, wordToCount.count("bou"));
+        assertEquals(0, wordToCount.count("ndary"));
+    }
+
+    /*
+     * Challenging Case: Testing counting a word spanning more than two chunks
+     * of the stream, and a word ending exactly at a chunk boundary.
+     */
+    @Test
+    public final void testCreateWordToCountMapLongWordAcrossChunks() {
+        String longWord = "x".repeat(2 * CHUNK_SIZE + 1);
+        String text = padding(CHUNK_SIZE - "edge".length()) + "edge "
+                + longWord + " edge";
+
+        WordCountTable wordToCount = countReader(text);
+
+        assertEquals(2, wordToCount.size());
+        assertEquals(2, wordToCount.count("edge"));
+        assertEquals(1, wordToCount.count(longWord));
+    }
+
+    /*
+     * Routine Case: Testing counting chunks one at a time, carrying a partial
+     * word from one chunk to the next.
+     */
+    @Test
+    public final void testCountChunkPartialWord() {
+        WordCountTable wordToCount = new WordCountTable();
+        StringBuilder partialWord = new StringBuilder();
+
+        int words1 = WordCounting.countChunk("ab cd".toCharArray(), 5,
+                SEPARATORS, null, WordNormalizer.NONE, partialWord,
+                wordToCount);
+        String partialWord1 = partialWord.toString();
+        int words2 = WordCounting.countChunk("ef gh".toCharArray(), 5,
+                SEPARATORS, null, WordNormalizer.NONE, partialWord,
+                wordToCount);
+        int words3 = WordCounting.countPartialWord(partialWord,
+                WordNormalizer.NONE, wordToCount);
+
+        assertEquals(1, words1);
+        assertEquals("cd", partialWord1);
+        assertEquals(1, words2);
+        assertEquals(1, words3);
+        assertEquals(0, partialWord.length());
+        assertEquals(3, wordToCount.size());
+        assertEquals(1, wordToCount.count("ab"));
+        assertEquals(1, wordToCount.count("cdef"));
+        assertEquals(1, wordToCount.count("gh"));
+    }
+
+    /*
+     * Routine Case: Testing counting a chunk with the separator scanner, if
+     * there is one, the same as character by character.
+     */
+    @Test
+    public final void testCountChunkScanner() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < SCANNED_WORDS; i++) {
+            text.append("w").append(i % DISTINCT_WORDS)
+                    .append(i % 2 == 0 ? ", " : " ");
+        }
+        char[] chunk1 = text.toString().toCharArray();
+        char[] chunk2 = text.toString().toCharArray();
+        WordCountTable expected = new WordCountTable();
+        WordCountTable wordToCount = new WordCountTable();
+
+        int expectedWords = WordCounting.countChunk(chunk1, chunk1.length,
+                SEPARATORS, null, WordNormalizer.NONE, new StringBuilder(),
+                expected);
+        int words = WordCounting.countChunk(chunk2, chunk2.length, SEPARATORS,
+                WordCounting.separatorScanner(SEPARATORS), WordNormalizer.NONE,
+                new StringBuilder(), wordToCount);
+
+        assertEquals(SCANNED_WORDS, expectedWords);
+        assertEquals(expectedWords, words);
+        assertEquals(expected.size(), wordToCount.size());
+        for (int i = 0; i < DISTINCT_WORDS; i++) {
+            assertEquals(expected.count("w" + i), wordToCount.count("w" + i));
+        }
+    }
+
+    /*
+     * Boundary Case: Testing counting an empty file on several threads.
+     */
+    @Test
+    public final void testCreateWordToCountMapFileEmpty() throws IOException {
+        Path inPath = Files.createTempFile("empty", ".txt");
+        try {
+            WordCountTable wordToCount = countFile(inPath, THREADS);
+
+            assertEquals(0, wordToCount.size());
+        } finally {
+            Files.delete(inPath);
+        }
+    }
+
+    /*
+     * Challenging Case: Testing counting a file split into ranges counted on
+     * several threads, which must split no word, the same as on one thread
+     * and as a stream.
+     */
+    @Test
+    public final void testCreateWordToCountMapParallelRanges()
+            throws IOException {
+        String text = scrambledText(PARALLEL_FILE_SIZE);
+        Path inPath = Files.createTempFile("parallel", ".txt");
+        try {
+            Files.writeString(inPath, text, StandardCharsets.UTF_8);
+
+            Map<String, Integer> expected = countsOf(countReader(text));
+            Map<String, Integer> sequential = countsOf(countFile(inPath, 1));
+            Map<String, Integer> parallel = countsOf(
+                    countFile(inPath, THREADS));
+
+            assertEquals(FILE_WORDS, expected.size());
+            assertEquals(expected, sequential);
+            assertEquals(expected, parallel);
+        } finally {
+            Files.delete(inPath);
+        }
+    }
+
+    /*
+     * Challenging Case: Testing counting a file on several threads that is
+     * one word, too long to split into ranges.
+     */
+    @Test
+    public final void testCreateWordToCountMapParallelOneWord()
+            throws IOException {
+        String word = "x".repeat(PARALLEL_FILE_SIZE);
+        Path inPath = Files.createTempFile("oneword", ".txt");
+        try {
+            Files.writeString(inPath, word, StandardCharsets.UTF_8);
+
+            WordCountTable wordToCount = countFile(inPath, THREADS);
+
+            assertEquals(1, wordToCount.size());
+            assertEquals(1, wordToCount.count(word));
+        } finally {
+            Files.delete(inPath);
+        }
+    }
+
+    /*
+     * Challenging Case: Testing that a file split into words byte by byte,
+     * with non-ASCII and malformed words among the ASCII ones, is counted
+     * the same as the decoded text.
+     */
+    @Test
+    public final void testCreateWordToCountMapFileBytes() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.writeBytes(scrambledText(PARALLEL_FILE_SIZE / 2)
+                .getBytes(StandardCharsets.UTF_8));
+        bytes.writeBytes(NON_ASCII_WORDS.getBytes(StandardCharsets.UTF_8));
+        bytes.writeBytes(MALFORMED_WORD);
+        bytes.writeBytes(scrambledText(PARALLEL_FILE_SIZE / 2)
+                .getBytes(StandardCharsets.UTF_8));
+        bytes.writeBytes(NON_ASCII_WORDS.getBytes(StandardCharsets.UTF_8));
+        Path inPath = Files.createTempFile("bytes", ".txt");
+        try {
+            Files.write(inPath, bytes.toByteArray());
+
+            Map<String, Integer> expected = countsOf(countReader(
+                    new String(bytes.toByteArray(), StandardCharsets.UTF_8)));
+            Map<String, Integer> sequential = countsOf(countFile(inPath, 1));
+            Map<String, Integer> parallel = countsOf(
+                    countFile(inPath, THREADS));
+
+            assertEquals(2, (int) expected.get("caf\u00e9"));
+            assertEquals(1, (int) expected.get("x\ufffdy\ufffd"));
+            assertEquals(expected, sequential);
+            assertEquals(expected, parallel);
+        } finally {
+            Files.delete(inPath);
+        }
+    }
+
+}
@@ -0,0 +1,189 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code WordNormalizer}.
+ *
+ * @author Bryce Putman and Cody Yang
+ *
+ */
+public final class WordNormalizerTest {
+
+    /**
+     * Returns the words of {@code wordToCount} mapped to their counts.
+     *
+     * @param wordToCount
+     *            the counter
+     * @return map of the words of {@code wordToCount} to their counts
+     */
+    private static Map<String, Integer> countsOf(WordCounter wordToCount) {
+        Map<String, Integer> counts = new TreeMap<>();
+        wordToCount.forEach(counts::put);
+        return counts;
+    }
+
+    /**
+     * Counts each of {@code words} through {@code normalizer}.
+     *
+     * @param normalizer
+     *            the normalizer
+     * @param words
+     *            the words to count
+     * @return map of the counted words to their counts
+     */
+    private static Map<String, Integer> count(WordNormalizer normalizer,
+            String... words) {
+        WordCountTable wordToCount = new WordCountTable();
+        for (String word : words) {
+            char[] chars = ("<" + word + ">").toCharArray();
+            normalizer.increment(chars, 1, chars.length - 1, wordToCount);
+        }
+        return countsOf(wordToCount);
+    }
+
+    /*
+     * Routine Case: Testing folding the case of words, returning a word
+     * already folded as it is.
+     */
+    @Test
+    public final void testFold() {
+        String folded = "apple";
+
+        assertEquals("apple", WordNormalizer.fold("ApPLE"));
+        assertEquals("\u00e9t\u00e9", WordNormalizer.fold("\u00c9T\u00c9"));
+        assertEquals(true, folded == WordNormalizer.fold(folded));
+    }
+
+    /*
+     * Routine Case: Testing that folded words are ordered as the original
+     * words are ordered ignoring case.
+     */
+    @Test
+    public final void testFoldOrder() {
+        String[] words = { "Zebra", "apple", "_under", "Mango", "[x" };
+
+        for (String a : words) {
+            for (String b : words) {
+                assertEquals(Integer.signum(a.compareToIgnoreCase(b)),
+                        Integer.signum(WordNormalizer.fold(a)
+                                .compareTo(WordNormalizer.fold(b))));
+            }
+        }
+    }
+
+    /*
+     * Routine Case: Testing normalizing words in NFC, folding their case
+     * after composing.
+     */
+    @Test
+    public final void testNormalize() {
+        WordNormalizer nfc = new WordNormalizer(false, true,
+                Collections.emptyList());
+        WordNormalizer both = new WordNormalizer(true, true,
+                Collections.emptyList());
+
+        assertEquals("caf\u00e9", nfc.normalize("cafe\u0301"));
+        assertEquals("CAF\u00c9", nfc.normalize("CAFE\u0301"));
+        assertEquals("caf\u00e9", both.normalize("CAFE\u0301"));
+        assertEquals("Word", WordNormalizer.NONE.normalize("Word"));
+    }
+
+    /*
+     * Routine Case: Testing counting words folded in place, so that words
+     * differing in case count as one.
+     */
+    @Test
+    public final void testIncrementFoldCase() {
+        WordNormalizer normalizer = new WordNormalizer(true, false,
+                Collections.emptyList());
+
+        Map<String, Integer> counts = count(normalizer, "The", "the", "THE",
+                "End");
+
+        Map<String, Integer> expected = new TreeMap<>();
+        expected.put("the", 3);
+        expected.put("end", 1);
+        assertEquals(expected, counts);
+    }
+
+    /*
+     * Challenging Case: Testing counting decomposed and precomposed forms of
+     * a word as one, with its case folded.
+     */
+    @Test
+    public final void testIncrementNfc() {
+        WordNormalizer normalizer = new WordNormalizer(true, true,
+                Collections.emptyList());
+
+        Map<String, Integer> counts = count(normalizer, "Cafe\u0301",
+                "CAF\u00c9", "caf\u00e9", "plain");
+
+        Map<String, Integer> expected = new TreeMap<>();
+        expected.put("caf\u00e9", 3);
+        expected.put("plain", 1);
+        assertEquals(expected, counts);
+    }
+
+    /*
+     * Routine Case: Testing that stop words are not counted in any case once
+     * folded.
+     */
+    @Test
+    public final void testIncrementStopWords() {
+        WordNormalizer normalizer = new WordNormalizer(true, false,
+                Arrays.asList("The", "a", ""));
+
+        Map<String, Integer> counts = count(normalizer, "the", "A", "cat",
+                "THE", "sat");
+
+        Map<String, Integer> expected = new TreeMap<>();
+        expected.put("cat", 1);
+        expected.put("sat", 1);
+        assertEquals(expected, counts);
+    }
+
+    /*
+     * Boundary Case: Testing which normalizers leave every word as it is.
+     */
+    @Test
+    public final void testIsIdentity() {
+        assertEquals(true, WordNormalizer.NONE.isIdentity());
+        assertEquals(true, new WordNormalizer(false, false,
+                Collections.emptyList()).isIdentity());
+        assertEquals(false, new WordNormalizer(true, false,
+                Collections.emptyList()).isIdentity());
+        assertEquals(false, new WordNormalizer(false, true,
+                Collections.emptyList()).isIdentity());
+        assertEquals(false, new WordNormalizer(false, false,
+                Arrays.asList("a")).isIdentity());
+    }
+
+    /*
+     * Challenging Case: Testing that the fingerprint depends on the options
+     * and the set of stop words, but not on the order the stop words are
+     * given in.
+     */
+    @Test
+    public final void testFingerprint() {
+        long fingerprint = new WordNormalizer(true, false,
+                Arrays.asList("a", "the", "of")).fingerprint();
+
+        assertEquals(fingerprint, new WordNormalizer(true, false,
+                Arrays.asList("of", "The", "a", "the")).fingerprint());
+        assertEquals(false, fingerprint == new WordNormalizer(false, false,
+                Arrays.asList("a", "the", "of")).fingerprint());
+        assertEquals(false, fingerprint == new WordNormalizer(true, true,
+                Arrays.asList("a", "the", "of")).fingerprint());
+        assertEquals(false, fingerprint == new WordNormalizer(true, false,
+                Arrays.asList("a", "the")).fingerprint());
+        assertEquals(false,
+                fingerprint == WordNormalizer.NONE.fingerprint());
+    }
+
+}
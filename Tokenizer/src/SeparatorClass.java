@@ -0,0 +1,183 @@
+import java.util.Arrays;
+
+/**
+ * Set of separator characters, represented as one bit per {@code char} value
+ * so that classifying a character neither boxes it nor hashes it. Separators
+ * outside the Basic Multilingual Plane, which cannot be a single
+ * {@code char}, are kept in a sorted array of code points instead. If every
+ * separator is ASCII, UTF-8 text can be split into words byte by byte, with
+ * the table from {@code byteTable}.
+ *
+ * @author Bryce Putman and Cody Yang
+ *
+ */
+public final class SeparatorClass {
+
+    /**
+     * Number of bits in each word of the table.
+     */
+    private static final int BITS_PER_WORD = 64;
+
+    /**
+     * Number of ASCII characters.
+     */
+    private static final int ASCII_LIMIT = 0x80;
+
+    /**
+     * Number of values of a byte.
+     */
+    private static final int BYTE_VALUES = 0x100;
+
+    /**
+     * Odd multiplier combining the words of a fingerprint.
+     */
+    private static final long FINGERPRINT_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Bit table with bit {@code c} set iff {@code char} {@code c} is a
+     * separator.
+     */
+    private final long[] table;
+
+    /**
+     * Sorted supplementary code points which are separators.
+     */
+    private final int[] supplementary;
+
+    /**
+     * Whether every separator is an ASCII character.
+     */
+    private final boolean ascii;
+
+    /**
+     * Bounds of the maximal runs of consecutive ASCII separators, lowest and
+     * highest of each run in turn.
+     */
+    private final short[] asciiRanges;
+
+    /**
+     * Constructor from separator string.
+     *
+     * @param separators
+     *            the string whose characters (code points) are the separators
+     */
+    public SeparatorClass(String separators) {
+        assert separators != null : "Violation of: separators is not null";
+
+        this.table = new long[(Character.MAX_VALUE + 1) / BITS_PER_WORD];
+        this.supplementary = separators.codePoints()
+                .filter(Character::isSupplementaryCodePoint).sorted()
+                .distinct().toArray();
+
+        this.ascii = separators.chars().allMatch(c -> c < ASCII_LIMIT);
+
+        // set the bit of every separator which fits in a single char
+        for (int i = 0; i < separators.length(); i++) {
+            char c = separators.charAt(i);
+            if (!Character.isSurrogate(c)) {
+                this.table[c / BITS_PER_WORD] |= 1L << c;
+            }
+        }
+
+        // collect the runs of ASCII separators
+        short[] ranges = new short[ASCII_LIMIT];
+        int length = 0;
+        for (char c = 0; c < ASCII_LIMIT; c++) {
+            if (this.contains(c)) {
+                if (length > 0 && ranges[length - 1] == c - 1) {
+                    ranges[length - 1] = (short) c;
+                } else {
+                    ranges[length] = (short) c;
+                    ranges[length + 1] = (short) c;
+                    length += 2;
+                }
+            }
+        }
+        this.asciiRanges = Arrays.copyOf(ranges, length);
+    }
+
+    /**
+     * Reports whether {@code c} is a separator.
+     *
+     * @param c
+     *            the character to classify
+     * @return true iff {@code c} is a separator
+     */
+    public boolean contains(char c) {
+        return (this.table[c / BITS_PER_WORD] & (1L << c)) != 0;
+    }
+
+    /**
+     * Reports whether the code point {@code codePoint} is a separator.
+     *
+     * @param codePoint
+     *            the code point to classify
+     * @return true iff {@code codePoint} is a separator
+     */
+    public boolean contains(int codePoint) {
+        boolean contains;
+        if (codePoint <= Character.MAX_VALUE) {
+            contains = codePoint >= 0 && this.contains((char) codePoint);
+        } else {
+            contains = Arrays.binarySearch(this.supplementary, codePoint) >= 0;
+        }
+        return contains;
+    }
+
+    /**
+     * Reports whether every separator is an ASCII character, so that in UTF-8
+     * text, where every byte of a multi-byte character is outside ASCII, the
+     * separators are exactly the bytes classified by {@code byteTable}.
+     *
+     * @return true iff every separator is ASCII
+     */
+    public boolean isAscii() {
+        return this.ascii;
+    }
+
+    /**
+     * Returns the bounds of the maximal runs of consecutive ASCII separators:
+     * {@code c} is an ASCII separator iff {@code lo <= c <= hi} for some pair
+     * {@code lo, hi} at an even index of the result. If {@code isAscii}, this
+     * classifies every character with a few comparisons, which suits SIMD.
+     *
+     * @return the lowest and highest separator of each run, in turn
+     */
+    public short[] asciiRanges() {
+        return this.asciiRanges.clone();
+    }
+
+    /**
+     * Returns a fingerprint of this set of separators, the same in every run
+     * for the same set, so that results saved by one run can be checked to
+     * have been made with the separators of another.
+     *
+     * @return the fingerprint of the separators
+     */
+    public long fingerprint() {
+        long fingerprint = 0;
+        for (long word : this.table) {
+            fingerprint = fingerprint * FINGERPRINT_MULTIPLIER + word;
+        }
+        for (int codePoint : this.supplementary) {
+            fingerprint = fingerprint * FINGERPRINT_MULTIPLIER + codePoint;
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Returns a table classifying every byte of UTF-8 text: entry
+     * {@code b & 0xFF} is true iff byte {@code b} is an ASCII separator. Bytes
+     * of multi-byte characters are never separators.
+     *
+     * @return the table of separator bytes, of length 256
+     */
+    public boolean[] byteTable() {
+        boolean[] separatorBytes = new boolean[BYTE_VALUES];
+        for (char c = 0; c < ASCII_LIMIT; c++) {
+            separatorBytes[c] = this.contains(c);
+        }
+        return separatorBytes;
+    }
+
+}
@@ -1,23 +1,20 @@
 
-private static String nextWordOrSeparator(String text, int position) {
+    /**
+     * Class of the characters in {@code SEPARATORS}, so that classifying a
+     * character neither boxes it nor searches a {@code Set}.
+     */
+    private static final SeparatorClass SEPARATOR_CLASS = new SeparatorClass(
+            SEPARATORS);
+
+    private static String nextWordOrSeparator(String text, int position) {
         assert text != null : "Violation of: text is not null";
         assert 0 <= position : "Violation of: 0 <= position";
         assert position < text.length() : "Violation of: position < |text|";
 
-        // TODO - fill in body
-        Set<Character> strSet = new Set1L<Character>();
-
-        for (int i = 0; i < SEPARATORS.length(); i++) {
-            char c = SEPARATORS.charAt(i);
-            if (!strSet.contains(c)) {
-                strSet.add(c);
-            }
-        }
-
         int endIndex = position;
-        boolean ifSep = strSet.contains(text.charAt(position));
+        boolean ifSep = SEPARATOR_CLASS.contains(text.charAt(position));
         while (endIndex < text.length()
-                && strSet.contains(text.charAt(endIndex)) == ifSep) {
+                && SEPARATOR_CLASS.contains(text.charAt(endIndex)) == ifSep) {
             endIndex++;
         }
 
@@ -57,22 +54,13 @@ private static String nextWordOrSeparator(String text, int position) {
         assert in != null : "Violation of: in is not null";
         assert in.isOpen() : "Violation of: in.is_open";
 
-        // TODO - fill in body
-
-        Set<Character> strSet = new Set1L<Character>();
-        for (int i = 0; i < SEPARATORS.length(); i++) {
-            char c = SEPARATORS.charAt(i);
-            if (!strSet.contains(c)) {
-                strSet.add(c);
-            }
-        }
         Queue<String> queueOfTokens = new Queue1L<String>();
         while (!in.atEOS()) {
             int position = 0;
             String line = in.nextLine();
             while (position < line.length()) {
                 String token = nextWordOrSeparator(line, position);
-                if (!strSet.contains(line.charAt(position))) {
+                if (!SEPARATOR_CLASS.contains(line.charAt(position))) {
                     queueOfTokens.enqueue(token);
                 }
                 position += token.length();